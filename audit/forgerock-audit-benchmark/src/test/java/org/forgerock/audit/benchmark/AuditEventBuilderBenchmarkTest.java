@@ -0,0 +1,98 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static java.util.Collections.singletonList;
+import static org.forgerock.audit.events.AccessAuditEventBuilder.ResponseStatus.SUCCESSFUL;
+import static org.forgerock.audit.events.AccessAuditEventBuilder.accessEvent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.audit.events.AccessAuditEventBuilder;
+import org.forgerock.audit.events.AuditEvent;
+import org.forgerock.json.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for building access events with {@link AccessAuditEventBuilder}, comparing a fresh builder per event
+ * against a per-thread builder using its reusable record.
+ */
+public class AuditEventBuilderBenchmarkTest extends BenchmarkBase {
+
+    /**
+     * Request and response details shared by all events.
+     */
+    @State(Scope.Benchmark)
+    public static class EventDetails {
+        final Map<String, List<String>> queryParameters = new HashMap<>();
+        final Map<String, List<String>> responseHeaders = new HashMap<>();
+
+        public EventDetails() {
+            queryParameters.put("_queryFilter", singletonList("true"));
+            responseHeaders.put("Content-Type", singletonList("application/json"));
+        }
+
+        Map<String, List<String>> requestHeaders() {
+            // httpRequest() removes the Cookie header, so every event needs its own map
+            final Map<String, List<String>> requestHeaders = new HashMap<>();
+            requestHeaders.put("Accept", singletonList("application/json"));
+            return requestHeaders;
+        }
+    }
+
+    /**
+     * A builder kept by each benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class ReusableBuilder {
+        final AccessAuditEventBuilder<?> builder = accessEvent().withReusableRecord();
+    }
+
+    @Benchmark
+    public JsonValue newBuilderPerEvent(final EventDetails details) {
+        return populate(accessEvent(), details).toEvent().getValue();
+    }
+
+    @Benchmark
+    public JsonValue reusableRecord(final ReusableBuilder state, final EventDetails details) {
+        return populate(state.builder, details).toEvent().getValue();
+    }
+
+    @Benchmark
+    public AuditEvent reusableRecordWithoutJsonValue(final ReusableBuilder state, final EventDetails details) {
+        return populate(state.builder, details).toEvent();
+    }
+
+    private static AccessAuditEventBuilder<?> populate(final AccessAuditEventBuilder<?> builder,
+            final EventDetails details) {
+        return builder
+                .eventName("AM-ACCESS-OUTCOME")
+                .transactionId("transactionId")
+                .timestamp(System.currentTimeMillis())
+                .userId("someone@example.com")
+                .client("10.0.0.1", 54321)
+                .server("10.0.0.2", 443)
+                .request("CREST", "READ")
+                .httpRequest(true, "GET", "/json/users", details.queryParameters, details.requestHeaders())
+                .httpResponse(details.responseHeaders)
+                .response(SUCCESSFUL, "200", 3, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.forgerock.audit.AuditServiceBuilder.newAuditService;
+import static org.forgerock.audit.events.AccessAuditEventBuilder.ResponseStatus.SUCCESSFUL;
+import static org.forgerock.audit.events.AccessAuditEventBuilder.accessEvent;
+import static org.forgerock.json.resource.Requests.newCreateRequest;
+import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
+import static org.forgerock.json.resource.Responses.newResourceResponse;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.audit.AuditService;
+import org.forgerock.audit.AuditServiceBuilder;
+import org.forgerock.audit.AuditServiceConfiguration;
+import org.forgerock.audit.events.EventTopicsMetaData;
+import org.forgerock.audit.events.handlers.AuditEventHandlerBase;
+import org.forgerock.audit.filter.FilterPolicy;
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.NotSupportedException;
+import org.forgerock.json.resource.QueryRequest;
+import org.forgerock.json.resource.QueryResourceHandler;
+import org.forgerock.json.resource.QueryResponse;
+import org.forgerock.json.resource.ResourceException;
+import org.forgerock.json.resource.ResourceResponse;
+import org.forgerock.services.context.Context;
+import org.forgerock.services.context.RootContext;
+import org.forgerock.util.promise.Promise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * End-to-end benchmarks of {@link AuditService#handleCreate}, covering topic lookup, event ID generation, filtering
+ * and fan-out to the registered handlers. Handlers discard events, so only the cost of the audit service itself is
+ * measured; the handler benchmarks cover the cost of each handler.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *     <li>{@code minimal}: small events and no filter policies</li>
+ *     <li>{@code deployment}: full HTTP access events, with the field and value filter policies typically used to
+ *     keep credentials out of the audit logs</li>
+ * </ul>
+ */
+public class AuditServiceBenchmarkTest extends BenchmarkBase {
+
+    private static final String ACCESS = "access";
+
+    @State(Scope.Benchmark)
+    public static class ServiceState {
+
+        @Param({ "minimal", "deployment" })
+        public String scenario;
+
+        /** Number of handlers registered for the access topic. */
+        @Param({ "1", "3" })
+        public int handlers;
+
+        AuditService auditService;
+        JsonValue event;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            final EventTopicsMetaData topicsMetaData = loadEventTopicsMetaData();
+            final AuditServiceConfiguration configuration = new AuditServiceConfiguration();
+            final List<String> handlerNames = new ArrayList<>();
+            for (int i = 0; i < handlers; i++) {
+                handlerNames.add("handler" + i);
+            }
+            configuration.setAvailableAuditEventHandlers(handlerNames);
+            configuration.setHandlerForQueries(handlerNames.get(0));
+            if ("deployment".equals(scenario)) {
+                configuration.setFilterPolicies(deploymentFilterPolicies());
+                event = deploymentEvent();
+            } else {
+                event = minimalEvent();
+            }
+
+            final AuditServiceBuilder builder = newAuditService()
+                    .withConfiguration(configuration)
+                    .withEventTopicsMetaData(topicsMetaData);
+            for (final String name : handlerNames) {
+                builder.withAuditEventHandler(new DiscardingHandler(name, topicsMetaData));
+            }
+            auditService = builder.build();
+            auditService.startup();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            auditService.shutdown();
+        }
+
+        private EventTopicsMetaData loadEventTopicsMetaData() throws Exception {
+            final Map<String, JsonValue> events = new LinkedHashMap<>();
+            try (InputStream configStream = getClass().getResourceAsStream("/events.json")) {
+                final JsonValue topics = new JsonValue(new ObjectMapper().readValue(configStream, Map.class));
+                for (final String topic : topics.keys()) {
+                    events.put(topic, topics.get(topic));
+                }
+            }
+            return new EventTopicsMetaData(events);
+        }
+
+        private static Map<String, FilterPolicy> deploymentFilterPolicies() {
+            final FilterPolicy fieldPolicy = new FilterPolicy();
+            fieldPolicy.setExcludeIf(asList(
+                    "/access/http/request/headers/authorization",
+                    "/access/http/request/headers/x-openidm-password",
+                    "/access/http/request/cookies/session"));
+            final FilterPolicy valuePolicy = new FilterPolicy();
+            valuePolicy.setExcludeIf(singletonList("/access/http/request/queryParameters/password"));
+            final Map<String, FilterPolicy> policies = new HashMap<>();
+            policies.put("field", fieldPolicy);
+            policies.put("value", valuePolicy);
+            return policies;
+        }
+
+        private static JsonValue minimalEvent() {
+            return accessEvent()
+                    .eventName("AM-ACCESS-OUTCOME")
+                    .transactionId("transactionId")
+                    .timestamp(System.currentTimeMillis())
+                    .toEvent()
+                    .getValue();
+        }
+
+        private static JsonValue deploymentEvent() {
+            final Map<String, List<String>> queryParameters = new HashMap<>();
+            queryParameters.put("_queryFilter", singletonList("true"));
+            queryParameters.put("password", singletonList("secret"));
+            final Map<String, List<String>> requestHeaders = new HashMap<>();
+            requestHeaders.put("accept", singletonList("application/json"));
+            requestHeaders.put("authorization", singletonList("Bearer token"));
+            requestHeaders.put("user-agent", singletonList("Mozilla/5.0 (X11; Linux x86_64)"));
+            requestHeaders.put("x-openidm-password", singletonList("secret"));
+            requestHeaders.put("cookie", singletonList("session=abc; theme=dark"));
+            final Map<String, List<String>> responseHeaders = new HashMap<>();
+            responseHeaders.put("content-type", singletonList("application/json"));
+            return accessEvent()
+                    .eventName("AM-ACCESS-OUTCOME")
+                    .transactionId("transactionId")
+                    .timestamp(System.currentTimeMillis())
+                    .userId("someone@example.com")
+                    .trackingId("trackingId")
+                    .client("10.0.0.1", 54321)
+                    .server("10.0.0.2", 443)
+                    .request("CREST", "READ")
+                    .httpRequest(true, "GET", "/json/users", queryParameters, requestHeaders)
+                    .httpResponse(responseHeaders)
+                    .response(SUCCESSFUL, "200", 3, TimeUnit.MILLISECONDS)
+                    .toEvent()
+                    .getValue();
+        }
+    }
+
+    /**
+     * Baseline for {@link #handleCreate}: the copy of the event every create request needs, as the audit service
+     * assigns its ID and filters it in place.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public JsonValue copyEvent(final ServiceState state) {
+        return state.event.copy();
+    }
+
+    @Benchmark
+    @BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ResourceResponse handleCreate(final ServiceState state) throws Exception {
+        return state.auditService.handleCreate(new RootContext(), newCreateRequest(ACCESS, state.event.copy()))
+                .getOrThrow();
+    }
+
+    /**
+     * Handler which discards events, so that only the audit service is measured.
+     */
+    private static final class DiscardingHandler extends AuditEventHandlerBase {
+
+        private DiscardingHandler(final String name, final EventTopicsMetaData topicsMetaData) {
+            super(name, topicsMetaData, topicsMetaData.getTopics(), true);
+        }
+
+        @Override
+        public void startup() {
+            // nothing to start
+        }
+
+        @Override
+        public void shutdown() {
+            // nothing to stop
+        }
+
+        @Override
+        public Promise<ResourceResponse, ResourceException> publishEvent(final Context context, final String topic,
+                final JsonValue event) {
+            return newResourceResponse(event.get(FIELD_CONTENT_ID).asString(), null, event).asPromise();
+        }
+
+        @Override
+        public Promise<ResourceResponse, ResourceException> readEvent(final Context context, final String topic,
+                final String resourceId) {
+            return new NotSupportedException().asPromise();
+        }
+
+        @Override
+        public Promise<QueryResponse, ResourceException> queryEvents(final Context context, final String topic,
+                final QueryRequest query, final QueryResourceHandler handler) {
+            return new NotSupportedException().asPromise();
+        }
+    }
+}
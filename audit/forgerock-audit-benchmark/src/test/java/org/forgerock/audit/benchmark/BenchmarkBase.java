@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.benchmark;
@@ -20,9 +21,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
@@ -36,6 +40,11 @@ import org.testng.annotations.Test;
 /**
  * Abstract base-class for JMH benchmarks, which configures default settings.
  * <p>
+ * Besides the iteration, fork and thread counts, system properties can select the benchmark modes
+ * ({@code -Dmodes=thrpt,sample}, where {@code sample} reports a latency histogram), add profilers
+ * ({@code -Dprofilers=gc} reports allocations per operation) and override benchmark parameters
+ * ({@code -Dparam.scenario=deployment}).
+ * <p>
  * References:
  * <ul>
  * <li><a href="http://java-performance.info/jmh/">Introduction to JMH</a></li>
@@ -61,6 +70,9 @@ public abstract class BenchmarkBase {
     /** Default number of measurement iterations to run per benchmark (10). */
     protected static final int DEFAULT_MEASURE_ITERATIONS = 10;
 
+    /** Prefix of the system properties overriding benchmark parameters. */
+    private static final String PARAM_PROPERTY_PREFIX = "param.";
+
     /**
      * Runs the JMH benchmark test.
      *
@@ -97,6 +109,18 @@ public abstract class BenchmarkBase {
         if (getThreads() > 0) {
             options.threads(getThreads());
         }
+        for (final String mode : getListProperty("modes")) {
+            options.mode(Mode.deepValueOf(mode));
+        }
+        for (final String profiler : getListProperty("profilers")) {
+            options.addProfiler(profiler);
+        }
+        for (final String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(PARAM_PROPERTY_PREFIX)) {
+                final List<String> values = getListProperty(name);
+                options.param(name.substring(PARAM_PROPERTY_PREFIX.length()), values.toArray(new String[0]));
+            }
+        }
         if (getReportDir() != null) {
             final Path dirPath = Paths.get(getReportDir());
             final Path filePath = dirPath.resolve(className + ".json");
@@ -180,6 +204,19 @@ public abstract class BenchmarkBase {
         return System.getProperty("tempDir");
     }
 
+    private List<String> getListProperty(final String name) {
+        final List<String> values = new ArrayList<>();
+        final String property = System.getProperty(name);
+        if (property != null) {
+            for (final String value : property.split(",")) {
+                if (!value.trim().isEmpty()) {
+                    values.add(value.trim());
+                }
+            }
+        }
+        return values;
+    }
+
     private int getIntProperty(final String name, final int defaultValue) {
         try {
             return Integer.parseInt(System.getProperty(name));
@@ -0,0 +1,177 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static org.forgerock.audit.events.AuditEventBuilder.TIMESTAMP;
+import static org.forgerock.audit.events.AuditEventBuilder.TRANSACTION_ID;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.forgerock.audit.events.handlers.AuditEventHandler;
+import org.forgerock.audit.handlers.elasticsearch.ElasticsearchAuditEventHandler;
+import org.forgerock.audit.handlers.elasticsearch.ElasticsearchAuditEventHandlerConfiguration;
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.ResourceResponse;
+import org.forgerock.json.resource.ServiceUnavailableException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Write-throughput benchmarks for {@link ElasticsearchAuditEventHandler}, against a local stand-in for the
+ * Elasticsearch Bulk API that answers after a simulated latency.
+ * <p>
+ * Events are offered until the handler's buffer accepts them, so once the buffer is full the reported events per
+ * second are those delivered to the Bulk API.
+ */
+public class ElasticsearchAuditEventHandlerWriteBenchmarkTest extends BenchmarkBase {
+
+    private static final String ACCESS = "access";
+
+    @State(Scope.Benchmark)
+    public static class WriteState extends AuditEventHandlerBenchmarkState<ElasticsearchAuditEventHandlerConfiguration>
+            implements HttpHandler {
+
+        private static final byte[] BULK_RESPONSE = "{\"errors\":false,\"items\":[]}".getBytes(StandardCharsets.UTF_8);
+
+        /** Simulated Bulk API latency, in milliseconds. */
+        @Param({"0", "10", "50", "200"})
+        public int latencyMillis;
+
+        @Param({"1", "4"})
+        public int maxInFlightBatches;
+
+        @Param({"", "250 millis"})
+        public String targetBatchLatency;
+
+        private final AtomicLong counter = new AtomicLong();
+        private ExecutorService executor;
+        private HttpServer server;
+
+        @Override
+        public ElasticsearchAuditEventHandlerConfiguration buildBaseConfiguration() {
+            try {
+                executor = Executors.newCachedThreadPool();
+                server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+                server.createContext("/", this);
+                server.setExecutor(executor);
+                server.start();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to start the stub Bulk API", e);
+            }
+
+            final ElasticsearchAuditEventHandlerConfiguration configuration =
+                    new ElasticsearchAuditEventHandlerConfiguration();
+            configuration.setName("elasticsearch");
+            configuration.setEnabled(true);
+            configuration.setTopics(Collections.singleton(ACCESS));
+            configuration.getConnection().setPort(server.getAddress().getPort());
+            configuration.getBuffering().setEnabled(true);
+            configuration.getBuffering().setMaxSize(100_000);
+            configuration.getBuffering().setWriteInterval("1 millis");
+            configuration.getBuffering().setMaxBatchedEvents(5_000);
+            configuration.getBuffering().setMaxInFlightBatches(maxInFlightBatches);
+            configuration.getBuffering().setTargetBatchLatency(targetBatchLatency);
+            return configuration;
+        }
+
+        @Override
+        public AuditEventHandler buildAuditEventHandler(final ElasticsearchAuditEventHandlerConfiguration configuration)
+                throws Exception {
+            return new ElasticsearchAuditEventHandler(configuration, getEventTopicsMetaData("/events.json"), null);
+        }
+
+        @Override
+        public void afterTrial() throws Exception {
+            try {
+                super.afterTrial();
+            } finally {
+                server.stop(0);
+                executor.shutdownNow();
+            }
+        }
+
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            try (InputStream in = exchange.getRequestBody()) {
+                final byte[] buffer = new byte[8192];
+                while (in.read(buffer) != -1) {
+                    // discard the bulk payload
+                    continue;
+                }
+            }
+            try {
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, BULK_RESPONSE.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(BULK_RESPONSE);
+            }
+        }
+
+        /**
+         * Builds a simple, unique event instance.
+         *
+         * @return Event instance
+         */
+        protected JsonValue buildUniqueEvent() {
+            final String simpleId = Long.toString(counter.getAndIncrement());
+            return json(object(field(FIELD_CONTENT_ID, simpleId), field(TIMESTAMP, simpleId),
+                    field(TRANSACTION_ID, simpleId)));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public ResourceResponse write(final WriteState state) throws Exception {
+        final JsonValue event = state.buildUniqueEvent();
+        while (true) {
+            try {
+                return state.handler.publishEvent(null, ACCESS, event).getOrThrow();
+            } catch (ServiceUnavailableException e) {
+                // buffer full, so wait for the bulk requests to drain it
+                Thread.yield();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.audit.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration.DurabilityMode;
+import org.forgerock.audit.handlers.csv.CsvAuditEventHandlerConfiguration;
+import org.forgerock.audit.handlers.json.JsonAuditEventHandlerConfiguration;
+import org.forgerock.json.resource.ResourceResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Write benchmarks of the file-based handlers for each {@link DurabilityMode}.
+ * <p>
+ * Each scenario is measured twice: as throughput, in events per second, and as sampled latency, whose report
+ * includes the p99 of the time taken for a published event to complete.
+ */
+public class FileDurabilityWriteBenchmarkTest extends BenchmarkBase {
+
+    private static final String ACCESS = "access";
+
+    @State(Scope.Benchmark)
+    public static class JsonWriteState extends JsonAuditEventHandlerWriteBenchmarkTest.DefaultState {
+        @Param({"NONE", "PERIODIC", "GROUP_COMMIT"})
+        public DurabilityMode durabilityMode;
+
+        @Override
+        protected void updateConfiguration(final JsonAuditEventHandlerConfiguration configuration) {
+            configuration.getFileDurability().setMode(durabilityMode);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public ResourceResponse jsonWriteThroughput(final JsonWriteState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ResourceResponse jsonWriteLatency(final JsonWriteState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+
+    @State(Scope.Benchmark)
+    public static class CsvWriteState extends CsvAuditEventHandlerWriteBenchmarkTest.DefaultState {
+        @Param({"NONE", "PERIODIC", "GROUP_COMMIT"})
+        public DurabilityMode durabilityMode;
+
+        @Override
+        public void updateConfiguration(final CsvAuditEventHandlerConfiguration configuration) {
+            configuration.getFileDurability().setMode(durabilityMode);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public ResourceResponse csvWriteThroughput(final CsvWriteState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ResourceResponse csvWriteLatency(final CsvWriteState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.forgerock.audit.filter.Filter;
+import org.forgerock.audit.filter.FilterChainBuilder;
+import org.forgerock.audit.filter.FilterPolicy;
+import org.forgerock.json.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Throughput of the audit event filter chain against the number of filtered fields.
+ */
+public class FilterChainBenchmarkTest extends BenchmarkBase {
+
+    private static final String TOPIC = "access";
+    private static final int EVENT_FIELDS = 64;
+
+    /**
+     * Filter chain excluding {@link #filteredFields} of the {@value #EVENT_FIELDS} nested event fields.
+     */
+    @State(Scope.Benchmark)
+    public static class FilterState {
+
+        @Param({ "1", "8", "32" })
+        int filteredFields;
+
+        @Param({ "false", "true" })
+        boolean withInclusions;
+
+        Filter filter;
+
+        @Setup
+        public void setup() {
+            final List<String> excludeIf = new ArrayList<>();
+            final List<String> includeIf = new ArrayList<>();
+            for (int i = 0; i < filteredFields; i++) {
+                excludeIf.add("/" + TOPIC + "/group" + (i % 8) + "/field" + i);
+                if (withInclusions) {
+                    // keep one nested value of each excluded field
+                    includeIf.add("/" + TOPIC + "/group" + (i % 8) + "/field" + i + "/kept");
+                }
+            }
+            final FilterPolicy policy = new FilterPolicy();
+            policy.setExcludeIf(excludeIf);
+            policy.setIncludeIf(includeIf);
+            filter = new FilterChainBuilder()
+                    .withAuditTopics(singletonList(TOPIC))
+                    .withPolicies(singletonMap("field", policy))
+                    .build();
+        }
+
+        JsonValue newEvent() {
+            final Map<String, Object> event = new LinkedHashMap<>();
+            for (int i = 0; i < EVENT_FIELDS; i++) {
+                final String group = "group" + (i % 8);
+                @SuppressWarnings("unchecked")
+                Map<String, Object> fields = (Map<String, Object>) event.get(group);
+                if (fields == null) {
+                    fields = new LinkedHashMap<>();
+                    event.put(group, fields);
+                }
+                final Map<String, Object> field = new LinkedHashMap<>();
+                field.put("kept", "value" + i);
+                field.put("dropped", "value" + i);
+                fields.put("field" + i, field);
+            }
+            return new JsonValue(event);
+        }
+    }
+
+    /**
+     * Builds the event without filtering it; subtract from {@link #filter} to isolate the filter cost.
+     */
+    @Benchmark
+    public JsonValue baseline(final FilterState state) {
+        return state.newEvent();
+    }
+
+    @Benchmark
+    public JsonValue filter(final FilterState state) {
+        final JsonValue event = state.newEvent();
+        state.filter.doFilter(TOPIC, event);
+        return event;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static org.forgerock.audit.events.AuditEventBuilder.TIMESTAMP;
+import static org.forgerock.audit.events.AuditEventBuilder.TRANSACTION_ID;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.forgerock.audit.events.handlers.AuditEventHandler;
+import org.forgerock.audit.handlers.jdbc.JdbcAuditEventHandler;
+import org.forgerock.audit.handlers.jdbc.JdbcAuditEventHandlerConfiguration;
+import org.forgerock.audit.handlers.jdbc.TableMapping;
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.ResourceResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Write-throughput benchmarks for {@link JdbcAuditEventHandler}, against an embedded in-memory H2 database.
+ */
+public class JdbcAuditEventHandlerWriteBenchmarkTest extends BenchmarkBase {
+
+    private static final String ACCESS = "access";
+
+    @State(Scope.Benchmark)
+    public static class WriteState extends AuditEventHandlerBenchmarkState<JdbcAuditEventHandlerConfiguration> {
+
+        @Param({ "false", "true" })
+        public boolean buffering;
+
+        /** Number of writer threads, when buffering. */
+        @Param({ "1", "4" })
+        public int writerThreads;
+
+        private final AtomicLong counter = new AtomicLong();
+        private Connection keepAlive;
+
+        @Override
+        public JdbcAuditEventHandlerConfiguration buildBaseConfiguration() {
+            final String jdbcUrl = "jdbc:h2:mem:audit-" + System.nanoTime();
+            try {
+                Class.forName("org.h2.Driver");
+                // keeps the in-memory database for the whole trial
+                keepAlive = DriverManager.getConnection(jdbcUrl);
+                try (Statement statement = keepAlive.createStatement()) {
+                    statement.execute("CREATE TABLE auditaccess ("
+                            + "objectid VARCHAR(56) NOT NULL PRIMARY KEY, "
+                            + "activitydate VARCHAR(29) NOT NULL, "
+                            + "transactionid VARCHAR(56) NOT NULL)");
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to create the H2 database", e);
+            }
+
+            final Map<String, String> fieldToColumn = new LinkedHashMap<>();
+            fieldToColumn.put(FIELD_CONTENT_ID, "objectid");
+            fieldToColumn.put(TIMESTAMP, "activitydate");
+            fieldToColumn.put(TRANSACTION_ID, "transactionid");
+            final TableMapping tableMapping = new TableMapping();
+            tableMapping.setEvent(ACCESS);
+            tableMapping.setTable("auditaccess");
+            tableMapping.setFieldToColumn(fieldToColumn);
+
+            final JdbcAuditEventHandlerConfiguration.ConnectionPool connectionPool =
+                    new JdbcAuditEventHandlerConfiguration.ConnectionPool();
+            connectionPool.setJdbcUrl(jdbcUrl);
+            connectionPool.setUsername("");
+            connectionPool.setPassword("");
+            connectionPool.setMaxPoolSize(writerThreads + DEFAULT_THREADS);
+
+            final JdbcAuditEventHandlerConfiguration.EventBufferingConfiguration bufferingConfiguration =
+                    new JdbcAuditEventHandlerConfiguration.EventBufferingConfiguration();
+            bufferingConfiguration.setEnabled(buffering);
+            bufferingConfiguration.setMaxSize(100_000);
+            bufferingConfiguration.setWriteInterval("10 millis");
+            bufferingConfiguration.setWriterThreads(writerThreads);
+            bufferingConfiguration.setMaxBatchedEvents(500);
+
+            final JdbcAuditEventHandlerConfiguration configuration = new JdbcAuditEventHandlerConfiguration();
+            configuration.setName("jdbc");
+            configuration.setEnabled(true);
+            configuration.setTopics(Collections.singleton(ACCESS));
+            configuration.setDatabaseType("h2");
+            configuration.setConnectionPool(connectionPool);
+            configuration.setTableMappings(Collections.singletonList(tableMapping));
+            configuration.setBufferingConfiguration(bufferingConfiguration);
+            return configuration;
+        }
+
+        @Override
+        public AuditEventHandler buildAuditEventHandler(final JdbcAuditEventHandlerConfiguration configuration)
+                throws Exception {
+            return new JdbcAuditEventHandler(configuration, getEventTopicsMetaData("/events.json"), null);
+        }
+
+        @Override
+        public void afterTrial() throws Exception {
+            try {
+                super.afterTrial();
+            } finally {
+                keepAlive.close();
+            }
+        }
+
+        /**
+         * Builds a simple, unique event instance.
+         *
+         * @return Event instance
+         */
+        protected JsonValue buildUniqueEvent() {
+            final String simpleId = Long.toString(counter.getAndIncrement());
+            return json(object(field(FIELD_CONTENT_ID, simpleId), field(TIMESTAMP, simpleId),
+                    field(TRANSACTION_ID, simpleId)));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public ResourceResponse write(final WriteState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static org.forgerock.audit.events.AuditEventBuilder.TIMESTAMP;
+import static org.forgerock.audit.events.AuditEventBuilder.TRANSACTION_ID;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import javax.jms.Topic;
+
+import org.forgerock.audit.events.handlers.AuditEventHandler;
+import org.forgerock.audit.handlers.jms.BatchPublisherConfiguration;
+import org.forgerock.audit.handlers.jms.DeliveryModeConfig;
+import org.forgerock.audit.handlers.jms.JmsAuditEventHandler;
+import org.forgerock.audit.handlers.jms.JmsAuditEventHandlerConfiguration;
+import org.forgerock.audit.handlers.jms.JmsContextManager;
+import org.forgerock.audit.handlers.jms.SessionModeConfig;
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.ResourceResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Write-throughput benchmarks for {@link JmsAuditEventHandler}, against an in-process JMS provider whose producers
+ * discard the messages they send, so that the cost of the handler itself (serialization, sessions, batching) is
+ * measured rather than that of a broker.
+ */
+public class JmsAuditEventHandlerWriteBenchmarkTest extends BenchmarkBase {
+
+    private static final String ACCESS = "access";
+
+    @State(Scope.Benchmark)
+    public static class WriteState extends AuditEventHandlerBenchmarkState<JmsAuditEventHandlerConfiguration>
+            implements JmsContextManager {
+
+        @Param({ "false", "true" })
+        public boolean batchEnabled;
+
+        /** Number of publishing threads, when batching. */
+        @Param({ "1", "4" })
+        public int threadCount;
+
+        private final AtomicLong counter = new AtomicLong();
+
+        @Override
+        public JmsAuditEventHandlerConfiguration buildBaseConfiguration() {
+            final BatchPublisherConfiguration batch = new BatchPublisherConfiguration();
+            batch.setBatchEnabled(batchEnabled);
+            batch.setCapacity(100_000);
+            batch.setThreadCount(threadCount);
+            batch.setMaxBatchedEvents(500);
+
+            final JmsAuditEventHandlerConfiguration configuration = new JmsAuditEventHandlerConfiguration();
+            configuration.setName("jms");
+            configuration.setEnabled(true);
+            configuration.setTopics(Collections.singleton(ACCESS));
+            configuration.setDeliveryMode(DeliveryModeConfig.NON_PERSISTENT);
+            configuration.setSessionMode(SessionModeConfig.AUTO);
+            configuration.setBatch(batch);
+            return configuration;
+        }
+
+        @Override
+        public AuditEventHandler buildAuditEventHandler(final JmsAuditEventHandlerConfiguration configuration)
+                throws Exception {
+            return new JmsAuditEventHandler(this, configuration, getEventTopicsMetaData("/events.json"));
+        }
+
+        @Override
+        public Topic getTopic() {
+            return newProxy(Topic.class, null);
+        }
+
+        @Override
+        public ConnectionFactory getConnectionFactory() {
+            return newProxy(ConnectionFactory.class, new InvocationHandler() {
+                @Override
+                public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                    return method.getName().equals("createConnection") ? newConnection() : null;
+                }
+            });
+        }
+
+        private Connection newConnection() {
+            return newProxy(Connection.class, new InvocationHandler() {
+                @Override
+                public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                    return method.getName().equals("createSession") ? newSession() : null;
+                }
+            });
+        }
+
+        private Session newSession() {
+            return newProxy(Session.class, new InvocationHandler() {
+                @Override
+                public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                    switch (method.getName()) {
+                    case "createProducer":
+                        return newProxy(MessageProducer.class, null);
+                    case "createTextMessage":
+                        return newTextMessage((String) args[0]);
+                    default:
+                        return null;
+                    }
+                }
+            });
+        }
+
+        private TextMessage newTextMessage(final String text) {
+            return newProxy(TextMessage.class, new InvocationHandler() {
+                @Override
+                public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                    return method.getName().equals("getText") ? text : null;
+                }
+            });
+        }
+
+        private static <T> T newProxy(final Class<T> type, final InvocationHandler handler) {
+            return type.cast(Proxy.newProxyInstance(WriteState.class.getClassLoader(), new Class<?>[] { type },
+                    handler != null ? handler : new InvocationHandler() {
+                        @Override
+                        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                            return null;
+                        }
+                    }));
+        }
+
+        /**
+         * Builds a simple, unique event instance.
+         *
+         * @return Event instance
+         */
+        protected JsonValue buildUniqueEvent() {
+            final String simpleId = Long.toString(counter.getAndIncrement());
+            return json(object(field(FIELD_CONTENT_ID, simpleId), field(TIMESTAMP, simpleId),
+                    field(TRANSACTION_ID, simpleId)));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public ResourceResponse write(final WriteState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+}
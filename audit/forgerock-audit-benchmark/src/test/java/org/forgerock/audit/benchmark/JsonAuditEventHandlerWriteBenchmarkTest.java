@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.benchmark;
@@ -34,6 +35,7 @@ import org.forgerock.audit.handlers.json.JsonAuditEventHandlerConfiguration;
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.resource.ResourceResponse;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
 
@@ -105,6 +107,23 @@ public class JsonAuditEventHandlerWriteBenchmarkTest extends BenchmarkBase {
         return write(state);
     }
 
+    @State(Scope.Benchmark)
+    public static class ShardedWriteState extends WriteState {
+        /** Number of writer lanes of the access topic, which should be compared using several benchmark threads. */
+        @Param({"1", "4"})
+        public int accessShards;
+
+        @Override
+        protected void updateConfiguration(final JsonAuditEventHandlerConfiguration configuration) {
+            configuration.getBuffering().setTopicShards(Collections.singletonMap(ACCESS, accessShards));
+        }
+    }
+
+    @Benchmark
+    public ResourceResponse shardedWrite(final ShardedWriteState state) throws Exception {
+        return write(state);
+    }
+
     @State(Scope.Benchmark)
     public static class ElasticsearchCompatibleBestCaseWriteState extends WriteState {
         @Override
@@ -0,0 +1,195 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static org.forgerock.audit.events.AuditEventBuilder.TIMESTAMP;
+import static org.forgerock.audit.events.AuditEventBuilder.TRANSACTION_ID;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.forgerock.audit.events.handlers.AuditEventHandler;
+import org.forgerock.audit.handlers.splunk.SplunkAuditEventHandler;
+import org.forgerock.audit.handlers.splunk.SplunkAuditEventHandlerConfiguration;
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.ResourceResponse;
+import org.forgerock.json.resource.ServiceUnavailableException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Write-throughput benchmarks for {@link SplunkAuditEventHandler}, against a local stand-in for the HTTP event
+ * collector that answers after a simulated latency and acknowledges every request.
+ * <p>
+ * Events are offered until the handler's buffer accepts them, so once the buffer is full the reported events per
+ * second are those delivered to the collector.
+ */
+public class SplunkAuditEventHandlerWriteBenchmarkTest extends BenchmarkBase {
+
+    private static final String ACCESS = "access";
+
+    @State(Scope.Benchmark)
+    public static class WriteState extends AuditEventHandlerBenchmarkState<SplunkAuditEventHandlerConfiguration>
+            implements HttpHandler {
+
+        private static final Pattern ACK_IDS = Pattern.compile("\\d+");
+
+        /** Simulated collector latency, in milliseconds. */
+        @Param({ "0", "50" })
+        public int latencyMillis;
+
+        @Param({ "false", "true" })
+        public boolean useCompression;
+
+        @Param({ "false", "true" })
+        public boolean acknowledgement;
+
+        private final AtomicLong counter = new AtomicLong();
+        private final AtomicLong ackIds = new AtomicLong();
+        private ExecutorService executor;
+        private HttpServer server;
+
+        @Override
+        public SplunkAuditEventHandlerConfiguration buildBaseConfiguration() {
+            try {
+                executor = Executors.newCachedThreadPool();
+                server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+                server.createContext("/services/collector/", this);
+                server.setExecutor(executor);
+                server.start();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to start the stub HTTP event collector", e);
+            }
+
+            final SplunkAuditEventHandlerConfiguration configuration = new SplunkAuditEventHandlerConfiguration();
+            configuration.setName("splunk");
+            configuration.setEnabled(true);
+            configuration.setTopics(Collections.singleton(ACCESS));
+            configuration.setAuthzToken("00000000-0000-0000-0000-000000000000");
+            configuration.getConnection().setPort(server.getAddress().getPort());
+            configuration.getConnection().setUseCompression(useCompression);
+            configuration.getBuffering().setMaxSize(100_000);
+            configuration.getBuffering().setWriteInterval("1 millis");
+            configuration.getBuffering().setMaxBatchedEvents(5_000);
+            configuration.getAcknowledgement().setEnabled(acknowledgement);
+            configuration.getAcknowledgement().setPollInterval("10 millis");
+            return configuration;
+        }
+
+        @Override
+        public AuditEventHandler buildAuditEventHandler(final SplunkAuditEventHandlerConfiguration configuration)
+                throws Exception {
+            return new SplunkAuditEventHandler(configuration, getEventTopicsMetaData("/events.json"), null, null);
+        }
+
+        @Override
+        public void afterTrial() throws Exception {
+            try {
+                super.afterTrial();
+            } finally {
+                server.stop(0);
+                executor.shutdownNow();
+            }
+        }
+
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            final StringBuilder body = new StringBuilder();
+            try (InputStream in = exchange.getRequestBody()) {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (exchange.getRequestURI().getPath().endsWith("/ack")) {
+                        body.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            final String response;
+            if (exchange.getRequestURI().getPath().endsWith("/ack")) {
+                final StringBuilder acks = new StringBuilder("{\"acks\":{");
+                final Matcher matcher = ACK_IDS.matcher(body);
+                for (boolean first = true; matcher.find(); first = false) {
+                    acks.append(first ? "" : ",").append('"').append(matcher.group()).append("\":true");
+                }
+                response = acks.append("}}").toString();
+            } else {
+                try {
+                    if (latencyMillis > 0) {
+                        Thread.sleep(latencyMillis);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                response = "{\"text\":\"Success\",\"code\":0,\"ackId\":" + ackIds.getAndIncrement() + "}";
+            }
+            final byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+
+        /**
+         * Builds a simple, unique event instance.
+         *
+         * @return Event instance
+         */
+        protected JsonValue buildUniqueEvent() {
+            final String simpleId = Long.toString(counter.getAndIncrement());
+            return json(object(field(FIELD_CONTENT_ID, simpleId), field(TIMESTAMP, simpleId),
+                    field(TRANSACTION_ID, simpleId)));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public ResourceResponse write(final WriteState state) throws Exception {
+        final JsonValue event = state.buildUniqueEvent();
+        while (true) {
+            try {
+                return state.handler.publishEvent(null, ACCESS, event).getOrThrow();
+            } catch (ServiceUnavailableException e) {
+                // buffer full, so wait for the collector requests to drain it
+                Thread.yield();
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.benchmark;
+
+import static org.forgerock.audit.events.AuditEventBuilder.TIMESTAMP;
+import static org.forgerock.audit.events.AuditEventBuilder.TRANSACTION_ID;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.forgerock.audit.events.handlers.AuditEventHandler;
+import org.forgerock.audit.handlers.syslog.Facility;
+import org.forgerock.audit.handlers.syslog.SyslogAuditEventHandler;
+import org.forgerock.audit.handlers.syslog.SyslogAuditEventHandlerConfiguration;
+import org.forgerock.audit.handlers.syslog.TransportProtocol;
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.ResourceResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Write-throughput benchmarks for {@link SyslogAuditEventHandler}, against a local syslog receiver which discards
+ * the messages it reads.
+ */
+public class SyslogAuditEventHandlerWriteBenchmarkTest extends BenchmarkBase {
+
+    private static final String ACCESS = "access";
+
+    @State(Scope.Benchmark)
+    public static class WriteState extends AuditEventHandlerBenchmarkState<SyslogAuditEventHandlerConfiguration> {
+
+        @Param({ "UDP", "TCP" })
+        public TransportProtocol protocol;
+
+        @Param({ "false", "true" })
+        public boolean buffering;
+
+        private final AtomicLong counter = new AtomicLong();
+        private ExecutorService executor;
+        private DatagramSocket datagramSocket;
+        private ServerSocket serverSocket;
+
+        @Override
+        public SyslogAuditEventHandlerConfiguration buildBaseConfiguration() {
+            executor = Executors.newCachedThreadPool();
+            final int port;
+            try {
+                port = protocol == TransportProtocol.UDP ? startUdpReceiver() : startTcpReceiver();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to start the syslog receiver", e);
+            }
+
+            final SyslogAuditEventHandlerConfiguration.EventBufferingConfiguration bufferingConfiguration =
+                    new SyslogAuditEventHandlerConfiguration.EventBufferingConfiguration();
+            bufferingConfiguration.setEnabled(buffering);
+
+            final SyslogAuditEventHandlerConfiguration configuration = new SyslogAuditEventHandlerConfiguration();
+            configuration.setName("syslog");
+            configuration.setEnabled(true);
+            configuration.setTopics(Collections.singleton(ACCESS));
+            configuration.setProtocol(protocol);
+            configuration.setHost(InetAddress.getLoopbackAddress().getHostAddress());
+            configuration.setPort(port);
+            configuration.setConnectTimeout(30000);
+            configuration.setFacility(Facility.LOCAL0);
+            configuration.setBufferingConfiguration(bufferingConfiguration);
+            return configuration;
+        }
+
+        @Override
+        public AuditEventHandler buildAuditEventHandler(final SyslogAuditEventHandlerConfiguration configuration)
+                throws Exception {
+            return new SyslogAuditEventHandler(configuration, getEventTopicsMetaData("/events.json"), null, null);
+        }
+
+        @Override
+        public void afterTrial() throws Exception {
+            try {
+                super.afterTrial();
+            } finally {
+                if (datagramSocket != null) {
+                    datagramSocket.close();
+                }
+                if (serverSocket != null) {
+                    serverSocket.close();
+                }
+                executor.shutdownNow();
+            }
+        }
+
+        private int startUdpReceiver() throws IOException {
+            datagramSocket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+            datagramSocket.setReceiveBufferSize(4 * 1024 * 1024);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final DatagramPacket packet = new DatagramPacket(new byte[65536], 65536);
+                    try {
+                        while (!datagramSocket.isClosed()) {
+                            datagramSocket.receive(packet);
+                        }
+                    } catch (IOException e) {
+                        // socket closed at the end of the trial
+                    }
+                }
+            });
+            return datagramSocket.getLocalPort();
+        }
+
+        private int startTcpReceiver() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (!serverSocket.isClosed()) {
+                            discard(serverSocket.accept());
+                        }
+                    } catch (IOException e) {
+                        // socket closed at the end of the trial
+                    }
+                }
+            });
+            return serverSocket.getLocalPort();
+        }
+
+        private void discard(final Socket socket) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final byte[] buffer = new byte[65536];
+                    try (InputStream in = socket.getInputStream()) {
+                        while (in.read(buffer) != -1) {
+                            continue;
+                        }
+                    } catch (IOException e) {
+                        // connection closed at the end of the trial
+                    }
+                }
+            });
+        }
+
+        /**
+         * Builds a simple, unique event instance.
+         *
+         * @return Event instance
+         */
+        protected JsonValue buildUniqueEvent() {
+            final String simpleId = Long.toString(counter.getAndIncrement());
+            return json(object(field(FIELD_CONTENT_ID, simpleId), field(TIMESTAMP, simpleId),
+                    field(TRANSACTION_ID, simpleId)));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public ResourceResponse write(final WriteState state) throws Exception {
+        return state.handler.publishEvent(null, ACCESS, state.buildUniqueEvent()).getOrThrow();
+    }
+}
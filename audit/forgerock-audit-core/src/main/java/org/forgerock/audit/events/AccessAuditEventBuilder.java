@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events;
 
@@ -20,6 +21,7 @@ import static org.forgerock.json.JsonValue.json;
 import static org.forgerock.json.JsonValue.object;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -120,6 +122,17 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
 
     private static final Logger logger = LoggerFactory.getLogger(AccessAuditEventBuilder.class);
 
+    /* Layouts of the fixed-shape nested objects, which are built as flat records rather than hash maps. */
+    private static final AuditEventRecord.Layout ADDRESS = new AuditEventRecord.Layout(IP, PORT);
+    private static final AuditEventRecord.Layout REQUEST_DETAILS =
+            new AuditEventRecord.Layout(PROTOCOL, OPERATION, DETAIL);
+    private static final AuditEventRecord.Layout HTTP_DETAILS = new AuditEventRecord.Layout(REQUEST, RESPONSE);
+    private static final AuditEventRecord.Layout HTTP_REQUEST_DETAILS =
+            new AuditEventRecord.Layout(SECURE, METHOD, PATH, QUERY_PARAMETERS, HEADERS, COOKIES);
+    private static final AuditEventRecord.Layout HTTP_RESPONSE_DETAILS = new AuditEventRecord.Layout(HEADERS, COOKIES);
+    private static final AuditEventRecord.Layout RESPONSE_DETAILS =
+            new AuditEventRecord.Layout(STATUS, STATUS_CODE, ELAPSED_TIME, ELAPSED_TIME_UNITS, DETAIL);
+
     private boolean performReverseDnsLookup = false;
 
     /**
@@ -153,6 +166,16 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
         return performReverseDnsLookup;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<String> getEventFieldNames() {
+        final List<String> names = new ArrayList<>(super.getEventFieldNames());
+        names.addAll(Arrays.asList(SERVER, CLIENT, REQUEST, HTTP, RESPONSE));
+        return names;
+    }
+
     /**
      * Sets the provided server values for the event.
      *
@@ -161,9 +184,9 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
      * @return this builder
      */
     public final T server(String ip, int port) {
-        final Object server = object(
-                field(IP, ip),
-                field(PORT, port));
+        final AuditEventRecord server = new AuditEventRecord(ADDRESS);
+        server.put(IP, ip);
+        server.put(PORT, port);
         jsonValue.put(SERVER, server);
         return self();
     }
@@ -176,9 +199,9 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
      * @return this builder
      */
     public final T client(String ip, int port) {
-        final Object client = object(
-                field(IP, ip),
-                field(PORT, port));
+        final AuditEventRecord client = new AuditEventRecord(ADDRESS);
+        client.put(IP, ip);
+        client.put(PORT, port);
         jsonValue.put(CLIENT, client);
         return self();
     }
@@ -190,8 +213,8 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
      * @return this builder
      */
     public final T client(String ip) {
-        final Object client = object(
-                field(IP, ip));
+        final AuditEventRecord client = new AuditEventRecord(ADDRESS);
+        client.put(IP, ip);
         jsonValue.put(CLIENT, client);
         return self();
     }
@@ -204,9 +227,9 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
      * @return this builder
      */
     public final T request(String protocol, String operation) {
-        final Object request = object(
-                field(PROTOCOL, protocol),
-                field(OPERATION, operation));
+        final AuditEventRecord request = new AuditEventRecord(REQUEST_DETAILS);
+        request.put(PROTOCOL, protocol);
+        request.put(OPERATION, operation);
         jsonValue.put(REQUEST, request);
         return self();
     }
@@ -221,10 +244,10 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
      */
     public final T request(String protocol, String operation, JsonValue detail) {
         Reject.ifNull(detail);
-        final Object request = object(
-                field(PROTOCOL, protocol),
-                field(OPERATION, operation),
-                field(DETAIL, detail.getObject()));
+        final AuditEventRecord request = new AuditEventRecord(REQUEST_DETAILS);
+        request.put(PROTOCOL, protocol);
+        request.put(OPERATION, operation);
+        request.put(DETAIL, detail.getObject());
         jsonValue.put(REQUEST, request);
         return self();
     }
@@ -271,13 +294,13 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
      */
     public final T httpRequest(boolean secure, String method, String path,  Map<String, List<String>> queryParameters,
             Map<String, List<String>> headers, Map<String, String> cookies) {
-        final Object httpRequest = object(
-                field(SECURE, secure),
-                field(METHOD, method),
-                field(PATH, path),
-                field(QUERY_PARAMETERS, queryParameters),
-                field(HEADERS, headers),
-                field(COOKIES, cookies));
+        final AuditEventRecord httpRequest = new AuditEventRecord(HTTP_REQUEST_DETAILS);
+        httpRequest.put(SECURE, secure);
+        httpRequest.put(METHOD, method);
+        httpRequest.put(PATH, path);
+        httpRequest.put(QUERY_PARAMETERS, queryParameters);
+        httpRequest.put(HEADERS, headers);
+        httpRequest.put(COOKIES, cookies);
         getOrCreateHttp().put(REQUEST, httpRequest);
         return self();
     }
@@ -289,7 +312,8 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
      * @return this builder
      */
     public final T httpResponse(Map<String, List<String>> headers) {
-        final Object httpResponse = object(field(HEADERS, headers));
+        final AuditEventRecord httpResponse = new AuditEventRecord(HTTP_RESPONSE_DETAILS);
+        httpResponse.put(HEADERS, headers);
         getOrCreateHttp().put(RESPONSE, httpResponse);
         return self();
     }
@@ -297,7 +321,7 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
     @VisibleForTesting
     JsonValue getOrCreateHttp() {
         if (jsonValue.get(HTTP).isNull()) {
-            jsonValue.put(HTTP, object());
+            jsonValue.put(HTTP, new AuditEventRecord(HTTP_DETAILS));
         }
         return jsonValue.get(HTTP);
     }
@@ -305,7 +329,7 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
     @VisibleForTesting
     JsonValue getOrCreateHttpResponse() {
         if (getOrCreateHttp().get(RESPONSE).isNull()) {
-            getOrCreateHttp().put(RESPONSE, object());
+            getOrCreateHttp().put(RESPONSE, new AuditEventRecord(HTTP_RESPONSE_DETAILS));
         }
         return getOrCreateHttp().get(RESPONSE);
     }
@@ -331,12 +355,7 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
      * @return this builder
      */
     public final T response(ResponseStatus status, String statusCode, long elapsedTime, TimeUnit elapsedTimeUnits) {
-        final Object response = object(
-                field(STATUS, status == null ? null : status.toString()),
-                field(STATUS_CODE, statusCode),
-                field(ELAPSED_TIME, elapsedTime),
-                field(ELAPSED_TIME_UNITS, elapsedTimeUnits == null ? null : elapsedTimeUnits.name()));
-        jsonValue.put(RESPONSE, response);
+        jsonValue.put(RESPONSE, newResponse(status, statusCode, elapsedTime, elapsedTimeUnits));
         return self();
     }
 
@@ -353,16 +372,22 @@ public class AccessAuditEventBuilder<T extends AccessAuditEventBuilder<T>> exten
     public final T responseWithDetail(ResponseStatus status, String statusCode,
             long elapsedTime, TimeUnit elapsedTimeUnits, JsonValue detail) {
         Reject.ifNull(detail);
-        final Object response = object(
-                field(STATUS, status == null ? null : status.toString()),
-                field(STATUS_CODE, statusCode),
-                field(ELAPSED_TIME, elapsedTime),
-                field(ELAPSED_TIME_UNITS, elapsedTimeUnits == null ? null : elapsedTimeUnits.name()),
-                field(DETAIL, detail.getObject()));
+        final AuditEventRecord response = newResponse(status, statusCode, elapsedTime, elapsedTimeUnits);
+        response.put(DETAIL, detail.getObject());
         jsonValue.put(RESPONSE, response);
         return self();
     }
 
+    private static AuditEventRecord newResponse(ResponseStatus status, String statusCode,
+            long elapsedTime, TimeUnit elapsedTimeUnits) {
+        final AuditEventRecord response = new AuditEventRecord(RESPONSE_DETAILS);
+        response.put(STATUS, status == null ? null : status.toString());
+        response.put(STATUS_CODE, statusCode);
+        response.put(ELAPSED_TIME, elapsedTime);
+        response.put(ELAPSED_TIME_UNITS, elapsedTimeUnits == null ? null : elapsedTimeUnits.name());
+        return response;
+    }
+
     /**
      * Sets client ip, port and host from <code>ClientContext</code>, if the provided
      * <code>Context</code> contains a <code>ClientContext</code>.
@@ -12,9 +12,12 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events;
 
+import java.util.Map;
+
 import org.forgerock.json.JsonValue;
 import org.forgerock.util.Reject;
 
@@ -23,7 +26,8 @@ import org.forgerock.util.Reject;
  */
 public class AuditEvent {
 
-    private final JsonValue value;
+    private final Map<String, Object> content;
+    private JsonValue value;
 
     /**
      * Creates an audit event for the provided non-null Json value.
@@ -32,22 +36,38 @@ public class AuditEvent {
      */
     AuditEvent(JsonValue value) {
         Reject.ifNull(value);
+        this.content = null;
         this.value = value;
     }
 
+    /**
+     * Creates an audit event for the provided non-null event fields; the Json value is only created once
+     * {@link #getValue()} is called.
+     *
+     * @param content the fields of the event
+     */
+    AuditEvent(Map<String, Object> content) {
+        Reject.ifNull(content);
+        this.content = content;
+    }
+
     /**
      * Returns the Json value of this event.
      *
      * @return the event Json value.
      */
     public JsonValue getValue() {
+        if (value == null) {
+            // racing threads may each wrap the same content, which is harmless
+            value = new JsonValue(content);
+        }
         return value;
     }
 
     /** {@inheritDoc} */
     @Override
     public String toString() {
-        return "AuditEvent [value=" + value + "]";
+        return "AuditEvent [value=" + getValue() + "]";
     }
 
 }
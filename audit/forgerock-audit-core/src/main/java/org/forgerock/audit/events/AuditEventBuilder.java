@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events;
 
@@ -23,7 +24,10 @@ import org.forgerock.services.context.Context;
 import org.forgerock.services.context.TransactionIdContext;
 import org.forgerock.util.Reject;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -44,9 +48,21 @@ public abstract class AuditEventBuilder<T extends AuditEventBuilder<T>> {
     /** Tracking IDs event payload field name. */
     public static final String TRACKING_IDS = "trackingIds";
 
+    /** Top-level fields common to every event topic, in schema order. */
+    private static final List<String> EVENT_FIELD_NAMES = Collections.unmodifiableList(Arrays.asList(
+            "_id", TIMESTAMP, EVENT_NAME, TRANSACTION_ID, USER_ID, TRACKING_IDS));
+
+    private static final DateUtil UTC = DateUtil.getDateUtil("UTC");
+
+    /** The most recently formatted timestamp, shared by all builders. */
+    private static volatile FormattedTimestamp lastTimestamp;
+
     /** Represents the event as a JSON value. */
     protected JsonValue jsonValue = json(object());
 
+    /** Backing map of {@link #jsonValue} when {@link #withReusableRecord()} is in effect, otherwise null. */
+    private AuditEventRecord record;
+
     /** Flag used to ensure super class implementations of validate() get called by subclasses. */
     private boolean superValidateCalled = false;
 
@@ -94,11 +110,50 @@ public abstract class AuditEventBuilder<T extends AuditEventBuilder<T>> {
             throw new IllegalStateException("Subclasses overriding validate() must call super.validate()");
         }
 
-        AuditEvent auditEvent = new AuditEvent(jsonValue);
-        jsonValue = json(object());
+        AuditEvent auditEvent;
+        if (record != null) {
+            auditEvent = new AuditEvent(record.snapshot());
+            record.reset();
+        } else {
+            auditEvent = new AuditEvent(jsonValue);
+            jsonValue = json(object());
+        }
+        trackingIdEntries.clear();
         return auditEvent;
     }
 
+    /**
+     * Switches this builder to a reusable, schema-ordered record for the event fields.
+     * <p>
+     * Fields are then stored in a flat array laid out by {@link #getEventFieldNames()} instead of a hash map,
+     * {@link #toEvent()} hands out a compact copy of that array, and the event's {@link JsonValue} is only
+     * created when it is first requested. This is intended for callers that keep one builder per thread and build
+     * many events with it. Any fields set so far are carried over.
+     *
+     * @return this builder
+     */
+    public final T withReusableRecord() {
+        if (record == null) {
+            record = new AuditEventRecord(new AuditEventRecord.Layout(
+                    getEventFieldNames().toArray(new String[0])));
+            record.putAll(jsonValue.asMap());
+            jsonValue = new JsonValue(record);
+        }
+        return self();
+    }
+
+    /**
+     * Returns the names of the top-level fields of events built by this builder, in the order of the event topic's
+     * schema. Used to lay out the record enabled by {@link #withReusableRecord()}; other fields are still accepted.
+     * <p>
+     * Subclasses adding fields should append them to the super class implementation's result.
+     *
+     * @return the top-level event field names
+     */
+    protected List<String> getEventFieldNames() {
+        return EVENT_FIELD_NAMES;
+    }
+
     /**
      * Called by {@link #toEvent()} to allow any unset fields to be given their default value.
      *
@@ -161,10 +216,42 @@ public abstract class AuditEventBuilder<T extends AuditEventBuilder<T>> {
      */
     public final T timestamp(long timestamp) {
         Reject.ifTrue(timestamp <= 0, "The timestamp has to be greater than 0.");
-        jsonValue.put(TIMESTAMP, DateUtil.getDateUtil("UTC").formatDateTime(timestamp));
+        jsonValue.put(TIMESTAMP, formatTimestamp(timestamp));
         return self();
     }
 
+    /**
+     * Formats the timestamp as ISO-8601 in UTC. Consecutive events usually share a millisecond, or at least a
+     * second, so the last result is cached and only the millisecond digits are rebuilt within the same second.
+     */
+    static String formatTimestamp(long timestamp) {
+        final FormattedTimestamp last = lastTimestamp;
+        if (last != null) {
+            if (last.millis == timestamp) {
+                return last.formatted;
+            }
+            if (last.secondPrefix != null && last.second == timestamp / 1000) {
+                final int millis = (int) (timestamp % 1000);
+                final String formatted = new StringBuilder(last.secondPrefix.length() + 4)
+                        .append(last.secondPrefix)
+                        .append((char) ('0' + millis / 100))
+                        .append((char) ('0' + millis / 10 % 10))
+                        .append((char) ('0' + millis % 10))
+                        .append('Z')
+                        .toString();
+                lastTimestamp = new FormattedTimestamp(timestamp, formatted, last.secondPrefix);
+                return formatted;
+            }
+        }
+        final String formatted = UTC.formatDateTime(timestamp);
+        // "...ss.SSSZ": keep everything up to and including the '.' so later millis can reuse it
+        final int length = formatted.length();
+        final String secondPrefix = length > 5 && formatted.charAt(length - 1) == 'Z'
+                && formatted.charAt(length - 5) == '.' ? formatted.substring(0, length - 4) : null;
+        lastTimestamp = new FormattedTimestamp(timestamp, formatted, secondPrefix);
+        return formatted;
+    }
+
     /**
      * Sets the provided transactionId for the event.
      *
@@ -228,4 +315,21 @@ public abstract class AuditEventBuilder<T extends AuditEventBuilder<T>> {
         }
         return self();
     }
+
+    /**
+     * A formatted timestamp together with the formatted text of its second.
+     */
+    private static final class FormattedTimestamp {
+        private final long millis;
+        private final long second;
+        private final String formatted;
+        private final String secondPrefix;
+
+        FormattedTimestamp(long millis, String formatted, String secondPrefix) {
+            this.millis = millis;
+            this.second = millis / 1000;
+            this.formatted = formatted;
+            this.secondPrefix = secondPrefix;
+        }
+    }
 }
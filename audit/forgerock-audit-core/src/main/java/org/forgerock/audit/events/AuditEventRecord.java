@@ -0,0 +1,309 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.events;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A {@link Map} holding the fields of an audit event object in a fixed, schema-ordered array of slots.
+ * <p>
+ * The field names are described once by a shared {@link Layout}, so storing a field is an array write rather than
+ * a hash entry allocation. Fields that are not part of the layout are kept in an overflow map and iterated after the
+ * layout fields. {@code null} values are supported and are distinct from absent fields.
+ * <p>
+ * Instances are not thread-safe.
+ */
+final class AuditEventRecord extends AbstractMap<String, Object> {
+
+    private static final Object ABSENT = new Object();
+
+    private final Layout layout;
+    private final Object[] values;
+    private int present;
+    private Map<String, Object> overflow;
+
+    /**
+     * Creates an empty record.
+     *
+     * @param layout the field names of the record, in iteration order.
+     */
+    AuditEventRecord(Layout layout) {
+        this.layout = layout;
+        this.values = new Object[layout.names.length];
+        reset();
+    }
+
+    private AuditEventRecord(AuditEventRecord source) {
+        this.layout = source.layout;
+        this.values = source.values.clone();
+        this.present = source.present;
+        this.overflow = source.overflow == null ? null : new LinkedHashMap<>(source.overflow);
+    }
+
+    /**
+     * Returns a copy of this record which shares its layout.
+     *
+     * @return a copy of this record.
+     */
+    AuditEventRecord snapshot() {
+        return new AuditEventRecord(this);
+    }
+
+    /**
+     * Removes all fields, keeping the allocated slots for reuse.
+     */
+    void reset() {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ABSENT;
+        }
+        present = 0;
+        overflow = null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int slot = layout.slotOf(key);
+        if (slot >= 0) {
+            Object value = values[slot];
+            return value == ABSENT ? null : value;
+        }
+        return overflow == null ? null : overflow.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int slot = layout.slotOf(key);
+        if (slot >= 0) {
+            return values[slot] != ABSENT;
+        }
+        return overflow != null && overflow.containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int slot = layout.slotOf(key);
+        if (slot >= 0) {
+            Object previous = values[slot];
+            values[slot] = value;
+            if (previous == ABSENT) {
+                present++;
+                return null;
+            }
+            return previous;
+        }
+        if (overflow == null) {
+            overflow = new LinkedHashMap<>();
+        }
+        return overflow.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int slot = layout.slotOf(key);
+        if (slot >= 0) {
+            return removeSlot(slot);
+        }
+        return overflow == null ? null : overflow.remove(key);
+    }
+
+    private Object removeSlot(int slot) {
+        Object previous = values[slot];
+        if (previous == ABSENT) {
+            return null;
+        }
+        values[slot] = ABSENT;
+        present--;
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return present + (overflow == null ? 0 : overflow.size());
+    }
+
+    @Override
+    public void clear() {
+        reset();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return AuditEventRecord.this.size();
+            }
+        };
+    }
+
+    /**
+     * Iterates the present layout slots in order, then the overflow entries.
+     */
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+        private int next = -1;
+        private int last = -1;
+        private Iterator<Entry<String, Object>> overflowIterator;
+        private boolean lastFromOverflow;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            do {
+                next++;
+            } while (next < values.length && values[next] == ABSENT);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < values.length) {
+                return true;
+            }
+            if (overflowIterator == null && overflow != null) {
+                overflowIterator = overflow.entrySet().iterator();
+            }
+            return overflowIterator != null && overflowIterator.hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (next < values.length) {
+                last = next;
+                lastFromOverflow = false;
+                advance();
+                return new SlotEntry(last);
+            }
+            lastFromOverflow = true;
+            return overflowIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (lastFromOverflow) {
+                overflowIterator.remove();
+            } else if (last >= 0) {
+                removeSlot(last);
+                last = -1;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    /**
+     * Write-through view of a single layout slot.
+     */
+    private final class SlotEntry implements Entry<String, Object> {
+
+        private final int slot;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getKey() {
+            return layout.names[slot];
+        }
+
+        @Override
+        public Object getValue() {
+            Object value = values[slot];
+            return value == ABSENT ? null : value;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object previous = getValue();
+            values[slot] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> other = (Entry<?, ?>) o;
+            Object value = getValue();
+            return getKey().equals(other.getKey())
+                    && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * The ordered field names of a family of records, shared by every record created from it.
+     */
+    static final class Layout {
+
+        private final String[] names;
+
+        /**
+         * Creates a layout.
+         *
+         * @param names the field names, in iteration order.
+         */
+        Layout(String... names) {
+            this.names = names.clone();
+        }
+
+        /**
+         * Returns the slot holding <code>key</code>, or -1 if it is not part of this layout.
+         * Layouts are small and keys are usually the interned field name constants, so an identity scan
+         * is tried before falling back to {@link String#equals(Object)}.
+         */
+        int slotOf(Object key) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i] == key) {
+                    return i;
+                }
+            }
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -12,9 +12,12 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -71,6 +74,16 @@ public class AuthenticationAuditEventBuilder<T extends AuthenticationAuditEventB
         return new AuthenticationAuditEventBuilder();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<String> getEventFieldNames() {
+        final List<String> names = new ArrayList<>(super.getEventFieldNames());
+        names.addAll(Arrays.asList(RESULT, PRINCIPAL, CONTEXT, ENTRIES));
+        return names;
+    }
+
     /**
      * Sets the authentication audit event overall result.
      *
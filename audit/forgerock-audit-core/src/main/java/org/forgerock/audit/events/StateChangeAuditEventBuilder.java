@@ -12,11 +12,16 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events;
 
 import static org.forgerock.json.JsonValue.array;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.resource.ActionRequest;
 import org.forgerock.json.resource.Request;
@@ -34,6 +39,16 @@ abstract class StateChangeAuditEventBuilder<T extends StateChangeAuditEventBuild
     public static final String REVISION = "revision";
     public static final String CHANGED_FIELDS = "changedFields";
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<String> getEventFieldNames() {
+        final List<String> names = new ArrayList<>(super.getEventFieldNames());
+        names.addAll(Arrays.asList(RUN_AS, OBJECT_ID, OPERATION, BEFORE, AFTER, CHANGED_FIELDS, REVISION));
+        return names;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events.handlers;
 
@@ -53,6 +54,8 @@ public abstract class FileBasedEventHandlerConfiguration extends EventHandlerCon
     private FileRetention fileRetention = new FileRetention();
     @JsonPropertyDescription("audit.handlers.file.rotationRetentionCheckInterval")
     private String rotationRetentionCheckInterval = "5s";
+    @JsonPropertyDescription("audit.handlers.file.fileDurability")
+    private FileDurability fileDurability = new FileDurability();
 
     /**
      * Gets the {@link FileRotation}.
@@ -90,6 +93,24 @@ public abstract class FileBasedEventHandlerConfiguration extends EventHandlerCon
         this.fileRetention = fileRetention;
     }
 
+    /**
+     * Gets the {@link FileDurability}.
+     * @return Not-null, The {@link FileDurability}.
+     */
+    public FileDurability getFileDurability() {
+        return fileDurability;
+    }
+
+    /**
+     * Sets the {@link FileDurability}.
+     *
+     * @param fileDurability Not-null, The {@link FileDurability}.
+     */
+    public void setFileDurability(final FileDurability fileDurability) {
+        Reject.ifNull(fileDurability);
+        this.fileDurability = fileDurability;
+    }
+
     /**
      * Gets the interval to check time-based file rotation policies. The interval should be set as a {@link Duration}.
      * <p/>
@@ -357,6 +378,9 @@ public abstract class FileBasedEventHandlerConfiguration extends EventHandlerCon
         @JsonPropertyDescription("audit.handlers.file.minFreeSpaceRequired")
         private long minFreeSpaceRequired = ANY_DISK_SPACE;
 
+        @JsonPropertyDescription("audit.handlers.file.compressArchives")
+        private boolean compressArchives;
+
         /**
          * Gets the maximum number of historical log files to retain. -1 disables pruning of old history files.
          * @return The maximum number of log files. -1 disables pruning of old history files.
@@ -409,6 +433,24 @@ public abstract class FileBasedEventHandlerConfiguration extends EventHandlerCon
             this.minFreeSpaceRequired = minFreeSpaceRequired;
         }
 
+        /**
+         * Gets whether rotated audit files are compressed in the background before the retention policies are
+         * applied, so that more history fits within the configured disk space.
+         * @return {@code true} if rotated audit files are compressed.
+         */
+        public boolean isCompressArchives() {
+            return compressArchives;
+        }
+
+        /**
+         * Sets whether rotated audit files are compressed in the background before the retention policies are
+         * applied, so that more history fits within the configured disk space.
+         * @param compressArchives {@code true} if rotated audit files are compressed.
+         */
+        public void setCompressArchives(final boolean compressArchives) {
+            this.compressArchives = compressArchives;
+        }
+
         /**
          * Builds {@link RetentionPolicy} instances from configuration options.
          *
@@ -439,6 +481,86 @@ public abstract class FileBasedEventHandlerConfiguration extends EventHandlerCon
         }
     }
 
+    /**
+     * Determines when written audit events are forced to the storage device.
+     */
+    public enum DurabilityMode {
+        /** Events are written to the file, and the operating system decides when they reach the disk. */
+        NONE,
+        /** Written events are forced to the disk at a fixed {@link FileDurability#getSyncInterval() interval}. */
+        PERIODIC,
+        /**
+         * Events are forced to the disk in groups, and publishing an event completes only once the group holding
+         * it has been forced.
+         */
+        GROUP_COMMIT
+    }
+
+    /**
+     * Groups the file durability config parameters.
+     */
+    public static class FileDurability {
+
+        /** The default interval between two forced writes when {@link DurabilityMode#PERIODIC} is used. */
+        public static final String DEFAULT_SYNC_INTERVAL = "1s";
+
+        @JsonPropertyDescription("audit.handlers.file.durabilityMode")
+        private DurabilityMode mode = DurabilityMode.NONE;
+
+        @JsonPropertyDescription("audit.handlers.file.syncInterval")
+        private String syncInterval = DEFAULT_SYNC_INTERVAL;
+
+        /**
+         * Gets the durability mode. By default, the durability mode is {@link DurabilityMode#NONE}.
+         * @return The durability mode.
+         */
+        public DurabilityMode getMode() {
+            return mode;
+        }
+
+        /**
+         * Sets the durability mode. By default, the durability mode is {@link DurabilityMode#NONE}.
+         * @param mode Not-null, The durability mode.
+         */
+        public void setMode(final DurabilityMode mode) {
+            Reject.ifNull(mode);
+            this.mode = mode;
+        }
+
+        /**
+         * Gets the interval at which written events are forced to the disk. This is only used when
+         * {@link DurabilityMode#PERIODIC} is enabled. The interval should be set as a {@link Duration}.
+         * @return The interval duration.
+         */
+        public String getSyncInterval() {
+            return syncInterval;
+        }
+
+        /**
+         * Sets the interval at which written events are forced to the disk. This is only used when
+         * {@link DurabilityMode#PERIODIC} is enabled. The interval should be set as a {@link Duration}.
+         * @param syncInterval The interval duration.
+         */
+        public void setSyncInterval(final String syncInterval) {
+            this.syncInterval = syncInterval;
+        }
+
+        /**
+         * Gets the {@link #getSyncInterval() sync interval} as a {@link Duration}, falling back to
+         * {@link #DEFAULT_SYNC_INTERVAL} if the configured value is not a valid, finite and non-zero duration.
+         *
+         * @return The sync interval duration.
+         */
+        @JsonIgnore
+        public Duration getSyncIntervalDuration() {
+            final Duration duration = parseDuration("sync interval", getSyncInterval(), null);
+            if (duration == null || duration.isZero() || duration.isUnlimited()) {
+                return Duration.duration(DEFAULT_SYNC_INTERVAL);
+            }
+            return duration;
+        }
+    }
+
     private static Duration parseDuration(final String description, final String duration,
             final Duration defaultValue) {
         try {
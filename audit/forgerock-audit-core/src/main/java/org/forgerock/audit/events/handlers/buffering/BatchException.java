@@ -12,31 +12,115 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events.handlers.buffering;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Indicates failure during a batch operation.
+ * <p>
+ * A batch may fail as a whole, or only some of its items may have failed, the others having been accepted by the
+ * sink. Items are identified by their index in the batch, that is the order in which they were
+ * {@link BatchConsumer#addToBatch added} to the batch payload. Failures are retriable unless stated otherwise, and
+ * items which failed permanently are not published again.
  */
 public final class BatchException extends Exception {
 
+    private static final long serialVersionUID = 1L;
+
+    private final boolean retriable;
+    private final Set<Integer> failedItems;
+    private final Set<Integer> retriableItems;
+
     /**
-     * Constructs a new {@code BatchException} with given message.
+     * Constructs a new {@code BatchException} with given message, for a retriable failure of the whole batch.
      *
      * @param message Message
      */
     public BatchException(String message) {
-        super(message);
+        this(message, null, true);
     }
 
     /**
-     * Constructs a new {@code BatchException} with given message and cause.
+     * Constructs a new {@code BatchException} with given message and cause, for a retriable failure of the whole
+     * batch.
      *
      * @param message Message
      * @param cause Cause of this {@code BatchException}
      */
     public BatchException(String message, Throwable cause) {
+        this(message, cause, true);
+    }
+
+    /**
+     * Constructs a new {@code BatchException} with given message and cause, for a failure of the whole batch.
+     *
+     * @param message Message
+     * @param cause Cause of this {@code BatchException}, or {@code null}
+     * @param retriable Whether publishing the batch again may succeed
+     */
+    public BatchException(String message, Throwable cause, boolean retriable) {
         super(message, cause);
+        this.retriable = retriable;
+        this.failedItems = null;
+        this.retriableItems = null;
+    }
+
+    /**
+     * Constructs a new {@code BatchException} with given message, for a failure of some items of the batch only.
+     *
+     * @param message Message
+     * @param failedItems Indexes of the items which failed, the other items having been accepted
+     * @param retriableItems Indexes of the failed items which may succeed if published again
+     */
+    public BatchException(String message, Collection<Integer> failedItems, Collection<Integer> retriableItems) {
+        super(message);
+        this.failedItems = Collections.unmodifiableSet(new HashSet<>(failedItems));
+        this.retriableItems = Collections.unmodifiableSet(new HashSet<>(retriableItems));
+        this.retriable = !this.retriableItems.isEmpty();
+    }
+
+    /**
+     * Returns whether only some items of the batch failed.
+     *
+     * @return {@code true} if the other items of the batch have been accepted
+     */
+    public boolean isPartial() {
+        return failedItems != null;
+    }
+
+    /**
+     * Returns whether publishing the batch, or its failed items, again may succeed.
+     *
+     * @return {@code true} if at least one failed item is retriable
+     */
+    public boolean isRetriable() {
+        return retriable;
+    }
+
+    /**
+     * Returns whether an item of the batch failed.
+     *
+     * @param index Index of the item in the batch
+     * @return {@code true} if the item failed, or if the whole batch failed
+     */
+    public boolean isFailed(int index) {
+        return failedItems == null || failedItems.contains(index);
+    }
+
+    /**
+     * Returns whether an item of the batch failed, and may succeed if published again.
+     *
+     * @param index Index of the item in the batch
+     * @return {@code true} if the item failed with a retriable error
+     */
+    public boolean isRetriable(int index) {
+        return retriableItems == null ? retriable : retriableItems.contains(index);
     }
 
 }
@@ -12,23 +12,30 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events.handlers.buffering;
 
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.forgerock.audit.batch.CommonAuditBatchConfiguration;
 import org.forgerock.json.JsonValue;
-import org.forgerock.util.Function;
 import org.forgerock.util.Reject;
+import org.forgerock.util.promise.ExceptionHandler;
+import org.forgerock.util.promise.ResultHandler;
 import org.forgerock.util.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +43,24 @@ import org.slf4j.LoggerFactory;
 /**
  * Buffers audit events to a bounded queue, periodically flushing the queue to a provided {@link BatchConsumer}.
  * If the bounded queue becomes full, further events are dropped until the queue is next flushed.
+ * <p>
+ * Several batches may be published concurrently, up to the configured maximum number of in-flight batches, and
+ * a batch is cut early once its payload reaches the configured maximum size. When a target batch latency is
+ * configured, the number of events per batch grows while batches complete within the target and is halved when
+ * they take longer or fail.
+ * <p>
+ * When a {@link SpillQueue} is configured, events that do not fit in the queue, and the events of batches that
+ * fail to publish with a retriable error, are spilled to disk instead of being dropped. Only the failed items of a
+ * partially failed batch are spilled, while events which failed with a permanent error are moved to the dead-letter
+ * file of the {@link SpillQueue}. While spilled events are pending, newly offered events are also spilled so that
+ * they are published in order, and spilled events are replayed one batch at a time whenever the queue has been
+ * drained, subject to the replay rate of the {@link SpillQueue}. Events still pending at shutdown are kept on disk,
+ * and replayed after the next startup.
+ * <p>
+ * A failed replay is attempted again after an exponential backoff. Once several consecutive replays have failed,
+ * newly offered events are published directly until a replay succeeds, so that a batch which cannot be delivered
+ * does not hold up live events, and once the configured number of replay attempts has failed, the events of the
+ * batch are moved to the dead-letter file.
  */
 public final class BufferedBatchPublisher implements BatchPublisher {
 
@@ -45,20 +70,32 @@ public final class BufferedBatchPublisher implements BatchPublisher {
     private final ScheduledExecutorService scheduler;
     private final QueueConsumer queueConsumer;
     private final Duration writeInterval;
+    private final SpillQueue spillQueue;
 
     private BufferedBatchPublisher(BuilderImpl builder) {
         queue = new ArrayBlockingQueue<>(builder.capacity);
         scheduler = Executors.newScheduledThreadPool(1);
         queueConsumer = new QueueConsumer(builder.maxBatchedEvents, builder.averagePerEventPayloadSize,
-                builder.autoFlush, queue, scheduler, builder.batchConsumer);
+                builder.autoFlush, queue, scheduler, builder.batchConsumer, builder.maxInFlightBatches,
+                builder.maxBatchPayloadSize, builder.targetBatchLatency, builder.spillQueue, builder.writeInterval,
+                builder.maxReplayAttempts);
         this.writeInterval = builder.writeInterval;
+        this.spillQueue = builder.spillQueue;
     }
 
     /**
-     * Starts periodically sending batch data.
+     * Starts periodically sending batch data, after opening the spill queue when one is configured. If the spill
+     * queue cannot be opened, events are only buffered in memory.
      */
     @Override
     public void startup() {
+        if (spillQueue != null) {
+            try {
+                spillQueue.open();
+            } catch (IOException e) {
+                logger.error("Unable to open spill queue, events will only be buffered in memory", e);
+            }
+        }
         scheduler.scheduleAtFixedRate(queueConsumer, 0, writeInterval.to(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
     }
 
@@ -85,7 +122,14 @@ public final class BufferedBatchPublisher implements BatchPublisher {
      */
     @Override
     public boolean offer(final String topic, final JsonValue event) {
-        return queue.offer(new BatchEntry(topic, event));
+        if (spillQueue == null) {
+            return queue.offer(new BatchEntry(topic, event));
+        }
+        if (!spillQueue.isEmpty() && !queueConsumer.isReplayStuck()) {
+            // keep events in order while spilled events are pending, unless they cannot currently be replayed
+            return spillQueue.append(topic, event);
+        }
+        return queue.offer(new BatchEntry(topic, event)) || spillQueue.append(topic, event);
     }
 
     /**
@@ -95,6 +139,7 @@ public final class BufferedBatchPublisher implements BatchPublisher {
 
         private final String topic;
         private final JsonValue event;
+        private final int failedAttempts;
 
         /**
          * Creates a new audit-event batch entry.
@@ -105,8 +150,23 @@ public final class BufferedBatchPublisher implements BatchPublisher {
          *         Event JSON payload
          */
         public BatchEntry(final String topic, final JsonValue event) {
+            this(topic, event, 0);
+        }
+
+        /**
+         * Creates a new audit-event batch entry for an event which already failed to be published.
+         *
+         * @param topic
+         *         Event topic
+         * @param event
+         *         Event JSON payload
+         * @param failedAttempts
+         *         Number of times publishing the event has failed
+         */
+        public BatchEntry(final String topic, final JsonValue event, final int failedAttempts) {
             this.topic = topic;
             this.event = event;
+            this.failedAttempts = failedAttempts;
         }
 
         /**
@@ -126,14 +186,33 @@ public final class BufferedBatchPublisher implements BatchPublisher {
         public String getTopic() {
             return topic;
         }
+
+        /**
+         * Gets the number of times publishing the event has failed.
+         *
+         * @return Number of failed attempts
+         */
+        public int getFailedAttempts() {
+            return failedAttempts;
+        }
     }
 
     /**
      * Consumer of the audit-event batch queue, which can be scheduled to run periodically. This class is not
-     * thread-safe, and is intended to be run by a single thread.
+     * thread-safe, and is intended to be run by a single thread, although published batches complete on the
+     * threads of the {@link BatchConsumer}.
      */
     private static class QueueConsumer implements Runnable {
 
+        /** Lower bound of the adaptive batch size. */
+        private static final int MIN_ADAPTIVE_BATCH_SIZE = 50;
+
+        /** Number of consecutive failed replays after which newly offered events are no longer spilled. */
+        private static final int STUCK_REPLAY_FAILURES = 3;
+
+        /** Upper bound of the delay before a failed replay is attempted again. */
+        private static final long MAX_REPLAY_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos(5);
+
         private final int maxBatchedEvents;
         private final boolean flushOnShutdown;
         private final BlockingQueue<BatchEntry> queue;
@@ -141,8 +220,20 @@ public final class BufferedBatchPublisher implements BatchPublisher {
         private final StringBuilder payload;
         private final BatchConsumer batchEventHandler;
         private final ScheduledExecutorService scheduler;
+        private final int maxInFlightBatches;
+        private final Semaphore inFlightBatches;
+        private final int maxBatchPayloadSize;
+        private final long targetBatchLatencyNanos;
+        private final SpillQueue spillQueue;
+        private final List<BatchEntry> payloadEntries;
+        private final AtomicBoolean replaying = new AtomicBoolean();
+        private final long writeIntervalNanos;
+        private final int maxReplayAttempts;
 
         private volatile boolean shutdown;
+        private volatile int batchSize;
+        private volatile int replayFailures;
+        private volatile long nextReplay;
 
         /**
          * Creates a {@code QueueConsumer}.
@@ -160,28 +251,62 @@ public final class BufferedBatchPublisher implements BatchPublisher {
          *         This runnable's scheduler
          * @param batchEventHandler
          *         Batch audit event handler
+         * @param maxInFlightBatches
+         *         Maximum number of batches published concurrently
+         * @param maxBatchPayloadSize
+         *         Number of characters after which a batch payload is published
+         * @param targetBatchLatency
+         *         Batch latency the batch size adapts to, or {@code null} for fixed-size batches
+         * @param spillQueue
+         *         Queue to which undelivered events are spilled, or {@code null} if events are only buffered in memory
+         * @param writeInterval
+         *         Interval between each run, from which the replay backoff starts
+         * @param maxReplayAttempts
+         *         Number of times an event is published before it is moved to the dead-letter file
          */
         public QueueConsumer(final int maxBatchedEvents, final int averagePerEventPayloadSize,
                 final boolean flushOnShutdown, final BlockingQueue<BatchEntry> queue,
-                final ScheduledExecutorService scheduler, final BatchConsumer batchEventHandler) {
+                final ScheduledExecutorService scheduler, final BatchConsumer batchEventHandler,
+                final int maxInFlightBatches, final int maxBatchPayloadSize, final Duration targetBatchLatency,
+                final SpillQueue spillQueue, final Duration writeInterval, final int maxReplayAttempts) {
             this.queue = queue;
             this.flushOnShutdown = flushOnShutdown;
             this.scheduler = scheduler;
             this.batchEventHandler = batchEventHandler;
             this.maxBatchedEvents = maxBatchedEvents;
+            this.maxInFlightBatches = maxInFlightBatches;
+            this.maxBatchPayloadSize = maxBatchPayloadSize;
+            inFlightBatches = new Semaphore(maxInFlightBatches);
+            targetBatchLatencyNanos = targetBatchLatency == null ? 0L : targetBatchLatency.to(TimeUnit.NANOSECONDS);
+            batchSize = targetBatchLatency == null ? maxBatchedEvents : min(MIN_ADAPTIVE_BATCH_SIZE, maxBatchedEvents);
             batch = new ArrayList<>(maxBatchedEvents);
-            payload = new StringBuilder(maxBatchedEvents * averagePerEventPayloadSize);
+            payload = new StringBuilder(min(maxBatchedEvents * averagePerEventPayloadSize, maxBatchPayloadSize));
+            this.spillQueue = spillQueue;
+            payloadEntries = spillQueue == null ? null : new ArrayList<BatchEntry>();
+            writeIntervalNanos = writeInterval.to(TimeUnit.NANOSECONDS);
+            this.maxReplayAttempts = maxReplayAttempts;
+        }
+
+        /**
+         * Returns whether the last replays of spilled events failed, in which case newly offered events are not held
+         * up behind the spilled events.
+         *
+         * @return {@code true} if spilled events cannot currently be replayed
+         */
+        boolean isReplayStuck() {
+            return replayFailures >= STUCK_REPLAY_FAILURES;
         }
 
         /**
-         * Informs queue consumer that shutdown has been triggered, and when {@code flushOnShutdown} is enabled,
-         * blocks until all events have been flushed from the queue.
+         * Informs queue consumer that shutdown has been triggered, and when {@code flushOnShutdown} is enabled or a
+         * spill queue is configured, blocks until all events have been flushed or spilled from the queue and all
+         * published batches have completed, before closing the spill queue.
          */
         public void shutdown() {
             if (!shutdown) {
                 shutdown = true;
 
-                if (flushOnShutdown) {
+                if (flushOnShutdown || spillQueue != null) {
                     // flush requested, so block in an non-cancelable way
                     boolean interrupted = false;
                     while (!scheduler.isTerminated()) {
@@ -191,6 +316,11 @@ public final class BufferedBatchPublisher implements BatchPublisher {
                             interrupted = true;
                         }
                     }
+                    inFlightBatches.acquireUninterruptibly(maxInFlightBatches);
+                    inFlightBatches.release(maxInFlightBatches);
+                    if (spillQueue != null) {
+                        spillQueue.close();
+                    }
                     if (interrupted) {
                         Thread.currentThread().interrupt();
                     }
@@ -202,35 +332,258 @@ public final class BufferedBatchPublisher implements BatchPublisher {
          * Performs batch operation.
          */
         private void batch() {
-            queue.drainTo(batch, maxBatchedEvents);
+            queue.drainTo(batch, batchSize);
             if (!batch.isEmpty()) {
                 try {
-                    // add to batch
+                    // add to batch, publishing early whenever the payload gets too large
                     for (final BatchEntry entry : batch) {
                         try {
                             batchEventHandler.addToBatch(entry.getTopic(), entry.getEvent(), payload);
+                            if (payloadEntries != null) {
+                                payloadEntries.add(entry);
+                            }
                         } catch (Exception e) {
                             logger.error("addToBatch failed", e);
                         }
+                        if (payload.length() >= maxBatchPayloadSize) {
+                            publish();
+                        }
                     }
 
                     // send batch
-                    if (payload.length() != 0) {
-                        batchEventHandler.publishBatch(payload.toString())
-                                .thenCatch(new Function<BatchException, Void, BatchException>() {
-                                    @Override
-                                    public Void apply(BatchException e) throws BatchException {
-                                        logger.error("publishBatch failed", e);
-                                        return null;
-                                    }
-                                });
-                    }
+                    publish();
                 } finally {
                     // clear buffers to prepare for next batch
                     batch.clear();
                     payload.setLength(0);
+                    if (payloadEntries != null) {
+                        payloadEntries.clear();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Publishes the current payload once an in-flight slot is available, and clears the payload buffer.
+         */
+        private void publish() {
+            if (payload.length() == 0) {
+                return;
+            }
+            final String batchPayload = payload.toString();
+            payload.setLength(0);
+            final List<BatchEntry> entries;
+            if (payloadEntries != null) {
+                entries = new ArrayList<>(payloadEntries);
+                payloadEntries.clear();
+            } else {
+                entries = null;
+            }
+
+            inFlightBatches.acquireUninterruptibly();
+            final long start = System.nanoTime();
+            try {
+                batchEventHandler.publishBatch(batchPayload)
+                        .thenOnResultOrException(new ResultHandler<Void>() {
+                            @Override
+                            public void handleResult(Void result) {
+                                completed(start, true);
+                            }
+                        }, new ExceptionHandler<BatchException>() {
+                            @Override
+                            public void handleException(BatchException e) {
+                                logger.error("publishBatch failed", e);
+                                failed(entries, e);
+                                completed(start, false);
+                            }
+                        });
+            } catch (RuntimeException e) {
+                logger.error("publishBatch failed", e);
+                failed(entries, new BatchException("publishBatch failed", e));
+                inFlightBatches.release();
+            }
+        }
+
+        /**
+         * Appends events to the spill queue, when one is configured.
+         *
+         * @param entries
+         *         Events to spill, or {@code null} if no spill queue is configured
+         */
+        private void spill(final List<BatchEntry> entries) {
+            if (entries == null) {
+                return;
+            }
+            int dropped = 0;
+            for (final BatchEntry entry : entries) {
+                if (!spillQueue.append(entry.getTopic(), entry.getEvent())) {
+                    dropped++;
+                }
+            }
+            if (dropped > 0) {
+                logger.error("Spill queue is full or closed, dropped {} audit events", dropped);
+            }
+        }
+
+        /**
+         * Spills the failed events of a batch which may be published again, and moves the events which failed
+         * permanently, or too many times, to the dead-letter file.
+         *
+         * @param entries
+         *         Events of the batch, in the order they were added to the batch, or {@code null} if no spill queue
+         *         is configured
+         * @param e
+         *         Failure of the batch
+         */
+        private void failed(final List<BatchEntry> entries, final BatchException e) {
+            if (entries == null) {
+                return;
+            }
+            int dropped = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                if (!e.isFailed(i)) {
+                    // accepted by the sink
+                    continue;
+                }
+                final BatchEntry entry = entries.get(i);
+                final int failedAttempts = entry.getFailedAttempts() + 1;
+                final boolean kept;
+                if (e.isRetriable(i) && failedAttempts < maxReplayAttempts) {
+                    kept = spillQueue.append(entry.getTopic(), entry.getEvent(), failedAttempts);
+                } else {
+                    kept = spillQueue.deadLetter(entry.getTopic(), entry.getEvent(), String.valueOf(e.getMessage()));
+                }
+                if (!kept) {
+                    dropped++;
+                }
+            }
+            if (dropped > 0) {
+                logger.error("Spill queue is full or closed, dropped {} audit events", dropped);
+            }
+        }
+
+        /**
+         * Publishes the next batch of spilled events, unless a replay is already in flight or backing off after a
+         * failure. The events are committed once published, or read again by a later replay if publishing fails
+         * with a retriable error. Once a batch has failed the maximum number of replay attempts, or has failed with
+         * a permanent or partial error, it is committed, and its failed events are either spilled again or moved to
+         * the dead-letter file.
+         */
+        private void replay() {
+            if (replayFailures > 0 && System.nanoTime() - nextReplay < 0) {
+                return;
+            }
+            if (!replaying.compareAndSet(false, true)) {
+                return;
+            }
+            final List<SpillQueue.Entry> read = new ArrayList<>(batchSize);
+            if (spillQueue.read(batchSize, read) == 0) {
+                replaying.set(false);
+                return;
+            }
+            final StringBuilder replayPayload = new StringBuilder(payload.capacity());
+            final List<BatchEntry> entries = new ArrayList<>(read.size());
+            for (final SpillQueue.Entry entry : read) {
+                try {
+                    batchEventHandler.addToBatch(entry.getTopic(), entry.getEvent(), replayPayload);
+                    entries.add(new BatchEntry(entry.getTopic(), entry.getEvent(), entry.getFailedAttempts()));
+                } catch (Exception e) {
+                    logger.error("addToBatch failed", e);
                 }
             }
+            if (entries.isEmpty()) {
+                spillQueue.commit();
+                replaying.set(false);
+                return;
+            }
+
+            inFlightBatches.acquireUninterruptibly();
+            final long start = System.nanoTime();
+            try {
+                batchEventHandler.publishBatch(replayPayload.toString())
+                        .thenOnResultOrException(new ResultHandler<Void>() {
+                            @Override
+                            public void handleResult(Void result) {
+                                spillQueue.commit();
+                                replayFailures = 0;
+                                replaying.set(false);
+                                completed(start, true);
+                                if (!spillQueue.isEmpty() && !shutdown) {
+                                    // keep replaying at the pace allowed by the spill queue
+                                    try {
+                                        scheduler.execute(QueueConsumer.this);
+                                    } catch (RejectedExecutionException e) {
+                                        // shutting down, spilled events are replayed after the next startup
+                                    }
+                                }
+                            }
+                        }, new ExceptionHandler<BatchException>() {
+                            @Override
+                            public void handleException(BatchException e) {
+                                logger.error("Replay of spilled events failed", e);
+                                replayFailed(entries, e);
+                                completed(start, false);
+                            }
+                        });
+            } catch (RuntimeException e) {
+                logger.error("Replay of spilled events failed", e);
+                replayFailed(entries, new BatchException("Replay of spilled events failed", e));
+                inFlightBatches.release();
+            }
+        }
+
+        /**
+         * Reads a failed replay again after a backoff, or moves past it once it cannot be delivered.
+         *
+         * @param entries
+         *         Events of the replayed batch
+         * @param e
+         *         Failure of the replayed batch
+         */
+        private void replayFailed(final List<BatchEntry> entries, final BatchException e) {
+            final int failures = replayFailures + 1;
+            if (!e.isPartial() && e.isRetriable() && failures < maxReplayAttempts) {
+                spillQueue.rewind();
+                final long backoff = min(writeIntervalNanos << min(failures - 1, 20), MAX_REPLAY_BACKOFF_NANOS);
+                nextReplay = System.nanoTime() + backoff;
+                replayFailures = failures;
+            } else {
+                spillQueue.commit();
+                if (e.isPartial() || !e.isRetriable()) {
+                    failed(entries, e);
+                } else {
+                    logger.error("Moving {} spilled audit events to the dead-letter file after {} failed replays",
+                            entries.size(), failures);
+                    failed(entries, new BatchException(e.getMessage(), e, false));
+                }
+                // the next events are not held up by this batch
+                replayFailures = 0;
+            }
+            replaying.set(false);
+        }
+
+        /**
+         * Releases the in-flight slot of a completed batch, and adapts the batch size to its latency.
+         *
+         * @param start
+         *         {@link System#nanoTime()} when the batch was published
+         * @param successful
+         *         {@code true} if the batch was successfully published
+         */
+        private void completed(final long start, final boolean successful) {
+            if (targetBatchLatencyNanos > 0) {
+                final long latency = System.nanoTime() - start;
+                synchronized (this) {
+                    if (successful && latency <= targetBatchLatencyNanos) {
+                        // additive increase
+                        batchSize = min(batchSize + max(1, maxBatchedEvents / 10), maxBatchedEvents);
+                    } else {
+                        // multiplicative decrease
+                        batchSize = max(batchSize / 2, min(MIN_ADAPTIVE_BATCH_SIZE, maxBatchedEvents));
+                    }
+                }
+            }
+            inFlightBatches.release();
         }
 
         @Override
@@ -243,11 +596,22 @@ public final class BufferedBatchPublisher implements BatchPublisher {
                     while (!queue.isEmpty()) {
                         batch();
                     }
+                } else if (spillQueue != null) {
+                    // keep queued events for the next startup
+                    final List<BatchEntry> remaining = new ArrayList<>(queue.size());
+                    queue.drainTo(remaining);
+                    spill(remaining);
                 }
             }
 
-            // normal run of batch operation
-            batch();
+            // normal run of batch operation, continuing while full batches are waiting
+            do {
+                batch();
+            } while (!shutdown && queue.size() >= batchSize);
+
+            if (spillQueue != null && !shutdown && queue.isEmpty() && !spillQueue.isEmpty()) {
+                replay();
+            }
         }
     }
 
@@ -318,6 +682,64 @@ public final class BufferedBatchPublisher implements BatchPublisher {
          */
         Builder autoFlush(boolean autoFlush);
 
+        /**
+         * Sets the maximum number of batches that may be published concurrently. Must be >= 1. When not set, the
+         * number of in-flight batches is not bounded.
+         *
+         * @param maxInFlightBatches
+         *         maximum number of in-flight batches
+         *
+         * @return this builder
+         */
+        Builder maxInFlightBatches(int maxInFlightBatches);
+
+        /**
+         * Sets the batch payload size, in characters, after which a batch is published even if it holds fewer than
+         * the maximum number of batched events. Must be >= 1024. When not set, the payload size is not bounded.
+         *
+         * @param maxBatchPayloadSize
+         *         maximum batch payload size
+         *
+         * @return this builder
+         */
+        Builder maxBatchPayloadSize(int maxBatchPayloadSize);
+
+        /**
+         * Sets the batch latency that the number of events per batch adapts to, up to the maximum number of batched
+         * events. When {@code null} or not set, every batch holds up to the maximum number of batched events.
+         *
+         * @param targetBatchLatency
+         *         target batch latency
+         *
+         * @return this builder
+         */
+        Builder targetBatchLatency(Duration targetBatchLatency);
+
+        /**
+         * Sets the queue to which events are spilled when they do not fit in the queue or fail to publish. The
+         * publisher opens the spill queue on startup and closes it on shutdown. When {@code null} or not set, such
+         * events are dropped.
+         *
+         * @param spillQueue
+         *         spill queue
+         *
+         * @return this builder
+         */
+        Builder spillQueue(SpillQueue spillQueue);
+
+        /**
+         * Sets the number of times an event is published, including the replays of the spill queue, before it is
+         * moved to the dead-letter file of the spill queue. A failed replay is attempted again after a delay
+         * doubling from the write interval, up to five minutes. When not set, or when <= 0, events are published up
+         * to 10 times.
+         *
+         * @param maxReplayAttempts
+         *         maximum number of publishing attempts per event
+         *
+         * @return this builder
+         */
+        Builder maxReplayAttempts(int maxReplayAttempts);
+
         /**
          * Constructs a new {@link BatchPublisher}.
          *
@@ -331,6 +753,8 @@ public final class BufferedBatchPublisher implements BatchPublisher {
         private static final int MIN_QUEUE_SIZE = 10000;
         private static final int MIN_BATCH_SIZE = 500;
         private static final int MIN_PER_EVENT_PAYLOAD_SIZE = 32;
+        private static final int MIN_BATCH_PAYLOAD_SIZE = 1024;
+        private static final int DEFAULT_MAX_REPLAY_ATTEMPTS = 10;
 
         private final BatchConsumer batchConsumer;
 
@@ -339,6 +763,11 @@ public final class BufferedBatchPublisher implements BatchPublisher {
         private int averagePerEventPayloadSize;
         private Duration writeInterval;
         private boolean autoFlush;
+        private int maxInFlightBatches;
+        private int maxBatchPayloadSize;
+        private Duration targetBatchLatency;
+        private SpillQueue spillQueue;
+        private int maxReplayAttempts;
 
         private BuilderImpl(final BatchConsumer batchConsumer) {
             Reject.ifNull(batchConsumer, "batchConsumer must not be null");
@@ -347,6 +776,9 @@ public final class BufferedBatchPublisher implements BatchPublisher {
             maxBatchedEvents = MIN_BATCH_SIZE;
             averagePerEventPayloadSize = MIN_PER_EVENT_PAYLOAD_SIZE;
             writeInterval = CommonAuditBatchConfiguration.POLLING_INTERVAL;
+            maxInFlightBatches = Integer.MAX_VALUE;
+            maxBatchPayloadSize = Integer.MAX_VALUE;
+            maxReplayAttempts = DEFAULT_MAX_REPLAY_ATTEMPTS;
         }
 
         @Override
@@ -380,6 +812,37 @@ public final class BufferedBatchPublisher implements BatchPublisher {
             return this;
         }
 
+        @Override
+        public Builder maxInFlightBatches(final int maxInFlightBatches) {
+            this.maxInFlightBatches = max(maxInFlightBatches, 1);
+            return this;
+        }
+
+        @Override
+        public Builder maxBatchPayloadSize(final int maxBatchPayloadSize) {
+            this.maxBatchPayloadSize = max(maxBatchPayloadSize, MIN_BATCH_PAYLOAD_SIZE);
+            return this;
+        }
+
+        @Override
+        public Builder targetBatchLatency(final Duration targetBatchLatency) {
+            this.targetBatchLatency = (targetBatchLatency != null && targetBatchLatency.getValue() > 0)
+                    ? targetBatchLatency : null;
+            return this;
+        }
+
+        @Override
+        public Builder spillQueue(final SpillQueue spillQueue) {
+            this.spillQueue = spillQueue;
+            return this;
+        }
+
+        @Override
+        public Builder maxReplayAttempts(final int maxReplayAttempts) {
+            this.maxReplayAttempts = maxReplayAttempts > 0 ? maxReplayAttempts : DEFAULT_MAX_REPLAY_ATTEMPTS;
+            return this;
+        }
+
         @Override
         public BatchPublisher build() {
             return new BufferedBatchPublisher(this);
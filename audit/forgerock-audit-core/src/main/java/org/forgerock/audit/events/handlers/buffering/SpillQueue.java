@@ -0,0 +1,687 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.events.handlers.buffering;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import org.forgerock.json.JsonValue;
+import org.forgerock.util.Reject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Persistent write-ahead queue that takes audit events which cannot be buffered in memory, or could not be
+ * delivered, and hands them back in the order they were appended once the sink recovers.
+ * <p>
+ * Events are appended to a sequence of fixed-size, memory-mapped segment files named {@code spill-<n>.log}.
+ * Each segment starts with a header recording how far its events have been consumed, followed by length-prefixed,
+ * CRC-protected records. Consumers {@link #read(int, Collection) read} events, then either {@link #commit()} them
+ * once delivered, which deletes fully consumed segments, or {@link #rewind()} to read them again. When the queue
+ * is {@link #open() opened}, the records of existing segments are checked, so that events appended before a crash
+ * are replayed and a torn trailing record is discarded.
+ * <p>
+ * Disk usage is bounded by the configured maximum, after which further events are rejected, and reads may be
+ * limited to a maximum number of events per second so that a recovering sink is not flooded by the backlog.
+ * <p>
+ * Each event records how many times publishing it has failed. Events which cannot be delivered are moved to a
+ * {@link #deadLetter(String, JsonValue, String) dead-letter} file, {@code dead-letter.log}, holding one JSON object
+ * per line, so that they are kept for inspection without blocking the events behind them.
+ * <p>
+ * All methods are thread-safe.
+ */
+public final class SpillQueue implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillQueue.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("spill-(\\d+)\\.log");
+    private static final String DEAD_LETTER_NAME = "dead-letter.log";
+    private static final int MAGIC = 0x53504c32;
+    private static final int HEADER_SIZE = 16;
+    private static final int COMMITTED_POSITION_OFFSET = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final File directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int maxReplayRate;
+    private final long maxDeadLetterSize;
+    private final List<Segment> segments = new ArrayList<>();
+
+    private volatile long size;
+    private boolean opened;
+    private boolean closed;
+
+    private int readIndex;
+    private int readPosition;
+    private int committedPosition;
+    private long readCount;
+
+    private double replayAllowance;
+    private long lastReplayRefill;
+
+    private SpillQueue(final BuilderImpl builder) {
+        directory = builder.directory;
+        segmentSize = builder.segmentSize;
+        maxSegments = (int) max(2L, min(builder.maxDiskUsage / segmentSize, Integer.MAX_VALUE));
+        maxReplayRate = builder.maxReplayRate;
+        maxDeadLetterSize = builder.maxDeadLetterSize;
+    }
+
+    /**
+     * Opens the queue, creating its directory if needed and recovering the events of existing segments. Events
+     * cannot be appended to or read from a queue that has not been opened.
+     *
+     * @throws IOException
+     *         if the segments could not be created or recovered
+     */
+    public synchronized void open() throws IOException {
+        Reject.rejectStateIfTrue(opened, "Spill queue has already been opened");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create spill directory " + directory);
+        }
+        final File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return SEGMENT_NAME.matcher(name).matches();
+            }
+        });
+        final long[] ids = new long[files == null ? 0 : files.length];
+        for (int i = 0; i < ids.length; i++) {
+            final Matcher matcher = SEGMENT_NAME.matcher(files[i].getName());
+            matcher.matches();
+            ids[i] = Long.parseLong(matcher.group(1));
+        }
+        Arrays.sort(ids);
+
+        long recovered = 0;
+        for (final long id : ids) {
+            final Segment segment = Segment.open(segmentFile(id), id, segmentSize);
+            if (segment == null) {
+                logger.warn("Discarding unreadable spill segment {}", segmentFile(id));
+                deleteFile(segmentFile(id));
+                continue;
+            }
+            recovered += segment.recover(segments.isEmpty());
+            segments.add(segment);
+        }
+        committedPosition = segments.isEmpty() ? HEADER_SIZE : segments.get(0).committedPosition();
+        readIndex = 0;
+        readPosition = committedPosition;
+        size = recovered;
+        lastReplayRefill = System.nanoTime();
+        replayAllowance = maxReplayRate;
+        opened = true;
+        if (recovered > 0) {
+            logger.info("Recovered {} spilled audit events from {}", recovered, directory);
+        }
+    }
+
+    /**
+     * Appends an event to the queue.
+     *
+     * @param topic
+     *         Event topic
+     * @param event
+     *         Event JSON payload
+     *
+     * @return {@code true} if the event was appended, or {@code false} if the queue is not open, the event could
+     * not be serialized, or the maximum disk usage has been reached
+     */
+    public boolean append(final String topic, final JsonValue event) {
+        return append(topic, event, 0);
+    }
+
+    /**
+     * Appends an event which already failed to be published to the queue.
+     *
+     * @param topic
+     *         Event topic
+     * @param event
+     *         Event JSON payload
+     * @param failedAttempts
+     *         Number of times publishing the event has failed
+     *
+     * @return {@code true} if the event was appended, or {@code false} if the queue is not open, the event could
+     * not be serialized, or the maximum disk usage has been reached
+     */
+    public boolean append(final String topic, final JsonValue event, final int failedAttempts) {
+        final byte[] record;
+        try {
+            record = encode(topic, event, failedAttempts);
+        } catch (IOException e) {
+            logger.error("Unable to spill audit event", e);
+            return false;
+        }
+        final int recordSize = RECORD_HEADER_SIZE + record.length;
+        if (recordSize > segmentSize - HEADER_SIZE) {
+            logger.error("Audit event of {} bytes is too large to be spilled", record.length);
+            return false;
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+
+        synchronized (this) {
+            if (!opened || closed) {
+                return false;
+            }
+            Segment tail = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (tail == null || tail.writePosition + recordSize > tail.capacity()) {
+                if (segments.size() >= maxSegments) {
+                    return false;
+                }
+                try {
+                    tail = roll(tail);
+                } catch (IOException e) {
+                    logger.error("Unable to create spill segment", e);
+                    return false;
+                }
+            }
+            tail.append(record, (int) crc.getValue());
+            size++;
+            return true;
+        }
+    }
+
+    /**
+     * Moves an event which cannot be delivered to the dead-letter file, unless the file has reached its maximum
+     * size.
+     *
+     * @param topic
+     *         Event topic
+     * @param event
+     *         Event JSON payload
+     * @param reason
+     *         Why the event cannot be delivered
+     *
+     * @return {@code true} if the event was written to the dead-letter file
+     */
+    public boolean deadLetter(final String topic, final JsonValue event, final String reason) {
+        final byte[] line;
+        try {
+            final Map<String, Object> record = new LinkedHashMap<>();
+            record.put("topic", topic);
+            record.put("reason", reason);
+            record.put("event", event.getObject());
+            line = (MAPPER.writeValueAsString(record) + "\n").getBytes(UTF_8);
+        } catch (IOException e) {
+            logger.error("Unable to dead-letter audit event", e);
+            return false;
+        }
+
+        synchronized (this) {
+            if (!opened || closed) {
+                return false;
+            }
+            final File file = new File(directory, DEAD_LETTER_NAME);
+            if (file.length() + line.length > maxDeadLetterSize) {
+                return false;
+            }
+            try (FileOutputStream out = new FileOutputStream(file, true)) {
+                out.write(line);
+                out.getChannel().force(false);
+                return true;
+            } catch (IOException e) {
+                logger.error("Unable to dead-letter audit event", e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Reads the next events which have not been read since the last {@link #commit()} or {@link #rewind()},
+     * limited by the maximum replay rate.
+     *
+     * @param maxEvents
+     *         Maximum number of events to read
+     * @param entries
+     *         Collection to which the events are added
+     *
+     * @return the number of events read
+     */
+    public synchronized int read(final int maxEvents, final Collection<? super Entry> entries) {
+        if (!opened || closed || segments.isEmpty()) {
+            return 0;
+        }
+        int limit = maxEvents;
+        if (maxReplayRate > 0) {
+            final long now = System.nanoTime();
+            replayAllowance = min(maxReplayRate, replayAllowance + (now - lastReplayRefill) * maxReplayRate / 1e9);
+            lastReplayRefill = now;
+            limit = (int) min(limit, replayAllowance);
+        }
+
+        int count = 0;
+        while (count < limit) {
+            final Segment segment = segments.get(readIndex);
+            if (readPosition + RECORD_HEADER_SIZE <= segment.writePosition) {
+                final int length = segment.buffer.getInt(readPosition);
+                final int recordPosition = readPosition + RECORD_HEADER_SIZE;
+                readPosition = recordPosition + length;
+                readCount++;
+                count++;
+                try {
+                    entries.add(decode(segment.buffer, recordPosition, length));
+                } catch (IOException e) {
+                    logger.error("Discarding unreadable spilled audit event", e);
+                }
+            } else if (readIndex < segments.size() - 1) {
+                readIndex++;
+                readPosition = HEADER_SIZE;
+            } else {
+                break;
+            }
+        }
+        if (maxReplayRate > 0) {
+            replayAllowance -= count;
+        }
+        return count;
+    }
+
+    /**
+     * Marks the events read since the last {@link #commit()} or {@link #rewind()} as consumed, deleting the
+     * segments they have been fully read from.
+     */
+    public synchronized void commit() {
+        if (!opened || closed) {
+            return;
+        }
+        for (; readIndex > 0; readIndex--) {
+            final Segment segment = segments.remove(0);
+            deleteFile(segment.file);
+        }
+        if (!segments.isEmpty()) {
+            segments.get(0).buffer.putInt(COMMITTED_POSITION_OFFSET, readPosition);
+        }
+        committedPosition = readPosition;
+        size -= readCount;
+        readCount = 0;
+    }
+
+    /**
+     * Returns the events read since the last {@link #commit()} or {@link #rewind()} to the queue, so that they are
+     * read again.
+     */
+    public synchronized void rewind() {
+        readIndex = 0;
+        readPosition = committedPosition;
+        readCount = 0;
+    }
+
+    /**
+     * Returns the number of events which have been appended but not yet committed.
+     *
+     * @return the number of pending events
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns whether all appended events have been committed.
+     *
+     * @return {@code true} if there are no pending events
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Flushes the segments to disk and closes the queue. Pending events are kept on disk, and are recovered the
+     * next time a queue is opened on the same directory.
+     */
+    @Override
+    public synchronized void close() {
+        if (opened && !closed) {
+            closed = true;
+            for (final Segment segment : segments) {
+                segment.buffer.force();
+            }
+            segments.clear();
+        }
+    }
+
+    private Segment roll(final Segment tail) throws IOException {
+        if (tail != null) {
+            tail.buffer.force();
+        }
+        final long id = tail == null ? 0L : tail.id + 1;
+        final Segment segment = Segment.create(segmentFile(id), id, segmentSize);
+        if (segments.isEmpty()) {
+            committedPosition = HEADER_SIZE;
+            readIndex = 0;
+            readPosition = HEADER_SIZE;
+        }
+        segments.add(segment);
+        return segment;
+    }
+
+    private File segmentFile(final long id) {
+        return new File(directory, String.format("spill-%019d.log", id));
+    }
+
+    private static void deleteFile(final File file) {
+        if (!file.delete() && file.exists()) {
+            logger.warn("Unable to delete spill segment {}", file);
+        }
+    }
+
+    private static byte[] encode(final String topic, final JsonValue event, final int failedAttempts)
+            throws IOException {
+        final byte[] topicBytes = topic.getBytes(UTF_8);
+        final byte[] eventBytes = MAPPER.writeValueAsBytes(event.getObject());
+        final ByteBuffer record = ByteBuffer.allocate(8 + topicBytes.length + eventBytes.length);
+        record.putInt(failedAttempts).putInt(topicBytes.length).put(topicBytes).put(eventBytes);
+        return record.array();
+    }
+
+    private static Entry decode(final ByteBuffer buffer, final int position, final int length) throws IOException {
+        final byte[] record = new byte[length];
+        final ByteBuffer source = buffer.duplicate();
+        source.position(position);
+        source.get(record);
+        final ByteBuffer header = ByteBuffer.wrap(record);
+        final int failedAttempts = header.getInt();
+        final int topicLength = header.getInt();
+        final String topic = new String(record, 8, topicLength, UTF_8);
+        final Object event = MAPPER.readValue(record, 8 + topicLength, length - 8 - topicLength, Object.class);
+        return new Entry(topic, new JsonValue(event), failedAttempts);
+    }
+
+    /**
+     * A memory-mapped segment file.
+     */
+    private static final class Segment {
+
+        private final File file;
+        private final long id;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+
+        private Segment(final File file, final long id, final MappedByteBuffer buffer) {
+            this.file = file;
+            this.id = id;
+            this.buffer = buffer;
+        }
+
+        static Segment create(final File file, final long id, final int size) throws IOException {
+            final Segment segment = new Segment(file, id, map(file, size));
+            segment.buffer.putInt(0, MAGIC);
+            segment.buffer.putInt(COMMITTED_POSITION_OFFSET, HEADER_SIZE);
+            segment.writePosition = HEADER_SIZE;
+            return segment;
+        }
+
+        static Segment open(final File file, final long id, final int size) throws IOException {
+            final int length = (int) min(max(file.length(), size), Integer.MAX_VALUE);
+            final MappedByteBuffer buffer = map(file, length);
+            return buffer.getInt(0) == MAGIC ? new Segment(file, id, buffer) : null;
+        }
+
+        private static MappedByteBuffer map(final File file, final int size) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        int committedPosition() {
+            return buffer.getInt(COMMITTED_POSITION_OFFSET);
+        }
+
+        void append(final byte[] record, final int crc) {
+            final ByteBuffer target = buffer.duplicate();
+            target.position(writePosition + 4);
+            target.putInt(crc).put(record);
+            // the length is written last, so that a record is only visible once it is complete
+            buffer.putInt(writePosition, record.length);
+            writePosition += RECORD_HEADER_SIZE + record.length;
+        }
+
+        /**
+         * Finds the end of the valid records of this segment.
+         *
+         * @param head
+         *         Whether this is the oldest segment, whose events are only pending after its committed position
+         *
+         * @return the number of pending events in this segment
+         */
+        long recover(final boolean head) {
+            int committed = head ? committedPosition() : HEADER_SIZE;
+            final CRC32 crc = new CRC32();
+            final byte[] record = new byte[256];
+            long pending = 0;
+            int position = HEADER_SIZE;
+            while (position + RECORD_HEADER_SIZE <= capacity()) {
+                final int length = buffer.getInt(position);
+                if (length <= 0 || length > capacity() - position - RECORD_HEADER_SIZE) {
+                    break;
+                }
+                crc.reset();
+                final ByteBuffer source = buffer.duplicate();
+                source.position(position + RECORD_HEADER_SIZE);
+                for (int remaining = length; remaining > 0; remaining -= record.length) {
+                    final int chunk = min(remaining, record.length);
+                    source.get(record, 0, chunk);
+                    crc.update(record, 0, chunk);
+                }
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    break;
+                }
+                if (position >= committed) {
+                    pending++;
+                }
+                position += RECORD_HEADER_SIZE + length;
+            }
+            writePosition = position;
+            if (committed < HEADER_SIZE || committed > position) {
+                committed = min(max(committed, HEADER_SIZE), position);
+                buffer.putInt(COMMITTED_POSITION_OFFSET, committed);
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * An event read from the queue.
+     */
+    public static final class Entry {
+
+        private final String topic;
+        private final JsonValue event;
+        private final int failedAttempts;
+
+        private Entry(final String topic, final JsonValue event, final int failedAttempts) {
+            this.topic = topic;
+            this.event = event;
+            this.failedAttempts = failedAttempts;
+        }
+
+        /**
+         * Gets the event topic.
+         *
+         * @return Event topic
+         */
+        public String getTopic() {
+            return topic;
+        }
+
+        /**
+         * Gets the event JSON payload.
+         *
+         * @return Event JSON payload
+         */
+        public JsonValue getEvent() {
+            return event;
+        }
+
+        /**
+         * Gets the number of times publishing the event has failed.
+         *
+         * @return Number of failed attempts
+         */
+        public int getFailedAttempts() {
+            return failedAttempts;
+        }
+    }
+
+    /**
+     * Provides a new builder.
+     *
+     * @param directory
+     *         a non-null directory holding the segment files, which should not be shared with other queues
+     *
+     * @return a new builder
+     */
+    public static Builder newBuilder(final File directory) {
+        return new BuilderImpl(directory);
+    }
+
+    /**
+     * Builder used to construct a new {@link SpillQueue}.
+     */
+    public interface Builder {
+
+        /**
+         * Sets the size of each segment file, in bytes. Must be >= 65536, and bounds the size of a single event.
+         *
+         * @param segmentSize
+         *         segment size
+         *
+         * @return this builder
+         */
+        Builder segmentSize(int segmentSize);
+
+        /**
+         * Sets the maximum disk space, in bytes, used by the segment files, after which further events are
+         * rejected. At least two segments are always allowed.
+         *
+         * @param maxDiskUsage
+         *         maximum disk usage
+         *
+         * @return this builder
+         */
+        Builder maxDiskUsage(long maxDiskUsage);
+
+        /**
+         * Sets the maximum number of events per second that may be read from the queue. When not set, or
+         * when <= 0, reads are not limited.
+         *
+         * @param maxReplayRate
+         *         maximum replay rate
+         *
+         * @return this builder
+         */
+        Builder maxReplayRate(int maxReplayRate);
+
+        /**
+         * Sets the maximum size, in bytes, of the dead-letter file, after which events which cannot be delivered
+         * are dropped.
+         *
+         * @param maxDeadLetterSize
+         *         maximum dead-letter file size
+         *
+         * @return this builder
+         */
+        Builder maxDeadLetterSize(long maxDeadLetterSize);
+
+        /**
+         * Constructs a new {@link SpillQueue}, which must be {@link SpillQueue#open() opened} before use.
+         *
+         * @return a new {@link SpillQueue}
+         */
+        SpillQueue build();
+    }
+
+    private static final class BuilderImpl implements Builder {
+
+        private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+        private static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+        private static final long DEFAULT_MAX_DISK_USAGE = 1024L * 1024 * 1024;
+        private static final long DEFAULT_MAX_DEAD_LETTER_SIZE = 64L * 1024 * 1024;
+
+        private final File directory;
+
+        private int segmentSize;
+        private long maxDiskUsage;
+        private int maxReplayRate;
+        private long maxDeadLetterSize;
+
+        private BuilderImpl(final File directory) {
+            Reject.ifNull(directory, "directory must not be null");
+            this.directory = directory;
+            segmentSize = DEFAULT_SEGMENT_SIZE;
+            maxDiskUsage = DEFAULT_MAX_DISK_USAGE;
+            maxDeadLetterSize = DEFAULT_MAX_DEAD_LETTER_SIZE;
+        }
+
+        @Override
+        public Builder segmentSize(final int segmentSize) {
+            this.segmentSize = max(segmentSize, MIN_SEGMENT_SIZE);
+            return this;
+        }
+
+        @Override
+        public Builder maxDiskUsage(final long maxDiskUsage) {
+            this.maxDiskUsage = maxDiskUsage > 0 ? maxDiskUsage : DEFAULT_MAX_DISK_USAGE;
+            return this;
+        }
+
+        @Override
+        public Builder maxReplayRate(final int maxReplayRate) {
+            this.maxReplayRate = max(maxReplayRate, 0);
+            return this;
+        }
+
+        @Override
+        public Builder maxDeadLetterSize(final long maxDeadLetterSize) {
+            this.maxDeadLetterSize = maxDeadLetterSize > 0 ? maxDeadLetterSize : DEFAULT_MAX_DEAD_LETTER_SIZE;
+            return this;
+        }
+
+        @Override
+        public SpillQueue build() {
+            return new SpillQueue(this);
+        }
+    }
+}
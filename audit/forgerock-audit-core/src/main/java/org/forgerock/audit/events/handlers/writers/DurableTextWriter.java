@@ -0,0 +1,180 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.audit.events.handlers.writers;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration.DurabilityMode;
+import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration.FileDurability;
+import org.forgerock.util.Reject;
+import org.forgerock.util.Utils;
+import org.forgerock.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link TextWriter} which forces the text written to a {@link SyncableTextWriter} to the storage device,
+ * as configured by a {@link FileDurability}.
+ * <p>
+ * With {@link DurabilityMode#PERIODIC}, a background thread syncs the wrapped writer at the configured interval,
+ * and only when something has been written since the previous sync.
+ * <p>
+ * With {@link DurabilityMode#GROUP_COMMIT}, writers call {@link #commit()} once their text has been written, which
+ * returns only after that text has been synced. A single sync covers every write completed before it started, so
+ * threads committing concurrently wait for one sync instead of paying one each.
+ */
+public class DurableTextWriter implements TextWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DurableTextWriter.class);
+
+    /** The wrapped Text Writer. */
+    private final SyncableTextWriter writer;
+    private final DurabilityMode mode;
+    /** Runs the periodic sync task, only used in {@link DurabilityMode#PERIODIC} mode. */
+    private final ScheduledExecutorService syncer;
+    /** Number of writes completed so far. */
+    private final AtomicLong writeCount = new AtomicLong();
+    /** Serializes syncs, and guards {@link #syncedCount}. */
+    private final ReentrantLock syncLock = new ReentrantLock();
+    /** Number of writes known to be on the storage device. */
+    private long syncedCount;
+
+    /**
+     * Construct a new DurableTextWriter wrapper.
+     *
+     * @param name
+     *            the name of the periodic sync thread.
+     * @param durability
+     *            the durability configuration.
+     * @param writer
+     *            the writer whose contents must be made durable.
+     */
+    public DurableTextWriter(final String name, final FileDurability durability, final SyncableTextWriter writer) {
+        Reject.ifNull(durability, writer);
+        this.writer = writer;
+        this.mode = durability.getMode();
+        if (mode == DurabilityMode.PERIODIC) {
+            final Duration syncInterval = durability.getSyncIntervalDuration();
+            syncer = Executors.newSingleThreadScheduledExecutor(Utils.newThreadFactory(null, name, true));
+            syncer.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        syncIfNeeded(writeCount.get());
+                    } catch (Exception e) {
+                        logger.error("Failure when syncing audit file", e);
+                    }
+                }
+            }, syncInterval.to(MILLISECONDS), syncInterval.to(MILLISECONDS), MILLISECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+
+    @Override
+    public void write(final String text) throws IOException {
+        writer.write(text);
+        if (mode != DurabilityMode.NONE) {
+            writeCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Blocks until all text written by the calling thread has been synced, when {@link DurabilityMode#GROUP_COMMIT}
+     * is configured. Does nothing otherwise.
+     *
+     * @throws IOException
+     *             If the sync fails.
+     */
+    public void commit() throws IOException {
+        if (mode == DurabilityMode.GROUP_COMMIT) {
+            // every write of the calling thread has completed, and therefore been counted, before this read
+            syncIfNeeded(writeCount.get());
+        }
+    }
+
+    /**
+     * Syncs the wrapped writer, unless a previous sync already covered the given number of writes.
+     */
+    private void syncIfNeeded(final long writes) throws IOException {
+        syncLock.lock();
+        try {
+            if (syncedCount >= writes) {
+                return;
+            }
+            // the sync will also cover any write that completes before it starts
+            final long target = writeCount.get();
+            writer.sync();
+            syncedCount = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return writer.getBytesWritten();
+    }
+
+    /**
+     * Retrieves the wrapped writer.
+     *
+     * @return The wrapped writer used by this durable writer.
+     */
+    public SyncableTextWriter getWrappedWriter() {
+        return writer;
+    }
+
+    @Override
+    public void shutdown() {
+        if (syncer != null) {
+            syncer.shutdown();
+            boolean interrupted = false;
+            try {
+                while (!syncer.awaitTermination(500, MILLISECONDS)) {
+                    logger.debug("Waiting to terminate the syncer thread.");
+                }
+            } catch (InterruptedException ex) {
+                logger.error("Unable to terminate the syncer thread", ex);
+                interrupted = true;
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        if (mode != DurabilityMode.NONE) {
+            try {
+                syncIfNeeded(writeCount.get());
+            } catch (IOException e) {
+                logger.error("Failure when syncing audit file on shutdown", e);
+            }
+        }
+        writer.shutdown();
+    }
+}
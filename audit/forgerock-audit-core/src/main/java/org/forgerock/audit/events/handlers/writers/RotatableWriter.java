@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.events.handlers.writers;
@@ -24,9 +25,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -35,6 +34,8 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 
 import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration;
+import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration.DurabilityMode;
+import org.forgerock.audit.retention.ArchiveJanitor;
 import org.forgerock.audit.retention.FileNamingPolicy;
 import org.forgerock.audit.retention.RetentionPolicy;
 import org.forgerock.audit.rotation.RotatableObject;
@@ -51,7 +52,7 @@ import org.slf4j.LoggerFactory;
 /**
  * Creates an {@link RotatableWriter} that supports file rotation and retention.
  */
-public class RotatableWriter implements TextWriter, RotatableObject {
+public class RotatableWriter implements SyncableTextWriter, RotatableObject {
 
     private static final Logger logger = LoggerFactory.getLogger(RotatableWriter.class);
     private static final Duration FIVE_SECONDS = Duration.duration("5s");
@@ -59,12 +60,16 @@ public class RotatableWriter implements TextWriter, RotatableObject {
     private final List<RotationPolicy> rotationPolicies;
     private final List<RetentionPolicy> retentionPolicies;
     private final FileNamingPolicy fileNamingPolicy;
+    private final ArchiveJanitor archiveJanitor;
     private ScheduledExecutorService rotator;
     private DateTime lastRotationTime;
     private final boolean rotationEnabled;
+    private final boolean syncBeforeRotation;
     private final File file;
     private RotationHooks rotationHooks = new RotationHooks.NoOpRotatationHooks();
     private final AtomicBoolean isRotating = new AtomicBoolean(false);
+    /** The underlying file output stream. */
+    private FileOutputStream fileStream;
     /** The underlying output stream. */
     private MeteredStream meteredStream;
     /** The underlying buffered writer using the output stream. */
@@ -92,7 +97,7 @@ public class RotatableWriter implements TextWriter, RotatableObject {
      * @param file The initial file to manage rotation/retention.
      * @param configuration The configuration of the rotation and retention policies.
      * @param append Whether to append to the rotatable file or not.
-     * @param rolloverLifecycleHook Hook to use before and after rotation/retention checks.
+     * @param rolloverLifecycleHook Hook to use before and after the periodic rotation checks.
      * @throws IOException If a problem occurs.
      */
     public RotatableWriter(final File file, final FileBasedEventHandlerConfiguration configuration,
@@ -118,6 +123,7 @@ public class RotatableWriter implements TextWriter, RotatableObject {
         this.file = file;
         this.fileNamingPolicy = fileNamingPolicy;
         this.rotationEnabled = configuration.getFileRotation().isRotationEnabled();
+        this.syncBeforeRotation = configuration.getFileDurability().getMode() != DurabilityMode.NONE;
         final long lastModified = file.lastModified();
         this.lastRotationTime = lastModified > 0
                 ? new DateTime(file.lastModified(), DateTimeZone.UTC)
@@ -126,33 +132,36 @@ public class RotatableWriter implements TextWriter, RotatableObject {
         this.writer = constructWriter(file, append);
         retentionPolicies = configuration.getFileRetention().buildRetentionPolicies();
         rotationPolicies = configuration.getFileRotation().buildRotationPolicies();
+        archiveJanitor = new ArchiveJanitor(fileNamingPolicy, retentionPolicies,
+                configuration.getFileRetention().isCompressArchives());
         scheduleRotationAndRetentionChecks(configuration);
     }
 
     /**
      * Rotate the log file if any of the configured rotation policies determine that rotation is required.
+     * <p>
+     * The policies are first checked without holding any lock, so that writers are only blocked once a
+     * rotation is actually due.
      *
      * @throws IOException If unable to rotate the log file.
      */
     @Override
     public void rotateIfNeeded() throws IOException {
-        if (!rotationEnabled || isRotating.get()) {
+        if (!rotationEnabled || isRotating.get() || !isRotationDue()) {
             return;
         }
         readWriteLock.writeLock().lock();
         try {
-            for (RotationPolicy rotationPolicy : rotationPolicies) {
-                if (rotationPolicy.shouldRotateFile(this)) {
+            // another thread may have rotated the file while this one was waiting for the lock
+            if (isRotationDue()) {
+                if (logger.isTraceEnabled()) {
+                    logger.trace("Must rotate: {}", file.getAbsolutePath());
+                }
+                isRotating.set(true);
+                if (rotate()) {
                     if (logger.isTraceEnabled()) {
-                        logger.trace("Must rotate: {}", file.getAbsolutePath());
-                    }
-                    isRotating.set(true);
-                    if (rotate()) {
-                        if (logger.isTraceEnabled()) {
-                            logger.trace("Finished rotation for: {}", file.getAbsolutePath());
-                        }
+                        logger.trace("Finished rotation for: {}", file.getAbsolutePath());
                     }
-                    break;
                 }
             }
         } finally {
@@ -161,17 +170,13 @@ public class RotatableWriter implements TextWriter, RotatableObject {
         }
     }
 
-    /** Delete files if they need to be deleted as per enabled retention policies. */
-    private void deleteFilesIfNeeded() throws IOException {
-        readWriteLock.writeLock().lock();
-        try {
-            Set<File> filesToDelete = checkRetention(); // return the files to delete, but do not delete them
-            if (!filesToDelete.isEmpty()) {
-                deleteFiles(filesToDelete);
+    private boolean isRotationDue() {
+        for (RotationPolicy rotationPolicy : rotationPolicies) {
+            if (rotationPolicy.shouldRotateFile(this)) {
+                return true;
             }
-        } finally {
-            readWriteLock.writeLock().unlock();
         }
+        return false;
     }
 
     private boolean rotate() throws IOException {
@@ -184,6 +189,11 @@ public class RotatableWriter implements TextWriter, RotatableObject {
             File newFile = fileNamingPolicy.getNextName();
             context.setNextFile(newFile);
             rotationHooks.preRotationAction(context);
+            if (syncBeforeRotation) {
+                // events written since the last sync must not be lost once the file is archived
+                writer.flush();
+                fileStream.getChannel().force(false);
+            }
             writer.close();
             if (logger.isTraceEnabled()) {
                 logger.trace("Renaming {} to {}", currentFile.getAbsolutePath(), newFile.getAbsolutePath());
@@ -208,27 +218,6 @@ public class RotatableWriter implements TextWriter, RotatableObject {
         return rotationHappened;
     }
 
-    private Set<File> checkRetention() throws IOException {
-        Set<File> filesToDelete = new HashSet<>();
-        for (RetentionPolicy retentionPolicy : retentionPolicies) {
-            filesToDelete.addAll(retentionPolicy.deleteFiles(fileNamingPolicy));
-        }
-        return filesToDelete;
-    }
-
-    private void deleteFiles(final Set<File> files) {
-        for (final File file : files) {
-            if (logger.isInfoEnabled()) {
-                logger.info("Deleting file {}", file.getAbsolutePath());
-            }
-            if (!file.delete()) {
-                if (logger.isWarnEnabled()) {
-                    logger.warn("Could not delete file {}", file.getAbsolutePath());
-                }
-            }
-        }
-    }
-
     /**
      * {@inheritDoc}
      */
@@ -323,10 +312,27 @@ public class RotatableWriter implements TextWriter, RotatableObject {
         writer.flush();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Holds the read lock so that the file cannot be rotated between the flush and the force.
+     */
+    @Override
+    public void sync() throws IOException {
+        ReadLock lock = readWriteLock.readLock();
+        try {
+            lock.lock();
+            writer.flush();
+            fileStream.getChannel().force(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     private BufferedWriter constructWriter(File csvFile, boolean append)
             throws IOException {
-        FileOutputStream stream = new FileOutputStream(csvFile, append);
-        meteredStream = new MeteredStream(stream, file.length());
+        fileStream = new FileOutputStream(csvFile, append);
+        meteredStream = new MeteredStream(fileStream, file.length());
         OutputStreamWriter osw = new OutputStreamWriter(meteredStream, StandardCharsets.UTF_8);
         return new BufferedWriter(osw);
     }
@@ -335,14 +341,16 @@ public class RotatableWriter implements TextWriter, RotatableObject {
      * Schedule checks for rotations and retention policies.
      * <p>
      * The check interval is provided by the RotationRetentionCheckInterval property, which must have
-     * a non-zero value if at least one policy is enabled.
+     * a non-zero value if at least one policy is enabled. Archived files are compressed, when configured
+     * to, and retention applied by the rotator thread once the rotation check is over, without holding any lock
+     * shared with writers.
      */
     private void scheduleRotationAndRetentionChecks(FileBasedEventHandlerConfiguration configuration)
             throws IOException {
         final Duration rotationCheckInterval = parseDuration("rotation and retention check interval",
                 configuration.getRotationRetentionCheckInterval(), FIVE_SECONDS);
 
-        if (!rotationPolicies.isEmpty() || !retentionPolicies.isEmpty()) {
+        if (!rotationPolicies.isEmpty() || archiveJanitor.isEnabled()) {
             if (rotationCheckInterval.isUnlimited() || rotationCheckInterval.isZero()) {
                 throw new IOException("Rotation and retention check interval set to an invalid value: "
                         + rotationCheckInterval);
@@ -354,21 +362,14 @@ public class RotatableWriter implements TextWriter, RotatableObject {
                         public void run() {
                             rolloverLifecycleHook.beforeRollingOver();
                             try {
-                                try {
-                                    rotateIfNeeded();
-                                } catch (Exception e) {
-                                    logger.error("Failure when applying a rotation policy to file {}",
-                                            fileNamingPolicy.getInitialName(), e);
-                                }
-                                try {
-                                    deleteFilesIfNeeded();
-                                } catch (Exception e) {
-                                    logger.error("Failure when applying a retention policy to file {}",
-                                            fileNamingPolicy.getInitialName(), e);
-                                }
+                                rotateIfNeeded();
+                            } catch (Exception e) {
+                                logger.error("Failure when applying a rotation policy to file {}",
+                                        fileNamingPolicy.getInitialName(), e);
                             } finally {
                                 rolloverLifecycleHook.afterRollingOver();
                             }
+                            archiveJanitor.run();
                         }
                     },
                     rotationCheckInterval.to(TimeUnit.MILLISECONDS),
@@ -408,18 +409,18 @@ public class RotatableWriter implements TextWriter, RotatableObject {
     };
 
     /**
-     * Callback hooks to allow custom action to be taken before and after the checks for rotation and
-     * retention is performed.
+     * Callback hooks to allow custom action to be taken before and after the periodic rotation check is
+     * performed. Retention is applied once the check is over, outside of these hooks.
      */
     public interface RolloverLifecycleHook {
 
         /**
-         * This method is called before the rotation and retention checks are done.
+         * This method is called before the periodic rotation check is done.
          */
         void beforeRollingOver();
 
         /**
-         * This method is called after the rotation and retention checks are done.
+         * This method is called after the periodic rotation check is done.
          */
         void afterRollingOver();
     }
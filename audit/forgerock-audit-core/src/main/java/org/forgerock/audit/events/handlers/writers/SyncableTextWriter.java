@@ -0,0 +1,33 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.audit.events.handlers.writers;
+
+import java.io.IOException;
+
+/**
+ * A {@link TextWriter} whose written contents can be forced to the underlying storage device.
+ */
+public interface SyncableTextWriter extends TextWriter {
+
+    /**
+     * Flushes any buffered contents of the output stream, and forces all written bytes to the storage device.
+     *
+     * @throws IOException
+     *             If a problem occurs.
+     */
+    void sync() throws IOException;
+}
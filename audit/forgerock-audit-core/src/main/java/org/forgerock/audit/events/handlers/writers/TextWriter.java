@@ -12,9 +12,11 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events.handlers.writers;
 
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
@@ -55,8 +57,12 @@ public interface TextWriter {
 
     /**
      * A TextWriter implementation which writes to a given output stream.
+     * <p>
+     * When the output stream is a {@link FileOutputStream}, {@link #sync()} forces the written contents to
+     * the storage device; otherwise it only flushes them.
      */
-    public class Stream implements TextWriter {
+    public class Stream implements SyncableTextWriter {
+        private final OutputStream outputStream;
         private final MeteredStream stream;
         private final PrintWriter writer;
 
@@ -67,6 +73,7 @@ public interface TextWriter {
          *            The output stream to which
          */
         public Stream(OutputStream outputStream) {
+            this.outputStream = outputStream;
             stream = new MeteredStream(outputStream, 0);
             writer = new PrintWriter(stream, true);
         }
@@ -81,6 +88,14 @@ public interface TextWriter {
             writer.flush();
         }
 
+        @Override
+        public void sync() throws IOException {
+            writer.flush();
+            if (outputStream instanceof FileOutputStream) {
+                ((FileOutputStream) outputStream).getChannel().force(false);
+            }
+        }
+
         @Override
         public void shutdown() {
             writer.close();
@@ -12,24 +12,29 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.filter;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
-import org.forgerock.audit.AuditException;
 import org.forgerock.audit.filter.Filters.FilterNames;
 import org.forgerock.json.JsonValue;
 import org.forgerock.util.Reject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A builder that builds a filter chain.
  */
 public class FilterChainBuilder {
+    private static final Logger logger = LoggerFactory.getLogger(FilterChainBuilder.class);
+
     private Map<String, FilterPolicy> policies;
     private List<String> auditTopics;
 
@@ -62,15 +67,24 @@ public class FilterChainBuilder {
      */
     public Filter build() {
         final List<Filter> filters = new LinkedList<>();
-        // create Filters
+        // all filter types prune values or fields, so their policies are merged into a single compiled filter
         if (policies != null && auditTopics != null) {
+            final List<String> excludeIf = new ArrayList<>();
+            final List<String> includeIf = new ArrayList<>();
             for (final Map.Entry<String, FilterPolicy> policyEntry : policies.entrySet()) {
-                try {
-                    filters.add(Filters.newFilter(policyEntry.getKey(), auditTopics, policyEntry.getValue()));
-                } catch (AuditException e) {
-                    // Do nothing. The exception has been logged.
+                if (Filters.isFilterName(policyEntry.getKey())) {
+                    excludeIf.addAll(policyEntry.getValue().getExcludeIf());
+                    includeIf.addAll(policyEntry.getValue().getIncludeIf());
+                } else {
+                    logger.error(String.format("Unknown filter policy name: %s", policyEntry.getKey()));
                 }
             }
+            if (!excludeIf.isEmpty()) {
+                final FilterPolicy mergedPolicy = new FilterPolicy();
+                mergedPolicy.setExcludeIf(excludeIf);
+                mergedPolicy.setIncludeIf(includeIf);
+                filters.add(Filters.newValueOrFieldFilter(auditTopics, mergedPolicy));
+            }
         }
         return new FilterChain(filters);
     }
@@ -12,10 +12,10 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.filter;
 
-import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -48,7 +48,8 @@ public final class Filters {
      * @return The new filter.
      */
     public static ValueOrFieldFilter newValueOrFieldFilter(final List<String> auditTopics, final FilterPolicy policy) {
-        return new ValueOrFieldFilter(exclusionListPerTopic(auditTopics, policy));
+        return new ValueOrFieldFilter(pointerListPerTopic(auditTopics, policy.getExcludeIf()),
+                pointerListPerTopic(auditTopics, policy.getIncludeIf()));
     }
 
     /**
@@ -75,23 +76,35 @@ public final class Filters {
         }
     }
 
-    private static Map<String, List<JsonPointer>> exclusionListPerTopic(final List<String> auditTopicsList,
-            final FilterPolicy policy) {
+    private static Map<String, List<JsonPointer>> pointerListPerTopic(final List<String> auditTopicsList,
+            final List<String> values) {
         final Map<String, List<JsonPointer>> topicMap = initializeTopicMap(auditTopicsList);
-        for (final String value : policy.getExcludeIf()) {
+        for (final String value : values) {
             addToTopicMap(value, topicMap);
         }
         return topicMap;
     }
 
+    /**
+     * Returns whether <code>name</code> is the name of a known filter type.
+     *
+     * @param name The name of the filter type.
+     * @return <code>true</code> if the filter type is known.
+     */
+    static boolean isFilterName(final String name) {
+        try {
+            return Utils.asEnum(name, FilterNames.class) != null;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
     private static void addToTopicMap(final String value, final Map<String, List<JsonPointer>> topicMap) {
         final JsonPointer pointer = new JsonPointer(value);
         final String topic = pointer.get(0);
-        final JsonPointer exclusionPointer =
-                new JsonPointer(Arrays.copyOfRange(pointer.toArray(), 1, pointer.size()));
         final List<JsonPointer> topicPolicies = topicMap.get(topic);
         if (topicPolicies != null) {
-            topicPolicies.add(exclusionPointer);
+            topicPolicies.add(pointer.relativePointer());
         } else {
             logger.error(String.format("Attempting to create a policy for an audit topic not registered: %s", value));
         }
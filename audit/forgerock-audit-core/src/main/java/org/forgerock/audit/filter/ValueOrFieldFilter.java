@@ -12,9 +12,14 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.filter;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,17 +30,69 @@ import org.forgerock.util.Reject;
 
 /**
  * A {@link Filter} implementation that filters values and fields from the audit event.
+ * <p>
+ * The pointers of each topic are compiled into a tree of field names, so that an event is pruned in a single
+ * traversal which only descends into the branches that some pointer refers to. Excluded fields are removed along
+ * with their whole subtree, except for any descendants that are explicitly included; the most specific pointer wins,
+ * and an exclusion wins over an inclusion of the very same field. Inclusions alone never remove anything, as all
+ * fields are included by default.
  */
 class ValueOrFieldFilter implements Filter {
-    private final Map<String, List<JsonPointer>> exclusions;
+    private final Map<String, Node> filtersPerTopic;
 
     /**
      * Builds a ValueOrFieldFilter given a list of exclusion fields per topic.
      * @param exclusions A map of exclusion pointers per topic.
      */
     public ValueOrFieldFilter(final Map<String, List<JsonPointer>> exclusions) {
-        Reject.ifNull(exclusions);
-        this.exclusions = new LinkedHashMap<>(exclusions);
+        this(exclusions, Collections.<String, List<JsonPointer>>emptyMap());
+    }
+
+    /**
+     * Builds a ValueOrFieldFilter given lists of exclusion and inclusion fields per topic.
+     * @param exclusions A map of exclusion pointers per topic.
+     * @param inclusions A map of inclusion pointers per topic, overriding exclusions of their ancestors.
+     */
+    ValueOrFieldFilter(final Map<String, List<JsonPointer>> exclusions,
+            final Map<String, List<JsonPointer>> inclusions) {
+        Reject.ifNull(exclusions, inclusions);
+        final Map<String, Node> roots = new LinkedHashMap<>();
+        for (final Map.Entry<String, List<JsonPointer>> topicExclusions : exclusions.entrySet()) {
+            for (final JsonPointer pointer : topicExclusions.getValue()) {
+                addPointer(roots, topicExclusions.getKey(), pointer, Boolean.FALSE);
+            }
+        }
+        for (final Map.Entry<String, List<JsonPointer>> topicInclusions : inclusions.entrySet()) {
+            for (final JsonPointer pointer : topicInclusions.getValue()) {
+                addPointer(roots, topicInclusions.getKey(), pointer, Boolean.TRUE);
+            }
+        }
+        final Map<String, Node> compiled = new HashMap<>(roots.size());
+        for (final Map.Entry<String, Node> root : roots.entrySet()) {
+            // a topic whose pointers cannot remove anything needs no traversal at all
+            if (root.getValue().compile()) {
+                compiled.put(root.getKey(), root.getValue());
+            }
+        }
+        this.filtersPerTopic = compiled;
+    }
+
+    private static void addPointer(final Map<String, Node> roots, final String topic, final JsonPointer pointer,
+            final Boolean included) {
+        if (pointer.isEmpty()) {
+            return;
+        }
+        Node node = roots.get(topic);
+        if (node == null) {
+            node = new Node();
+            roots.put(topic, node);
+        }
+        for (final String token : pointer.toArray()) {
+            node = node.child(token);
+        }
+        if (node.included == null || Boolean.FALSE.equals(included)) {
+            node.included = included;
+        }
     }
 
     /**
@@ -44,12 +101,147 @@ class ValueOrFieldFilter implements Filter {
      */
     @Override
     public void doFilter(final String auditTopic, final JsonValue auditEvent) {
-        final List<JsonPointer> exclusionList = exclusions.get(auditTopic);
-        if (exclusionList == null || exclusionList.isEmpty()) {
+        final Node root = filtersPerTopic.get(auditTopic);
+        if (root == null) {
             return;
         }
-        for (final JsonPointer exclusionPointer : exclusionList) {
-            auditEvent.remove(exclusionPointer);
+        root.prune(auditEvent.getObject(), false);
+    }
+
+    /**
+     * A field of the compiled pointer tree.
+     */
+    private static final class Node {
+        /** {@code TRUE} if included, {@code FALSE} if excluded, {@code null} if inherited from the parent. */
+        private Boolean included;
+        /** Whether some descendant of this node is included. */
+        private boolean hasIncludedDescendants;
+        /** Whether some descendant of this node is excluded. */
+        private boolean hasExcludedDescendants;
+        private Map<String, Node> children = new LinkedHashMap<>();
+        /* Flattened children, for iteration without an iterator allocation. */
+        private String[] childNames;
+        private int[] childIndexes;
+        private Node[] childNodes;
+
+        Node child(final String name) {
+            Node child = children.get(name);
+            if (child == null) {
+                child = new Node();
+                children.put(name, child);
+            }
+            return child;
+        }
+
+        /**
+         * Computes the descendant flags and flattens the children.
+         *
+         * @return whether this node or a descendant is excluded.
+         */
+        boolean compile() {
+            final int size = children.size();
+            childNames = new String[size];
+            childIndexes = new int[size];
+            childNodes = new Node[size];
+            int i = 0;
+            for (final Map.Entry<String, Node> child : children.entrySet()) {
+                final Node node = child.getValue();
+                hasExcludedDescendants |= node.compile();
+                hasIncludedDescendants |= Boolean.TRUE.equals(node.included) || node.hasIncludedDescendants;
+                childNames[i] = child.getKey();
+                childIndexes[i] = JsonValue.toIndex(child.getKey());
+                childNodes[i] = node;
+                i++;
+            }
+            children = Collections.unmodifiableMap(children);
+            return Boolean.FALSE.equals(included) || hasExcludedDescendants;
+        }
+
+        /**
+         * Prunes the children of <code>value</code>, which is itself excluded if <code>excluded</code> is set.
+         */
+        void prune(final Object value, final boolean excluded) {
+            if (value instanceof Map) {
+                pruneMap(asMap(value), excluded);
+            } else if (value instanceof List) {
+                pruneList(asList(value), excluded);
+            }
+        }
+
+        private void pruneMap(final Map<String, Object> map, final boolean excluded) {
+            if (excluded) {
+                // only explicitly included descendants survive
+                final Iterator<Map.Entry<String, Object>> entries = map.entrySet().iterator();
+                while (entries.hasNext()) {
+                    final Map.Entry<String, Object> entry = entries.next();
+                    final Node child = children.get(entry.getKey());
+                    if (child == null || child.removes(entry.getValue(), true)) {
+                        entries.remove();
+                    }
+                }
+            } else {
+                for (int i = 0; i < childNodes.length; i++) {
+                    final Node child = childNodes[i];
+                    if (!child.hasExcludedDescendants && !Boolean.FALSE.equals(child.included)) {
+                        continue;
+                    }
+                    final Object childValue = map.get(childNames[i]);
+                    if ((childValue != null || map.containsKey(childNames[i])) && child.removes(childValue, false)) {
+                        map.remove(childNames[i]);
+                    }
+                }
+            }
+        }
+
+        private void pruneList(final List<Object> list, final boolean excluded) {
+            // remove from the highest index down so that indexes refer to the original positions
+            if (excluded) {
+                for (int index = list.size() - 1; index >= 0; index--) {
+                    final Node child = children.get(String.valueOf(index));
+                    if (child == null || child.removes(list.get(index), true)) {
+                        list.remove(index);
+                    }
+                }
+            } else {
+                final List<Integer> removals = new ArrayList<>();
+                for (int i = 0; i < childNodes.length; i++) {
+                    final int index = childIndexes[i];
+                    if (index >= 0 && index < list.size() && childNodes[i].removes(list.get(index), false)) {
+                        removals.add(index);
+                    }
+                }
+                Collections.sort(removals, Collections.reverseOrder());
+                for (final Integer index : removals) {
+                    list.remove(index.intValue());
+                }
+            }
+        }
+
+        /**
+         * Prunes <code>value</code>, the value of this node's field, and returns whether the field itself should be
+         * removed.
+         */
+        private boolean removes(final Object value, final boolean parentExcluded) {
+            final boolean excluded = included == null ? parentExcluded : !included;
+            if (excluded && !hasIncludedDescendants) {
+                return true;
+            }
+            if (value instanceof Map || value instanceof List) {
+                prune(value, excluded);
+                return false;
+            }
+            // a leaf cannot hold the included descendants
+            return excluded;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Object> asMap(final Object value) {
+            return (Map<String, Object>) value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<Object> asList(final Object value) {
+            return (List<Object>) value;
         }
     }
 }
@@ -0,0 +1,177 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.audit.retention;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.forgerock.util.Reject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies {@link RetentionPolicy retention policies} to the archived files of an audit file, after having
+ * {@link CompressedArchives compressed} them when configured to.
+ * <p>
+ * Retention lists, and may stat, every archived file, which gets slow once thousands of files are retained. A
+ * janitor is therefore meant to be run periodically by a background thread, and shares no lock with the threads
+ * writing to the audit file. The archived files are listed once per run, and that listing is shared by all
+ * the policies.
+ */
+public class ArchiveJanitor implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveJanitor.class);
+
+    private final FileNamingPolicy fileNamingPolicy;
+    private final List<RetentionPolicy> retentionPolicies;
+    private final boolean compressArchives;
+
+    /**
+     * Constructs an {@link ArchiveJanitor} for the files named by the given {@link FileNamingPolicy}.
+     *
+     * @param fileNamingPolicy The naming policy of the audit file and its archived files.
+     * @param retentionPolicies The retention policies to apply, possibly empty.
+     */
+    public ArchiveJanitor(final FileNamingPolicy fileNamingPolicy, final List<RetentionPolicy> retentionPolicies) {
+        this(fileNamingPolicy, retentionPolicies, false);
+    }
+
+    /**
+     * Constructs an {@link ArchiveJanitor} for the files named by the given {@link FileNamingPolicy}.
+     *
+     * @param fileNamingPolicy The naming policy of the audit file and its archived files.
+     * @param retentionPolicies The retention policies to apply, possibly empty.
+     * @param compressArchives Whether archived files are compressed before the retention policies are applied.
+     */
+    public ArchiveJanitor(final FileNamingPolicy fileNamingPolicy, final List<RetentionPolicy> retentionPolicies,
+            final boolean compressArchives) {
+        Reject.ifNull(fileNamingPolicy, retentionPolicies);
+        this.fileNamingPolicy = fileNamingPolicy;
+        this.retentionPolicies = retentionPolicies;
+        this.compressArchives = compressArchives;
+    }
+
+    /**
+     * Returns whether this janitor has anything to do.
+     *
+     * @return {@code true} if archived files are compressed or retention policies are configured.
+     */
+    public boolean isEnabled() {
+        return compressArchives || !retentionPolicies.isEmpty();
+    }
+
+    /**
+     * Compresses the archived files if configured to, then deletes them as per the retention policies, logging any
+     * failure.
+     */
+    @Override
+    public void run() {
+        if (compressArchives) {
+            try {
+                compressFilesIfNeeded();
+            } catch (Exception e) {
+                logger.error("Failure when compressing archives of file {}", fileNamingPolicy.getInitialName(), e);
+            }
+        }
+        try {
+            deleteFilesIfNeeded();
+        } catch (Exception e) {
+            logger.error("Failure when applying a retention policy to file {}", fileNamingPolicy.getInitialName(), e);
+        }
+    }
+
+    /**
+     * Compresses the archived files which are not compressed yet.
+     *
+     * @return The compressed archives which were created.
+     * @throws IOException If an archived file could not be compressed.
+     */
+    public List<File> compressFilesIfNeeded() throws IOException {
+        final List<File> archives = new ArrayList<>();
+        for (final File file : fileNamingPolicy.listFiles()) {
+            if (!CompressedArchives.isCompressed(file)) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Compressing file {}", file.getAbsolutePath());
+                }
+                archives.add(CompressedArchives.compress(file, CompressedArchives.DEFAULT_BLOCK_SIZE));
+            }
+        }
+        return archives;
+    }
+
+    /**
+     * Deletes the archived files as per the retention policies.
+     *
+     * @return The files which had to be deleted.
+     */
+    public Set<File> deleteFilesIfNeeded() {
+        final Set<File> filesToDelete = new HashSet<>();
+        if (retentionPolicies.isEmpty()) {
+            return filesToDelete;
+        }
+        final FileNamingPolicy listedFiles = new ListedFiles(fileNamingPolicy);
+        for (final RetentionPolicy retentionPolicy : retentionPolicies) {
+            filesToDelete.addAll(retentionPolicy.deleteFiles(listedFiles));
+        }
+        for (final File file : filesToDelete) {
+            if (logger.isInfoEnabled()) {
+                logger.info("Deleting file {}", file.getAbsolutePath());
+            }
+            if (!file.delete() && logger.isWarnEnabled()) {
+                logger.warn("Could not delete file {}", file.getAbsolutePath());
+            }
+        }
+        return filesToDelete;
+    }
+
+    /**
+     * Lists the archived files once, and hands a copy of that listing to each retention policy, as policies may
+     * sort or otherwise modify the list they are given.
+     */
+    private static final class ListedFiles implements FileNamingPolicy {
+
+        private final FileNamingPolicy delegate;
+        private List<File> files;
+
+        private ListedFiles(final FileNamingPolicy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public File getInitialName() {
+            return delegate.getInitialName();
+        }
+
+        @Override
+        public File getNextName() {
+            return delegate.getNextName();
+        }
+
+        @Override
+        public List<File> listFiles() {
+            if (files == null) {
+                files = delegate.listFiles();
+            }
+            return new LinkedList<>(files);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.audit.retention;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes compressed archives of rotated audit files.
+ * <p>
+ * An archive is a standard gzip file made of several members, each one compressing a block of whole lines of the
+ * original file, so that any gzip tool can read it. The archive ends with an empty member whose header extra field
+ * holds the index of the blocks, which allows to start reading an archive at a given offset of the original file
+ * without decompressing all the blocks before it.
+ */
+public final class CompressedArchives {
+
+    /** The suffix appended to the name of an archived file once compressed. */
+    public static final String COMPRESSED_SUFFIX = ".gz";
+
+    /** The default amount of uncompressed bytes held by each block. */
+    public static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int GZIP_HEADER_SIZE = 10;
+    /** Empty final deflate block, followed by the CRC-32 and size of the empty content. */
+    private static final byte[] EMPTY_MEMBER_TRAILER = { 0x03, 0x00, 0, 0, 0, 0, 0, 0, 0, 0 };
+    private static final byte INDEX_SUBFIELD_ID1 = 'A';
+    private static final byte INDEX_SUBFIELD_ID2 = 'I';
+    private static final int INDEX_ENTRY_SIZE = 16;
+    /** Fits the index, the entry count and the subfield header within the 16 bits long extra field. */
+    private static final int MAX_INDEX_ENTRIES = (0xFFFF - 4 - 4) / INDEX_ENTRY_SIZE;
+
+    private CompressedArchives() {
+        // utility class
+    }
+
+    /**
+     * Returns whether the given file is a compressed archive.
+     *
+     * @param file The file.
+     * @return {@code true} if the file name ends with {@link #COMPRESSED_SUFFIX}.
+     */
+    public static boolean isCompressed(final File file) {
+        return file.getName().endsWith(COMPRESSED_SUFFIX);
+    }
+
+    /**
+     * Returns the name the given file had before it was compressed, which is the file itself when not compressed.
+     *
+     * @param file The file.
+     * @return The file without its {@link #COMPRESSED_SUFFIX}.
+     */
+    public static File getUncompressedFile(final File file) {
+        if (!isCompressed(file)) {
+            return file;
+        }
+        final String path = file.getPath();
+        return new File(path.substring(0, path.length() - COMPRESSED_SUFFIX.length()));
+    }
+
+    /**
+     * Compresses the given file into an archive of blocks, then deletes it. The archive keeps the last modification
+     * time of the file, so that it is still ordered the same way among the other archived files.
+     *
+     * @param file The file to compress.
+     * @param blockSize The amount of uncompressed bytes held by each block, which is raised when needed to keep
+     * the index small enough.
+     * @return The compressed archive.
+     * @throws IOException If the file could not be compressed.
+     */
+    public static File compress(final File file, final int blockSize) throws IOException {
+        final File archive = new File(file.getPath() + COMPRESSED_SUFFIX);
+        final File temporaryFile = new File(archive.getPath() + TEMPORARY_SUFFIX);
+        final long lastModified = file.lastModified();
+        final int effectiveBlockSize =
+                (int) Math.max(blockSize, Math.min(Integer.MAX_VALUE, file.length() / MAX_INDEX_ENTRIES + 1));
+        final List<long[]> index = new ArrayList<>();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file));
+                FileOutputStream out = new FileOutputStream(temporaryFile)) {
+            final ByteArrayOutputStream member = new ByteArrayOutputStream(effectiveBlockSize / 4);
+            final byte[] block = new byte[effectiveBlockSize];
+            long compressedOffset = 0;
+            long uncompressedOffset = 0;
+            int length;
+            while ((length = readBlock(in, block)) > 0) {
+                index.add(new long[] { compressedOffset, uncompressedOffset });
+                member.reset();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(member)) {
+                    gzip.write(block, 0, length);
+                    uncompressedOffset += length;
+                    // complete the block with the rest of its last line
+                    int b = block[length - 1];
+                    while (b != '\n' && (b = in.read()) != -1) {
+                        gzip.write(b);
+                        uncompressedOffset++;
+                    }
+                }
+                member.writeTo(out);
+                compressedOffset += member.size();
+            }
+            out.write(indexMember(index));
+            out.getChannel().force(true);
+        } catch (IOException e) {
+            temporaryFile.delete();
+            throw e;
+        }
+        temporaryFile.setLastModified(lastModified);
+        Files.move(temporaryFile.toPath(), archive.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        // the archive must be durable before the only other copy of its content is deleted
+        syncDirectory(archive);
+        Files.delete(file.toPath());
+        syncDirectory(archive);
+        return archive;
+    }
+
+    /**
+     * Flushes the entries of the directory holding the given file to disk, so that a file moved into it or deleted
+     * from it stays so after a crash. This is not supported by every platform, in which case it is skipped.
+     */
+    private static void syncDirectory(final File file) throws IOException {
+        final File directory = file.getAbsoluteFile().getParentFile();
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            // directories cannot be opened on some platforms, such as Windows
+            return;
+        }
+        try {
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Opens the given file for reading, decompressing it if it is a compressed archive, or if it was compressed since
+     * it was listed.
+     *
+     * @param file The file, compressed or not.
+     * @return A stream reading the uncompressed content of the file.
+     * @throws IOException If the file could not be opened.
+     */
+    public static InputStream newInputStream(final File file) throws IOException {
+        return newInputStream(file, 0);
+    }
+
+    /**
+     * Opens the given file for reading from the given offset of its uncompressed content. For a compressed archive,
+     * decompression starts at the block holding that offset. A file that was compressed since it was listed is read
+     * from its compressed archive.
+     *
+     * @param file The file, compressed or not.
+     * @param offset The offset of the uncompressed content to read from.
+     * @return A stream reading the uncompressed content of the file, from the given offset.
+     * @throws IOException If the file could not be opened.
+     */
+    public static InputStream newInputStream(final File file, final long offset) throws IOException {
+        if (!isCompressed(file) && !file.exists()) {
+            // the archive is complete before the file is deleted
+            final File archive = new File(file.getPath() + COMPRESSED_SUFFIX);
+            if (archive.exists()) {
+                return newInputStream(archive, offset);
+            }
+        }
+        final FileInputStream fileStream = new FileInputStream(file);
+        try {
+            final InputStream in;
+            long toSkip = offset;
+            if (isCompressed(file)) {
+                for (final long[] entry : readIndex(file)) {
+                    if (entry[1] > offset) {
+                        break;
+                    }
+                    fileStream.getChannel().position(entry[0]);
+                    toSkip = offset - entry[1];
+                }
+                in = new GZIPInputStream(new BufferedInputStream(fileStream));
+            } else {
+                in = fileStream;
+            }
+            while (toSkip > 0) {
+                final long skipped = in.skip(toSkip);
+                if (skipped <= 0) {
+                    break;
+                }
+                toSkip -= skipped;
+            }
+            return in;
+        } catch (IOException e) {
+            fileStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the block index of a compressed archive.
+     *
+     * @param archive The compressed archive.
+     * @return The compressed and uncompressed offsets of the blocks, or an empty list if the archive has no index.
+     * @throws IOException If the archive could not be read.
+     */
+    static List<long[]> readIndex(final File archive) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(archive, "r")) {
+            final long length = file.length();
+            final long countOffset = length - EMPTY_MEMBER_TRAILER.length - 4;
+            if (countOffset < GZIP_HEADER_SIZE + 2 + 4) {
+                return Collections.emptyList();
+            }
+            file.seek(countOffset);
+            final int count = file.readInt();
+            if (count < 0 || count > MAX_INDEX_ENTRIES) {
+                return Collections.emptyList();
+            }
+            final int subfieldSize = count * INDEX_ENTRY_SIZE + 4;
+            final long subfieldOffset = length - EMPTY_MEMBER_TRAILER.length - subfieldSize - 4;
+            if (subfieldOffset < GZIP_HEADER_SIZE + 2) {
+                return Collections.emptyList();
+            }
+            file.seek(subfieldOffset);
+            if (file.readByte() != INDEX_SUBFIELD_ID1 || file.readByte() != INDEX_SUBFIELD_ID2
+                    || readLittleEndianShort(file) != subfieldSize) {
+                return Collections.emptyList();
+            }
+            final List<long[]> index = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                index.add(new long[] { file.readLong(), file.readLong() });
+            }
+            return index;
+        }
+    }
+
+    private static int readBlock(final InputStream in, final byte[] block) throws IOException {
+        int length = 0;
+        int read;
+        while (length < block.length && (read = in.read(block, length, block.length - length)) != -1) {
+            length += read;
+        }
+        return length;
+    }
+
+    /** Builds an empty gzip member holding the index within a subfield of its header extra field. */
+    private static byte[] indexMember(final List<long[]> index) {
+        final int subfieldSize = index.size() * INDEX_ENTRY_SIZE + 4;
+        final ByteBuffer member = ByteBuffer.allocate(GZIP_HEADER_SIZE + 2 + 4 + subfieldSize
+                + EMPTY_MEMBER_TRAILER.length);
+        // magic number, deflate method, FEXTRA flag, no modification time, no extra flags, unknown OS
+        member.put(new byte[] { 0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff });
+        putLittleEndianShort(member, 4 + subfieldSize);
+        member.put(INDEX_SUBFIELD_ID1).put(INDEX_SUBFIELD_ID2);
+        putLittleEndianShort(member, subfieldSize);
+        for (final long[] entry : index) {
+            member.putLong(entry[0]).putLong(entry[1]);
+        }
+        member.putInt(index.size());
+        member.put(EMPTY_MEMBER_TRAILER);
+        return member.array();
+    }
+
+    private static void putLittleEndianShort(final ByteBuffer buffer, final int value) {
+        buffer.put((byte) value).put((byte) (value >>> 8));
+    }
+
+    private static int readLittleEndianShort(final RandomAccessFile file) throws IOException {
+        return file.readUnsignedByte() | file.readUnsignedByte() << 8;
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.retention;
 
@@ -104,7 +105,8 @@ public class TimeStampFileNamingPolicy implements FileNamingPolicy {
         }
 
         Path newFilePath = path.resolveSibling(newFileName.toString());
-        if (Files.exists(newFilePath)) {
+        if (Files.exists(newFilePath)
+                || Files.exists(newFilePath.resolveSibling(newFileName + CompressedArchives.COMPRESSED_SUFFIX))) {
             // prevent filename collision with unique suffix
             newFileName.append('.').append(collisionCounter.incrementAndGet());
             newFilePath = path.resolveSibling(newFileName.toString());
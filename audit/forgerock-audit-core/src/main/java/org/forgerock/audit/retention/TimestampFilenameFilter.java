@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.retention;
 
@@ -43,14 +44,20 @@ public class TimestampFilenameFilter implements FilenameFilter {
     }
 
     /**
-     * Matches the name of a file to the {@link FilenameFilter}.
+     * Matches the name of a file to the {@link FilenameFilter}, whether the file is a compressed archive or not.
      * {@inheritDoc}
      */
     @Override
     public boolean accept(final File dir, final String fileName) {
         return fileName.length() > fileNameTemplate.length()
                 && fileName.startsWith(fileNameTemplate)
-                && suffixMatchesDateFormat(fileName.substring(fileNameTemplate.length()));
+                && suffixMatchesDateFormat(stripCompressedSuffix(fileName.substring(fileNameTemplate.length())));
+    }
+
+    private static String stripCompressedSuffix(final String suffix) {
+        return suffix.endsWith(CompressedArchives.COMPRESSED_SUFFIX)
+                ? suffix.substring(0, suffix.length() - CompressedArchives.COMPRESSED_SUFFIX.length())
+                : suffix;
     }
 
     private boolean suffixMatchesDateFormat(final String timestamp) {
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.events;
 
@@ -23,6 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.forgerock.audit.util.DateUtil;
 import org.forgerock.json.JsonValue;
 import org.forgerock.services.TransactionId;
 import org.forgerock.services.context.Context;
@@ -137,6 +139,46 @@ public class AuditEventBuilderTest {
         assertThat(value.get(TRANSACTION_ID).asString()).isEqualTo(transactionId.getValue());
     }
 
+    @Test
+    public void reusableRecordBuildsIndependentEventsInSchemaOrder() {
+        // Given
+        OpenProductAuditEventBuilder<?> builder = productEvent().withReusableRecord();
+
+        // When
+        AuditEvent first = builder
+                .openField("value")
+                .trackingId("12345")
+                .userId("someone@forgerock.com")
+                .transactionId("transactionId")
+                .timestamp(1427293286239L)
+                .eventName("AM-CREST-SUCCESSFUL")
+                .toEvent();
+        AuditEvent second = builder
+                .eventName("AM-CREST-FAILED")
+                .transactionId("otherTransactionId")
+                .timestamp(1427293286240L)
+                .toEvent();
+
+        // Then
+        assertEvent(first);
+        assertThat(first.getValue().keys()).containsExactly(
+                TIMESTAMP, EVENT_NAME, TRANSACTION_ID, USER_ID, TRACKING_IDS, "open");
+        JsonValue value = second.getValue();
+        assertThat(value.keys()).containsExactly(TIMESTAMP, EVENT_NAME, TRANSACTION_ID);
+        assertThat(value.get(TIMESTAMP).asString()).isEqualTo("2015-03-25T14:21:26.240Z");
+        assertThat(first.getValue().get(EVENT_NAME).asString()).isEqualTo("AM-CREST-SUCCESSFUL");
+    }
+
+    @Test
+    public void cachedTimestampFormattingMatchesIsoFormat() {
+        long[] timestamps = { 1427293286239L, 1427293286239L, 1427293286005L, 1427293286999L, 1427293287000L,
+            1427293286090L, 1L };
+        for (long timestamp : timestamps) {
+            assertThat(AuditEventBuilder.formatTimestamp(timestamp))
+                    .isEqualTo(DateUtil.getDateUtil("UTC").formatDateTime(timestamp));
+        }
+    }
+
     private void assertEvent(AuditEvent event) {
         JsonValue value = event.getValue();
         assertThat(value.get(TRANSACTION_ID).asString()).isEqualTo("transactionId");
@@ -0,0 +1,435 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.events.handlers.buffering;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.json.JsonValue;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.Promises;
+import org.forgerock.util.time.Duration;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SuppressWarnings("javadoc")
+public class SpillQueueTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    private File directory;
+
+    @BeforeMethod
+    public void createDirectory() throws Exception {
+        directory = Files.createTempDirectory("spill").toFile();
+    }
+
+    @AfterMethod
+    public void deleteDirectory() {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testEventsAreReadInOrderAcrossSegments() throws Exception {
+        // given
+        final SpillQueue queue = openQueue(SpillQueue.newBuilder(directory).segmentSize(SEGMENT_SIZE));
+        final int count = 2000;
+
+        // when
+        for (int i = 0; i < count; i++) {
+            assertThat(queue.append("access", event(i))).isTrue();
+        }
+
+        // then
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(queue.size()).isEqualTo(count);
+        final List<SpillQueue.Entry> entries = new ArrayList<>();
+        while (queue.read(300, entries) > 0) {
+            queue.commit();
+        }
+        assertThat(entries).hasSize(count);
+        for (int i = 0; i < count; i++) {
+            assertThat(entries.get(i).getTopic()).isEqualTo("access");
+            assertThat(entries.get(i).getEvent().get("index").asInteger()).isEqualTo(i);
+        }
+        assertThat(queue.isEmpty()).isTrue();
+        assertThat(segmentFiles()).hasSize(1);
+        queue.close();
+    }
+
+    @Test
+    public void testRewindReadsUncommittedEventsAgain() throws Exception {
+        // given
+        final SpillQueue queue = openQueue(SpillQueue.newBuilder(directory));
+        for (int i = 0; i < 5; i++) {
+            queue.append("access", event(i));
+        }
+        final List<SpillQueue.Entry> entries = new ArrayList<>();
+        queue.read(2, entries);
+        queue.commit();
+
+        // when
+        queue.read(2, entries);
+        queue.rewind();
+        queue.read(10, entries);
+
+        // then
+        assertThat(indexes(entries)).containsExactly(0, 1, 2, 3, 2, 3, 4);
+        assertThat(queue.size()).isEqualTo(3);
+        queue.close();
+    }
+
+    @Test
+    public void testPendingEventsAreRecoveredOnReopen() throws Exception {
+        // given
+        final SpillQueue queue = openQueue(SpillQueue.newBuilder(directory).segmentSize(SEGMENT_SIZE));
+        for (int i = 0; i < 1500; i++) {
+            queue.append("access", event(i));
+        }
+        final List<SpillQueue.Entry> entries = new ArrayList<>();
+        queue.read(700, entries);
+        queue.commit();
+        queue.read(100, entries);
+        queue.close();
+
+        // when
+        final SpillQueue reopened = openQueue(SpillQueue.newBuilder(directory).segmentSize(SEGMENT_SIZE));
+
+        // then
+        assertThat(reopened.size()).isEqualTo(800);
+        entries.clear();
+        reopened.read(1000, entries);
+        assertThat(entries).hasSize(800);
+        assertThat(entries.get(0).getEvent().get("index").asInteger()).isEqualTo(700);
+        assertThat(entries.get(799).getEvent().get("index").asInteger()).isEqualTo(1499);
+        reopened.close();
+    }
+
+    @Test
+    public void testTornRecordIsDiscardedOnReopen() throws Exception {
+        // given
+        final SpillQueue queue = openQueue(SpillQueue.newBuilder(directory).segmentSize(SEGMENT_SIZE));
+        for (int i = 0; i < 3; i++) {
+            queue.append("access", event(i));
+        }
+        queue.close();
+        // corrupt the last byte of the third record
+        final File segment = segmentFiles()[0];
+        final int eventSize = new ObjectMapper().writeValueAsBytes(event(0).getObject()).length;
+        final int recordSize = 8 + 8 + "access".length() + eventSize;
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            final long position = 16 + 3L * recordSize - 1;
+            raf.seek(position);
+            final int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0xff);
+        }
+
+        // when
+        final SpillQueue reopened = openQueue(SpillQueue.newBuilder(directory).segmentSize(SEGMENT_SIZE));
+        reopened.append("access", event(3));
+
+        // then
+        final List<SpillQueue.Entry> entries = new ArrayList<>();
+        reopened.read(10, entries);
+        assertThat(indexes(entries)).containsExactly(0, 1, 3);
+        reopened.close();
+    }
+
+    @Test
+    public void testAppendIsRejectedOnceDiskUsageIsReached() throws Exception {
+        // given
+        final SpillQueue queue = openQueue(SpillQueue.newBuilder(directory)
+                .segmentSize(SEGMENT_SIZE)
+                .maxDiskUsage(2 * SEGMENT_SIZE));
+
+        // when
+        int appended = 0;
+        while (queue.append("access", event(appended))) {
+            appended++;
+        }
+
+        // then
+        assertThat(appended).isGreaterThan(0);
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(queue.size()).isEqualTo(appended);
+        queue.close();
+    }
+
+    @Test
+    public void testReadsAreLimitedByReplayRate() throws Exception {
+        // given
+        final SpillQueue queue = openQueue(SpillQueue.newBuilder(directory).maxReplayRate(10));
+        for (int i = 0; i < 100; i++) {
+            queue.append("access", event(i));
+        }
+
+        // when
+        final List<SpillQueue.Entry> entries = new ArrayList<>();
+        final int first = queue.read(100, entries);
+        final int second = queue.read(100, entries);
+
+        // then
+        assertThat(first).isEqualTo(10);
+        assertThat(second).isLessThanOrEqualTo(1);
+        queue.close();
+    }
+
+    @Test
+    public void testPublisherSpillsFailedBatchesAndReplaysThemInOrder() throws Exception {
+        // given
+        final SpillQueue spillQueue = SpillQueue.newBuilder(directory).build();
+        final RecordingBatchConsumer consumer = new RecordingBatchConsumer();
+        consumer.failing.set(true);
+        final BatchPublisher publisher = BufferedBatchPublisher.newBuilder(consumer)
+                .writeInterval(Duration.duration("10 ms"))
+                .autoFlush(true)
+                .spillQueue(spillQueue)
+                .build();
+        publisher.startup();
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            assertThat(publisher.offer("access", event(i))).isTrue();
+        }
+        waitFor(spillQueue, 10);
+        for (int i = 10; i < 20; i++) {
+            assertThat(publisher.offer("access", event(i))).isTrue();
+        }
+        consumer.failing.set(false);
+        waitFor(spillQueue, 0);
+        publisher.shutdown();
+
+        // then
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(i);
+        }
+        assertThat(consumer.published).isEqualTo(expected);
+    }
+
+    @Test
+    public void testPublisherKeepsQueuedEventsOnDiskAtShutdownWithoutFlush() throws Exception {
+        // given
+        final RecordingBatchConsumer consumer = new RecordingBatchConsumer();
+        consumer.failing.set(true);
+        final BatchPublisher publisher = BufferedBatchPublisher.newBuilder(consumer)
+                .writeInterval(Duration.duration("50 ms"))
+                .spillQueue(SpillQueue.newBuilder(directory).build())
+                .build();
+        publisher.startup();
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            publisher.offer("access", event(i));
+        }
+        publisher.shutdown();
+
+        // then
+        final SpillQueue reopened = openQueue(SpillQueue.newBuilder(directory));
+        assertThat(reopened.size()).isEqualTo(5);
+        reopened.close();
+    }
+
+    @Test
+    public void testPublisherOnlySpillsRetriableFailedItems() throws Exception {
+        // given
+        final SpillQueue spillQueue = SpillQueue.newBuilder(directory).build();
+        final RecordingBatchConsumer consumer = new RecordingBatchConsumer();
+        consumer.rejected.add(2);
+        consumer.failingOnce.add(5);
+        final BatchPublisher publisher = BufferedBatchPublisher.newBuilder(consumer)
+                .writeInterval(Duration.duration("10 ms"))
+                .autoFlush(true)
+                .spillQueue(spillQueue)
+                .build();
+        publisher.startup();
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            assertThat(publisher.offer("access", event(i))).isTrue();
+        }
+        waitForPublished(consumer, 9);
+        waitFor(spillQueue, 0);
+        publisher.shutdown();
+
+        // then the accepted events are published once, and the rejected event is dead-lettered
+        assertThat(consumer.published).containsOnly(0, 1, 3, 4, 5, 6, 7, 8, 9).hasSize(9);
+        assertThat(deadLetters()).containsExactly(2);
+    }
+
+    @Test
+    public void testPublisherMovesUndeliverableSpilledEventsToDeadLetterWithoutHoldingUpLiveEvents()
+            throws Exception {
+        // given
+        final SpillQueue spillQueue = SpillQueue.newBuilder(directory).build();
+        final RecordingBatchConsumer consumer = new RecordingBatchConsumer();
+        consumer.poison.add(0);
+        final BatchPublisher publisher = BufferedBatchPublisher.newBuilder(consumer)
+                .writeInterval(Duration.duration("10 ms"))
+                .autoFlush(true)
+                .spillQueue(spillQueue)
+                .maxReplayAttempts(5)
+                .build();
+        publisher.startup();
+
+        // when the poison event has been spilled and three replays have failed
+        assertThat(publisher.offer("access", event(0))).isTrue();
+        final long deadline = System.currentTimeMillis() + 10000L;
+        while (consumer.poisonAttempts.get() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // let the publisher record the failure, well within the 40 ms backoff before the next replay
+        Thread.sleep(10);
+        for (int i = 1; i < 5; i++) {
+            assertThat(publisher.offer("access", event(i))).isTrue();
+        }
+        waitForPublished(consumer, 4);
+        waitFor(spillQueue, 0);
+        publisher.shutdown();
+
+        // then
+        assertThat(consumer.published).containsExactly(1, 2, 3, 4);
+        // the live attempt, then five replays
+        assertThat(consumer.poisonAttempts.get()).isEqualTo(6);
+        assertThat(deadLetters()).containsExactly(0);
+    }
+
+    private List<Integer> deadLetters() throws Exception {
+        final List<Integer> indexes = new ArrayList<>();
+        final File file = new File(directory, "dead-letter.log");
+        if (file.exists()) {
+            for (final String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                indexes.add(json(new ObjectMapper().readValue(line, Object.class)).get("event").get("index")
+                        .asInteger());
+            }
+        }
+        return indexes;
+    }
+
+    private static void waitForPublished(final RecordingBatchConsumer consumer, final int count)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000L;
+        while (consumer.published.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static SpillQueue openQueue(final SpillQueue.Builder builder) throws Exception {
+        final SpillQueue queue = builder.build();
+        queue.open();
+        return queue;
+    }
+
+    private static void waitFor(final SpillQueue queue, final long size) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000L;
+        while (queue.size() != size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(queue.size()).isEqualTo(size);
+    }
+
+    private File[] segmentFiles() {
+        return directory.listFiles();
+    }
+
+    private static JsonValue event(final int index) {
+        return json(object(field("_id", "id-" + index), field("index", index)));
+    }
+
+    private static List<Integer> indexes(final List<SpillQueue.Entry> entries) {
+        final List<Integer> indexes = new ArrayList<>();
+        for (final SpillQueue.Entry entry : entries) {
+            indexes.add(entry.getEvent().get("index").asInteger());
+        }
+        return indexes;
+    }
+
+    /**
+     * Batch consumer whose payload is the comma-separated list of event indexes.
+     */
+    private static final class RecordingBatchConsumer implements BatchConsumer {
+
+        private final AtomicBoolean failing = new AtomicBoolean();
+        private final List<Integer> published = new CopyOnWriteArrayList<>();
+        /** Events failing their batch as a whole. */
+        private final Set<Integer> poison = new CopyOnWriteArraySet<>();
+        private final AtomicInteger poisonAttempts = new AtomicInteger();
+        /** Events failing permanently, or the first time they are published, while the others are accepted. */
+        private final Set<Integer> rejected = new CopyOnWriteArraySet<>();
+        private final Set<Integer> failingOnce = new CopyOnWriteArraySet<>();
+
+        @Override
+        public void addToBatch(final String topic, final JsonValue event, final StringBuilder payload) {
+            payload.append(event.get("index").asInteger()).append(',');
+        }
+
+        @Override
+        public Promise<Void, BatchException> publishBatch(final String payload) {
+            if (failing.get()) {
+                return Promises.newExceptionPromise(new BatchException("sink unavailable"));
+            }
+            final String[] indexes = payload.split(",");
+            for (final String index : indexes) {
+                if (poison.contains(Integer.valueOf(index))) {
+                    poisonAttempts.incrementAndGet();
+                    return Promises.newExceptionPromise(new BatchException("poison event"));
+                }
+            }
+            final List<Integer> failedItems = new ArrayList<>();
+            final List<Integer> retriableItems = new ArrayList<>();
+            for (int i = 0; i < indexes.length; i++) {
+                final Integer index = Integer.valueOf(indexes[i]);
+                if (rejected.contains(index)) {
+                    failedItems.add(i);
+                } else if (failingOnce.remove(index)) {
+                    failedItems.add(i);
+                    retriableItems.add(i);
+                } else {
+                    published.add(index);
+                }
+            }
+            if (!failedItems.isEmpty()) {
+                return Promises.newExceptionPromise(
+                        new BatchException("some events failed", failedItems, retriableItems));
+            }
+            return Promises.newResultPromise(null);
+        }
+    }
+}
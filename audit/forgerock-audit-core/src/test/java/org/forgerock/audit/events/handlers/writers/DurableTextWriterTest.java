@@ -0,0 +1,91 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.events.handlers.writers;
+
+import static org.mockito.Mockito.*;
+
+import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration.DurabilityMode;
+import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration.FileDurability;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class DurableTextWriterTest {
+
+    @Test
+    public void testGroupCommitSyncsOnlyWhenSomethingWasWritten() throws Exception {
+        // given
+        final SyncableTextWriter syncableWriter = mock(SyncableTextWriter.class);
+        final DurableTextWriter writer = new DurableTextWriter("test", durability(DurabilityMode.GROUP_COMMIT),
+                syncableWriter);
+
+        // when
+        writer.write("a");
+        writer.write("b");
+        writer.commit();
+        writer.commit();
+
+        // then
+        verify(syncableWriter).write("a");
+        verify(syncableWriter).write("b");
+        verify(syncableWriter, times(1)).sync();
+    }
+
+    @Test
+    public void testCommitIsNoOpWithoutGroupCommit() throws Exception {
+        // given
+        final SyncableTextWriter syncableWriter = mock(SyncableTextWriter.class);
+        final DurableTextWriter writer = new DurableTextWriter("test", durability(DurabilityMode.NONE),
+                syncableWriter);
+
+        // when
+        writer.write("a");
+        writer.commit();
+        writer.shutdown();
+
+        // then
+        verify(syncableWriter, never()).sync();
+        verify(syncableWriter).shutdown();
+    }
+
+    @Test
+    public void testPeriodicSyncAndSyncOnShutdown() throws Exception {
+        // given
+        final SyncableTextWriter syncableWriter = mock(SyncableTextWriter.class);
+        final FileDurability durability = durability(DurabilityMode.PERIODIC);
+        durability.setSyncInterval("10 ms");
+        final DurableTextWriter writer = new DurableTextWriter("test", durability, syncableWriter);
+
+        // when
+        writer.write("a");
+
+        // then
+        verify(syncableWriter, timeout(5000)).sync();
+
+        // when
+        writer.write("b");
+        writer.shutdown();
+
+        // then
+        verify(syncableWriter, times(2)).sync();
+        verify(syncableWriter).shutdown();
+    }
+
+    private static FileDurability durability(final DurabilityMode mode) {
+        final FileDurability durability = new FileDurability();
+        durability.setMode(mode);
+        return durability;
+    }
+}
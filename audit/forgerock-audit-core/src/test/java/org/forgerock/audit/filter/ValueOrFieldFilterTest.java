@@ -12,15 +12,20 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.filter;
 
 import static java.util.Arrays.asList;
+import static org.forgerock.json.JsonValue.array;
+import static org.forgerock.json.JsonValue.field;
 import static org.forgerock.json.JsonValue.json;
 import static org.forgerock.json.JsonValue.object;
 import static org.forgerock.json.test.assertj.AssertJJsonValueAssert.assertThat;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.assertj.core.api.Assertions;
 import org.forgerock.json.JsonPointer;
@@ -56,6 +61,82 @@ public class ValueOrFieldFilterTest {
         assertThat(event).hasString("/another/value");
     }
 
+    @Test
+    public void testIncludedFieldsOverrideExcludedParents() {
+        // given
+        final List<String> auditTopics = asList("topic1");
+        final FilterPolicy filterPolicy = new FilterPolicy();
+        filterPolicy.setExcludeIf(asList(
+                "/topic1/http/request",
+                "/topic1/http/request/headers/accept/secret"));
+        filterPolicy.setIncludeIf(asList(
+                "/topic1/http/request/headers/accept",
+                "/topic1/value"));
+        final JsonValue event = createEvent(asList(
+                "/value",
+                "/http/request/method",
+                "/http/request/headers/cookie",
+                "/http/request/headers/accept/type",
+                "/http/request/headers/accept/secret",
+                "/http/response/status"));
+        final Filter filter = Filters.newValueOrFieldFilter(auditTopics, filterPolicy);
+
+        // when
+        filter.doFilter("topic1", event);
+
+        // then
+        assertThat(event).hasString("/value");
+        assertThat(event).hasString("/http/request/headers/accept/type");
+        assertThat(event).doesNotContain("/http/request/headers/accept/secret");
+        assertThat(event).doesNotContain("/http/request/headers/cookie");
+        assertThat(event).doesNotContain("/http/request/method");
+        assertThat(event).hasString("/http/response/status");
+    }
+
+    @Test
+    public void testExcludingListElementsByOriginalIndex() {
+        // given
+        final FilterPolicy filterPolicy = new FilterPolicy();
+        filterPolicy.setExcludeIf(asList("/topic1/values/0", "/topic1/values/2"));
+        final JsonValue event = json(object(field("values", array("a", "b", "c", "d"))));
+        final Filter filter = Filters.newValueOrFieldFilter(asList("topic1"), filterPolicy);
+
+        // when
+        filter.doFilter("topic1", event);
+
+        // then
+        Assertions.assertThat(event.get("values").asList()).containsExactly("b", "d");
+    }
+
+    @Test
+    public void testFilterChainMergesPoliciesAndIgnoresOtherTopics() {
+        // given
+        final FilterPolicy fieldPolicy = new FilterPolicy();
+        fieldPolicy.setExcludeIf(asList("/topic1/field"));
+        final FilterPolicy valuePolicy = new FilterPolicy();
+        valuePolicy.setExcludeIf(asList("/topic1/other/value"));
+        final Map<String, FilterPolicy> policies = new LinkedHashMap<>();
+        policies.put("field", fieldPolicy);
+        policies.put("value", valuePolicy);
+        final Filter filter = new FilterChainBuilder()
+                .withAuditTopics(asList("topic1", "topic2"))
+                .withPolicies(policies)
+                .build();
+        final JsonValue event1 = createEvent(asList("/field", "/other/value", "/other/kept"));
+        final JsonValue event2 = createEvent(asList("/field", "/other/value"));
+
+        // when
+        filter.doFilter("topic1", event1);
+        filter.doFilter("topic2", event2);
+
+        // then
+        assertThat(event1).doesNotContain("/field");
+        assertThat(event1).doesNotContain("/other/value");
+        assertThat(event1).hasString("/other/kept");
+        assertThat(event2).hasString("/field");
+        assertThat(event2).hasString("/other/value");
+    }
+
     private final JsonValue createEvent(final List<String> fields) {
         final JsonValue event = json(object());
         for (final String field: fields) {
@@ -0,0 +1,75 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.audit.retention;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+public class ArchiveJanitorTest {
+
+    @Test
+    public void testArchivedFilesAreListedOnceForAllPolicies() {
+        // given
+        final FileNamingPolicy fileNamingPolicy = mock(FileNamingPolicy.class);
+        final List<File> archivedFiles = new LinkedList<>();
+        for (int i = 0; i < 4; i++) {
+            archivedFiles.add(mock(File.class));
+        }
+        when(fileNamingPolicy.listFiles()).thenReturn(archivedFiles);
+        final List<RetentionPolicy> retentionPolicies = asList(
+                (RetentionPolicy) new SizeBasedRetentionPolicy(3), new SizeBasedRetentionPolicy(2));
+        final ArchiveJanitor archiveJanitor = new ArchiveJanitor(fileNamingPolicy, retentionPolicies);
+
+        // when
+        Set<File> deletedFiles = archiveJanitor.deleteFilesIfNeeded();
+
+        // then
+        assertThat(deletedFiles).containsOnly(archivedFiles.get(0), archivedFiles.get(1));
+        verify(fileNamingPolicy, times(1)).listFiles();
+        verify(archivedFiles.get(0)).delete();
+        verify(archivedFiles.get(1)).delete();
+        verify(archivedFiles.get(2), never()).delete();
+        verify(archivedFiles.get(3), never()).delete();
+    }
+
+    @Test
+    public void testNothingIsListedWithoutRetentionPolicies() {
+        // given
+        final FileNamingPolicy fileNamingPolicy = mock(FileNamingPolicy.class);
+        final ArchiveJanitor archiveJanitor =
+                new ArchiveJanitor(fileNamingPolicy, Collections.<RetentionPolicy>emptyList());
+
+        // when
+        archiveJanitor.run();
+
+        // then
+        verify(fileNamingPolicy, never()).listFiles();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.audit.retention;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.testng.annotations.Test;
+
+public class CompressedArchivesTest {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    @Test
+    public void testCompressedArchiveIsReadTransparently() throws IOException {
+        // given
+        final File file = createFileWithLines(1000);
+        final byte[] content = Files.readAllBytes(file.toPath());
+
+        // when
+        final File archive = CompressedArchives.compress(file, BLOCK_SIZE);
+
+        // then
+        assertThat(archive.getName()).isEqualTo(file.getName() + CompressedArchives.COMPRESSED_SUFFIX);
+        assertThat(file).doesNotExist();
+        assertThat(archive.length()).isLessThan(content.length);
+        try (InputStream in = CompressedArchives.newInputStream(archive)) {
+            assertThat(readFully(in)).isEqualTo(content);
+        }
+        // a plain gzip reader sees the same content
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archive.toPath()))) {
+            assertThat(readFully(in)).isEqualTo(content);
+        }
+    }
+
+    @Test
+    public void testCompressedArchiveCanBeReadFromAnyOffset() throws IOException {
+        // given
+        final File file = createFileWithLines(1000);
+        final byte[] content = Files.readAllBytes(file.toPath());
+        final File archive = CompressedArchives.compress(file, BLOCK_SIZE);
+        final int offset = content.length - 100;
+
+        // when
+        final List<long[]> index = CompressedArchives.readIndex(archive);
+        final byte[] tail;
+        try (InputStream in = CompressedArchives.newInputStream(archive, offset)) {
+            tail = readFully(in);
+        }
+
+        // then
+        assertThat(index.size()).isGreaterThan(1);
+        for (final long[] entry : index) {
+            // each block starts with a whole line
+            assertThat(entry[1] == 0 || content[(int) entry[1] - 1] == '\n').isTrue();
+        }
+        assertThat(new String(tail, UTF_8)).isEqualTo(new String(content, offset, 100, UTF_8));
+    }
+
+    @Test
+    public void testArchivesKeepTheirNameWhenCompressed() throws IOException {
+        // given
+        final File initialFile = File.createTempFile("compressed", ".audit");
+        final TimeStampFileNamingPolicy fileNamingPolicy =
+                new TimeStampFileNamingPolicy(initialFile, "-yyyy.MM.dd-HH.mm.ss", null);
+        final File archivedFile = fileNamingPolicy.getNextName();
+        Files.write(archivedFile.toPath(), "line\n".getBytes(UTF_8));
+
+        // when
+        final File archive = CompressedArchives.compress(archivedFile, BLOCK_SIZE);
+
+        // then
+        assertThat(fileNamingPolicy.listFiles()).containsOnly(archive);
+        assertThat(CompressedArchives.getUncompressedFile(archive)).isEqualTo(archivedFile);
+        archive.delete();
+        initialFile.delete();
+    }
+
+    private static File createFileWithLines(final int lines) throws IOException {
+        final File file = File.createTempFile("compressed", ".audit");
+        file.deleteOnExit();
+        new File(file.getPath() + CompressedArchives.COMPRESSED_SUFFIX).deleteOnExit();
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            content.append("{\"_id\":\"").append(i).append("\",\"eventName\":\"AM-ACCESS-ATTEMPT\"}\n");
+        }
+        Files.write(file.toPath(), content.toString().getBytes(UTF_8));
+        return file;
+    }
+
+    private static byte[] readFully(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
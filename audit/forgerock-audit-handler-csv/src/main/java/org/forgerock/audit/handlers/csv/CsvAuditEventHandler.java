@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -35,8 +36,9 @@ import static org.forgerock.json.resource.Responses.newResourceResponse;
 import static org.forgerock.util.Utils.isNullOrEmpty;
 
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.ArrayList;
@@ -61,6 +63,7 @@ import org.forgerock.audit.events.handlers.AuditEventHandlerBase;
 import org.forgerock.audit.handlers.csv.CsvAuditEventHandlerConfiguration.CsvSecurity;
 import org.forgerock.audit.handlers.csv.CsvAuditEventHandlerConfiguration.EventBufferingConfiguration;
 import org.forgerock.audit.providers.KeyStoreHandlerProvider;
+import org.forgerock.audit.retention.CompressedArchives;
 import org.forgerock.audit.retention.TimeStampFileNamingPolicy;
 import org.forgerock.audit.secure.JcaKeyStoreHandler;
 import org.forgerock.audit.secure.KeyStoreHandler;
@@ -325,6 +328,7 @@ public class CsvAuditEventHandler extends AuditEventHandlerBase {
         if (!bufferConfig.isEnabled() || !bufferConfig.isAutoFlush()) {
             csvWriter.flush();
         }
+        csvWriter.commit();
         return csvWriter;
     }
 
@@ -351,7 +355,8 @@ public class CsvAuditEventHandler extends AuditEventHandlerBase {
     }
 
     private ICsvMapReader createCsvMapReader(final File auditFile) throws IOException {
-        CsvMapReader csvReader = new CsvMapReader(new FileReader(auditFile), csvPreference);
+        CsvMapReader csvReader = new CsvMapReader(new InputStreamReader(CompressedArchives.newInputStream(auditFile)),
+                csvPreference);
 
         if (configuration.getSecurity().isEnabled()) {
             return new CsvSecureMapReader(csvReader);
@@ -497,7 +502,8 @@ public class CsvAuditEventHandler extends AuditEventHandlerBase {
     }
 
     /**
-     * Parser the csv file corresponding the the specified audit entry type and returns a set of matching audit entries.
+     * Parser the csv files corresponding the the specified audit entry type, which are its rotated files, whether
+     * compressed or not, and its current file, and returns a set of matching audit entries.
      *
      * @param auditEntryType the audit log type
      * @param queryFilter the query filter to apply to the entries
@@ -511,8 +517,11 @@ public class CsvAuditEventHandler extends AuditEventHandlerBase {
         if (queryFilter == null) {
             queryFilter = QueryFilter.alwaysTrue();
         }
-        if (auditFile.exists()) {
-            try (ICsvMapReader reader = createCsvMapReader(auditFile)) {
+        final List<File> auditFiles =
+                new ArrayList<>(configuration.getFileRotation().buildTimeStampFileNamingPolicy(auditFile).listFiles());
+        auditFiles.add(auditFile);
+        for (final File file : auditFiles) {
+            try (ICsvMapReader reader = createCsvMapReader(file)) {
                 // the header elements are used to map the values to the bean (names must match)
                 final String[] header = convertDotNotationToSlashes(reader.getHeader(true));
                 final CellProcessor[] processors = createCellProcessors(auditEntryType, header);
@@ -524,7 +533,8 @@ public class CsvAuditEventHandler extends AuditEventHandlerBase {
                         results.add(jsonEntry);
                     }
                 }
-
+            } catch (FileNotFoundException e) {
+                // not created yet, or removed by a retention policy since it was listed
             }
         }
         return results;
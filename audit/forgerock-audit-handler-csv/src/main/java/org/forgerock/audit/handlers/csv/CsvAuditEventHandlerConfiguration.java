@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -233,6 +234,9 @@ public class CsvAuditEventHandlerConfiguration extends FileBasedEventHandlerConf
         @JsonIgnore
         private Duration signatureIntervalDuration;
 
+        @JsonPropertyDescription("audit.handlers.csv.security.hmacBatchSize")
+        private int hmacBatchSize = 1;
+
         /**
          * Enables tamper evident logging. By default tamper evident logging is disabled.
          * @param enabled True - To enable tamper evident logging.
@@ -325,6 +329,25 @@ public class CsvAuditEventHandlerConfiguration extends FileBasedEventHandlerConf
             return keyStoreHandlerName;
         }
 
+        /**
+         * Sets the number of rows covered by each HMAC. With a value of 1, the default, every row holds its own
+         * HMAC; with a greater value, only the last row of each batch holds an HMAC, which covers all the rows of
+         * the batch, and the HMAC key is stored once per batch instead of once per row.
+         * @param hmacBatchSize The number of rows covered by each HMAC.
+         */
+        public void setHmacBatchSize(int hmacBatchSize) {
+            Reject.ifTrue(hmacBatchSize < 1, "The HMAC batch size must be at least 1");
+            this.hmacBatchSize = hmacBatchSize;
+        }
+
+        /**
+         * Gets the number of rows covered by each HMAC.
+         * @return The number of rows covered by each HMAC.
+         */
+        public int getHmacBatchSize() {
+            return hmacBatchSize;
+        }
+
     }
 
     /**
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -21,8 +22,10 @@ import java.io.File;
 import java.security.PublicKey;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.forgerock.audit.handlers.csv.CsvSecureVerifier.VerificationResult;
+import org.forgerock.audit.retention.CompressedArchives;
 import org.forgerock.audit.retention.FileNamingPolicy;
 import org.forgerock.audit.secure.JcaKeyStoreHandler;
 import org.forgerock.audit.secure.KeyStoreHandler;
@@ -43,13 +46,23 @@ class CsvSecureArchiveVerifier {
     private final String keystorePassword;
     private final PublicKey publicKey;
     private final CsvPreference csvPreference;
+    private final ExecutorService executor;
 
     CsvSecureArchiveVerifier(final FileNamingPolicy fileNamingPolicy, final String keystorePassword,
             final PublicKey publicKey, CsvPreference csvPreference) {
+        this(fileNamingPolicy, keystorePassword, publicKey, csvPreference, null);
+    }
+
+    /**
+     * Creates a verifier whose files are each split into segments verified concurrently by the given executor.
+     */
+    CsvSecureArchiveVerifier(final FileNamingPolicy fileNamingPolicy, final String keystorePassword,
+            final PublicKey publicKey, CsvPreference csvPreference, final ExecutorService executor) {
         this.keystorePassword = keystorePassword;
         this.publicKey = publicKey;
         this.fileNamingPolicy = fileNamingPolicy;
         this.csvPreference = csvPreference;
+        this.executor = executor;
     }
 
     List<VerificationResult> verify() {
@@ -72,12 +85,13 @@ class CsvSecureArchiveVerifier {
             throws Exception {
         SecureStorage secureStorage = openSecureStorageForCsvFile(archiveFile, keystorePassword, publicKey);
         CsvSecureVerifier verifier = new CsvSecureVerifier(archiveFile, csvPreference, secureStorage);
-        return verifier.verify();
+        return verifier.verify(executor);
     }
 
     private SecureStorage openSecureStorageForCsvFile(File csvFile, String keystorePassword, PublicKey publicKey)
             throws Exception {
-        String keystorePath = csvFile.getPath() + ".keystore";
+        // the keystore of a compressed archive keeps the name of the file before compression
+        String keystorePath = CompressedArchives.getUncompressedFile(csvFile).getPath() + ".keystore";
         KeyStoreHandler keyStoreHandler = new JcaKeyStoreHandler(KEYSTORE_TYPE, keystorePath, keystorePassword);
         return new KeyStoreSecureStorage(keyStoreHandler, publicKey);
     }
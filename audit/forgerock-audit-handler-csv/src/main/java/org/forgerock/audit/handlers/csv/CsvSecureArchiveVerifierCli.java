@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -25,6 +26,8 @@ import java.security.PublicKey;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.crypto.SecretKey;
 
@@ -37,6 +40,7 @@ import org.forgerock.audit.secure.KeyStoreSecureStorage;
 import org.forgerock.audit.secure.SecureStorageException;
 import org.forgerock.util.Option;
 import org.forgerock.util.Options;
+import org.forgerock.util.Utils;
 import org.forgerock.util.annotations.VisibleForTesting;
 import org.forgerock.util.encode.Base64;
 import org.supercsv.prefs.CsvPreference;
@@ -52,6 +56,8 @@ public final class CsvSecureArchiveVerifierCli {
     private static final Option<String> SUFFIX = Option.of(String.class, DEFAULT_ROTATION_FILE_SUFFIX);
     private static final Option<Path> KEYSTORE_FILE = Option.of(Path.class, null);
     private static final Option<String> KEYSTORE_PASSWORD = Option.of(String.class, null);
+    private static final Option<Integer> THREADS =
+            Option.of(Integer.class, Runtime.getRuntime().availableProcessors());
 
     @VisibleForTesting
     static PrintStream out = System.out;
@@ -96,11 +102,21 @@ public final class CsvSecureArchiveVerifierCli {
             return;
         }
 
-        final CsvSecureArchiveVerifier archiveVerifier =
-                new CsvSecureArchiveVerifier(fileNamingPolicy, password, publicKey, CsvPreference.EXCEL_PREFERENCE);
-        final List<CsvSecureVerifier.VerificationResult> verificationResults = archiveVerifier.verify();
-
-        printVerificationResults(verificationResults, out);
+        final int threads = options.get(THREADS);
+        final ExecutorService executor = threads > 1
+                ? Executors.newFixedThreadPool(threads, Utils.newThreadFactory(null, "csv-verifier-%d", true))
+                : null;
+        try {
+            final CsvSecureArchiveVerifier archiveVerifier = new CsvSecureArchiveVerifier(fileNamingPolicy, password,
+                    publicKey, CsvPreference.EXCEL_PREFERENCE, executor);
+            final List<CsvSecureVerifier.VerificationResult> verificationResults = archiveVerifier.verify();
+
+            printVerificationResults(verificationResults, out);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
     }
 
     private static KeyStoreHandlerDecorator getKeyStoreHandlerDecorator(
@@ -152,6 +168,7 @@ public final class CsvSecureArchiveVerifierCli {
         static final String FLAG_SUFFIX = "--suffix";
         static final String FLAG_KEYSTORE_FILE = "--keystore";
         static final String FLAG_KEYSTORE_PASSWORD = "--password";
+        static final String FLAG_THREADS = "--threads";
 
         private static final String DESC_ARCHIVE_DIRECTORY = "path to directory containing files to verify";
         private static final String DESC_TOPIC = "name of topic fileset to verify";
@@ -159,6 +176,7 @@ public final class CsvSecureArchiveVerifierCli {
         private static final String DESC_SUFFIX = "format of timestamp suffix appended to archive files";
         private static final String DESC_KEYSTORE_FILE = "path to keystore file";
         private static final String DESC_KEYSTORE_PASSWORD = "keystore file password";
+        private static final String DESC_THREADS = "number of threads verifying each file, defaults to the cores count";
 
         private final PrintStream out;
         private final PrintStream err;
@@ -207,6 +225,13 @@ public final class CsvSecureArchiveVerifierCli {
                     options.set(KEYSTORE_PASSWORD,
                             getStringOption(nextArgument, FLAG_KEYSTORE_PASSWORD, DESC_KEYSTORE_PASSWORD));
                     break;
+                case FLAG_THREADS:
+                    final Integer threads = getPositiveIntegerOption(nextArgument, FLAG_THREADS, DESC_THREADS);
+                    if (threads == null) {
+                        return null;
+                    }
+                    options.set(THREADS, threads);
+                    break;
                 default:
                     err.println("Unknown flag " + currentArgument);
                     return null;
@@ -235,8 +260,8 @@ public final class CsvSecureArchiveVerifierCli {
 
         private void printHelp() {
             out.println(String.format("arguments: %s <path> %s <topic> [%s <prefix>] "
-                    + "[%s <suffix>] %s <path> %s <password>", FLAG_ARCHIVE_DIRECTORY, FLAG_TOPIC, FLAG_PREFIX,
-                    FLAG_SUFFIX, FLAG_KEYSTORE_FILE, FLAG_KEYSTORE_PASSWORD));
+                    + "[%s <suffix>] %s <path> %s <password> [%s <count>]", FLAG_ARCHIVE_DIRECTORY, FLAG_TOPIC,
+                    FLAG_PREFIX, FLAG_SUFFIX, FLAG_KEYSTORE_FILE, FLAG_KEYSTORE_PASSWORD, FLAG_THREADS));
             out.println("");
             out.println(String.format("   %-15s %s", FLAG_ARCHIVE_DIRECTORY, DESC_ARCHIVE_DIRECTORY));
             out.println(String.format("   %-15s %s", FLAG_TOPIC, DESC_TOPIC));
@@ -244,6 +269,7 @@ public final class CsvSecureArchiveVerifierCli {
             out.println(String.format("   %-15s %s", FLAG_SUFFIX, DESC_SUFFIX));
             out.println(String.format("   %-15s %s", FLAG_KEYSTORE_FILE, DESC_KEYSTORE_FILE));
             out.println(String.format("   %-15s %s", FLAG_KEYSTORE_PASSWORD, DESC_KEYSTORE_PASSWORD));
+            out.println(String.format("   %-15s %s", FLAG_THREADS, DESC_THREADS));
         }
 
         private Path getPathOption(String nextArgument, String flag, String description) {
@@ -259,6 +285,21 @@ public final class CsvSecureArchiveVerifierCli {
             return file.toPath();
         }
 
+        private Integer getPositiveIntegerOption(String nextArgument, String flag, String description) {
+            if (nextArgument != null) {
+                try {
+                    final int value = Integer.parseInt(nextArgument);
+                    if (value > 0) {
+                        return value;
+                    }
+                } catch (NumberFormatException e) {
+                    // reported below
+                }
+            }
+            err.println(flag + " flag must be followed by the " + description);
+            return null;
+        }
+
         private String getStringOption(String nextArgument, String flag, String description) {
             if (nextArgument == null) {
                 err.println(flag + " flag must be followed by " + description);
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -20,15 +21,24 @@ import static org.forgerock.audit.handlers.csv.CsvSecureUtils.*;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.security.SignatureException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.crypto.SecretKey;
 
+import org.forgerock.audit.retention.CompressedArchives;
 import org.forgerock.audit.secure.SecureStorage;
 import org.forgerock.audit.secure.SecureStorageException;
 import org.forgerock.util.encode.Base64;
@@ -45,6 +55,9 @@ class CsvSecureVerifier {
 
     private static final Logger logger = LoggerFactory.getLogger(CsvSecureVerifier.class);
 
+    /** Bounds the number of parsed rows held in memory while their segments wait to be verified. */
+    private static final int MAX_PENDING_SEGMENTS = 4 * Runtime.getRuntime().availableProcessors();
+
     private File csvFile;
     private final CsvPreference csvPreference;
     private final HmacCalculator hmacCalculator;
@@ -81,8 +94,30 @@ class CsvSecureVerifier {
         }
     }
 
+    /**
+     * Verifies the CSV file on the calling thread.
+     *
+     * @return the result of the verification
+     * @throws IOException if the file could not be read
+     */
     public VerificationResult verify() throws IOException {
+        return verify(null);
+    }
+
+    /**
+     * Verifies the CSV file, the segments ending with a signature being verified concurrently by the given executor.
+     * <p>
+     * The calling thread parses the file and follows the HMAC key chain, which only takes a digest per HMAC, while
+     * the HMACs and signature of each segment are checked by the executor, as a segment only depends on the key and
+     * signature preceding it.
+     *
+     * @param executor the executor verifying the segments, or {@code null} to verify them on the calling thread
+     * @return the result of the verification
+     * @throws IOException if the file could not be read
+     */
+    VerificationResult verify(final ExecutorService executor) throws IOException {
         boolean lastRowWasSigned = false;
+        final Deque<Future<String>> pendingSegments = new ArrayDeque<>();
         try (ICsvMapReader csvReader = newBufferedCsvMapReader()) {
             final String[] header = csvReader.getHeader(true);
 
@@ -103,40 +138,48 @@ class CsvSecureVerifier {
             this.headers = new String[header.length - 2];
             System.arraycopy(header, 0, this.headers, 0, this.headers.length);
 
-            // Check the row one after the other
+            // Split the rows into segments ending with a signature
+            Segment segment = new Segment(header);
             Map<String, String> values;
             while ((values = csvReader.read(header)) != null) {
-                logger.trace("Verifying row {}", csvReader.getRowNumber());
                 lastRowWasSigned = false;
                 final String encodedSign = values.get(HEADER_SIGNATURE);
-                // The field HEADER_SIGNATURE is filled so let's check that special row
+                if (encodedSign != null && csvReader.getRowNumber() == 2) {
+                    // Special case : this is a rotated file, do not verify the signature but store it.
+                    lastSignature = Base64.decode(encodedSign);
+                    segment = new Segment(header);
+                    continue;
+                }
+                segment.rows.add(new Row(csvReader.getRowNumber(), values));
                 if (encodedSign != null) {
-                    if (csvReader.getRowNumber() == 2) {
-                        // Special case : this is a rotated file, do not verify the signature but store it.
-                        lastSignature = Base64.decode(encodedSign);
-                    } else if (!verifySignature(encodedSign)) {
-                        String msg = "The signature at row " + csvReader.getRowNumber() + " is not correct.";
-                        logger.trace(msg);
-                        return newVerificationFailureResult(msg);
-                    } else {
-                        logger.trace("The signature at row {} is correct.", csvReader.getRowNumber());
-                        lastRowWasSigned = true;
-                        // The signature is OK : let's continue to the next row
-                        continue;
-                    }
-                } else {
-                    // Otherwise every row must contain a valid HEADER_HMAC
-                    if (!verifyHMAC(values, header)) {
-                        String msg = "The HMac at row " + csvReader.getRowNumber() + " is not correct.";
-                        logger.trace(msg);
-                        return newVerificationFailureResult(msg);
-                    } else {
-                        logger.trace("The HMac at row {} is correct.", csvReader.getRowNumber());
-                        // The HMAC is OK : let's continue to the next row
-                        continue;
+                    lastRowWasSigned = true;
+                    lastSignature = Base64.decode(encodedSign);
+                    String failure = submit(segment, executor, pendingSegments);
+                    if (failure != null) {
+                        return newVerificationFailureResult(failure);
                     }
+                    segment = new Segment(header);
+                } else if (values.get(HEADER_HMAC) != null) {
+                    lastHMAC = values.get(HEADER_HMAC);
+                    hmacCalculator.skipKeyIteration();
+                }
+            }
+            if (!segment.rows.isEmpty()) {
+                String failure = submit(segment, executor, pendingSegments);
+                if (failure != null) {
+                    return newVerificationFailureResult(failure);
+                }
+            }
+            while (!pendingSegments.isEmpty()) {
+                String failure = awaitSegment(pendingSegments.poll());
+                if (failure != null) {
+                    return newVerificationFailureResult(failure);
                 }
             }
+        } finally {
+            for (Future<String> pendingSegment : pendingSegments) {
+                pendingSegment.cancel(true);
+            }
         }
 
         try {
@@ -160,50 +203,52 @@ class CsvSecureVerifier {
         }
     }
 
-    private CsvMapReader newBufferedCsvMapReader() throws FileNotFoundException {
-        return new CsvMapReader(new BufferedReader(new FileReader(csvFile)), csvPreference);
+    /**
+     * Verifies the segment on the calling thread, or hands it to the executor, waiting for the oldest segments
+     * when too many are in progress.
+     *
+     * @return the failure of a segment, if any
+     */
+    private String submit(final Segment segment, final ExecutorService executor,
+            final Deque<Future<String>> pendingSegments) throws IOException {
+        if (executor == null) {
+            return segment.call();
+        }
+        pendingSegments.add(executor.submit(segment));
+        while (pendingSegments.size() > MAX_PENDING_SEGMENTS) {
+            String failure = awaitSegment(pendingSegments.poll());
+            if (failure != null) {
+                return failure;
+            }
+        }
+        return null;
     }
 
-    private VerificationResult newVerificationFailureResult(String msg) {
-        return new VerificationResult(csvFile, false, msg);
+    private String awaitSegment(final Future<String> segment) throws IOException {
+        try {
+            return segment.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while verifying " + csvFile);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
     }
 
-    private VerificationResult newVerificationSuccessResult() {
-        return new VerificationResult(csvFile, true, "");
+    private CsvMapReader newBufferedCsvMapReader() throws IOException {
+        return new CsvMapReader(new BufferedReader(new InputStreamReader(CompressedArchives.newInputStream(csvFile))),
+                csvPreference);
     }
 
-    private boolean verifyHMAC(Map<String, String> values, String[] header) throws IOException {
-        try {
-            String actualHMAC = values.get(HEADER_HMAC);
-            String expectedHMAC = hmacCalculator.calculate(dataToSign(logger, values, dropExtraHeaders(header)));
-            if (!actualHMAC.equals(expectedHMAC)) {
-                logger.trace("The HMAC is not valid. Expected : {} Found : {}", expectedHMAC, actualHMAC);
-                return false;
-            } else {
-                lastHMAC = actualHMAC;
-                return true;
-            }
-        } catch (SignatureException ex) {
-            logger.error(ex.getMessage(), ex);
-            throw new IOException(ex);
-        }
+    private VerificationResult newVerificationFailureResult(String msg) {
+        return new VerificationResult(csvFile, false, msg);
     }
 
-    private boolean verifySignature(final String encodedSign) throws IOException {
-        try {
-            byte[] signature = Base64.decode(encodedSign);
-            boolean verify = secureStorage.verify(dataToSign(lastSignature, lastHMAC), signature);
-            if (!verify) {
-                logger.trace("The signature does not match the expecting one.");
-                return false;
-            } else {
-                lastSignature = signature;
-                return true;
-            }
-        } catch (SecureStorageException ex) {
-            logger.error(ex.getMessage(), ex);
-            throw new IOException(ex);
-        }
+    private VerificationResult newVerificationSuccessResult() {
+        return new VerificationResult(csvFile, true, "");
     }
 
     private String[] dropExtraHeaders(String... header) {
@@ -238,6 +283,105 @@ class CsvSecureVerifier {
         return lastSignature;
     }
 
+    /** A row of the CSV file. */
+    private static final class Row {
+        private final int rowNumber;
+        private final Map<String, String> values;
+
+        private Row(final int rowNumber, final Map<String, String> values) {
+            this.rowNumber = rowNumber;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Rows following a signature, or the start of the file, up to the next signature included.
+     * <p>
+     * A segment starts with the HMAC key, HMAC and signature preceding it, as found while parsing the file, so that
+     * it can be verified independently of the other segments: any discrepancy is detected by the segment holding it.
+     */
+    private final class Segment implements Callable<String> {
+        private final String[] header;
+        private final String[] dataHeader;
+        private final byte[] startKey;
+        private final String startHMAC;
+        private final byte[] startSignature;
+        private final List<Row> rows = new ArrayList<>();
+
+        private Segment(final String[] header) {
+            this.header = header;
+            this.dataHeader = dropExtraHeaders(header);
+            this.startKey = hmacCalculator.getCurrentKey().getEncoded();
+            this.startHMAC = lastHMAC;
+            this.startSignature = lastSignature;
+        }
+
+        /**
+         * Verifies the rows of the segment.
+         *
+         * @return the reason of the failure, or {@code null} if the segment is verified
+         */
+        @Override
+        public String call() throws IOException {
+            final HmacCalculator calculator = new HmacCalculator(HMAC_ALGORITHM);
+            calculator.setCurrentKey(startKey);
+            String segmentHMAC = startHMAC;
+            byte[] segmentSignature = startSignature;
+            for (final Row row : rows) {
+                logger.trace("Verifying row {}", row.rowNumber);
+                final String encodedSign = row.values.get(HEADER_SIGNATURE);
+                final String actualHMAC = row.values.get(HEADER_HMAC);
+                try {
+                    if (encodedSign != null) {
+                        final byte[] signature = Base64.decode(encodedSign);
+                        if (calculator.getPendingCount() > 0 || !verifySignature(segmentSignature, segmentHMAC,
+                                signature)) {
+                            String msg = "The signature at row " + row.rowNumber + " is not correct.";
+                            logger.trace(msg);
+                            return msg;
+                        }
+                        logger.trace("The signature at row {} is correct.", row.rowNumber);
+                        segmentSignature = signature;
+                    } else if (actualHMAC == null) {
+                        // The row is covered by the HMAC of a later row of its batch
+                        calculator.addPending(dataToSign(logger, row.values, dataHeader));
+                    } else {
+                        String expectedHMAC = calculator.calculate(dataToSign(logger, row.values, dataHeader));
+                        if (!actualHMAC.equals(expectedHMAC)) {
+                            logger.trace("The HMAC is not valid. Expected : {} Found : {}", expectedHMAC,
+                                    actualHMAC);
+                            String msg = "The HMac at row " + row.rowNumber + " is not correct.";
+                            logger.trace(msg);
+                            return msg;
+                        }
+                        logger.trace("The HMac at row {} is correct.", row.rowNumber);
+                        segmentHMAC = actualHMAC;
+                    }
+                } catch (SignatureException ex) {
+                    logger.error(ex.getMessage(), ex);
+                    throw new IOException(ex);
+                }
+            }
+            return null;
+        }
+
+        private boolean verifySignature(final byte[] previousSignature, final String previousHMAC,
+                final byte[] signature) throws IOException {
+            if (previousHMAC == null) {
+                return false;
+            }
+            try {
+                // the secure storage holds a single signature verifier
+                synchronized (secureStorage) {
+                    return secureStorage.verify(dataToSign(previousSignature, previousHMAC), signature);
+                }
+            } catch (SecureStorageException ex) {
+                logger.error(ex.getMessage(), ex);
+                throw new IOException(ex);
+            }
+        }
+    }
+
     static final class VerificationResult {
 
         private final File archiveFile;
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -47,5 +48,12 @@ interface CsvWriter extends AutoCloseable {
      */
     void flush() throws IOException;
 
+    /**
+     * Blocks until the rows written by the calling thread are on the storage device, when group commit durability
+     * is configured. Does nothing otherwise.
+     * @throws IOException
+     */
+    void commit() throws IOException;
+
     void close() throws IOException;
 }
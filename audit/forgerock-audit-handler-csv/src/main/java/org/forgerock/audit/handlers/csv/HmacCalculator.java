@@ -12,6 +12,7 @@
 * information: "Portions copyright [year] [name of copyright owner]".
 *
 * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
 */
 
 package org.forgerock.audit.handlers.csv;
@@ -29,7 +30,11 @@ import org.forgerock.util.encode.Base64;
 
 /**
  * This class aims to compute the HMAC for the given data.
- *
+ * <p>
+ * An HMAC may cover a batch of rows: the rows preceding the last one of the batch are
+ * {@link #addPending(byte[]) added} first, each one prefixed with its length, and the HMAC is then
+ * {@link #calculate(byte[]) calculated} with the data of the last row. A batch of a single row is therefore
+ * covered by the HMAC of that row only.
  */
 class HmacCalculator {
 
@@ -37,6 +42,8 @@ class HmacCalculator {
     private final MessageDigest messageDigest;
     private final Mac mac;
     private final String hmacAlgorithm;
+    private final byte[] lengthPrefix = new byte[4];
+    private int pendingCount;
 
     public HmacCalculator(String hmacAlgorithm) {
         this.hmacAlgorithm = hmacAlgorithm;
@@ -54,6 +61,39 @@ class HmacCalculator {
 
     public void setCurrentKey(byte[] bytes) {
         this.currentKey = new SecretKeySpec(bytes, hmacAlgorithm);
+        this.pendingCount = 0;
+    }
+
+    /**
+     * Adds the data of a row which will be covered by the next calculated HMAC.
+     *
+     * @param data the data of the row
+     * @throws SignatureException
+     */
+    public void addPending(byte[] data) throws SignatureException {
+        try {
+            if (pendingCount == 0) {
+                mac.init(currentKey);
+            }
+            lengthPrefix[0] = (byte) (data.length >>> 24);
+            lengthPrefix[1] = (byte) (data.length >>> 16);
+            lengthPrefix[2] = (byte) (data.length >>> 8);
+            lengthPrefix[3] = (byte) data.length;
+            mac.update(lengthPrefix);
+            mac.update(data);
+            pendingCount++;
+        } catch (InvalidKeyException | IllegalStateException e) {
+            throw new SignatureException("Failed to generate HMAC : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of rows added since the last calculated HMAC.
+     *
+     * @return the number of rows waiting for the next HMAC
+     */
+    int getPendingCount() {
+        return pendingCount;
     }
 
     /**
@@ -65,8 +105,10 @@ class HmacCalculator {
      */
     public String calculate(byte[] data) throws SignatureException {
         try {
-            mac.reset();
-            mac.init(currentKey);
+            if (pendingCount == 0) {
+                mac.init(currentKey);
+            }
+            pendingCount = 0;
 
             // compute the hmac on input data bytes
             byte[] rawHmac = mac.doFinal(data);
@@ -83,6 +125,12 @@ class HmacCalculator {
         }
     }
 
+    /**
+     * Moves to the key of the next HMAC without calculating any HMAC.
+     */
+    void skipKeyIteration() {
+        computeNextKeyIteration();
+    }
 
     private void computeNextKeyIteration() {
         // k1 = digest(k0)
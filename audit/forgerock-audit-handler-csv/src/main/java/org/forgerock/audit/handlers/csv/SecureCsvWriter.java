@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -43,7 +44,9 @@ import java.util.concurrent.locks.ReentrantLock;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
+import org.forgerock.audit.events.handlers.writers.DurableTextWriter;
 import org.forgerock.audit.events.handlers.writers.RotatableWriter;
+import org.forgerock.audit.events.handlers.writers.SyncableTextWriter;
 import org.forgerock.audit.events.handlers.writers.TextWriter;
 import org.forgerock.audit.events.handlers.writers.TextWriterAdapter;
 import org.forgerock.audit.events.handlers.writers.RotatableWriter.RolloverLifecycleHook;
@@ -73,8 +76,11 @@ class SecureCsvWriter implements CsvWriter, RolloverLifecycleHook {
 
     private final CsvFormatter csvFormatter;
     private final String[] headers;
+    private final String[] extendedHeaders;
+    private final int hmacBatchSize;
     private Writer csvWriter;
     private RotatableWriter rotatableWriter;
+    private DurableTextWriter durableWriter;
 
     private HmacCalculator hmacCalculator;
     private final ScheduledExecutorService scheduler;
@@ -99,6 +105,8 @@ class SecureCsvWriter implements CsvWriter, RolloverLifecycleHook {
         this.random = random;
         this.keyStoreFile = new File(csvFile.getPath() + ".keystore");
         this.headers = checkNotNull(headers, "The headers can't be null.");
+        this.extendedHeaders = addExtraColumns(headers);
+        this.hmacBatchSize = config.getSecurity().getHmacBatchSize();
         this.csvFormatter = new CsvFormatter(csvPreference);
         this.csvWriter = constructWriter(csvFile, fileAlreadyInitialized, config);
         this.hmacCalculator = new HmacCalculator(CsvSecureConstants.HMAC_ALGORITHM);
@@ -205,19 +213,20 @@ class SecureCsvWriter implements CsvWriter, RolloverLifecycleHook {
 
     private Writer constructWriter(File csvFile, boolean append, CsvAuditEventHandlerConfiguration config)
             throws IOException {
-        TextWriter textWriter;
+        SyncableTextWriter syncableWriter;
         if (config.getFileRotation().isRotationEnabled()) {
             rotatableWriter = new RotatableWriter(csvFile, config, append, this);
             rotatableWriter.registerRotationHooks(new SecureCsvWriterRotationHooks());
-            textWriter = rotatableWriter;
+            syncableWriter = rotatableWriter;
         } else {
-            textWriter = new TextWriter.Stream(new FileOutputStream(csvFile, append));
+            syncableWriter = new TextWriter.Stream(new FileOutputStream(csvFile, append));
         }
+        durableWriter = new DurableTextWriter("SecureCsvHandler-sync", config.getFileDurability(), syncableWriter);
 
         if (config.getBuffering().isEnabled()) {
             logger.warn("Secure CSV logging does not support buffering. Buffering config will be ignored.");
         }
-        return new TextWriterAdapter(textWriter);
+        return new TextWriterAdapter(durableWriter);
     }
 
     @Override
@@ -225,11 +234,18 @@ class SecureCsvWriter implements CsvWriter, RolloverLifecycleHook {
         csvWriter.flush();
     }
 
+    @Override
+    public void commit() throws IOException {
+        // called outside of the signature lock, so that concurrent rows can share a sync
+        durableWriter.commit();
+    }
+
     @Override
     public void close() throws IOException {
         flush();
         signatureLock.lock();
         try {
+            completeHmacBatch(csvWriter);
             forceWriteSignature(csvWriter);
         } finally {
             signatureLock.unlock();
@@ -270,13 +286,17 @@ class SecureCsvWriter implements CsvWriter, RolloverLifecycleHook {
         // and the signature's row write, as the calculation uses the lastHMAC.
         signatureLock.lock();
         try {
+            // the signature covers the last HMAC, which must therefore cover all the rows written so far
+            completeHmacBatch(writer);
             lastSignature = secureStorage.sign(dataToSign(lastSignature, lastHMAC));
             logger.trace("Calculated new Signature");
             Map<String, String> values = singletonMap(HEADER_SIGNATURE, Base64.encode(lastSignature));
             writeEvent(writer, values);
             logger.trace("Signature written to file");
 
-            // Store the current signature into the Keystore
+            // Store the current key along with the current signature into the Keystore: the key is only
+            // checkpointed when a signature is written, as the verifier expects the file to end with one.
+            secureStorage.writeCurrentKey(hmacCalculator.getCurrentKey());
             secureStorage.writeCurrentSignatureKey(new SecretKeySpec(lastSignature, SIGNATURE_ALGORITHM));
             logger.trace("Signature written to secureStorage");
         } catch (SecureStorageException ex) {
@@ -323,8 +343,6 @@ class SecureCsvWriter implements CsvWriter, RolloverLifecycleHook {
             if (!headerWritten) {
                 writeHeader(headers);
             }
-            String[] extendedHeaders = addExtraColumns(headers);
-
             Map<String, String> extendedValues = new HashMap<>(values);
             if (!values.containsKey(CsvSecureConstants.HEADER_SIGNATURE)) {
                 insertHMACSignature(extendedValues, headers);
@@ -332,8 +350,6 @@ class SecureCsvWriter implements CsvWriter, RolloverLifecycleHook {
 
             writer.write(csvFormatter.formatEvent(extendedValues, extendedHeaders));
             writer.flush();
-            // Store the current key
-            secureStorage.writeCurrentKey(hmacCalculator.getCurrentKey());
 
             // Schedule a signature task only if needed.
             if (!values.containsKey(HEADER_SIGNATURE)
@@ -346,16 +362,22 @@ class SecureCsvWriter implements CsvWriter, RolloverLifecycleHook {
                     logger.error(e.getMessage(), e);
                 }
             }
-        } catch (SecureStorageException ex) {
-            throw new IOException(ex);
         } finally {
             signatureLock.unlock();
         }
     }
 
+    /**
+     * Inserts the HMAC of the row, unless the row is not the last one of its batch.
+     */
     private void insertHMACSignature(Map<String, String> values, String[] nameMapping) throws IOException {
         try {
-            lastHMAC = hmacCalculator.calculate(dataToSign(logger, values, nameMapping));
+            final byte[] data = dataToSign(logger, values, nameMapping);
+            if (hmacCalculator.getPendingCount() + 1 < hmacBatchSize) {
+                hmacCalculator.addPending(data);
+                return;
+            }
+            lastHMAC = hmacCalculator.calculate(data);
             values.put(CsvSecureConstants.HEADER_HMAC, lastHMAC);
         } catch (SignatureException ex) {
             logger.error(ex.getMessage(), ex);
@@ -363,6 +385,28 @@ class SecureCsvWriter implements CsvWriter, RolloverLifecycleHook {
         }
     }
 
+    /**
+     * Writes a row holding only the HMAC of the incomplete batch, if any.
+     */
+    private void completeHmacBatch(Writer writer) throws IOException {
+        signatureLock.lock();
+        try {
+            if (hmacCalculator.getPendingCount() == 0) {
+                return;
+            }
+            Map<String, String> values = new HashMap<>();
+            lastHMAC = hmacCalculator.calculate(dataToSign(logger, values, headers));
+            values.put(CsvSecureConstants.HEADER_HMAC, lastHMAC);
+            writer.write(csvFormatter.formatEvent(values, extendedHeaders));
+            logger.trace("HMAC batch completed");
+        } catch (SignatureException ex) {
+            logger.error(ex.getMessage(), ex);
+            throw new IOException(ex);
+        } finally {
+            signatureLock.unlock();
+        }
+    }
+
     private String[] addExtraColumns(String... header) {
         String[] newHeader = new String[header.length + 2];
         System.arraycopy(header, 0, newHeader, 0, header.length);
@@ -399,7 +443,8 @@ class SecureCsvWriter implements CsvWriter, RolloverLifecycleHook {
 
         @Override
         public void preRotationAction(RotationContext context) throws IOException {
-            // ensure the final signature is written
+            // ensure the last batch is covered by an HMAC and the final signature is written
+            completeHmacBatch(context.getWriter());
             forceWriteSignature(context.getWriter());
         }
 
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -25,8 +26,11 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.Map;
 
+import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration.DurabilityMode;
 import org.forgerock.audit.events.handlers.writers.AsynchronousTextWriter;
+import org.forgerock.audit.events.handlers.writers.DurableTextWriter;
 import org.forgerock.audit.events.handlers.writers.RotatableWriter;
+import org.forgerock.audit.events.handlers.writers.SyncableTextWriter;
 import org.forgerock.audit.events.handlers.writers.TextWriter;
 import org.forgerock.audit.events.handlers.writers.TextWriterAdapter;
 import org.forgerock.audit.handlers.csv.CsvAuditEventHandlerConfiguration.EventBufferingConfiguration;
@@ -48,6 +52,7 @@ class StandardCsvWriter implements CsvWriter {
     private final String[] headers;
     private final Writer csvWriter;
     private RotatableWriter rotatableWriter;
+    private DurableTextWriter durableWriter;
 
     StandardCsvWriter(File csvFile, String[] headers, CsvPreference csvPreference,
             CsvAuditEventHandlerConfiguration config) throws IOException {
@@ -87,15 +92,22 @@ class StandardCsvWriter implements CsvWriter {
 
     private Writer constructWriter(File csvFile, boolean append, CsvAuditEventHandlerConfiguration config)
             throws IOException {
-        TextWriter textWriter;
+        SyncableTextWriter syncableWriter;
         if (config.getFileRotation().isRotationEnabled()) {
             rotatableWriter = new RotatableWriter(csvFile, config, append);
-            textWriter = rotatableWriter;
+            syncableWriter = rotatableWriter;
         } else {
-            textWriter = new TextWriter.Stream(new FileOutputStream(csvFile, append));
+            syncableWriter = new TextWriter.Stream(new FileOutputStream(csvFile, append));
         }
+        durableWriter = new DurableTextWriter("CsvHandler-sync", config.getFileDurability(), syncableWriter);
+        TextWriter textWriter = durableWriter;
 
-        if (config.getBuffering().isEnabled()) {
+        if (config.getFileDurability().getMode() == DurabilityMode.GROUP_COMMIT) {
+            if (config.getBuffering().isEnabled()) {
+                logger.warn("Group commit durability requires events to be written synchronously. "
+                        + "Buffering config will be ignored.");
+            }
+        } else if (config.getBuffering().isEnabled()) {
             EventBufferingConfiguration bufferConfig = config.getBuffering();
             textWriter = new AsynchronousTextWriter("CsvHandler", bufferConfig.isAutoFlush(), textWriter);
         }
@@ -138,6 +150,11 @@ class StandardCsvWriter implements CsvWriter {
         csvWriter.flush();
     }
 
+    @Override
+    public void commit() throws IOException {
+        durableWriter.commit();
+    }
+
     @Override
     public void close() throws IOException {
         csvWriter.close();
@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
- * Portions Copyright 2018 Wren Security.
+ * Portions Copyright 2018-2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.csv;
@@ -30,9 +30,11 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 import java.io.File;
+import java.io.FilenameFilter;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +49,7 @@ import org.forgerock.audit.handlers.csv.CsvAuditEventHandlerConfiguration.EventB
 import org.forgerock.audit.json.AuditJsonConfig;
 import org.forgerock.audit.providers.DefaultKeyStoreHandlerProvider;
 import org.forgerock.audit.providers.KeyStoreHandlerProvider;
+import org.forgerock.audit.retention.CompressedArchives;
 import org.forgerock.audit.secure.JcaKeyStoreHandler;
 import org.forgerock.audit.secure.KeyStoreHandler;
 import org.forgerock.audit.secure.KeyStoreHandlerDecorator;
@@ -242,6 +245,50 @@ public class CsvAuditEventHandlerTest {
         assertResourceEquals(resource, event);
     }
 
+    @Test
+    public void testQueryAndReadAuditLogEntriesFromCompressedArchives() throws Exception {
+        //given
+        final Path logDirectory = Files.createTempDirectory("CsvAuditEventHandlerTest");
+        logDirectory.toFile().deleteOnExit();
+        final CsvAuditEventHandler csvHandler =
+                csvAuditEventHandler().loggingTo(logDirectory).withRotationEnabled().build();
+        final Context context = new RootContext();
+        try {
+            csvHandler.publishEvent(context, "access", buildEvent(0)).getOrThrow();
+            final ActionRequest actionRequest = Requests.newActionRequest("access", ROTATE_FILE_ACTION_NAME)
+                    .setAdditionalParameter(ACTION_PARAM_TARGET_HANDLER, "csv");
+            csvHandler.handleAction(context, "access", actionRequest).getOrThrow();
+            final File[] rotatedFiles = logDirectory.toFile().listFiles(new FilenameFilter() {
+                @Override
+                public boolean accept(File dir, String name) {
+                    return name.startsWith("prefixaccess.csv");
+                }
+            });
+            assertThat(rotatedFiles).hasSize(1);
+            CompressedArchives.compress(rotatedFiles[0], 64);
+            csvHandler.publishEvent(context, "access", buildEvent(1)).getOrThrow();
+
+            //when
+            final List<String> ids = new ArrayList<>();
+            final Promise<QueryResponse, ResourceException> promise = csvHandler.queryEvents(context, "access",
+                    Requests.newQueryRequest("access").setQueryFilter(QueryFilters.parse("true")),
+                    new QueryResourceHandler() {
+                        @Override
+                        public boolean handleResource(ResourceResponse resource) {
+                            ids.add(resource.getId());
+                            return true;
+                        }
+                    });
+
+            //then
+            assertThatPromise(promise).succeeded();
+            assertThat(ids).containsOnly("_id0", "_id1");
+            assertThat(csvHandler.readEvent(context, "access", "_id0").getOrThrow().getId()).isEqualTo("_id0");
+        } finally {
+            csvHandler.shutdown();
+        }
+    }
+
     private CreateRequest makeCreateRequest() {
         return Requests.newCreateRequest("access", buildEvent());
     }
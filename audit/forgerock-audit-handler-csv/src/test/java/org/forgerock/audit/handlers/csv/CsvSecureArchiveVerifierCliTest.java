@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -66,14 +67,16 @@ public class CsvSecureArchiveVerifierCliTest {
         // then
         assertThat(out.toString(UTF_8.name())).isEqualTo(""
                 + "arguments: --archive <path> --topic <topic> "
-                + "[--prefix <prefix>] [--suffix <suffix>] --keystore <path> --password <password>" + NEW_LINE
+                + "[--prefix <prefix>] [--suffix <suffix>] --keystore <path> --password <password> "
+                + "[--threads <count>]" + NEW_LINE
                 + NEW_LINE
                 + "   --archive       path to directory containing files to verify" + NEW_LINE
                 + "   --topic         name of topic fileset to verify" + NEW_LINE
                 + "   --prefix        prefix prepended to archive files" + NEW_LINE
                 + "   --suffix        format of timestamp suffix appended to archive files" + NEW_LINE
                 + "   --keystore      path to keystore file" + NEW_LINE
-                + "   --password      keystore file password" + NEW_LINE);
+                + "   --password      keystore file password" + NEW_LINE
+                + "   --threads       number of threads verifying each file, defaults to the cores count" + NEW_LINE);
         assertThat(err.toString()).isEqualTo("");
     }
 }
@@ -12,15 +12,18 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
- * Portions Copyright 2018 Wren Security.
+ * Portions Copyright 2018-2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
+import org.forgerock.audit.retention.CompressedArchives;
 import org.forgerock.audit.secure.JcaKeyStoreHandler;
 import org.forgerock.audit.secure.KeyStoreHandlerDecorator;
 import org.forgerock.audit.secure.KeyStoreSecureStorage;
@@ -52,6 +55,25 @@ public class CsvSecureVerifierTest {
         assertThat(csvVerifier.verify().hasPassedVerification()).isTrue();
     }
 
+    @Test
+    public void shouldVerifyValidCompressedFile() throws Exception {
+        File csvFile =
+            MavenResourceUtil.getFileForPath("src/test/resources/shouldGeneratePeriodicallySignature-expected.txt");
+        File copy = File.createTempFile("shouldVerifyValidCompressedFile", ".csv");
+        Files.copy(csvFile.toPath(), copy.toPath(), REPLACE_EXISTING);
+        File archive = CompressedArchives.compress(copy, 64);
+        archive.deleteOnExit();
+
+        KeyStoreHandlerDecorator keyStoreHandler = new KeyStoreHandlerDecorator(
+                new JcaKeyStoreHandler(CsvSecureConstants.KEYSTORE_TYPE, TRUSTSTORE_FILENAME, TRUSTSTORE_PASSWORD));
+
+        CsvSecureVerifier csvVerifier = new CsvSecureVerifier(archive, CsvPreference.EXCEL_PREFERENCE,
+                new KeyStoreSecureStorage(keyStoreHandler,
+                        keyStoreHandler.readPublicKeyFromKeyStore(KeyStoreSecureStorage.ENTRY_SIGNATURE)));
+
+        assertThat(csvVerifier.verify().hasPassedVerification()).isTrue();
+    }
+
     @Test(dataProvider = "invalidContent")
     public void shouldNotVerify(String filename) throws Exception {
         File csvFile = MavenResourceUtil.getFileForPath(filename);
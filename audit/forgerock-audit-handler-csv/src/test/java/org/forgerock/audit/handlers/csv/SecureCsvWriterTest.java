@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
- * Portions Copyright 2018 Wren Security.
+ * Portions Copyright 2018-2026 Wren Security.
  */
 package org.forgerock.audit.handlers.csv;
 
@@ -33,6 +33,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import javax.crypto.SecretKey;
@@ -357,6 +359,99 @@ public class SecureCsvWriterTest {
         assertThat(err.toString()).isEqualTo("");
     }
 
+    @Test
+    public void shouldCoverBatchesOfRowsWithOneHmac() throws Exception {
+        final Path logDirectory = Files.createTempDirectory("SecureCsvWriterTest");
+        final File actual = new File(logDirectory.toFile(), "shouldCoverBatchesOfRowsWithOneHmac.csv");
+        final String header = "FOO";
+        CsvAuditEventHandlerConfiguration config = createBasicSecureConfig();
+        config.getSecurity().setHmacBatchSize(4);
+
+        // Ensure no periodically added signatures during the test.
+        this.avoidSignaturesDuringTest(config);
+
+        try (SecureCsvWriter secureCsvWriter = new SecureCsvWriter(
+                actual, new String[] { header }, CsvPreference.EXCEL_PREFERENCE, config, keyStoreHandler, random)) {
+            for (int i = 0; i < 10; i++) {
+                secureCsvWriter.writeEvent(singletonMap(header, "row" + i));
+            }
+        }
+
+        // header, 10 rows with an HMAC on the 4th and 8th, the row completing the last batch and the signature
+        final List<String> lines = Files.readAllLines(actual.toPath());
+        assertThat(lines).hasSize(13);
+        assertThat(lines.get(3)).endsWith(",,");
+        assertThat(lines.get(4)).doesNotEndWith(",,");
+        assertThat(lines.get(11)).startsWith(",");
+
+        final KeyStoreSecureStorage storage = new KeyStoreSecureStorage(
+                new JcaKeyStoreHandler(KEYSTORE_TYPE, actual.getPath() + ".keystore",
+                        Base64.encode(keyStoreHandler.readSecretKeyFromKeyStore(ENTRY_PASSWORD).getEncoded())),
+                keyStoreHandler.readPublicKeyFromKeyStore(KeyStoreSecureStorage.ENTRY_SIGNATURE));
+        assertThat(new CsvSecureVerifier(actual, CsvPreference.EXCEL_PREFERENCE, storage).verify()
+                .hasPassedVerification()).isTrue();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertThat(new CsvSecureVerifier(actual, CsvPreference.EXCEL_PREFERENCE, storage).verify(executor)
+                    .hasPassedVerification()).isTrue();
+
+            // tampering with a row which holds no HMAC is detected by the HMAC of its batch
+            lines.set(2, lines.get(2).replace("row1", "rowX"));
+            Files.write(actual.toPath(), lines);
+            final VerificationResult result =
+                    new CsvSecureVerifier(actual, CsvPreference.EXCEL_PREFERENCE, storage).verify(executor);
+            assertThat(result.hasPassedVerification()).isFalse();
+            assertThat(result.getFailureReason()).isEqualTo("The HMac at row 5 is not correct.");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldOnlyStoreCurrentKeyWithSignatures() throws Exception {
+        final Path logDirectory = Files.createTempDirectory("SecureCsvWriterTest");
+        final File actual = new File(logDirectory.toFile(), "shouldOnlyStoreCurrentKeyWithSignatures.csv");
+        final String header = "FOO";
+        final String password = Base64.encode(keyStoreHandler.readSecretKeyFromKeyStore(ENTRY_PASSWORD).getEncoded());
+        final PublicKey publicKey = keyStoreHandler.readPublicKeyFromKeyStore(KeyStoreSecureStorage.ENTRY_SIGNATURE);
+        CsvAuditEventHandlerConfiguration config = createBasicSecureConfig();
+
+        // Ensure no periodically added signatures during the test.
+        this.avoidSignaturesDuringTest(config);
+
+        try (SecureCsvWriter secureCsvWriter = new SecureCsvWriter(
+                actual, new String[] { header }, CsvPreference.EXCEL_PREFERENCE, config, keyStoreHandler, random)) {
+            for (int i = 0; i < 5; i++) {
+                secureCsvWriter.writeEvent(singletonMap(header, "row" + i));
+            }
+
+            // the rows do not update the keystore
+            final KeyStoreSecureStorage storage = new KeyStoreSecureStorage(
+                    new JcaKeyStoreHandler(KEYSTORE_TYPE, actual.getPath() + ".keystore", password), publicKey);
+            assertThat(storage.readCurrentKey().getEncoded()).isEqualTo(storage.readInitialKey().getEncoded());
+        }
+
+        // the signature written on close checkpoints the key, so that the file can be resumed
+        try (SecureCsvWriter secureCsvWriter = new SecureCsvWriter(
+                actual, new String[] { header }, CsvPreference.EXCEL_PREFERENCE, config, keyStoreHandler, random)) {
+            secureCsvWriter.writeEvent(singletonMap(header, "row5"));
+        }
+
+        final KeyStoreSecureStorage storage = new KeyStoreSecureStorage(
+                new JcaKeyStoreHandler(KEYSTORE_TYPE, actual.getPath() + ".keystore", password), publicKey);
+        assertThat(storage.readCurrentKey().getEncoded()).isNotEqualTo(storage.readInitialKey().getEncoded());
+        assertThat(new CsvSecureVerifier(actual, CsvPreference.EXCEL_PREFERENCE, storage).verify()
+                .hasPassedVerification()).isTrue();
+
+        // truncating the file back to the first signature is still detected
+        final List<String> lines = Files.readAllLines(actual.toPath());
+        Files.write(actual.toPath(), lines.subList(0, 7));
+        final VerificationResult result =
+                new CsvSecureVerifier(actual, CsvPreference.EXCEL_PREFERENCE, storage).verify();
+        assertThat(result.hasPassedVerification()).isFalse();
+        assertThat(result.getFailureReason()).isEqualTo("Final HMAC key doesn't match expected value");
+    }
+
     static class TimeStampFileNamingPolicyWithNamedBasedOrdering extends TimeStampFileNamingPolicy {
 
         public TimeStampFileNamingPolicyWithNamedBasedOrdering(
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.elasticsearch;
 
@@ -25,12 +26,17 @@ import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
 import static org.forgerock.json.resource.Responses.newQueryResponse;
 import static org.forgerock.json.resource.Responses.newResourceResponse;
 import static org.forgerock.util.CloseSilentlyFunction.closeSilently;
-import static org.forgerock.util.promise.Promises.newExceptionPromise;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import org.forgerock.audit.Audit;
 import org.forgerock.audit.events.EventTopicsMetaData;
@@ -42,6 +48,7 @@ import org.forgerock.audit.handlers.elasticsearch.ElasticsearchAuditEventHandler
 import org.forgerock.audit.events.handlers.buffering.BatchConsumer;
 import org.forgerock.audit.events.handlers.buffering.BatchPublisher;
 import org.forgerock.audit.events.handlers.buffering.BatchException;
+import org.forgerock.audit.events.handlers.buffering.SpillQueue;
 import org.forgerock.audit.util.ElasticsearchUtil;
 import org.forgerock.http.Client;
 import org.forgerock.http.HttpApplicationException;
@@ -66,8 +73,11 @@ import org.forgerock.services.context.Context;
 import org.forgerock.util.Function;
 import org.forgerock.util.Options;
 import org.forgerock.util.Reject;
+import org.forgerock.util.Utils;
 import org.forgerock.util.encode.Base64;
 import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.forgerock.util.promise.ResultHandler;
 import org.forgerock.util.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -92,6 +102,13 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
     private static final String TOTAL = "total";
     private static final String PUT = "PUT";
     private static final String POST = "POST";
+    private static final String ERRORS = "errors";
+    private static final String ITEMS = "items";
+    private static final String INDEX = "index";
+    private static final String STATUS = "status";
+
+    /** Upper bound of the delay between two retries of a Bulk API request. */
+    private static final long MAX_RETRY_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
 
     /**
      * Average number of characters, per event, for batch indexing via Elasticsearch Bulk API. This value
@@ -115,6 +132,9 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
     private final Client client;
     private final BatchPublisher batchIndexer;
     private final HttpClientHandler defaultHttpClientHandler;
+    private final ScheduledExecutorService retryScheduler;
+    private final int maxRetries;
+    private final long retryBackoffMillis;
 
     /**
      * Create a new {@code ElasticsearchAuditEventHandler} instance.
@@ -147,15 +167,39 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
                     bufferConfig.getWriteInterval() == null || bufferConfig.getWriteInterval().isEmpty()
                             ? null
                             : Duration.duration(bufferConfig.getWriteInterval());
+            final Duration targetBatchLatency =
+                    bufferConfig.getTargetBatchLatency() == null || bufferConfig.getTargetBatchLatency().isEmpty()
+                            ? null
+                            : Duration.duration(bufferConfig.getTargetBatchLatency());
+            final SpillQueue spillQueue =
+                    bufferConfig.getSpillDirectory() == null || bufferConfig.getSpillDirectory().isEmpty()
+                            ? null
+                            : SpillQueue.newBuilder(new File(bufferConfig.getSpillDirectory()))
+                                    .maxDiskUsage(bufferConfig.getMaxSpillSize())
+                                    .maxReplayRate(bufferConfig.getMaxReplayRate())
+                                    .build();
             batchIndexer = BufferedBatchPublisher.newBuilder(this)
                     .capacity(bufferConfig.getMaxSize())
                     .writeInterval(writeInterval)
                     .maxBatchEvents(bufferConfig.getMaxBatchedEvents())
                     .averagePerEventPayloadSize(BATCH_INDEX_AVERAGE_PER_EVENT_PAYLOAD_SIZE)
                     .autoFlush(ALWAYS_FLUSH_BATCH_QUEUE)
+                    .maxInFlightBatches(bufferConfig.getMaxInFlightBatches())
+                    .maxBatchPayloadSize(bufferConfig.getMaxBatchPayloadSize())
+                    .targetBatchLatency(targetBatchLatency)
+                    .spillQueue(spillQueue)
                     .build();
+            maxRetries = Math.max(bufferConfig.getMaxRetries(), 0);
+            retryBackoffMillis = Duration.duration(bufferConfig.getRetryBackoff()).to(TimeUnit.MILLISECONDS);
+            retryScheduler = maxRetries > 0
+                    ? Executors.newSingleThreadScheduledExecutor(
+                            Utils.newThreadFactory(null, "audit-elasticsearch-retry-%d", true))
+                    : null;
         } else {
             batchIndexer = null;
+            maxRetries = 0;
+            retryBackoffMillis = 0L;
+            retryScheduler = null;
         }
     }
 
@@ -171,6 +215,9 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
         if (batchIndexer != null) {
             batchIndexer.shutdown();
         }
+        if (retryScheduler != null) {
+            retryScheduler.shutdown();
+        }
         if (defaultHttpClientHandler != null) {
             try {
                 defaultHttpClientHandler.close();
@@ -359,55 +406,199 @@ public class ElasticsearchAuditEventHandler extends AuditEventHandlerBase implem
     /**
      * Publishes a <a href="https://www.elastic.co/guide/en/elasticsearch/reference/current/docs-bulk.html">Bulk API</a>
      * payload to Elasticsearch.
+     * <p>
+     * Requests rejected as a whole with a transient error ({@code 429}, {@code 502}, {@code 503} or {@code 504}), and
+     * individual items rejected with a transient error, are retried with exponential backoff up to the configured
+     * number of retries. Only the rejected items are sent again. When items still fail, the {@link BatchException}
+     * reports which ones, so that only those are spilled, and whether they failed with a server error worth
+     * publishing again later.
      *
      * @param payload Elasticsearch Bulk API payload
      * @throws BatchException indicates (full or partial) failure to publish batch
      */
     @Override
     public Promise<Void, BatchException> publishBatch(final String payload) {
-        final Request request;
-        try {
-            request = createRequest(POST, buildBulkUri(), payload);
-        } catch (URISyntaxException e) {
-            return newExceptionPromise(new BatchException("Incorrect URI", e));
+        final PromiseImpl<Void, BatchException> promise = PromiseImpl.create();
+        new BulkRequest(promise).send(payload);
+        return promise;
+    }
+
+    /**
+     * Tracks a Bulk API payload across its retries, and completes the batch promise once every item has either been
+     * indexed or permanently failed.
+     */
+    private final class BulkRequest implements ResultHandler<Response> {
+
+        private final PromiseImpl<Void, BatchException> promise;
+        private final List<Object> failureItems = new ArrayList<>();
+        /** Batch indexes of the items which failed, and of those which failed with a transient error. */
+        private final List<Integer> failedIndexes = new ArrayList<>();
+        private final List<Integer> retriableIndexes = new ArrayList<>();
+        private String payload;
+        /** Batch indexes of the items of the current payload, or {@code null} when it is the whole batch. */
+        private List<Integer> payloadIndexes;
+        private int attempt;
+
+        private BulkRequest(final PromiseImpl<Void, BatchException> promise) {
+            this.promise = promise;
         }
 
-        return client.send(request)
-                .then(closeSilently(processBatchResponse()), Responses.<Void, BatchException>noopExceptionFunction());
-    }
+        private void send(final String payload) {
+            this.payload = payload;
+            final Request request;
+            try {
+                request = createRequest(POST, buildBulkUri(), payload);
+            } catch (URISyntaxException e) {
+                promise.handleException(new BatchException("Incorrect URI", e));
+                return;
+            }
+            client.send(request).thenOnResult(this);
+        }
 
-    private Function<Response, Void, BatchException> processBatchResponse() {
-        return new Function<Response, Void, BatchException>() {
-            @Override
-            public Void apply(Response response) throws BatchException {
-                try {
-                    if (!response.getStatus().isSuccessful()) {
-                        throw new BatchException("Elasticsearch batch index failed: " + response.getEntity());
-                    } else {
-                        final JsonValue responseJson = json(response.getEntity().getJson());
-                        if (responseJson.get("errors").asBoolean()) {
-                            // one or more batch index operations failed, so log failures
-                            final JsonValue items = responseJson.get("items");
-                            final int n = items.size();
-                            final List<Object> failureItems = new ArrayList<>(n);
-                            for (int i = 0; i < n; ++i) {
-                                final JsonValue item = items.get(i).get("index");
-                                final Integer status = item.get("status").asInteger();
-                                if (status >= 400) {
-                                    failureItems.add(item);
-                                }
+        @Override
+        public void handleResult(final Response response) {
+            try {
+                processBatchResponse(response);
+            } catch (BatchException e) {
+                promise.handleException(e);
+            } catch (RuntimeException e) {
+                promise.handleException(new BatchException("Unexpected error while publishing batch", e));
+            } finally {
+                response.close();
+            }
+        }
+
+        private void processBatchResponse(final Response response) throws BatchException {
+            try {
+                if (!response.getStatus().isSuccessful()) {
+                    final int status = response.getStatus().getCode();
+                    if (!(isTransient(status) && retry(payload))) {
+                        final String message = "Elasticsearch batch index failed: " + response.getEntity();
+                        // only a malformed or oversized request cannot succeed if sent again
+                        final boolean retriable = status != 400 && status != 413;
+                        if (payloadIndexes == null) {
+                            throw new BatchException(message, null, retriable);
+                        }
+                        // the items of the previous attempts which were not retried have already completed
+                        failedIndexes.addAll(payloadIndexes);
+                        if (retriable) {
+                            retriableIndexes.addAll(payloadIndexes);
+                        }
+                        throw new BatchException(message, failedIndexes, retriableIndexes);
+                    }
+                    return;
+                }
+                final JsonValue responseJson = json(response.getEntity().getJson());
+                if (!responseJson.get(ERRORS).defaultTo(false).asBoolean()) {
+                    complete();
+                    return;
+                }
+                // one or more batch index operations failed, so retry transient failures and record the others
+                final JsonValue items = responseJson.get(ITEMS);
+                final int n = items.size();
+                final List<String> lines = splitLines(payload);
+                final StringBuilder retryPayload = new StringBuilder();
+                final List<Object> transientFailureItems = new ArrayList<>();
+                final List<Integer> transientFailureIndexes = new ArrayList<>();
+                for (int i = 0; i < n; ++i) {
+                    final JsonValue item = items.get(i).get(INDEX);
+                    final Integer status = item.get(STATUS).asInteger();
+                    final int index = payloadIndexes == null ? i : payloadIndexes.get(i);
+                    if (status >= 400) {
+                        if (isTransient(status) && 2 * i + 1 < lines.size()) {
+                            retryPayload.append(lines.get(2 * i)).append('\n')
+                                    .append(lines.get(2 * i + 1)).append('\n');
+                            transientFailureItems.add(item.getObject());
+                            transientFailureIndexes.add(index);
+                        } else {
+                            failureItems.add(item.getObject());
+                            failedIndexes.add(index);
+                            if (status >= 500) {
+                                // not retried here, but may succeed once the cluster recovers
+                                retriableIndexes.add(index);
                             }
-                            final String message = "One or more Elasticsearch batch index entries failed: "
-                                    + OBJECT_MAPPER.writeValueAsString(failureItems);
-                            throw new BatchException(message);
                         }
                     }
-                } catch (IOException e) {
-                    throw new BatchException("Unexpected error while publishing batch", e);
                 }
-                return null;
+                final List<Integer> previousIndexes = payloadIndexes;
+                payloadIndexes = transientFailureIndexes;
+                if (retryPayload.length() == 0 || !retry(retryPayload.toString())) {
+                    payloadIndexes = previousIndexes;
+                    failureItems.addAll(transientFailureItems);
+                    failedIndexes.addAll(transientFailureIndexes);
+                    retriableIndexes.addAll(transientFailureIndexes);
+                    complete();
+                }
+            } catch (IOException e) {
+                throw new BatchException("Unexpected error while publishing batch", e);
+            }
+        }
+
+        /**
+         * Schedules the given payload to be sent again, if retries remain.
+         *
+         * @param retryPayload Bulk API payload to retry
+         * @return {@code true} if the retry was scheduled
+         */
+        private boolean retry(final String retryPayload) {
+            if (attempt >= maxRetries || retryScheduler == null) {
+                return false;
+            }
+            // exponential backoff with jitter, so that concurrent batches do not retry in lockstep
+            final long backoff = Math.min(retryBackoffMillis << Math.min(attempt, 20), MAX_RETRY_BACKOFF_MILLIS);
+            final long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            attempt++;
+            try {
+                retryScheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        send(retryPayload);
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+
+        private void complete() throws IOException, BatchException {
+            if (failureItems.isEmpty()) {
+                promise.handleResult(null);
+            } else {
+                throw new BatchException("One or more Elasticsearch batch index entries failed: "
+                        + OBJECT_MAPPER.writeValueAsString(failureItems), failedIndexes, retriableIndexes);
             }
-        };
+        }
+    }
+
+    /**
+     * Indicates whether a Bulk API request, or one of its items, failed with a status worth retrying.
+     *
+     * @param status HTTP status code
+     * @return {@code true} for too-many-requests and gateway or availability errors
+     */
+    private static boolean isTransient(final int status) {
+        return status == 429 || status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Splits a Bulk API payload into its lines, where each item is an action line followed by a source line.
+     *
+     * @param payload Bulk API payload
+     * @return Payload lines
+     */
+    private static List<String> splitLines(final String payload) {
+        final List<String> lines = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = payload.indexOf('\n', start)) != -1) {
+            lines.add(payload.substring(start, end));
+            start = end + 1;
+        }
+        if (start < payload.length()) {
+            lines.add(payload.substring(start));
+        }
+        return lines;
     }
 
     /**
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.elasticsearch;
 
@@ -41,7 +42,12 @@ import com.fasterxml.jackson.annotation.JsonPropertyDescription;
  *      "enabled" : true,
  *      "maxSize" : 10000,
  *      "writeInterval" : "250 millis",
- *      "maxBatchedEvents" : 500
+ *      "maxBatchedEvents" : 500,
+ *      "maxInFlightBatches" : 4,
+ *      "maxBatchPayloadSize" : 5242880,
+ *      "targetBatchLatency" : "500 millis",
+ *      "maxRetries" : 3,
+ *      "retryBackoff" : "100 millis"
  *    }
  *  }
  * </pre>
@@ -271,6 +277,31 @@ public class ElasticsearchAuditEventHandlerConfiguration extends EventHandlerCon
      */
     public static class EventBufferingConfiguration {
 
+        /**
+         * Default maximum number of concurrent Bulk API requests ({@code 4}).
+         */
+        private static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
+
+        /**
+         * Default number of characters ({@code 5 MiB}) after which a Bulk API request is sent.
+         */
+        private static final int DEFAULT_MAX_BATCH_PAYLOAD_SIZE = 5 * 1024 * 1024;
+
+        /**
+         * Default number of times ({@code 3}) a failed Bulk API request or item is retried.
+         */
+        private static final int DEFAULT_MAX_RETRIES = 3;
+
+        /**
+         * Default delay ({@code 100 millis}) before the first retry.
+         */
+        private static final String DEFAULT_RETRY_BACKOFF = "100 millis";
+
+        /**
+         * Default maximum disk space ({@code 1 GiB}) used by spilled events.
+         */
+        private static final long DEFAULT_MAX_SPILL_SIZE = 1024L * 1024 * 1024;
+
         @JsonPropertyDescription("audit.handlers.elasticsearch.buffering.enabled")
         private boolean enabled;
 
@@ -283,6 +314,30 @@ public class ElasticsearchAuditEventHandlerConfiguration extends EventHandlerCon
         @JsonPropertyDescription("audit.handlers.elasticsearch.buffering.maxBatchedEvents")
         private int maxBatchedEvents;
 
+        @JsonPropertyDescription("audit.handlers.elasticsearch.buffering.maxInFlightBatches")
+        private int maxInFlightBatches;
+
+        @JsonPropertyDescription("audit.handlers.elasticsearch.buffering.maxBatchPayloadSize")
+        private int maxBatchPayloadSize;
+
+        @JsonPropertyDescription("audit.handlers.elasticsearch.buffering.targetBatchLatency")
+        private String targetBatchLatency;
+
+        @JsonPropertyDescription("audit.handlers.elasticsearch.buffering.maxRetries")
+        private int maxRetries = DEFAULT_MAX_RETRIES;
+
+        @JsonPropertyDescription("audit.handlers.elasticsearch.buffering.retryBackoff")
+        private String retryBackoff;
+
+        @JsonPropertyDescription("audit.handlers.elasticsearch.buffering.spillDirectory")
+        private String spillDirectory;
+
+        @JsonPropertyDescription("audit.handlers.elasticsearch.buffering.maxSpillSize")
+        private long maxSpillSize;
+
+        @JsonPropertyDescription("audit.handlers.elasticsearch.buffering.maxReplayRate")
+        private int maxReplayRate;
+
         /**
          * Indicates if event buffering is enabled.
          *
@@ -354,5 +409,155 @@ public class ElasticsearchAuditEventHandlerConfiguration extends EventHandlerCon
         public void setMaxBatchedEvents(int maxBatchedEvents) {
             this.maxBatchedEvents = maxBatchedEvents;
         }
+
+        /**
+         * Gets the maximum number of Bulk API requests that may be sent concurrently (default {@code 4}).
+         *
+         * @return Maximum number of in-flight batches
+         */
+        public int getMaxInFlightBatches() {
+            return maxInFlightBatches > 0 ? maxInFlightBatches : DEFAULT_MAX_IN_FLIGHT_BATCHES;
+        }
+
+        /**
+         * Sets the maximum number of Bulk API requests that may be sent concurrently.
+         *
+         * @param maxInFlightBatches Maximum number of in-flight batches
+         */
+        public void setMaxInFlightBatches(int maxInFlightBatches) {
+            this.maxInFlightBatches = maxInFlightBatches;
+        }
+
+        /**
+         * Gets the Bulk API payload size, in characters, after which a batch is sent even if it holds fewer than
+         * {@link #getMaxBatchedEvents() maxBatchedEvents} events (default {@code 5 MiB}).
+         *
+         * @return Maximum batch payload size
+         */
+        public int getMaxBatchPayloadSize() {
+            return maxBatchPayloadSize > 0 ? maxBatchPayloadSize : DEFAULT_MAX_BATCH_PAYLOAD_SIZE;
+        }
+
+        /**
+         * Sets the Bulk API payload size, in characters, after which a batch is sent.
+         *
+         * @param maxBatchPayloadSize Maximum batch payload size
+         */
+        public void setMaxBatchPayloadSize(int maxBatchPayloadSize) {
+            this.maxBatchPayloadSize = maxBatchPayloadSize;
+        }
+
+        /**
+         * Gets the Bulk API request latency that the number of events per batch adapts to. When not set, every
+         * batch holds up to {@link #getMaxBatchedEvents() maxBatchedEvents} events.
+         *
+         * @return Latency (e.g., "500 millis"), or {@code null}
+         */
+        public String getTargetBatchLatency() {
+            return targetBatchLatency;
+        }
+
+        /**
+         * Sets the Bulk API request latency that the number of events per batch adapts to.
+         *
+         * @param targetBatchLatency Latency (e.g., "500 millis")
+         */
+        public void setTargetBatchLatency(String targetBatchLatency) {
+            this.targetBatchLatency = targetBatchLatency;
+        }
+
+        /**
+         * Gets the number of times a Bulk API request, or the items of a Bulk API request, rejected with a
+         * transient error are retried (default {@code 3}).
+         *
+         * @return Maximum number of retries
+         */
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        /**
+         * Sets the number of times a Bulk API request, or the items of a Bulk API request, rejected with a
+         * transient error are retried.
+         *
+         * @param maxRetries Maximum number of retries, where {@code 0} disables retries
+         */
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        /**
+         * Gets the delay before the first retry, which doubles on each subsequent retry (default "100 millis").
+         *
+         * @return Delay (e.g., "100 millis")
+         */
+        public String getRetryBackoff() {
+            return retryBackoff != null && !retryBackoff.isEmpty() ? retryBackoff : DEFAULT_RETRY_BACKOFF;
+        }
+
+        /**
+         * Sets the delay before the first retry, which doubles on each subsequent retry.
+         *
+         * @param retryBackoff Delay (e.g., "100 millis")
+         */
+        public void setRetryBackoff(String retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        /**
+         * Gets the directory to which events are spilled when they do not fit in the buffer, or cannot be delivered to
+         * Elasticsearch, so that they are replayed once Elasticsearch recovers. When not set, such events are dropped.
+         *
+         * @return Spill directory, or {@code null}
+         */
+        public String getSpillDirectory() {
+            return spillDirectory;
+        }
+
+        /**
+         * Sets the directory to which events are spilled when they do not fit in the buffer, or cannot be delivered.
+         *
+         * @param spillDirectory Spill directory, which must not be shared with other handlers
+         */
+        public void setSpillDirectory(String spillDirectory) {
+            this.spillDirectory = spillDirectory;
+        }
+
+        /**
+         * Gets the maximum disk space, in bytes, used by spilled events (default {@code 1 GiB}).
+         *
+         * @return Maximum spill size in bytes
+         */
+        public long getMaxSpillSize() {
+            return maxSpillSize > 0 ? maxSpillSize : DEFAULT_MAX_SPILL_SIZE;
+        }
+
+        /**
+         * Sets the maximum disk space, in bytes, used by spilled events.
+         *
+         * @param maxSpillSize Maximum spill size in bytes
+         */
+        public void setMaxSpillSize(long maxSpillSize) {
+            this.maxSpillSize = maxSpillSize;
+        }
+
+        /**
+         * Gets the maximum number of spilled events per second replayed to Elasticsearch, where {@code 0}
+         * means unlimited.
+         *
+         * @return Maximum replay rate
+         */
+        public int getMaxReplayRate() {
+            return maxReplayRate;
+        }
+
+        /**
+         * Sets the maximum number of spilled events per second replayed to Elasticsearch.
+         *
+         * @param maxReplayRate Maximum replay rate, where {@code 0} means unlimited
+         */
+        public void setMaxReplayRate(int maxReplayRate) {
+            this.maxReplayRate = maxReplayRate;
+        }
     }
 }
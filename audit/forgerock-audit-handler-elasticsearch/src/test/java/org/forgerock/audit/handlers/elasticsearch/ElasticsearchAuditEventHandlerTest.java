@@ -12,12 +12,13 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
- * Portions Copyright 2018 Wren Security.
+ * Portions Copyright 2018-2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.elasticsearch;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 import static org.forgerock.audit.AuditServiceBuilder.newAuditService;
 import static org.forgerock.json.JsonValue.array;
 import static org.forgerock.json.JsonValue.field;
@@ -29,14 +30,23 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.forgerock.audit.AuditService;
 import org.forgerock.audit.AuditServiceBuilder;
@@ -73,6 +83,9 @@ import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
 
 public class ElasticsearchAuditEventHandlerTest {
 
@@ -335,6 +348,103 @@ public class ElasticsearchAuditEventHandlerTest {
         batchHandler.publishBatch(invalidAuthEventBatchPayload).getOrThrow();
     }
 
+    @Test
+    public void testPublishBatchFailureReportsPermanentlyFailedItems() throws Exception {
+
+        // given
+        final JsonValue responseJson = resourceAsJsonValue(RESOURCE_PATH + "invalidAuthEventBatchPayloadResponse.json");
+        final Response response = createClientResponse(Status.OK, responseJson);
+
+        final Promise<Response, NeverThrowsException> promise = newResultPromise(response);
+
+        final ElasticsearchAuditEventHandlerConfiguration config = new ElasticsearchAuditEventHandlerConfiguration();
+        config.getBuffering().setEnabled(true);
+
+        final BatchConsumer batchHandler =
+                createElasticSearchAuditEventHandler(createClient(promise), config);
+
+        // when
+        try {
+            batchHandler.publishBatch(invalidAuthEventBatchPayload).getOrThrow();
+            failBecauseExceptionWasNotThrown(BatchException.class);
+        } catch (BatchException e) {
+            // then
+            assertThat(e.isPartial()).isTrue();
+            assertThat(e.isFailed(0)).isTrue();
+            assertThat(e.isRetriable(0)).isFalse();
+            assertThat(e.isRetriable()).isFalse();
+        }
+    }
+
+    @Test
+    public void testPublishBatchRetriesOnlyRejectedItems() throws Exception {
+
+        // given
+        final StubBulkServer server = new StubBulkServer();
+        server.rejectedFirstItems = 2;
+        final ElasticsearchAuditEventHandler handler = createElasticSearchAuditEventHandler(server);
+        handler.startup();
+        try {
+            // when
+            handler.publishBatch(authEventBatchPayload + bulkItem("second")).getOrThrow();
+
+            // then
+            assertThat(server.requests.get()).isEqualTo(3);
+            assertThat(server.indexedItems.get()).isEqualTo(2);
+            assertThat(server.bodies.get(1)).isEqualTo(authEventBatchPayload);
+            assertThat(server.bodies.get(2)).isEqualTo(authEventBatchPayload);
+        } finally {
+            handler.shutdown();
+            server.stop();
+        }
+    }
+
+    @Test(expectedExceptions = BatchException.class)
+    public void testPublishBatchFailsOnceRetriesAreExhausted() throws Exception {
+
+        // given
+        final StubBulkServer server = new StubBulkServer();
+        server.rejectedRequests = Integer.MAX_VALUE;
+        final ElasticsearchAuditEventHandler handler = createElasticSearchAuditEventHandler(server);
+        handler.startup();
+        try {
+            // when
+            handler.publishBatch(authEventBatchPayload).getOrThrow();
+        } finally {
+            // then
+            assertThat(server.requests.get()).isEqualTo(4);
+            handler.shutdown();
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testBufferedPublishSendsConcurrentBulkRequests() throws Exception {
+
+        // given
+        final StubBulkServer server = new StubBulkServer();
+        server.latencyMillis = 200;
+        final ElasticsearchAuditEventHandler handler = createElasticSearchAuditEventHandler(server);
+        final JsonValue event = resourceAsJsonValue(RESOURCE_PATH + "authEventBeforeNormalization.json");
+        final int events = 4000;
+        try {
+            for (int i = 0; i < events; i++) {
+                event.put("_id", "event-" + i);
+                handler.publishEvent(new RootContext(), "authentication", event).getOrThrow();
+            }
+
+            // when
+            handler.startup();
+        } finally {
+            handler.shutdown();
+            server.stop();
+        }
+
+        // then
+        assertThat(server.indexedItems.get()).isEqualTo(events);
+        assertThat(server.maxInFlight.get()).isGreaterThan(1).isLessThanOrEqualTo(4);
+    }
+
     /**
      * Integration test.
      */
@@ -375,6 +485,21 @@ public class ElasticsearchAuditEventHandlerTest {
         return new ElasticsearchAuditEventHandler(configuration, getEventTopicsMetaData(), client);
     }
 
+    private ElasticsearchAuditEventHandler createElasticSearchAuditEventHandler(final StubBulkServer server)
+            throws Exception {
+        final ElasticsearchAuditEventHandlerConfiguration config = new ElasticsearchAuditEventHandlerConfiguration();
+        config.getConnection().setPort(server.getPort());
+        config.getBuffering().setEnabled(true);
+        config.getBuffering().setMaxSize(10000);
+        config.getBuffering().setMaxInFlightBatches(4);
+        config.getBuffering().setRetryBackoff("10 millis");
+        return createElasticSearchAuditEventHandler(null, config);
+    }
+
+    private static String bulkItem(final String id) {
+        return "{ \"index\" : { \"_type\" : \"authentication\", \"_id\" : \"" + id + "\" } }\n{}\n";
+    }
+
     private Client createClient(final Promise<Response, NeverThrowsException> promise) {
         final Handler handler = mock(Handler.class);
         final Client client = new Client(handler);
@@ -414,4 +539,91 @@ public class ElasticsearchAuditEventHandlerTest {
     private InputStream getResource(String resourceName) {
         return getClass().getResourceAsStream(resourceName);
     }
+
+    /**
+     * Local stand-in for the Elasticsearch Bulk API, which acknowledges every item unless told to reject requests
+     * or items.
+     */
+    private static final class StubBulkServer implements HttpHandler {
+
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger indexedItems = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final List<String> bodies = Collections.synchronizedList(new ArrayList<String>());
+        private volatile long latencyMillis;
+        private volatile int rejectedRequests;
+        private volatile int rejectedFirstItems;
+
+        private StubBulkServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", this);
+            server.setExecutor(executor);
+            server.start();
+        }
+
+        private int getPort() {
+            return server.getAddress().getPort();
+        }
+
+        private void stop() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            final int current = inFlight.incrementAndGet();
+            try {
+                int max;
+                while ((max = maxInFlight.get()) < current && !maxInFlight.compareAndSet(max, current)) {
+                    continue;
+                }
+                requests.incrementAndGet();
+                final String body;
+                try (InputStream in = exchange.getRequestBody()) {
+                    body = new Scanner(in, "UTF-8").useDelimiter("\\A").next();
+                }
+                bodies.add(body);
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis);
+                }
+                if (rejectedRequests > 0) {
+                    rejectedRequests--;
+                    respond(exchange, 503, "{}");
+                    return;
+                }
+                final int items = body.split("\n").length / 2;
+                final StringBuilder response = new StringBuilder("{\"errors\":").append(rejectedFirstItems > 0)
+                        .append(",\"items\":[");
+                for (int i = 0; i < items; i++) {
+                    final int status;
+                    if (i == 0 && rejectedFirstItems > 0) {
+                        rejectedFirstItems--;
+                        status = 429;
+                    } else {
+                        status = 201;
+                        indexedItems.incrementAndGet();
+                    }
+                    response.append(i == 0 ? "" : ",").append("{\"index\":{\"status\":").append(status).append("}}");
+                }
+                respond(exchange, 200, response.append("]}").toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        private void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
 }
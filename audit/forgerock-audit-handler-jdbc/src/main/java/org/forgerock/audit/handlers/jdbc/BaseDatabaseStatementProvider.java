@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jdbc;
 
@@ -41,6 +42,23 @@ abstract class BaseDatabaseStatementProvider implements DatabaseStatementProvide
 
     private static final Logger logger = LoggerFactory.getLogger(BaseDatabaseStatementProvider.class);
 
+    /** Named parameter holding the {@code _id} after which a keyset-paginated query resumes. */
+    protected static final String PAGED_RESULTS_COOKIE_PARAMETER = "_pagedResultsCookie";
+
+    /**
+     * Indicates whether a query is paginated by keyset rather than by offset. Keyset pagination orders results by
+     * {@code _id} and resumes after the {@code _id} held by the paged results cookie, so that each page is an index
+     * range scan instead of re-reading and skipping all the preceding rows. It applies to queries with a page size,
+     * no sort keys and no paged results offset.
+     * @param queryRequest The QueryRequest sent to the audit event handler.
+     * @return {@code true} if the query is paginated by keyset.
+     */
+    static boolean isKeysetPaginated(final QueryRequest queryRequest) {
+        return queryRequest.getPageSize() > 0
+                && queryRequest.getPagedResultsOffset() == 0
+                && (queryRequest.getSortKeys() == null || queryRequest.getSortKeys().isEmpty());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -97,6 +115,48 @@ abstract class BaseDatabaseStatementProvider implements DatabaseStatementProvide
     public abstract JdbcAuditEvent buildQueryEvent(final TableMapping mapping, final QueryRequest queryRequest,
             final JsonValue eventTopicMetaData) throws AuditException;
 
+    /**
+     * Builds the condition restricting a keyset-paginated query to the rows after the paged results cookie.
+     * @param queryRequest The QueryRequest sent to the audit event handler.
+     * @param idColumn The column mapped to {@code _id}.
+     * @return The condition, prefixed with {@code AND}, or an empty string on the first page.
+     */
+    protected String buildKeysetCondition(final QueryRequest queryRequest, final String idColumn) {
+        if (queryRequest.getPagedResultsCookie() == null || queryRequest.getPagedResultsCookie().isEmpty()) {
+            return "";
+        }
+        return " AND " + idColumn + " > ${" + PAGED_RESULTS_COOKIE_PARAMETER + "}";
+    }
+
+    /**
+     * Builds the parameters of a query statement from its named parameters.
+     * @param sqlStatementParser The parsed query statement.
+     * @param tableMappingParametersPair The table mapping and the values of the query filter parameters.
+     * @param queryRequest The QueryRequest sent to the audit event handler.
+     * @param eventTopicMetaData The event topic metadata.
+     * @return The query parameters.
+     * @throws AuditException If unable to get the type of a parameter.
+     */
+    protected List<Parameter> buildQueryParameters(final SqlStatementParser sqlStatementParser,
+            final TableMappingParametersPair tableMappingParametersPair, final QueryRequest queryRequest,
+            final JsonValue eventTopicMetaData) throws AuditException {
+        final List<Parameter> params = new LinkedList<>();
+        for (String field : sqlStatementParser.getNamedParameters()) {
+            if (PAGED_RESULTS_COOKIE_PARAMETER.equals(field)) {
+                params.add(
+                        new Parameter(
+                                getParameterType(eventTopicMetaData, new JsonPointer("_id")),
+                                queryRequest.getPagedResultsCookie()));
+            } else {
+                params.add(
+                        new Parameter(
+                                getParameterType(eventTopicMetaData, new JsonPointer(field)),
+                                tableMappingParametersPair.getParameters().get(field)));
+            }
+        }
+        return params;
+    }
+
     /**
      * Creates a named parameter given a {@link JsonPointer}. A named parameter has the following format: ${SOME_VALUE}.
      * @param pointer The {@link JsonPointer} to wrap.
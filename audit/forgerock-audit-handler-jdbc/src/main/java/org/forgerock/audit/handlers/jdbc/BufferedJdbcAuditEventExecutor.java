@@ -13,6 +13,7 @@
  *
  * Copyright 2015-2016 ForgeRock AS.
  * Portions Copyright 2016 Nomura Research Institute, Ltd.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jdbc;
 
@@ -33,10 +34,12 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import javax.sql.DataSource;
 
 import org.forgerock.audit.AuditException;
+import org.forgerock.audit.handlers.jdbc.JdbcAuditEventHandlerConfiguration.QueueFullPolicy;
 import org.forgerock.util.Reject;
 import org.forgerock.util.time.Duration;
 import org.slf4j.Logger;
@@ -44,10 +47,16 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Buffers the create events to a {@link JdbcAuditEventExecutor}.
+ * <p>
+ * Batches are only taken from the buffer when a writer thread is free to write them, so that a slow database
+ * fills the buffer and publishers are held back according to the {@link QueueFullPolicy}.
  */
 class BufferedJdbcAuditEventExecutor implements JdbcAuditEventExecutor {
     private static final Logger logger = LoggerFactory.getLogger(BufferedJdbcAuditEventExecutor.class);
 
+    /** How often a publisher blocked by {@link QueueFullPolicy#BLOCK} checks whether the executor was closed. */
+    private static final long BLOCK_POLL_MILLIS = 100L;
+
     /** The wrapped {@link JdbcAuditEventExecutor}. */
     private final JdbcAuditEventExecutor delegate;
 
@@ -60,6 +69,9 @@ class BufferedJdbcAuditEventExecutor implements JdbcAuditEventExecutor {
     private final boolean autoFlush;
     private final int maxBatchedEvents;
     private final DataSource dataSource;
+    private final Semaphore idleWriters;
+    private final QueueFullPolicy queueFullPolicy;
+    private final long queueFullTimeoutMillis;
 
     /**
      * Created a BufferedJdbcAuditEventExecutor with a given queue capacity, and the {@link JdbcAuditEventExecutor}
@@ -69,10 +81,15 @@ class BufferedJdbcAuditEventExecutor implements JdbcAuditEventExecutor {
      * @param delegate The {@link JdbcAuditEventExecutor} to delegate the operations too.
      * @param writeInterval The interval to trigger write events.
      * @param threads The number of writer threads.
+     * @param maxBatchedEvents The maximum number of events written in one batch.
+     * @param dataSource The data source to write the events to.
+     * @param queueFullPolicy What happens to an event created while the buffer is full.
+     * @param queueFullTimeout How long an event waits for space in the buffer under {@link QueueFullPolicy#TIMEOUT}.
      */
     public BufferedJdbcAuditEventExecutor(int capacity, boolean autoFlush, JdbcAuditEventExecutor delegate,
-            Duration writeInterval, int threads, int maxBatchedEvents, final DataSource dataSource) {
-        Reject.ifNull(delegate);
+            Duration writeInterval, int threads, int maxBatchedEvents, final DataSource dataSource,
+            QueueFullPolicy queueFullPolicy, Duration queueFullTimeout) {
+        Reject.ifNull(delegate, queueFullPolicy, queueFullTimeout);
         this.autoFlush = autoFlush;
         this.delegate = delegate;
 
@@ -80,6 +97,9 @@ class BufferedJdbcAuditEventExecutor implements JdbcAuditEventExecutor {
         this.stopRequested = false;
 
         this.dataSource = dataSource;
+        this.queueFullPolicy = queueFullPolicy;
+        this.queueFullTimeoutMillis = queueFullTimeout.to(TimeUnit.MILLISECONDS);
+        this.idleWriters = new Semaphore(threads);
         this.queueWatcher = Executors.newScheduledThreadPool(1);
         this.workerPool = newFixedThreadPool(threads);
         this.queueWatcher.scheduleAtFixedRate(
@@ -90,14 +110,8 @@ class BufferedJdbcAuditEventExecutor implements JdbcAuditEventExecutor {
     public void flush() {
         try {
             while (!queue.isEmpty()) {
-                Collection<JdbcAuditEvent> events = new ArrayList<>(maxBatchedEvents);
-                queue.drainTo(events, maxBatchedEvents);
-                try {
-                    workerPool.submit(new DatabaseWriterTask(events, dataSource));
-                } catch (RejectedExecutionException e) {
-                    // unable to submit task put events back in queue.
-                    queue.addAll(events);
-                }
+                idleWriters.acquireUninterruptibly();
+                submitBatch();
             }
         } catch (Exception e) {
             logger.error("Unable to create remaining entries in the queue.", e);
@@ -121,11 +135,28 @@ class BufferedJdbcAuditEventExecutor implements JdbcAuditEventExecutor {
 
     @Override
     public void createAuditEvent(JdbcAuditEvent event) throws AuditException {
-        while (!stopRequested) {
-            // Put request on queue for writer
-            if (queue.offer(event)) {
+        try {
+            switch (queueFullPolicy) {
+            case DROP:
+                if (!queue.offer(event)) {
+                    throw new AuditException("JDBC audit event buffer is full, dropping event");
+                }
+                break;
+            case TIMEOUT:
+                if (!queue.offer(event, queueFullTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new AuditException("Timed out waiting for space in the JDBC audit event buffer");
+                }
+                break;
+            default:
+                // Put request on queue for writer, waiting without spinning until there is space
+                while (!stopRequested && !queue.offer(event, BLOCK_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    logger.debug("Waiting for space in the JDBC audit event buffer");
+                }
                 break;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuditException("Interrupted while waiting for space in the JDBC audit event buffer", e);
         }
     }
 
@@ -135,8 +166,25 @@ class BufferedJdbcAuditEventExecutor implements JdbcAuditEventExecutor {
     }
 
     @Override
-    public List<Map<String, Object>> queryAuditEvent(JdbcAuditEvent event) throws AuditException {
-        return delegate.queryAuditEvent(event);
+    public void queryAuditEvent(JdbcAuditEvent event, int fetchSize, RowHandler rowHandler) throws AuditException {
+        delegate.queryAuditEvent(event, fetchSize, rowHandler);
+    }
+
+    /**
+     * Takes a batch from the queue and hands it to a writer, whose idle permit the caller must hold.
+     */
+    private void submitBatch() {
+        Collection<JdbcAuditEvent> events = new ArrayList<>(maxBatchedEvents);
+        queue.drainTo(events, maxBatchedEvents);
+
+        // Handle the case where the task cannot be submitted.
+        try {
+            workerPool.submit(new DatabaseWriterTask(events, dataSource));
+        } catch (RejectedExecutionException e) {
+            // unable to submit task put events back in queue.
+            idleWriters.release();
+            queue.addAll(events);
+        }
     }
 
     private class QueueWatcherThread implements Runnable {
@@ -149,17 +197,9 @@ class BufferedJdbcAuditEventExecutor implements JdbcAuditEventExecutor {
 
         @Override
         public void run() {
-            while (!stopRequested && !queue.isEmpty()) {
-                Collection<JdbcAuditEvent> events = new ArrayList<>(maxBatchedEvents);
-                queue.drainTo(events, maxBatchedEvents);
-
-                // Handle the case where the task cannot be submitted.
-                try {
-                    workerPool.submit(new DatabaseWriterTask(events, dataSource));
-                } catch (RejectedExecutionException e) {
-                    // unable to submit task put events back in queue.
-                    queue.addAll(events);
-                }
+            // leave events in the bounded queue while all writers are busy, rather than piling them up as tasks
+            while (!stopRequested && !queue.isEmpty() && idleWriters.tryAcquire()) {
+                submitBatch();
             }
         }
     }
@@ -176,6 +216,14 @@ class BufferedJdbcAuditEventExecutor implements JdbcAuditEventExecutor {
 
         @Override
         public void run() {
+            try {
+                write();
+            } finally {
+                idleWriters.release();
+            }
+        }
+
+        private void write() {
             if (events.isEmpty()) {
                 return;
             }
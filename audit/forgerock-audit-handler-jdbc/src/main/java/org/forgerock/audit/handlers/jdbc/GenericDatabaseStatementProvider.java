@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jdbc;
 
@@ -19,11 +20,9 @@ import static org.forgerock.util.Utils.joinAsString;
 
 import java.sql.PreparedStatement;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.forgerock.audit.AuditException;
-import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.resource.QueryRequest;
 import org.forgerock.json.resource.SortKey;
@@ -51,20 +50,25 @@ class GenericDatabaseStatementProvider extends BaseDatabaseStatementProvider {
         logger.info("Built query select statement: {}", querySelectStatement);
 
         final SqlStatementParser sqlStatementParser = new SqlStatementParser(querySelectStatement);
-        final List<Parameter> params = new LinkedList<>();
-        for (String field : sqlStatementParser.getNamedParameters()) {
-            final JsonPointer fieldPointer = new JsonPointer(field);
-            params.add(
-                    new Parameter(
-                            getParameterType(eventTopicMetaData, fieldPointer),
-                            tableMappingParametersPair.getParameters().get(field)));
-        }
-        return new JdbcAuditEvent(sqlStatementParser.getSqlStatement(), params);
+        return new JdbcAuditEvent(sqlStatementParser.getSqlStatement(),
+                buildQueryParameters(sqlStatementParser, tableMappingParametersPair, queryRequest, eventTopicMetaData));
     }
 
     private String buildQuerySql(final QueryRequest queryRequest,
             final TableMappingParametersPair tableMappingParametersPair) {
         final TableMapping tableMapping = tableMappingParametersPair.getTableMapping();
+        final String filter =
+                queryRequest.getQueryFilter().accept(queryFilterVisitor, tableMappingParametersPair).toSql();
+
+        if (isKeysetPaginated(queryRequest)) {
+            final String idColumn = tableMapping.getFieldToColumn().get("_id");
+            return String.format("SELECT * FROM %s WHERE (%s)%s ORDER BY %s ASC LIMIT %d",
+                    tableMapping.getTable(),
+                    filter,
+                    buildKeysetCondition(queryRequest, idColumn),
+                    idColumn,
+                    queryRequest.getPageSize());
+        }
 
         int offsetParam = queryRequest.getPagedResultsOffset();
         int pageSizeParam = queryRequest.getPageSize();
@@ -82,12 +86,12 @@ class GenericDatabaseStatementProvider extends BaseDatabaseStatementProvider {
                 keys.add(tableMappingParametersPair.getColumnName(sortKey.getField()) + (sortKey.isAscendingOrder()
                         ? " ASC" : " DESC"));
             }
-            pageClause = "ORDER BY " + joinAsString(", ", keys) + pageClause;
+            pageClause = "ORDER BY " + joinAsString(", ", keys) + " " + pageClause;
         }
 
         return String.format("SELECT * FROM %s WHERE %s %s",
                 tableMapping.getTable(),
-                queryRequest.getQueryFilter().accept(queryFilterVisitor, tableMappingParametersPair).toSql(),
+                filter,
                 pageClause);
     }
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jdbc;
 
@@ -41,12 +42,15 @@ interface JdbcAuditEventExecutor {
     List<Map<String, Object>> readAuditEvent(final JdbcAuditEvent event) throws AuditException;
 
     /**
-     * Queries a {@link JdbcAuditEvent}.
+     * Queries a {@link JdbcAuditEvent}, streaming each row of a forward-only result set to the given handler
+     * rather than materializing the whole result set.
      * @param event The {@link JdbcAuditEvent} to query.
-     * @return The read {@link JdbcAuditEvent} data.
+     * @param fetchSize The number of rows to fetch from the database at a time, or 0 for the driver default.
+     * @param rowHandler The handler receiving each row.
      * @throws AuditException If unable to query the {@link JdbcAuditEvent}.
      */
-    List<Map<String, Object>> queryAuditEvent(final JdbcAuditEvent event) throws AuditException;
+    void queryAuditEvent(final JdbcAuditEvent event, final int fetchSize, final RowHandler rowHandler)
+            throws AuditException;
 
     /**
      * Closes JdbcAuditEventExecutor and performs cleanup.
@@ -57,4 +61,18 @@ interface JdbcAuditEventExecutor {
      * Flushes all create events.
      */
     void flush();
+
+    /**
+     * Receives the rows of a streamed query.
+     */
+    interface RowHandler {
+
+        /**
+         * Handles a row of the query results.
+         * @param row The row, keyed by lower-case column name.
+         * @return {@code true} to continue with the next row, or {@code false} to stop the query.
+         * @throws AuditException If unable to handle the row.
+         */
+        boolean handleRow(Map<String, Object> row) throws AuditException;
+    }
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jdbc;
 
@@ -73,23 +74,73 @@ class JdbcAuditEventExecutorImpl implements JdbcAuditEventExecutor {
         }
     }
 
+    private void stream(final JdbcAuditEvent event, final int fetchSize, final RowHandler rowHandler)
+            throws AuditException {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            if (connection == null) {
+                logger.error("Unable to get a datasource connection");
+                throw new AuditException("Unable to get a datasource connection");
+            }
+            // some drivers (e.g. PostgreSQL) only honour the fetch size outside of auto-commit mode
+            connection.setAutoCommit(false);
+
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                    event.getSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                preparedStatement.setFetchSize(fetchSize);
+                JdbcUtils.initializePreparedStatement(preparedStatement, event.getParams());
+                logger.debug("Executing streamed prepared statement");
+                try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                    final ResultSetMetaData md = resultSet.getMetaData();
+                    final String[] columnNames = getColumnNames(md);
+                    while (resultSet.next() && rowHandler.handleRow(getRow(resultSet, md, columnNames))) {
+                        continue;
+                    }
+                }
+                CleanupHelper.commit(connection);
+            }
+        } catch (SQLException | AuditException | JsonProcessingException e) {
+            logger.error("Unable to query audit events", e);
+            if (connection != null) {
+                CleanupHelper.rollback(connection);
+            }
+            throw new AuditException("Unable to query audit events", e);
+        } finally {
+            CleanupHelper.close(connection);
+        }
+    }
+
     private List<Map<String, Object>> convertResultSetToList(final ResultSet resultSet) throws SQLException {
         final List<Map<String, Object>> list = new ArrayList<>();
         if (resultSet == null) {
             return list;
         }
         final ResultSetMetaData md = resultSet.getMetaData();
-        final int columns = md.getColumnCount();
+        final String[] columnNames = getColumnNames(md);
         while (resultSet.next()) {
-            final HashMap<String, Object> row = new HashMap<>(columns);
-            for (int i = 1; i <= columns; ++i) {
-                row.put(md.getColumnName(i).toLowerCase(), getResultSetObject(resultSet, md.getColumnType(i), i));
-            }
-            list.add(row);
+            list.add(getRow(resultSet, md, columnNames));
         }
         return list;
     }
 
+    private String[] getColumnNames(final ResultSetMetaData md) throws SQLException {
+        final String[] columnNames = new String[md.getColumnCount()];
+        for (int i = 0; i < columnNames.length; ++i) {
+            columnNames[i] = md.getColumnName(i + 1).toLowerCase();
+        }
+        return columnNames;
+    }
+
+    private Map<String, Object> getRow(final ResultSet resultSet, final ResultSetMetaData md,
+            final String[] columnNames) throws SQLException {
+        final Map<String, Object> row = new HashMap<>(columnNames.length);
+        for (int i = 0; i < columnNames.length; ++i) {
+            row.put(columnNames[i], getResultSetObject(resultSet, md.getColumnType(i + 1), i + 1));
+        }
+        return row;
+    }
+
     private Object getResultSetObject(final ResultSet resultSet, final int type, int column)
             throws SQLException {
         switch (type) {
@@ -126,8 +177,8 @@ class JdbcAuditEventExecutorImpl implements JdbcAuditEventExecutor {
     }
 
     @Override
-    public List<Map<String, Object>> queryAuditEvent(JdbcAuditEvent event) throws AuditException {
-        return execute(event);
+    public void queryAuditEvent(JdbcAuditEvent event, int fetchSize, RowHandler rowHandler) throws AuditException {
+        stream(event, fetchSize, rowHandler);
     }
 
     @Override
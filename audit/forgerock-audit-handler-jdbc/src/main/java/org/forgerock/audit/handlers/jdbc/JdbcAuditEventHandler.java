@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jdbc;
 
@@ -47,6 +48,7 @@ import org.forgerock.json.resource.ResourceException;
 import org.forgerock.json.resource.ResourceResponse;
 import org.forgerock.services.context.Context;
 import org.forgerock.util.promise.Promise;
+import org.forgerock.util.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -117,7 +119,9 @@ public class JdbcAuditEventHandler extends AuditEventHandlerBase {
                     POLLING_INTERVAL,
                     bufferConfig.getWriterThreads(),
                     bufferConfig.getMaxBatchedEvents(),
-                    dataSource);
+                    dataSource,
+                    bufferConfig.getQueueFullPolicy(),
+                    Duration.duration(bufferConfig.getQueueFullTimeout()));
         } else {
             this.jdbcAuditEventExecutor = jdbcAuditEventExecutor;
         }
@@ -128,10 +132,11 @@ public class JdbcAuditEventHandler extends AuditEventHandlerBase {
      */
     @Override
     public void shutdown() throws ResourceException {
+        // flush buffered events before closing the connections they are written with
+        jdbcAuditEventExecutor.close();
         if (!sharedDataSource && dataSource instanceof HikariDataSource) {
             ((HikariDataSource) dataSource).close();
         }
-        jdbcAuditEventExecutor.close();
     }
 
     /**
@@ -153,6 +158,11 @@ public class JdbcAuditEventHandler extends AuditEventHandlerBase {
     }
 
     /**
+     * Streams the matching events to the {@link QueryResourceHandler} as they are read from the database. Queries
+     * with a page size, no sort keys and no paged results offset are paginated by keyset: results are ordered by
+     * {@code _id}, and the returned paged results cookie is the {@code _id} of the last event of a full page. The
+     * returned count is the exact number of events handed to the {@link QueryResourceHandler}.
+     * <p>
      * {@inheritDoc}
      */
     @Override
@@ -164,18 +174,29 @@ public class JdbcAuditEventHandler extends AuditEventHandlerBase {
                     queryRequest.getQueryFilter());
 
             final TableMapping mapping = getTableMapping(topic);
-            final List<Map<String, Object>> results =
-                    jdbcAuditEventExecutor.queryAuditEvent(
-                            databaseStatementProvider.buildQueryEvent(
-                                    mapping, queryRequest, eventTopicsMetaData.getSchema(topic)));
+            final int[] handled = new int[1];
+            final String[] lastId = new String[1];
+            jdbcAuditEventExecutor.queryAuditEvent(
+                    databaseStatementProvider.buildQueryEvent(
+                            mapping, queryRequest, eventTopicsMetaData.getSchema(topic)),
+                    configuration.getQueryFetchSize(),
+                    new JdbcAuditEventExecutor.RowHandler() {
+                        @Override
+                        public boolean handleRow(Map<String, Object> row) throws AuditException {
+                            final JsonValue result = processEntry(row, mapping, topic);
+                            lastId[0] = result.get(ResourceResponse.FIELD_CONTENT_ID).asString();
+                            handled[0]++;
+                            return queryResourceHandler.handleResource(
+                                    newResourceResponse(lastId[0], null, result));
+                        }
+                    });
 
-            for (Map<String, Object> entry : results) {
-                final JsonValue result = processEntry(entry, mapping, topic);
-                queryResourceHandler.handleResource(
-                        newResourceResponse(result.get(ResourceResponse.FIELD_CONTENT_ID).asString(), null, result));
-            }
-            return newQueryResponse(String.valueOf(queryRequest.getPagedResultsOffset() + results.size()),
-                            CountPolicy.EXACT, results.size()).asPromise();
+            final String pagedResultsCookie =
+                    BaseDatabaseStatementProvider.isKeysetPaginated(queryRequest)
+                            && handled[0] == queryRequest.getPageSize()
+                            ? lastId[0]
+                            : null;
+            return newQueryResponse(pagedResultsCookie, CountPolicy.EXACT, handled[0]).asPromise();
         } catch (AuditException e) {
             final String error = String.format("Unable to query audit entry for %s", auditEventTopic);
             logger.error(error, e);
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jdbc;
 
@@ -45,6 +46,9 @@ public class JdbcAuditEventHandlerConfiguration extends EventHandlerConfiguratio
     @JsonPropertyDescription("audit.handlers.jdbc.buffering")
     private EventBufferingConfiguration buffering = new EventBufferingConfiguration();
 
+    @JsonPropertyDescription("audit.handlers.jdbc.queryFetchSize")
+    private int queryFetchSize = 100;
+
     /**
      * Gets the table mappings for the audit events.
      * @return The table mappings for the audit events.
@@ -96,6 +100,24 @@ public class JdbcAuditEventHandlerConfiguration extends EventHandlerConfiguratio
         this.databaseType = databaseType;
     }
 
+    /**
+     * Gets the number of rows fetched from the database at a time while streaming query results.
+     * @return The query fetch size.
+     */
+    public int getQueryFetchSize() {
+        return queryFetchSize;
+    }
+
+    /**
+     * Sets the number of rows fetched from the database at a time while streaming query results. The value is
+     * passed to {@link java.sql.Statement#setFetchSize(int)}, so its effect depends on the JDBC driver.
+     * @param queryFetchSize The query fetch size.
+     */
+    public void setQueryFetchSize(int queryFetchSize) {
+        Reject.ifFalse(queryFetchSize >= 0);
+        this.queryFetchSize = queryFetchSize;
+    }
+
     @Override
     public boolean isUsableForQueries() {
         return true;
@@ -378,6 +400,12 @@ public class JdbcAuditEventHandlerConfiguration extends EventHandlerConfiguratio
         @JsonPropertyDescription("audit.handlers.jdbc.buffering.maxBatchedEvents")
         private int maxBatchedEvents = 100;
 
+        @JsonPropertyDescription("audit.handlers.jdbc.buffering.queueFullPolicy")
+        private QueueFullPolicy queueFullPolicy = QueueFullPolicy.BLOCK;
+
+        @JsonPropertyDescription("audit.handlers.jdbc.buffering.queueFullTimeout")
+        private String queueFullTimeout = "1 second";
+
 
         /**
          * Indicates if event buffering is enabled.
@@ -485,5 +513,51 @@ public class JdbcAuditEventHandlerConfiguration extends EventHandlerConfiguratio
         public void setMaxBatchedEvents(int maxBatchedEvents) {
             this.maxBatchedEvents = maxBatchedEvents;
         }
+
+        /**
+         * Gets what happens to an event published while the buffer is full.
+         * @return The queue full policy.
+         */
+        public QueueFullPolicy getQueueFullPolicy() {
+            return queueFullPolicy;
+        }
+
+        /**
+         * Sets what happens to an event published while the buffer is full.
+         * @param queueFullPolicy The queue full policy.
+         */
+        public void setQueueFullPolicy(QueueFullPolicy queueFullPolicy) {
+            this.queueFullPolicy = Reject.checkNotNull(queueFullPolicy);
+        }
+
+        /**
+         * Gets how long an event is allowed to wait for space in the buffer under
+         * {@link QueueFullPolicy#TIMEOUT}.
+         * @return The timeout as a string.
+         */
+        public String getQueueFullTimeout() {
+            return queueFullTimeout;
+        }
+
+        /**
+         * Sets how long an event is allowed to wait for space in the buffer under
+         * {@link QueueFullPolicy#TIMEOUT}.
+         * @param queueFullTimeout The timeout as a string.
+         */
+        public void setQueueFullTimeout(String queueFullTimeout) {
+            this.queueFullTimeout = queueFullTimeout;
+        }
+    }
+
+    /**
+     * What happens to an event published while the buffer is full.
+     */
+    public enum QueueFullPolicy {
+        /** Wait until space becomes available in the buffer. */
+        BLOCK,
+        /** Wait up to the configured timeout for space in the buffer, then fail the event. */
+        TIMEOUT,
+        /** Fail the event immediately. */
+        DROP
     }
 }
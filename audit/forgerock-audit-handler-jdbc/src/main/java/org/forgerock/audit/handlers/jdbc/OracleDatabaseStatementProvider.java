@@ -12,17 +12,16 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jdbc;
 
 import static org.forgerock.util.Utils.joinAsString;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.forgerock.audit.AuditException;
-import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.resource.QueryRequest;
 import org.forgerock.json.resource.SortKey;
@@ -51,14 +50,8 @@ class OracleDatabaseStatementProvider extends BaseDatabaseStatementProvider {
         logger.info("Built query select statement: {}", querySelectStatement);
 
         final SqlStatementParser sqlStatementParser = new SqlStatementParser(querySelectStatement);
-        final List<Parameter> params = new LinkedList<>();
-        for (String field : sqlStatementParser.getNamedParameters()) {
-            params.add(
-                    new Parameter(
-                            getParameterType(eventTopicMetaData, new JsonPointer(field)),
-                            tableMappingParametersPair.getParameters().get(field)));
-        }
-        return new JdbcAuditEvent(sqlStatementParser.getSqlStatement(), params);
+        return new JdbcAuditEvent(sqlStatementParser.getSqlStatement(),
+                buildQueryParameters(sqlStatementParser, tableMappingParametersPair, queryRequest, eventTopicMetaData));
     }
 
     private String buildQuerySql(final QueryRequest queryRequest,
@@ -72,6 +65,18 @@ class OracleDatabaseStatementProvider extends BaseDatabaseStatementProvider {
         final String filterString = queryRequest.getQueryFilter().accept(queryFilterVisitor, tableMappingParametersPair)
                 .toSql();
 
+        final String tableName = tableMappingParametersPair.getTableMapping().getTable();
+        if (isKeysetPaginated(queryRequest)) {
+            final String idColumn = tableMappingParametersPair.getTableMapping().getFieldToColumn().get("_id");
+            return String.format("SELECT * FROM ( SELECT * FROM %s WHERE (%s)%s ORDER BY %s ASC ) "
+                    + "WHERE ROWNUM <= %d",
+                    tableName,
+                    filterString,
+                    buildKeysetCondition(queryRequest, idColumn),
+                    idColumn,
+                    pageSizeParam);
+        }
+
         // default to ordering by id
         String keysClause = "ORDER BY id ASC";
 
@@ -88,7 +93,6 @@ class OracleDatabaseStatementProvider extends BaseDatabaseStatementProvider {
             keysClause = "ORDER BY " + joinAsString(", ", keys);
         }
 
-        final String tableName = tableMappingParametersPair.getTableMapping().getTable();
         return String.format("SELECT * "
                 + "FROM ( SELECT %s.*, row_number() OVER ( %s ) AS R FROM %s WHERE %s ) "
                 + "WHERE R BETWEEN %d AND %d ORDER BY R",
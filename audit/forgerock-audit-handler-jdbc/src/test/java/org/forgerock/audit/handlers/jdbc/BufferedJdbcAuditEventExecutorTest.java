@@ -0,0 +1,107 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.forgerock.audit.AuditException;
+import org.forgerock.audit.handlers.jdbc.JdbcAuditEventHandlerConfiguration.QueueFullPolicy;
+import org.forgerock.util.time.Duration;
+import org.mockito.ArgumentMatchers;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class BufferedJdbcAuditEventExecutorTest {
+
+    private static final JdbcAuditEvent EVENT =
+            new JdbcAuditEvent("INSERT INTO audit ( id ) VALUES ( ? )", Collections.<Parameter>emptyList());
+
+    @Test(expectedExceptions = AuditException.class)
+    public void shouldFailEventWhenBufferIsFullWithDropPolicy() throws Exception {
+        final BufferedJdbcAuditEventExecutor executor = newExecutor(QueueFullPolicy.DROP);
+        try {
+            executor.createAuditEvent(EVENT);
+            executor.createAuditEvent(EVENT);
+        } finally {
+            executor.close();
+        }
+    }
+
+    @Test
+    public void shouldFailEventOnceTimeoutElapsesWithTimeoutPolicy() throws Exception {
+        final BufferedJdbcAuditEventExecutor executor = newExecutor(QueueFullPolicy.TIMEOUT);
+        try {
+            executor.createAuditEvent(EVENT);
+            final long start = System.nanoTime();
+            try {
+                executor.createAuditEvent(EVENT);
+                throw new AssertionError("Expected the event to time out");
+            } catch (AuditException e) {
+                assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+            }
+        } finally {
+            executor.close();
+        }
+    }
+
+    @Test
+    public void shouldBlockUntilClosedWithBlockPolicy() throws Exception {
+        final BufferedJdbcAuditEventExecutor executor = newExecutor(QueueFullPolicy.BLOCK);
+        executor.createAuditEvent(EVENT);
+        final Thread publisher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    executor.createAuditEvent(EVENT);
+                } catch (AuditException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        publisher.start();
+        publisher.join(300);
+        assertThat(publisher.isAlive()).isTrue();
+
+        executor.close();
+        publisher.join(1000);
+        assertThat(publisher.isAlive()).isFalse();
+    }
+
+    /**
+     * Creates an executor with room for a single event, which is never drained before it is closed.
+     */
+    private BufferedJdbcAuditEventExecutor newExecutor(final QueueFullPolicy queueFullPolicy) throws Exception {
+        final Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(ArgumentMatchers.anyString())).thenReturn(mock(PreparedStatement.class));
+        final DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        final BufferedJdbcAuditEventExecutor executor = new BufferedJdbcAuditEventExecutor(1, false,
+                mock(JdbcAuditEventExecutor.class), Duration.duration("1 hour"), 1, 10, dataSource,
+                queueFullPolicy, Duration.duration("200 milliseconds"));
+        // let the initial run of the queue watcher pass while the queue is still empty
+        Thread.sleep(100);
+        return executor;
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jdbc;
 
@@ -42,6 +43,7 @@ import org.forgerock.audit.events.handlers.AuditEventHandler;
 import org.forgerock.audit.json.AuditJsonConfig;
 import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.CountPolicy;
 import org.forgerock.json.resource.InternalServerErrorException;
 import org.forgerock.json.resource.NotFoundException;
 import org.forgerock.json.resource.QueryRequest;
@@ -340,6 +342,50 @@ public class JdbcAuditEventHandlerTest {
                 .containsEntry(CUSTOM_INTEGER_FIELD, CUSTOM_INTEGER_VALUE);
     }
 
+    @Test
+    public void testQueryPagesByKeyset() throws Exception {
+        // given
+        final JdbcAuditEventHandlerConfiguration configuration = createConfiguration(false);
+        final JdbcAuditEventHandler handler = createJdbcAuditEventHandler(configuration);
+        final Context context = new RootContext();
+        for (int i = 5; i >= 1; i--) {
+            final JsonValue event = makeEvent();
+            event.put(ID_FIELD, "id-" + i);
+            handler.publishEvent(context, TEST_AUDIT_EVENT_TOPIC, event).getOrThrow();
+        }
+
+        final List<String> ids = new LinkedList<>();
+        final QueryResourceHandler queryResourceHandler = new QueryResourceHandler() {
+            @Override
+            public boolean handleResource(ResourceResponse resourceResponse) {
+                ids.add(resourceResponse.getId());
+                return true;
+            }
+        };
+        final QueryRequest queryRequest = Requests.newQueryRequest(TEST_AUDIT_EVENT_TOPIC)
+                .setQueryFilter(QueryFilter.<JsonPointer>alwaysTrue())
+                .setPageSize(2);
+
+        // when
+        final QueryResponse firstPage =
+                handler.queryEvents(context, TEST_AUDIT_EVENT_TOPIC, queryRequest, queryResourceHandler).getOrThrow();
+        queryRequest.setPagedResultsCookie(firstPage.getPagedResultsCookie());
+        final QueryResponse secondPage =
+                handler.queryEvents(context, TEST_AUDIT_EVENT_TOPIC, queryRequest, queryResourceHandler).getOrThrow();
+        queryRequest.setPagedResultsCookie(secondPage.getPagedResultsCookie());
+        final QueryResponse lastPage =
+                handler.queryEvents(context, TEST_AUDIT_EVENT_TOPIC, queryRequest, queryResourceHandler).getOrThrow();
+
+        // then
+        assertThat(firstPage.getPagedResultsCookie()).isEqualTo("id-2");
+        assertThat(secondPage.getPagedResultsCookie()).isEqualTo("id-4");
+        assertThat(lastPage.getPagedResultsCookie()).isNull();
+        assertThat(firstPage.getTotalPagedResultsPolicy()).isEqualTo(CountPolicy.EXACT);
+        assertThat(firstPage.getTotalPagedResults()).isEqualTo(2);
+        assertThat(lastPage.getTotalPagedResults()).isEqualTo(1);
+        assertThat(ids).containsExactly("id-1", "id-2", "id-3", "id-4", "id-5");
+    }
+
     @Test
     public void testQueryWithEmptyDB() throws Exception {
         // given
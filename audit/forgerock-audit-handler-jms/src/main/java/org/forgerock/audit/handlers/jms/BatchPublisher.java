@@ -12,9 +12,12 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jms;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -24,7 +27,11 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.forgerock.audit.events.handlers.buffering.SpillQueue;
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.resource.InternalServerErrorException;
 import org.forgerock.json.resource.ResourceException;
 import org.forgerock.util.Reject;
 import org.slf4j.Logger;
@@ -35,6 +42,13 @@ import static org.forgerock.audit.batch.CommonAuditBatchConfiguration.POLLING_TI
 
 /**
  * Generic publisher that will queue anything for batch processing.
+ * <p>
+ * When a spill directory is configured, messages that cannot be queued without blocking, and messages that
+ * subclasses {@link #spill(List) spill} after failing to publish them, are written to a {@link SpillQueue} instead.
+ * While spilled messages are pending, new messages are also spilled so that they are published in order, and the
+ * worker threads replay spilled messages whenever the queue is empty. Only subclasses that override
+ * {@link #supportsSpilling()}, {@link #toJson(Object)} and {@link #fromJson(JsonValue)} can be configured with a
+ * spill directory.
  *
  * @param <T> This is the type of object that will be queued before publishing.
  */
@@ -47,6 +61,11 @@ public abstract class BatchPublisher<T> implements Publisher<T> {
     private final long shutdownTimeoutSec;
     private volatile boolean stopRequested;
     private final int maxBatchedEvents;
+    private final String name;
+    private final SpillQueue spillQueue;
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private volatile Thread replayThread;
+    private volatile boolean replayFailed;
 
     /**
      * This constructs the thread pool of worker threads.  The pool is not executed until {@link #startup()}.
@@ -64,6 +83,16 @@ public abstract class BatchPublisher<T> implements Publisher<T> {
         this.insertTimeoutSec = configuration.getInsertTimeoutSec();
         this.shutdownTimeoutSec = configuration.getShutdownTimeoutSec();
         this.stopRequested = false;
+        this.name = name;
+        final String spillDirectory = configuration.getSpillDirectory();
+        final boolean spilling = spillDirectory != null && !spillDirectory.isEmpty();
+        Reject.ifTrue(spilling && !supportsSpilling(), getClass().getName() + " does not support spilling messages");
+        this.spillQueue = !spilling
+                ? null
+                : SpillQueue.newBuilder(new File(spillDirectory))
+                        .maxDiskUsage(configuration.getMaxSpillSize())
+                        .maxReplayRate(configuration.getMaxReplayRate())
+                        .build();
         this.executorService = Executors.newFixedThreadPool(configuration.getThreadCount(), new ThreadFactory() {
             @Override
             public Thread newThread(Runnable runnable) {
@@ -96,20 +125,89 @@ public abstract class BatchPublisher<T> implements Publisher<T> {
     protected abstract void publishMessages(List<T> messages);
 
     /**
-     * This first initializes the worker threads that monitor the queue of items to publish, and then calls
-     * {@link #startupPublisher()}.
+     * Returns whether this publisher overrides {@link #toJson(Object)} and {@link #fromJson(JsonValue)}, and so
+     * can be configured with a spill directory. This is invoked by the constructor, so implementations must not
+     * depend on the state of the subclass.
+     *
+     * @return true if messages can be spilled to disk, false by default.
+     */
+    protected boolean supportsSpilling() {
+        return false;
+    }
+
+    /**
+     * Converts a message to JSON, so that it can be spilled to disk. This must be overridden when
+     * {@link #supportsSpilling()} returns true.
+     *
+     * @param message the message to convert.
+     * @return the JSON representation of the message.
+     */
+    protected JsonValue toJson(T message) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support spilling messages");
+    }
+
+    /**
+     * Converts a spilled message back from JSON. This must be overridden when {@link #supportsSpilling()} returns
+     * true.
+     *
+     * @param json the JSON representation of the message.
+     * @return the message.
+     */
+    protected T fromJson(JsonValue json) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support spilling messages");
+    }
+
+    /**
+     * This should be invoked by {@link #publishMessages(List)} with messages that could not be published, so that
+     * they are replayed later when a spill directory is configured.
+     *
+     * @param messages the messages that could not be published.
+     * @return true if the messages are kept for replay, false if they are lost.
+     */
+    protected final boolean spill(List<T> messages) {
+        if (spillQueue == null) {
+            return false;
+        }
+        if (Thread.currentThread() == replayThread) {
+            // the messages are still on disk, and will be read again
+            replayFailed = true;
+            return true;
+        }
+        int dropped = 0;
+        for (T message : messages) {
+            if (!spillQueue.append(name, toJson(message))) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            logger.error("Spill queue is full or closed, dropped {} messages", dropped);
+        }
+        return dropped == 0;
+    }
+
+    /**
+     * This first opens the spill queue, if any, and initializes the worker threads that monitor the queue of items
+     * to publish, and then calls {@link #startupPublisher()}.
      *
      * @throws ResourceException If there is trouble starting up the publisher or starting the worker threads.
      */
     @Override
     public final void startup() throws ResourceException {
+        if (spillQueue != null) {
+            try {
+                spillQueue.open();
+            } catch (IOException e) {
+                throw new InternalServerErrorException("Unable to open spill queue", e);
+            }
+        }
         stopRequested = false;
         this.executorService.execute(new PublishTask());
         startupPublisher();
     }
 
     /**
-     * This shutdowns the worker threads, and then calls {@link #shutdownPublisher()}.
+     * This shutdowns the worker threads and closes the spill queue, if any, and then calls
+     * {@link #shutdownPublisher()}.
      *
      * @throws ResourceException if there is trouble shutting down the publisher or stopping the worker threads.
      */
@@ -125,6 +223,9 @@ public abstract class BatchPublisher<T> implements Publisher<T> {
                 interrupted = true;
             }
         }
+        if (spillQueue != null) {
+            spillQueue.close();
+        }
         shutdownPublisher();
         if (interrupted) {
             Thread.currentThread().interrupt();
@@ -132,12 +233,21 @@ public abstract class BatchPublisher<T> implements Publisher<T> {
     }
 
     /**
-     * Offers the message to the queue.  If the offer isn't accepted for 1 minute, the message is lost.
+     * Offers the message to the queue.  If the offer isn't accepted for 1 minute, the message is lost, unless a
+     * spill directory is configured, in which case the message is spilled if it cannot be queued immediately.
      *
      * @param message the message to queue.
      */
     @Override
     public final void publish(T message) {
+        if (spillQueue != null) {
+            if (spillQueue.isEmpty() && queue.offer(message)) {
+                return;
+            }
+            if (spillQueue.append(name, toJson(message))) {
+                return;
+            }
+        }
         boolean interrupted = false;
         while (!stopRequested) {
             // Put request on queue for worker thread
@@ -184,6 +294,9 @@ public abstract class BatchPublisher<T> implements Publisher<T> {
                 try {
                     queue.drainTo(drainList, maxBatchedEvents);
                     if (drainList.isEmpty()) {
+                        if (!stopRequested && replay()) {
+                            continue;
+                        }
                         T message = queue.poll(POLLING_TIMEOUT, POLLING_TIMEOUT_UNIT);
                         if (message != null) {
                             publishMessages(Collections.singletonList(message));
@@ -202,5 +315,45 @@ public abstract class BatchPublisher<T> implements Publisher<T> {
                 Thread.currentThread().interrupt();
             }
         }
+
+        /**
+         * Publishes the next batch of spilled messages, unless another worker thread is already replaying. The
+         * messages are committed once published, or read again by a later replay if they are spilled again.
+         *
+         * @return true if spilled messages were published.
+         */
+        private boolean replay() {
+            if (spillQueue == null || spillQueue.isEmpty() || !replaying.compareAndSet(false, true)) {
+                return false;
+            }
+            try {
+                final List<SpillQueue.Entry> entries = new ArrayList<>(maxBatchedEvents);
+                if (spillQueue.read(maxBatchedEvents, entries) == 0) {
+                    return false;
+                }
+                final List<T> messages = new ArrayList<>(entries.size());
+                for (SpillQueue.Entry entry : entries) {
+                    messages.add(fromJson(entry.getEvent()));
+                }
+                replayFailed = false;
+                replayThread = Thread.currentThread();
+                try {
+                    publishMessages(messages);
+                } catch (RuntimeException e) {
+                    logger.error("Replay of spilled messages failed", e);
+                    replayFailed = true;
+                } finally {
+                    replayThread = null;
+                }
+                if (replayFailed) {
+                    spillQueue.rewind();
+                    return false;
+                }
+                spillQueue.commit();
+                return true;
+            } finally {
+                replaying.set(false);
+            }
+        }
     }
 }
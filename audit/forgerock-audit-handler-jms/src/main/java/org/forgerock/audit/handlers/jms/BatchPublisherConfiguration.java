@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.jms;
 
@@ -23,6 +24,11 @@ import com.fasterxml.jackson.annotation.JsonPropertyDescription;
  */
 public class BatchPublisherConfiguration {
 
+    /**
+     * Default maximum disk space ({@code 1 GiB}) used by spilled events.
+     */
+    private static final long DEFAULT_MAX_SPILL_SIZE = 1024L * 1024 * 1024;
+
     @JsonPropertyDescription("audit.handlers.jms.publisher.batch.batchEnabled")
     private boolean batchEnabled = false;
 
@@ -44,6 +50,15 @@ public class BatchPublisherConfiguration {
     @JsonPropertyDescription("audit.handlers.jms.publisher.batch.shutdownTimeoutSec")
     private long shutdownTimeoutSec = 60L;
 
+    @JsonPropertyDescription("audit.handlers.jms.publisher.batch.spillDirectory")
+    private String spillDirectory;
+
+    @JsonPropertyDescription("audit.handlers.jms.publisher.batch.maxSpillSize")
+    private long maxSpillSize;
+
+    @JsonPropertyDescription("audit.handlers.jms.publisher.batch.maxReplayRate")
+    private int maxReplayRate;
+
     /**
      * Returns the maximum capacity of the publishing queue.  Execution will block if the queue size is at capacity.
      *
@@ -173,4 +188,60 @@ public class BatchPublisherConfiguration {
     public void setBatchEnabled(boolean batchEnabled) {
         this.batchEnabled = batchEnabled;
     }
+
+    /**
+     * Gets the directory to which events are spilled when they do not fit in the buffer, or cannot be delivered to
+     * the JMS broker, so that they are replayed once the broker recovers. When not set, such events are dropped.
+     *
+     * @return Spill directory, or {@code null}
+     */
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * Sets the directory to which events are spilled when they do not fit in the buffer, or cannot be delivered.
+     *
+     * @param spillDirectory Spill directory, which must not be shared with other handlers
+     */
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Gets the maximum disk space, in bytes, used by spilled events (default {@code 1 GiB}).
+     *
+     * @return Maximum spill size in bytes
+     */
+    public long getMaxSpillSize() {
+        return maxSpillSize > 0 ? maxSpillSize : DEFAULT_MAX_SPILL_SIZE;
+    }
+
+    /**
+     * Sets the maximum disk space, in bytes, used by spilled events.
+     *
+     * @param maxSpillSize Maximum spill size in bytes
+     */
+    public void setMaxSpillSize(long maxSpillSize) {
+        this.maxSpillSize = maxSpillSize;
+    }
+
+    /**
+     * Gets the maximum number of spilled events per second replayed to the JMS broker, where {@code 0}
+     * means unlimited.
+     *
+     * @return Maximum replay rate
+     */
+    public int getMaxReplayRate() {
+        return maxReplayRate;
+    }
+
+    /**
+     * Sets the maximum number of spilled events per second replayed to the JMS broker.
+     *
+     * @param maxReplayRate Maximum replay rate, where {@code 0} means unlimited
+     */
+    public void setMaxReplayRate(int maxReplayRate) {
+        this.maxReplayRate = maxReplayRate;
+    }
 }
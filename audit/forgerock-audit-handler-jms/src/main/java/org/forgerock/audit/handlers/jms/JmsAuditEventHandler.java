@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.jms;
@@ -252,9 +253,24 @@ public class JmsAuditEventHandler extends AuditEventHandlerBase {
             try {
                 publishJmsMessagesWithRetry(messages);
             } catch (InternalServerErrorException e) {
-                // do nothing
+                spill(messages);
             }
         }
+
+        @Override
+        protected boolean supportsSpilling() {
+            return true;
+        }
+
+        @Override
+        protected JsonValue toJson(JsonValue message) {
+            return message;
+        }
+
+        @Override
+        protected JsonValue fromJson(JsonValue json) {
+            return json;
+        }
     }
 
     /**
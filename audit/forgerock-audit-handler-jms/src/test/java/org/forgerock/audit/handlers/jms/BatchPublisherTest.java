@@ -0,0 +1,187 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.json.JsonValue.field;
+import static org.forgerock.json.JsonValue.json;
+import static org.forgerock.json.JsonValue.object;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.forgerock.json.JsonValue;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class BatchPublisherTest {
+
+    private File directory;
+
+    @BeforeMethod
+    public void createDirectory() throws Exception {
+        directory = Files.createTempDirectory("jms-spill").toFile();
+    }
+
+    @AfterMethod
+    public void deleteDirectory() {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testFailedMessagesAreSpilledAndReplayedInOrder() throws Exception {
+        // given
+        final BatchPublisherConfiguration configuration = new BatchPublisherConfiguration();
+        configuration.setCapacity(100);
+        configuration.setMaxBatchedEvents(10);
+        configuration.setSpillDirectory(directory.getAbsolutePath());
+        final RecordingBatchPublisher publisher = new RecordingBatchPublisher(configuration);
+        publisher.failing = true;
+        publisher.startup();
+
+        // when
+        for (int i = 0; i < 20; i++) {
+            publisher.publish(message(i));
+        }
+        Thread.sleep(500);
+        publisher.failing = false;
+        final long deadline = System.currentTimeMillis() + 10000L;
+        while (publisher.published.size() < 20 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        publisher.shutdown();
+
+        // then
+        assertThat(publisher.published).hasSize(20);
+        for (int i = 0; i < 20; i++) {
+            assertThat(publisher.published.get(i).get("index").asInteger()).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void testSpilledMessagesAreReplayedAfterRestart() throws Exception {
+        // given
+        final BatchPublisherConfiguration configuration = new BatchPublisherConfiguration();
+        configuration.setCapacity(100);
+        configuration.setMaxBatchedEvents(10);
+        configuration.setSpillDirectory(directory.getAbsolutePath());
+        final RecordingBatchPublisher failing = new RecordingBatchPublisher(configuration);
+        failing.failing = true;
+        failing.startup();
+        for (int i = 0; i < 5; i++) {
+            failing.publish(message(i));
+        }
+        failing.shutdown();
+
+        // when
+        final RecordingBatchPublisher publisher = new RecordingBatchPublisher(configuration);
+        publisher.startup();
+        final long deadline = System.currentTimeMillis() + 10000L;
+        while (publisher.published.size() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        publisher.shutdown();
+
+        // then
+        assertThat(failing.published).isEmpty();
+        assertThat(publisher.published).hasSize(5);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSpillDirectoryIsRejectedWithoutJsonConversion() {
+        // given
+        final BatchPublisherConfiguration configuration = new BatchPublisherConfiguration();
+        configuration.setCapacity(100);
+        configuration.setMaxBatchedEvents(10);
+        configuration.setSpillDirectory(directory.getAbsolutePath());
+
+        // when
+        new BatchPublisher<JsonValue>("NonSpillingBatchPublisher", configuration) {
+            @Override
+            protected void startupPublisher() {
+                // nothing to start
+            }
+
+            @Override
+            protected void shutdownPublisher() {
+                // nothing to stop
+            }
+
+            @Override
+            protected void publishMessages(final List<JsonValue> messages) {
+                // nothing to publish
+            }
+        };
+    }
+
+    private static JsonValue message(final int index) {
+        return json(object(field("auditTopic", "access"), field("event", object()), field("index", index)));
+    }
+
+    private static final class RecordingBatchPublisher extends BatchPublisher<JsonValue> {
+
+        private final List<JsonValue> published = new CopyOnWriteArrayList<>();
+        private volatile boolean failing;
+
+        RecordingBatchPublisher(final BatchPublisherConfiguration configuration) {
+            super("RecordingBatchPublisher", configuration);
+        }
+
+        @Override
+        protected void startupPublisher() {
+            // nothing to start
+        }
+
+        @Override
+        protected void shutdownPublisher() {
+            // nothing to stop
+        }
+
+        @Override
+        protected void publishMessages(final List<JsonValue> messages) {
+            if (failing) {
+                spill(messages);
+            } else {
+                published.addAll(messages);
+            }
+        }
+
+        @Override
+        protected boolean supportsSpilling() {
+            return true;
+        }
+
+        @Override
+        protected JsonValue toJson(final JsonValue message) {
+            return message;
+        }
+
+        @Override
+        protected JsonValue fromJson(final JsonValue json) {
+            return json;
+        }
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.json;
@@ -23,11 +24,12 @@ import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
 import static org.forgerock.json.resource.Responses.*;
 
 import java.io.BufferedReader;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -36,6 +38,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.forgerock.audit.events.EventTopicsMetaData;
 import org.forgerock.audit.events.handlers.AuditEventHandler;
 import org.forgerock.audit.events.handlers.AuditEventHandlerBase;
+import org.forgerock.audit.retention.CompressedArchives;
 import org.forgerock.audit.util.ElasticsearchUtil;
 import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
@@ -48,6 +51,7 @@ import org.forgerock.json.resource.QueryResponse;
 import org.forgerock.json.resource.ResourceException;
 import org.forgerock.json.resource.ResourceResponse;
 import org.forgerock.services.context.Context;
+import org.forgerock.util.Function;
 import org.forgerock.util.promise.Promise;
 import org.forgerock.util.query.QueryFilter;
 
@@ -114,57 +118,84 @@ public class JsonAuditEventHandler extends AuditEventHandlerBase {
     @Override
     public Promise<ResourceResponse, ResourceException> publishEvent(final Context context, final String topic,
             final JsonValue event) {
+        final Promise<Void, IOException> committed;
         try {
-            jsonFileWriter.put(topic, event);
+            committed = jsonFileWriter.put(topic, event);
         } catch (Exception e) {
             return newResourceException(INTERNAL_ERROR, "Failed to add event to queue", e).asPromise();
         }
-        return newResourceResponse(event.get(FIELD_CONTENT_ID).asString(), null, event).asPromise();
+        final ResourceResponse response = newResourceResponse(event.get(FIELD_CONTENT_ID).asString(), null, event);
+        return committed.then(new Function<Void, ResourceResponse, ResourceException>() {
+            @Override
+            public ResourceResponse apply(final Void value) {
+                return response;
+            }
+        }, new Function<IOException, ResourceResponse, ResourceException>() {
+            @Override
+            public ResourceResponse apply(final IOException e) throws ResourceException {
+                throw newResourceException(INTERNAL_ERROR, "Failed to write event to disk", e);
+            }
+        });
     }
 
     @Override
     public Promise<ResourceResponse, ResourceException> readEvent(final Context context, final String topic,
             final String resourceId) {
-        final Path jsonFilePath = jsonFileWriter.getTopicFilePath(topic);
-        if (jsonFilePath == null) {
+        final List<List<Path>> jsonFileHistories = jsonFileWriter.getTopicFileHistories(topic);
+        if (jsonFileHistories.isEmpty()) {
             return newResourceException(NOT_FOUND, "Topic not found: " + topic).asPromise();
         }
         final String fieldPatternPrefix = elasticsearchCompatible
                 ? EVENT_ID_FIELD_PATTERN_PREFIX : ID_FIELD_PATTERN_PREFIX;
         final Matcher idMatcher = Pattern.compile(fieldPatternPrefix + resourceId + FIELD_PATTERN_SUFFIX).matcher("");
-        String line;
-        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
-                Files.newInputStream(jsonFilePath), StandardCharsets.UTF_8))) {
-            line = reader.readLine();
-            while (line != null) {
-                if (idMatcher.reset(line).find()) {
-                    final JsonValue event = denormalizeJsonEvent(new JsonValue(
-                            OBJECT_MAPPER.readValue(line, Map.class)));
-                    return newResourceResponse(resourceId, null, event).asPromise();
+        int historyLength = 0;
+        for (final List<Path> jsonFileHistory : jsonFileHistories) {
+            historyLength = Math.max(historyLength, jsonFileHistory.size());
+        }
+        // recent events are more likely to be read, so search the current files first, then the newest archives
+        for (int i = 0; i < historyLength; i++) {
+            for (final List<Path> jsonFileHistory : jsonFileHistories) {
+                if (i >= jsonFileHistory.size()) {
+                    continue;
+                }
+                final Path jsonFilePath = jsonFileHistory.get(jsonFileHistory.size() - 1 - i);
+                String line;
+                try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        CompressedArchives.newInputStream(jsonFilePath.toFile()), StandardCharsets.UTF_8))) {
+                    line = reader.readLine();
+                    while (line != null) {
+                        if (idMatcher.reset(line).find()) {
+                            final JsonValue event = denormalizeJsonEvent(new JsonValue(
+                                    OBJECT_MAPPER.readValue(line, Map.class)));
+                            return newResourceResponse(resourceId, null, event).asPromise();
+                        }
+                        line = reader.readLine();
+                    }
+                } catch (FileNotFoundException e) {
+                    // removed by a retention policy since it was listed
+                } catch (Exception e) {
+                    return newResourceException(INTERNAL_ERROR, "Failed to read json file: " + jsonFilePath, e)
+                            .asPromise();
                 }
-                line = reader.readLine();
             }
-            return newResourceException(NOT_FOUND, "Resource not found with ID: " + resourceId).asPromise();
-        } catch (Exception e) {
-            return newResourceException(INTERNAL_ERROR, "Failed to read json file: " + jsonFilePath, e).asPromise();
         }
+        return newResourceException(NOT_FOUND, "Resource not found with ID: " + resourceId).asPromise();
     }
 
     @Override
     public Promise<QueryResponse, ResourceException> queryEvents(final Context context, final String topic,
             final QueryRequest query, final QueryResourceHandler handler) {
-        final Path jsonFilePath = jsonFileWriter.getTopicFilePath(topic);
-        if (jsonFilePath == null) {
+        final List<List<Path>> jsonFileHistories = jsonFileWriter.getTopicFileHistories(topic);
+        if (jsonFileHistories.isEmpty()) {
             return newResourceException(NOT_FOUND, "Topic not found: " + topic).asPromise();
         }
         final QueryFilter<JsonPointer> queryFilter = query.getQueryFilter();
         int results = 0;
-        String line;
-        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
-                Files.newInputStream(jsonFilePath), StandardCharsets.UTF_8))) {
-            line = reader.readLine();
-            while (line != null) {
-                final JsonValue event = denormalizeJsonEvent(new JsonValue(OBJECT_MAPPER.readValue(line, Map.class)));
+        // the rotated and current files of each shard are read in turn, and the shards are merged in timestamp order
+        try (final MergingJsonFileReader reader = new MergingJsonFileReader(jsonFileHistories)) {
+            JsonValue event = reader.next();
+            while (event != null) {
+                event = denormalizeJsonEvent(event);
                 if (queryFilter.accept(JSONVALUE_FILTER_VISITOR, event)) {
                     ++results;
                     final ResourceResponse resourceResponse =
@@ -173,10 +204,11 @@ public class JsonAuditEventHandler extends AuditEventHandlerBase {
                         break;
                     }
                 }
-                line = reader.readLine();
+                event = reader.next();
             }
         } catch (Exception e) {
-            return newResourceException(INTERNAL_ERROR, "Failed to read json file: " + jsonFilePath, e).asPromise();
+            return newResourceException(INTERNAL_ERROR, "Failed to read json files: " + jsonFileHistories, e)
+                    .asPromise();
         }
         return newQueryResponse(null, CountPolicy.EXACT, results).asPromise();
     }
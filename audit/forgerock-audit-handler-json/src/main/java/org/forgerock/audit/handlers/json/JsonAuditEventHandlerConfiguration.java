@@ -12,10 +12,14 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.json;
 
+import java.util.Collections;
+import java.util.Map;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration;
@@ -106,6 +110,12 @@ public class JsonAuditEventHandlerConfiguration extends FileBasedEventHandlerCon
         @JsonPropertyDescription("audit.handlers.json.buffering.writeInterval")
         private String writeInterval;
 
+        @JsonPropertyDescription("audit.handlers.json.buffering.writerPerTopic")
+        private boolean writerPerTopic;
+
+        @JsonPropertyDescription("audit.handlers.json.buffering.topicShards")
+        private Map<String, Integer> topicShards;
+
         /**
          * Gets the buffer capacity, which are the maximum number of events that can be buffered.
          *
@@ -143,5 +153,44 @@ public class JsonAuditEventHandlerConfiguration extends FileBasedEventHandlerCon
         public void setWriteInterval(String writeInterval) {
             this.writeInterval = writeInterval;
         }
+
+        /**
+         * Determines if each topic is written by its own writer thread, with its own buffer of
+         * {@link #getMaxSize() maxSize} events, instead of a single writer thread writing all topics.
+         *
+         * @return {@code true} for a writer thread per topic and {@code false} otherwise
+         */
+        public boolean isWriterPerTopic() {
+            return writerPerTopic;
+        }
+
+        /**
+         * Specifies if each topic is written by its own writer thread, with its own buffer.
+         *
+         * @param writerPerTopic {@code true} for a writer thread per topic and {@code false} otherwise
+         */
+        public void setWriterPerTopic(boolean writerPerTopic) {
+            this.writerPerTopic = writerPerTopic;
+        }
+
+        /**
+         * Gets the number of writer threads, each writing its own {@code <topic>.<n>.audit.json} file, of the topics
+         * which are split into shards. Topics that are not listed are written to a single file, and listing any
+         * topic implies a {@link #isWriterPerTopic() writer per topic}.
+         *
+         * @return Number of shards per topic, which is never {@code null}
+         */
+        public Map<String, Integer> getTopicShards() {
+            return topicShards == null ? Collections.<String, Integer>emptyMap() : topicShards;
+        }
+
+        /**
+         * Sets the number of writer threads, each writing its own file, of the topics which are split into shards.
+         *
+         * @param topicShards Number of shards per topic (e.g., {@code {"access": 4}})
+         */
+        public void setTopicShards(Map<String, Integer> topicShards) {
+            this.topicShards = topicShards;
+        }
     }
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.json;
@@ -39,7 +40,6 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -49,6 +49,8 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration.DurabilityMode;
+import org.forgerock.audit.retention.ArchiveJanitor;
 import org.forgerock.audit.retention.FileNamingPolicy;
 import org.forgerock.audit.retention.RetentionPolicy;
 import org.forgerock.audit.rotation.RotatableObject;
@@ -56,6 +58,9 @@ import org.forgerock.audit.rotation.RotationHooks;
 import org.forgerock.audit.rotation.RotationPolicy;
 import org.forgerock.json.JsonValue;
 import org.forgerock.util.Utils;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.forgerock.util.promise.Promises;
 import org.forgerock.util.time.Duration;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
@@ -64,6 +69,12 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Periodically writes JSON events to a file.
+ * <p>
+ * By default, a single writer thread drains one queue and writes all topic files. When a writer per topic is
+ * configured, each topic gets its own writer lane, with its own queue, thread and file channel, and topics listed
+ * with a shard count are further split into that many lanes, each writing its own {@code <topic>.<n>.audit.json}
+ * file. An event is assigned to a shard by the publishing thread, so the events of each shard file are in the order
+ * they were published, and {@link MergingJsonFileReader} merges the shard files by timestamp.
  */
 class JsonFileWriter {
 
@@ -71,13 +82,25 @@ class JsonFileWriter {
 
     private static final int MIN_QUEUE_SIZE = 100_000;
 
+    private static final Duration RETENTION_CHECK_INTERVAL = Duration.duration("5s");
+
     static final String LOG_FILE_NAME_SUFFIX = "audit.json";
 
+    /** Returned by {@link #put(String, JsonValue)} when events do not have to wait for their group to be synced. */
+    private static final Promise<Void, IOException> NO_COMMIT = Promises.newResultPromise(null);
+
     private final boolean elasticsearchCompatible;
-    private final BlockingQueue<QueueEntry> queue;
-    private final ScheduledExecutorService scheduler;
-    private final QueueConsumer queueConsumer;
+    private final boolean groupCommit;
+    private final boolean rotationEnabled;
+    /** All writer lanes, the first one also receiving events of unrecognised topics. */
+    private final List<QueueConsumer> queueConsumers;
+    /** Writer lanes of each topic, one per shard. */
+    private final Map<String, QueueConsumer[]> topicQueueConsumers;
     private final Duration writeInterval;
+    /** Compresses and applies the retention policies to archived topic files, away from the writing thread. */
+    private final ScheduledExecutorService janitor;
+    private final List<ArchiveJanitor> archiveJanitors;
+    private final Duration retentionCheckInterval;
 
     /**
      * Creates a {@link JsonFileWriter}. For arguments with minimum values, the minimum will be used
@@ -91,13 +114,66 @@ class JsonFileWriter {
     JsonFileWriter(final Set<String> topics, final JsonAuditEventHandlerConfiguration configuration,
             final boolean autoFlush) {
         elasticsearchCompatible = configuration.isElasticsearchCompatible();
-        queue = new ArrayBlockingQueue<>(max(configuration.getBuffering().getMaxSize(), MIN_QUEUE_SIZE));
-        scheduler = Executors.newScheduledThreadPool(1, Utils.newThreadFactory(null, "audit-json-%d", false));
+        groupCommit = configuration.getFileDurability().getMode() == DurabilityMode.GROUP_COMMIT;
+        rotationEnabled = configuration.getFileRotation().isRotationEnabled();
         writeInterval = parseWriteInterval(configuration);
         // checking for events to write on disk happens at most once a second, since {@code run()}
         // is called periodically compute how many iterations are needed beofre writing on file
-        queueConsumer = new QueueConsumer(LOG_FILE_NAME_SUFFIX, topics, configuration, autoFlush, queue, scheduler,
-                (int) Math.max(1, 1_000_000 / writeInterval.to(TimeUnit.MICROSECONDS)));
+        final int iterationsBeforeFlush = (int) Math.max(1, 1_000_000 / writeInterval.to(TimeUnit.MICROSECONDS));
+        final int capacity = max(configuration.getBuffering().getMaxSize(), MIN_QUEUE_SIZE);
+
+        queueConsumers = new ArrayList<>();
+        final Map<String, QueueConsumer[]> topicQueueConsumers = new HashMap<>();
+        final Map<String, Integer> topicShards = configuration.getBuffering().getTopicShards();
+        if (!configuration.getBuffering().isWriterPerTopic() && topicShards.isEmpty()) {
+            // single writer lane for all topics
+            final Map<String, String> topicFileNames = new HashMap<>();
+            for (final String topic : topics) {
+                topicFileNames.put(topic, topic + '.' + LOG_FILE_NAME_SUFFIX);
+            }
+            final QueueConsumer queueConsumer = new QueueConsumer(topicFileNames, configuration, autoFlush,
+                    new ArrayBlockingQueue<QueueEntry>(capacity), newScheduler("audit-json-%d"), iterationsBeforeFlush);
+            queueConsumers.add(queueConsumer);
+            for (final String topic : topics) {
+                topicQueueConsumers.put(topic, new QueueConsumer[] { queueConsumer });
+            }
+        } else {
+            for (final String topic : topics) {
+                final Integer shards = topicShards.get(topic);
+                final QueueConsumer[] lanes = new QueueConsumer[shards == null ? 1 : max(shards, 1)];
+                for (int i = 0; i < lanes.length; i++) {
+                    final String lane = lanes.length == 1 ? topic : topic + '.' + i;
+                    lanes[i] = new QueueConsumer(
+                            Collections.singletonMap(topic, lane + '.' + LOG_FILE_NAME_SUFFIX), configuration,
+                            autoFlush, new ArrayBlockingQueue<QueueEntry>(capacity),
+                            newScheduler("audit-json-" + lane + "-%d"), iterationsBeforeFlush);
+                    queueConsumers.add(lanes[i]);
+                }
+                topicQueueConsumers.put(topic, lanes);
+            }
+        }
+        this.topicQueueConsumers = Collections.unmodifiableMap(topicQueueConsumers);
+
+        final List<RetentionPolicy> retentionPolicies = configuration.getFileRetention().buildRetentionPolicies();
+        final boolean compressArchives = configuration.getFileRetention().isCompressArchives();
+        archiveJanitors = new ArrayList<>();
+        if (!retentionPolicies.isEmpty() || compressArchives) {
+            for (final QueueConsumer queueConsumer : queueConsumers) {
+                for (final QueueConsumer.TopicEntry topicEntry : queueConsumer.topicEntryMap.values()) {
+                    archiveJanitors.add(
+                            new ArchiveJanitor(topicEntry.fileNamingPolicy, retentionPolicies, compressArchives));
+                }
+            }
+        }
+        janitor = archiveJanitors.isEmpty()
+                ? null
+                : Executors.newSingleThreadScheduledExecutor(
+                        Utils.newThreadFactory(null, "audit-json-janitor-%d", true));
+        retentionCheckInterval = parseRetentionCheckInterval(configuration);
+    }
+
+    private static ScheduledExecutorService newScheduler(final String threadNameFormat) {
+        return Executors.newScheduledThreadPool(1, Utils.newThreadFactory(null, threadNameFormat, false));
     }
 
     private Duration parseWriteInterval(final JsonAuditEventHandlerConfiguration configuration) {
@@ -115,11 +191,36 @@ class JsonFileWriter {
         return writeInterval;
     }
 
+    private Duration parseRetentionCheckInterval(final JsonAuditEventHandlerConfiguration configuration) {
+        final String intervalString = configuration.getRotationRetentionCheckInterval();
+        Duration interval;
+        try {
+            interval = Duration.duration(intervalString);
+        } catch (Exception e) {
+            interval = null;
+        }
+        if (interval == null || interval.isZero() || interval.isUnlimited()) {
+            logger.info("rotationRetentionCheckInterval '{}' is invalid, so falling back to {}", intervalString,
+                    RETENTION_CHECK_INTERVAL);
+            return RETENTION_CHECK_INTERVAL;
+        }
+        return interval;
+    }
+
     /**
      * Starts periodically writing JSON events to a file.
      */
     void startup() {
-        scheduler.scheduleAtFixedRate(queueConsumer, 0, writeInterval.to(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+        final long writeIntervalMillis = writeInterval.to(TimeUnit.MILLISECONDS);
+        for (final QueueConsumer queueConsumer : queueConsumers) {
+            queueConsumer.scheduler.scheduleAtFixedRate(queueConsumer, 0, writeIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        if (janitor != null) {
+            final long intervalMillis = retentionCheckInterval.to(TimeUnit.MILLISECONDS);
+            for (final ArchiveJanitor archiveJanitor : archiveJanitors) {
+                janitor.scheduleAtFixedRate(archiveJanitor, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
     }
 
     /**
@@ -127,34 +228,72 @@ class JsonFileWriter {
      * is enabled.
      */
     void shutdown() {
-        if (!scheduler.isShutdown()) {
-            queueConsumer.shutdown();
+        if (janitor != null) {
+            janitor.shutdown();
+        }
+        // let all writer lanes flush concurrently
+        for (final QueueConsumer queueConsumer : queueConsumers) {
+            queueConsumer.requestShutdown();
+        }
+        for (final QueueConsumer queueConsumer : queueConsumers) {
+            queueConsumer.awaitShutdown();
         }
     }
 
     /**
      * Inserts the specified element at the tail of this queue, and blocks if this queue is full.
+     * <p>
+     * When {@link DurabilityMode#GROUP_COMMIT} is configured, the returned promise completes once the batch holding
+     * the event has been forced to disk, and otherwise it is already complete.
      *
      * @param topic Event topic
      * @param event Event payload to index, where {@code _id} field is the identifier
+     * @return Promise completed once the event is as durable as configured
      * @throws InterruptedException thread interrupted while blocking on a full queue
      * @throws IOException failed to serialize JSON
      */
-    void put(final String topic, final JsonValue event) throws InterruptedException, IOException {
+    Promise<Void, IOException> put(final String topic, final JsonValue event)
+            throws InterruptedException, IOException {
+        final byte[] bytes;
         if (elasticsearchCompatible) {
             // rename _id field to be _eventId, because _id is reserved by ElasticSearch
             renameField(event, FIELD_CONTENT_ID, EVENT_ID_FIELD);
             try {
                 // apply ElasticSearch JSON normalization, if necessary
-                final byte[] bytes = normalizeJson(event).getBytes(UTF_8);
-                queue.put(new QueueEntry(topic, bytes));
+                bytes = normalizeJson(event).getBytes(UTF_8);
             } finally {
                 // restore _id field, because original event is same instance as normalizedEvent
                 renameField(event, EVENT_ID_FIELD, FIELD_CONTENT_ID);
             }
         } else {
-            queue.put(new QueueEntry(topic, OBJECT_MAPPER.writeValueAsBytes(event.getObject())));
+            bytes = OBJECT_MAPPER.writeValueAsBytes(event.getObject());
+        }
+        final BlockingQueue<QueueEntry> queue = laneFor(topic).queue;
+        if (groupCommit) {
+            final PromiseImpl<Void, IOException> committed = PromiseImpl.create();
+            queue.put(new QueueEntry(topic, bytes, committed));
+            return committed;
         }
+        queue.put(new QueueEntry(topic, bytes, null));
+        return NO_COMMIT;
+    }
+
+    /**
+     * Gets the writer lane of an event published by the current thread, so that the events of each shard file are
+     * in the order they were published.
+     *
+     * @param topic Event topic
+     * @return Writer lane
+     */
+    private QueueConsumer laneFor(final String topic) {
+        final QueueConsumer[] lanes = lanesFor(topic);
+        return lanes.length == 1 ? lanes[0] : lanes[(int) (Thread.currentThread().getId() % lanes.length)];
+    }
+
+    private QueueConsumer[] lanesFor(final String topic) {
+        final QueueConsumer[] lanes = topicQueueConsumers.get(topic);
+        // the first writer lane reports unrecognised topics
+        return lanes != null ? lanes : new QueueConsumer[] { queueConsumers.get(0) };
     }
 
     /**
@@ -168,8 +307,10 @@ class JsonFileWriter {
      * @throws InterruptedException thread interrupted while blocking on a full queue
      */
     boolean rotateFile(final String topic) throws InterruptedException {
-        if (queueConsumer.isRotationEnabled()) {
-            queue.put(new QueueEntry(topic, QueueEntry.ROTATE_FILE_ENTRY));
+        if (rotationEnabled) {
+            for (final QueueConsumer queueConsumer : lanesFor(topic)) {
+                queueConsumer.queue.put(new QueueEntry(topic, QueueEntry.ROTATE_FILE_ENTRY, null));
+            }
             return true;
         }
         return false;
@@ -184,18 +325,63 @@ class JsonFileWriter {
      * @throws InterruptedException thread interrupted while blocking on a full queue
      */
     void flushFileBuffer(final String topic) throws InterruptedException {
-        queue.put(new QueueEntry(topic, QueueEntry.FLUSH_FILE_ENTRY));
+        for (final QueueConsumer queueConsumer : lanesFor(topic)) {
+            queueConsumer.queue.put(new QueueEntry(topic, QueueEntry.FLUSH_FILE_ENTRY, null));
+        }
     }
 
     /**
-     * Gets the current log-file for the given topic.
+     * Gets the current log-file for the given topic, which is the file of its first shard when it is sharded.
      *
      * @param topic Topic name (case-sensitive)
      * @return {@link Path} or {@code null} if topic is unrecognised
      */
     Path getTopicFilePath(final String topic) {
-        final QueueConsumer.TopicEntry topicEntry = queueConsumer.topicEntryMap.get(topic);
-        return topicEntry == null ? null : topicEntry.filePath;
+        final List<Path> paths = getTopicFilePaths(topic);
+        return paths.isEmpty() ? null : paths.get(0);
+    }
+
+    /**
+     * Gets the current log-files for the given topic, one per shard.
+     *
+     * @param topic Topic name (case-sensitive)
+     * @return {@link Path} list, which is empty if topic is unrecognised
+     */
+    List<Path> getTopicFilePaths(final String topic) {
+        final QueueConsumer[] lanes = topicQueueConsumers.get(topic);
+        if (lanes == null) {
+            return Collections.emptyList();
+        }
+        final List<Path> paths = new ArrayList<>(lanes.length);
+        for (final QueueConsumer queueConsumer : lanes) {
+            paths.add(queueConsumer.topicEntryMap.get(topic).filePath);
+        }
+        return paths;
+    }
+
+    /**
+     * Gets the log-files of the given topic, one list per shard, holding the rotated files of the shard from oldest
+     * to newest, whether compressed or not, followed by its current log-file.
+     *
+     * @param topic Topic name (case-sensitive)
+     * @return List of {@link Path} lists, which is empty if topic is unrecognised
+     */
+    List<List<Path>> getTopicFileHistories(final String topic) {
+        final QueueConsumer[] lanes = topicQueueConsumers.get(topic);
+        if (lanes == null) {
+            return Collections.emptyList();
+        }
+        final List<List<Path>> histories = new ArrayList<>(lanes.length);
+        for (final QueueConsumer queueConsumer : lanes) {
+            final QueueConsumer.TopicEntry topicEntry = queueConsumer.topicEntryMap.get(topic);
+            final List<Path> history = new ArrayList<>();
+            for (final File archivedFile : topicEntry.fileNamingPolicy.listFiles()) {
+                history.add(archivedFile.toPath());
+            }
+            history.add(topicEntry.filePath);
+            histories.add(history);
+        }
+        return histories;
     }
 
     /**
@@ -208,16 +394,19 @@ class JsonFileWriter {
 
         private final String topic;
         private final byte[] event;
+        private final PromiseImpl<Void, IOException> committed;
 
         /**
          * Creates a new audit-event batch entry.
          *
          * @param topic Event topic
          * @param event Event JSON payload
+         * @param committed Promise to complete once the event is on disk, or {@code null}
          */
-        QueueEntry(final String topic, final byte[] event) {
+        QueueEntry(final String topic, final byte[] event, final PromiseImpl<Void, IOException> committed) {
             this.topic = checkNotNull(topic);
             this.event = checkNotNull(event);
+            this.committed = committed;
         }
 
         boolean isRotateEntry() {
@@ -241,23 +430,24 @@ class JsonFileWriter {
 
         private final boolean flushOnShutdown;
         private final boolean rotationEnabled;
-        private final boolean hasRotationOrRetentionPolicies;
+        private final boolean hasRotationPolicies;
         private final List<RotationPolicy> rotationPolicies;
-        private final List<RetentionPolicy> retentionPolicies;
-        private final Set<File> filesToDelete;
         private final BlockingQueue<QueueEntry> queue;
         private final ScheduledExecutorService scheduler;
         private final Map<String, TopicEntry> topicEntryMap;
         private final List<QueueEntry> drainList;
+        private final List<PromiseImpl<Void, IOException>> pendingCommits;
         private final int iterationsBeforeFlush;
+        private final DurabilityMode durabilityMode;
+        private final long syncIntervalMillis;
+        private long lastSyncTimeMillis;
 
         private volatile boolean shutdown;
 
         /**
          * Creates a {@code QueueConsumer}.
          *
-         * @param fileNameSuffix Log file-name suffix
-         * @param topics Supported topics
+         * @param topicFileNames Log file-name of each supported topic
          * @param configuration Configuration
          * @param flushOnShutdown When {@code true}, the queue will be flushed on shutdown and when {@code false},
          * items in the queue will be dropped
@@ -265,7 +455,7 @@ class JsonFileWriter {
          * @param scheduler This runnable's scheduler
          * @param iterationsBeforeFlush number of times {@code run()} is called before topic events are written on file
          */
-        private QueueConsumer(final String fileNameSuffix, final Set<String> topics,
+        private QueueConsumer(final Map<String, String> topicFileNames,
                 final JsonAuditEventHandlerConfiguration configuration, final boolean flushOnShutdown,
                 final BlockingQueue<QueueEntry> queue, final ScheduledExecutorService scheduler,
                 final int iterationsBeforeFlush) {
@@ -274,44 +464,47 @@ class JsonFileWriter {
             this.flushOnShutdown = flushOnShutdown;
             this.iterationsBeforeFlush = iterationsBeforeFlush;
             drainList = new ArrayList<>(BATCH_SIZE);
+            pendingCommits = new ArrayList<>(BATCH_SIZE);
+            durabilityMode = configuration.getFileDurability().getMode();
+            syncIntervalMillis = configuration.getFileDurability().getSyncIntervalDuration().to(TimeUnit.MILLISECONDS);
+            lastSyncTimeMillis = System.currentTimeMillis();
             rotationEnabled = configuration.getFileRotation().isRotationEnabled();
             rotationPolicies = configuration.getFileRotation().buildRotationPolicies();
-            retentionPolicies = configuration.getFileRetention().buildRetentionPolicies();
-            hasRotationOrRetentionPolicies = (rotationEnabled && !rotationPolicies.isEmpty())
-                    || !retentionPolicies.isEmpty();
-            filesToDelete = new HashSet<>();
+            hasRotationPolicies = rotationEnabled && !rotationPolicies.isEmpty();
 
             // build map of topic files
             final Map<String, TopicEntry> topicEntryMap = new HashMap<>();
-            for (final String topic : topics) {
-                final String fileName = topic + '.' + fileNameSuffix;
-                topicEntryMap.put(topic, new TopicEntry(fileName, configuration));
+            for (final Map.Entry<String, String> topicFileName : topicFileNames.entrySet()) {
+                topicEntryMap.put(topicFileName.getKey(), new TopicEntry(topicFileName.getValue(), configuration));
             }
             this.topicEntryMap = Collections.unmodifiableMap(topicEntryMap);
         }
 
         /**
-         * Informs queue consumer that shutdown has been triggered, and when {@code flushOnShutdown} is enabled,
-         * blocks until all events have been flushed from the queue.
+         * Informs queue consumer that shutdown has been triggered.
          */
-        void shutdown() {
-            if (!shutdown) {
-                shutdown = true;
-
-                if (flushOnShutdown) {
-                    // flush requested, so block in an non-cancelable way
-                    boolean interrupted = false;
-                    while (!scheduler.isTerminated()) {
-                        try {
-                            scheduler.awaitTermination(1L, TimeUnit.MINUTES);
-                        } catch (InterruptedException e) {
-                            interrupted = true;
-                        }
-                    }
-                    if (interrupted) {
-                        Thread.currentThread().interrupt();
+        void requestShutdown() {
+            shutdown = true;
+        }
+
+        /**
+         * When {@code flushOnShutdown} is enabled, blocks until all events have been flushed from the queue after
+         * {@link #requestShutdown()}.
+         */
+        void awaitShutdown() {
+            if (flushOnShutdown) {
+                // flush requested, so block in an non-cancelable way
+                boolean interrupted = false;
+                while (!scheduler.isTerminated()) {
+                    try {
+                        scheduler.awaitTermination(1L, TimeUnit.MINUTES);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
                     }
                 }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
             }
         }
 
@@ -335,8 +528,25 @@ class JsonFileWriter {
                         for (final TopicEntry topicEntry : topicEntryMap.values()) {
                             topicEntry.flush();
                         }
+                        if (durabilityMode != DurabilityMode.NONE) {
+                            try {
+                                syncAll();
+                            } catch (IOException e) {
+                                logger.error("Failed to sync JSON files on shutdown", e);
+                            }
+                        }
                     }
                 } finally {
+                    // the scheduler is shut down, so events still queued are dropped and no later batch will
+                    // complete their promises
+                    drainList.clear();
+                    queue.drainTo(drainList);
+                    for (final QueueEntry entry : drainList) {
+                        if (entry.committed != null) {
+                            pendingCommits.add(entry.committed);
+                        }
+                    }
+                    failPendingCommits(new IOException("JSON audit handler shut down"));
                     closeSilently(topicEntryMap.values());
                 }
             }
@@ -349,6 +559,9 @@ class JsonFileWriter {
                 final int n = queue.drainTo(drainList, BATCH_SIZE);
                 for (int i = 0; i < n; ++i) {
                     final QueueEntry entry = drainList.get(i);
+                    if (entry.committed != null) {
+                        pendingCommits.add(entry.committed);
+                    }
                     final TopicEntry topicEntry = topicEntryMap.get(entry.topic);
                     if (topicEntry == null) {
                         logger.warn("Unrecognised topic: " + entry.topic);
@@ -368,27 +581,50 @@ class JsonFileWriter {
                         topicEntry.flush();
                     }
                 }
+                if (!pendingCommits.isEmpty()) {
+                    // group commit: the whole batch is forced to disk with a single sync per topic file
+                    syncAll();
+                    for (final PromiseImpl<Void, IOException> committed : pendingCommits) {
+                        committed.handleResult(null);
+                    }
+                    pendingCommits.clear();
+                } else if (durabilityMode == DurabilityMode.PERIODIC
+                        && System.currentTimeMillis() - lastSyncTimeMillis >= syncIntervalMillis) {
+                    syncAll();
+                }
 
-                if (hasRotationOrRetentionPolicies) {
-                    // enforce rotation and/or retention policies for all topic files
+                if (hasRotationPolicies) {
+                    // enforce rotation policies for all topic files, retention being left to the janitor
                     for (final TopicEntry topicEntry : topicEntryMap.values()) {
                         topicEntry.rotateIfNeeded();
                     }
                 }
             } catch (IOException e) {
                 logger.error("JSON file write failed", e);
+                failPendingCommits(e);
             } catch (Exception e) {
                 logger.error("Unexpected failure", e);
+                failPendingCommits(new IOException(e));
             }
         }
 
         /**
-         * Checks if rotation is enabled.
+         * Flushes all file buffers, and forces the topic files written since the previous sync to disk.
          *
-         * @return {@code true} if rotation is enabled and {@code false} otherwise
+         * @throws IOException error forcing a file to disk
          */
-        boolean isRotationEnabled() {
-            return rotationEnabled;
+        private void syncAll() throws IOException {
+            for (final TopicEntry topicEntry : topicEntryMap.values()) {
+                topicEntry.sync();
+            }
+            lastSyncTimeMillis = System.currentTimeMillis();
+        }
+
+        private void failPendingCommits(final IOException e) {
+            for (final PromiseImpl<Void, IOException> committed : pendingCommits) {
+                committed.handleException(e);
+            }
+            pendingCommits.clear();
         }
 
         /**
@@ -404,6 +640,7 @@ class JsonFileWriter {
             private FileChannel fileChannel;
             private long positionInFile;
             private int iterationsWithoutEventsCounter;
+            private boolean unsynced;
 
             TopicEntry(final String fileName, final JsonAuditEventHandlerConfiguration configuration) {
                 try {
@@ -440,6 +677,7 @@ class JsonFileWriter {
                         }
                         // write buffer to file
                         positionInFile += fileChannel.write(outputStream.byteBuffer(), positionInFile);
+                        unsynced = true;
                     } finally {
                         outputStream.clear();
                     }
@@ -457,6 +695,7 @@ class JsonFileWriter {
                         }
                         // write buffer to file
                         positionInFile += fileChannel.write(outputStream.byteBuffer(), positionInFile);
+                        unsynced = true;
                     } catch (IOException e) {
                         logger.error("Failed to flush file buffer", e);
                     } finally {
@@ -466,6 +705,19 @@ class JsonFileWriter {
                 iterationsWithoutEventsCounter = 0;
             }
 
+            /**
+             * Flushes the file buffer, and forces the file to disk if anything was written since the last sync.
+             *
+             * @throws IOException error forcing the file to disk
+             */
+            void sync() throws IOException {
+                flush();
+                if (unsynced) {
+                    fileChannel.force(false);
+                    unsynced = false;
+                }
+            }
+
             @Override
             public long getBytesWritten() {
                 return positionInFile;
@@ -486,19 +738,6 @@ class JsonFileWriter {
                         }
                     }
                 }
-                if (!retentionPolicies.isEmpty()) {
-                    filesToDelete.clear();
-                    for (final RetentionPolicy retentionPolicy : retentionPolicies) {
-                        filesToDelete.addAll(retentionPolicy.deleteFiles(fileNamingPolicy));
-                    }
-                    if (!filesToDelete.isEmpty()) {
-                        for (final File file : filesToDelete) {
-                            if (!file.delete() && logger.isWarnEnabled()) {
-                                logger.warn("Could not delete file {}", file.getAbsolutePath());
-                            }
-                        }
-                    }
-                }
             }
 
             /**
@@ -507,6 +746,10 @@ class JsonFileWriter {
              * @throws IOException error rotating file
              */
             void rotateNow() throws IOException {
+                if (durabilityMode != DurabilityMode.NONE) {
+                    // events written since the last sync must not be lost once the file is archived
+                    sync();
+                }
                 // close and rename current file
                 fileChannel.close();
                 final Path archivedFilePath = fileNamingPolicy.getNextName().toPath();
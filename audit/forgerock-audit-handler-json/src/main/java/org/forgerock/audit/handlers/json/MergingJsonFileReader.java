@@ -0,0 +1,137 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.json;
+
+import static org.forgerock.audit.handlers.json.JsonAuditEventHandler.OBJECT_MAPPER;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.forgerock.audit.retention.CompressedArchives;
+import org.forgerock.json.JsonValue;
+import org.forgerock.util.Utils;
+
+/**
+ * Reads the events of one or more sequences of newline-delimited JSON files, such as the rotated and current files
+ * of each shard of a topic, as a single sequence ordered by their {@code timestamp} field, which holds a UTC ISO-8601
+ * date. The files of each sequence are read one after the other, and must together already be in timestamp order.
+ * Events without a timestamp are read first.
+ */
+final class MergingJsonFileReader implements Closeable {
+
+    private static final String TIMESTAMP_FIELD = "timestamp";
+
+    private final List<List<Path>> sequences;
+    private final int[] nextFiles;
+    private final BufferedReader[] readers;
+    private final JsonValue[] events;
+    private final String[] timestamps;
+
+    /**
+     * Opens the files to merge.
+     *
+     * @param sequences Sequences of newline-delimited JSON files, possibly compressed
+     * @throws IOException failure to open or read a file
+     */
+    MergingJsonFileReader(final List<List<Path>> sequences) throws IOException {
+        this.sequences = sequences;
+        nextFiles = new int[sequences.size()];
+        readers = new BufferedReader[sequences.size()];
+        events = new JsonValue[sequences.size()];
+        timestamps = new String[sequences.size()];
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                advance(i);
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the event with the earliest timestamp among the next event of each sequence.
+     *
+     * @return Event, or {@code null} once all files have been read
+     * @throws IOException failure to read or parse a file
+     */
+    JsonValue next() throws IOException {
+        int earliest = -1;
+        for (int i = 0; i < events.length; i++) {
+            if (events[i] != null && (earliest < 0 || compare(timestamps[i], timestamps[earliest]) < 0)) {
+                earliest = i;
+            }
+        }
+        if (earliest < 0) {
+            return null;
+        }
+        final JsonValue event = events[earliest];
+        advance(earliest);
+        return event;
+    }
+
+    private void advance(final int i) throws IOException {
+        String line = readers[i] == null ? null : readers[i].readLine();
+        while (line == null && openNextFile(i)) {
+            line = readers[i].readLine();
+        }
+        if (line == null) {
+            events[i] = null;
+            timestamps[i] = null;
+        } else {
+            events[i] = new JsonValue(OBJECT_MAPPER.readValue(line, Map.class));
+            final JsonValue timestamp = events[i].get(TIMESTAMP_FIELD);
+            timestamps[i] = events.length > 1 && timestamp.isString() ? timestamp.asString() : null;
+        }
+    }
+
+    /** Closes the current file of a sequence and opens its next file, skipping the files deleted since listed. */
+    private boolean openNextFile(final int i) throws IOException {
+        Utils.closeSilently(readers[i]);
+        readers[i] = null;
+        final List<Path> files = sequences.get(i);
+        while (nextFiles[i] < files.size()) {
+            final Path file = files.get(nextFiles[i]++);
+            try {
+                readers[i] = new BufferedReader(new InputStreamReader(
+                        CompressedArchives.newInputStream(file.toFile()), StandardCharsets.UTF_8));
+                return true;
+            } catch (FileNotFoundException e) {
+                // removed by a retention policy while reading the files before it
+            }
+        }
+        return false;
+    }
+
+    private static int compare(final String timestamp, final String other) {
+        if (timestamp == null) {
+            return other == null ? 0 : -1;
+        }
+        return other == null ? 1 : timestamp.compareTo(other);
+    }
+
+    @Override
+    public void close() {
+        Utils.closeSilently(readers);
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.json;
@@ -28,21 +29,27 @@ import java.io.InputStream;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.forgerock.audit.events.EventTopicsMetaData;
+import org.forgerock.audit.events.handlers.FileBasedEventHandlerConfiguration.DurabilityMode;
 import org.forgerock.audit.events.handlers.AuditEventHandler;
+import org.forgerock.audit.retention.CompressedArchives;
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.resource.ActionRequest;
 import org.forgerock.json.resource.IdentifierQueryResourceHandler;
 import org.forgerock.json.resource.QueryFilters;
 import org.forgerock.json.resource.QueryRequest;
+import org.forgerock.json.resource.QueryResourceHandler;
 import org.forgerock.json.resource.QueryResponse;
 import org.forgerock.json.resource.Requests;
 import org.forgerock.json.resource.ResourceException;
@@ -92,6 +99,169 @@ public class JsonAuditEventHandlerTest {
         }
     }
 
+    @Test
+    public void testGroupCommitCompletesOnceEventIsWritten() throws Exception {
+        final Path logDirectoryPath = Files.createTempDirectory(JsonAuditEventHandlerTest.class.getSimpleName());
+        AuditEventHandler handler = null;
+        try {
+            final JsonAuditEventHandlerConfiguration configuration = buildConfiguration(SMALL_EVENT_COUNT,
+                    logDirectoryPath);
+            configuration.getFileDurability().setMode(DurabilityMode.GROUP_COMMIT);
+            handler = new JsonAuditEventHandler(configuration, getEventTopicsMetaData("/events.json"));
+            handler.startup();
+
+            for (int i = 0; i < SMALL_EVENT_COUNT; ++i) {
+                final String id = String.format("%010d", i);
+                final JsonValue event = json(object(
+                        field("_id", id), field("timestamp", id), field("transactionId", id)));
+                handler.publishEvent(null, ACCESS, event).getOrThrow();
+
+                // no sleep, nor flush action: a committed event must already be in the file
+                if (i % 100 == 0) {
+                    assertThat(handler.readEvent(null, ACCESS, id).getOrThrow().getId()).isEqualTo(id);
+                }
+            }
+        } finally {
+            try {
+                if (handler != null) {
+                    handler.shutdown();
+                }
+            } finally {
+                deleteRecursively(logDirectoryPath);
+            }
+        }
+    }
+
+    @Test
+    public void testShardedTopicIsMergedInTimestampOrder() throws Exception {
+        final Path logDirectoryPath = Files.createTempDirectory(JsonAuditEventHandlerTest.class.getSimpleName());
+        AuditEventHandler handler = null;
+        try {
+            final JsonAuditEventHandlerConfiguration configuration = buildConfiguration(SMALL_EVENT_COUNT,
+                    logDirectoryPath);
+            configuration.getBuffering().setTopicShards(Collections.singletonMap(ACCESS, 3));
+            final AuditEventHandler shardedHandler =
+                    new JsonAuditEventHandler(configuration, getEventTopicsMetaData("/events.json"));
+            handler = shardedHandler;
+            handler.startup();
+
+            // publish from several threads, so that events are spread over the shards
+            final AtomicInteger sequence = new AtomicInteger();
+            final Thread[] publishers = new Thread[6];
+            for (int t = 0; t < publishers.length; t++) {
+                publishers[t] = new Thread() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < SMALL_EVENT_COUNT / publishers.length; i++) {
+                            synchronized (sequence) {
+                                final String id = String.format("%010d", sequence.getAndIncrement());
+                                shardedHandler.publishEvent(null, ACCESS, json(object(
+                                        field("_id", id), field("timestamp", id), field("transactionId", id))));
+                            }
+                        }
+                    }
+                };
+                publishers[t].start();
+            }
+            for (final Thread publisher : publishers) {
+                publisher.join();
+            }
+            final ActionRequest actionRequest = Requests.newActionRequest(ACCESS, FLUSH_FILE_ACTION_NAME)
+                    .setAdditionalParameter(ACTION_PARAM_TARGET_HANDLER, "json");
+            handler.handleAction(null, ACCESS, actionRequest).getOrThrow();
+            Thread.sleep(SLEEP_MILLIS);
+
+            int shardFiles = 0;
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(logDirectoryPath, ACCESS + ".*")) {
+                for (Path path : directoryStream) {
+                    assertThat(path.getFileName().toString()).matches("access\\.[0-2]\\.audit\\.json");
+                    ++shardFiles;
+                }
+            }
+            assertThat(shardFiles).isEqualTo(3);
+
+            final List<String> ids = new ArrayList<>();
+            final QueryRequest queryRequest = Requests.newQueryRequest(ACCESS)
+                    .setQueryFilter(QueryFilters.parse("true"));
+            handler.queryEvents(null, ACCESS, queryRequest, new QueryResourceHandler() {
+                @Override
+                public boolean handleResource(final ResourceResponse resource) {
+                    ids.add(resource.getId());
+                    return true;
+                }
+            }).getOrThrow();
+            assertThat(ids).hasSize(sequence.get());
+            for (int i = 0; i < ids.size(); i++) {
+                assertThat(ids.get(i)).isEqualTo(String.format("%010d", i));
+            }
+            final String lastId = ids.get(ids.size() - 1);
+            assertThat(handler.readEvent(null, ACCESS, lastId).getOrThrow().getId()).isEqualTo(lastId);
+        } finally {
+            try {
+                if (handler != null) {
+                    handler.shutdown();
+                }
+            } finally {
+                deleteRecursively(logDirectoryPath);
+            }
+        }
+    }
+
+    @Test
+    public void testQueryAndReadEventsFromCompressedArchives() throws Exception {
+        final Path logDirectoryPath = Files.createTempDirectory(JsonAuditEventHandlerTest.class.getSimpleName());
+        AuditEventHandler handler = null;
+        try {
+            final JsonAuditEventHandlerConfiguration configuration = buildConfiguration(SMALL_EVENT_COUNT,
+                    logDirectoryPath);
+            configuration.getFileRotation().setRotationEnabled(true);
+            handler = new JsonAuditEventHandler(configuration, getEventTopicsMetaData("/events.json"));
+            handler.startup();
+
+            // archive and compress the first half of the events
+            publishEvents(0, SMALL_EVENT_COUNT / 2, handler);
+            handler.handleAction(null, ACCESS, Requests.newActionRequest(ACCESS, ROTATE_FILE_ACTION_NAME)
+                    .setAdditionalParameter(ACTION_PARAM_TARGET_HANDLER, "json")).getOrThrow();
+            Thread.sleep(SLEEP_MILLIS);
+            final List<Path> archives = new ArrayList<>();
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(logDirectoryPath,
+                    ACCESS + '.' + JsonFileWriter.LOG_FILE_NAME_SUFFIX + "?*")) {
+                for (Path path : directoryStream) {
+                    archives.add(path);
+                }
+            }
+            assertThat(archives).hasSize(1);
+            CompressedArchives.compress(archives.get(0).toFile(), 1024);
+            publishEvents(SMALL_EVENT_COUNT / 2, SMALL_EVENT_COUNT, handler);
+            Thread.sleep(SLEEP_MILLIS);
+
+            final List<String> ids = new ArrayList<>();
+            final QueryRequest queryRequest = Requests.newQueryRequest(ACCESS)
+                    .setQueryFilter(QueryFilters.parse("true"));
+            handler.queryEvents(null, ACCESS, queryRequest, new QueryResourceHandler() {
+                @Override
+                public boolean handleResource(final ResourceResponse resource) {
+                    ids.add(resource.getId());
+                    return true;
+                }
+            }).getOrThrow();
+            assertThat(ids).hasSize(SMALL_EVENT_COUNT);
+            for (int i = 0; i < ids.size(); i++) {
+                assertThat(ids.get(i)).isEqualTo(String.format("%010d", i));
+            }
+            final String archivedId = String.format("%010d", 1);
+            assertThat(handler.readEvent(null, ACCESS, archivedId).getOrThrow().getId()).isEqualTo(archivedId);
+        } finally {
+            try {
+                if (handler != null) {
+                    handler.shutdown();
+                }
+            } finally {
+                deleteRecursively(logDirectoryPath);
+            }
+        }
+    }
+
     @Test
     public void testWriteAndQueryEvents() throws Exception {
         // perform a normal query test
@@ -185,6 +355,18 @@ public class JsonAuditEventHandlerTest {
         return identifiers;
     }
 
+    private void publishEvents(final int from, final int to, final AuditEventHandler handler) throws Exception {
+        for (int i = from; i < to; ++i) {
+            final String id = String.format("%010d", i);
+            handler.publishEvent(null, ACCESS, json(object(
+                    field("_id", id), field("timestamp", id), field("transactionId", id)))).getOrThrow();
+        }
+        final ActionRequest actionRequest = Requests.newActionRequest(ACCESS, FLUSH_FILE_ACTION_NAME)
+                .setAdditionalParameter(ACTION_PARAM_TARGET_HANDLER, "json");
+        handler.handleAction(null, ACCESS, actionRequest).getOrThrow();
+        Thread.sleep(SLEEP_MILLIS);
+    }
+
     private JsonAuditEventHandlerConfiguration buildConfiguration(final int eventCount, final Path logDirectoryPath) {
         final JsonAuditEventHandlerConfiguration configuration = new JsonAuditEventHandlerConfiguration();
         configuration.setName("json");
@@ -12,18 +12,36 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.splunk;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
 import static org.forgerock.guava.common.base.Strings.isNullOrEmpty;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_LOADER;
 import static org.forgerock.json.resource.Responses.newResourceResponse;
-import static org.forgerock.util.CloseSilentlyFunction.closeSilently;
+import static org.forgerock.util.Utils.closeSilently;
 import static org.forgerock.util.promise.Promises.newExceptionPromise;
+import static org.forgerock.util.promise.Promises.newResultPromise;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 import org.forgerock.audit.Audit;
 import org.forgerock.audit.events.EventTopicsMetaData;
@@ -33,6 +51,8 @@ import org.forgerock.audit.events.handlers.buffering.BatchException;
 import org.forgerock.audit.events.handlers.buffering.BatchPublisher;
 import org.forgerock.audit.events.handlers.buffering.BatchPublisherFactory;
 import org.forgerock.audit.events.handlers.buffering.BatchPublisherFactoryImpl;
+import org.forgerock.audit.events.handlers.buffering.SpillQueue;
+import org.forgerock.audit.handlers.splunk.SplunkAuditEventHandlerConfiguration.AcknowledgementConfiguration;
 import org.forgerock.audit.handlers.splunk.SplunkAuditEventHandlerConfiguration.BufferingConfiguration;
 import org.forgerock.audit.handlers.splunk.SplunkAuditEventHandlerConfiguration.ConnectionConfiguration;
 import org.forgerock.http.Client;
@@ -42,7 +62,6 @@ import org.forgerock.http.handler.HttpClientHandler;
 import org.forgerock.http.header.ContentTypeHeader;
 import org.forgerock.http.protocol.Request;
 import org.forgerock.http.protocol.Response;
-import org.forgerock.http.protocol.Responses;
 import org.forgerock.http.spi.Loader;
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.resource.NotSupportedException;
@@ -53,16 +72,28 @@ import org.forgerock.json.resource.ResourceException;
 import org.forgerock.json.resource.ResourceResponse;
 import org.forgerock.json.resource.ServiceUnavailableException;
 import org.forgerock.services.context.Context;
-import org.forgerock.util.Function;
 import org.forgerock.util.Options;
+import org.forgerock.util.Utils;
 import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.forgerock.util.promise.ResultHandler;
 import org.forgerock.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Audit event handler that writes out to Splunk's HTTP event collector RAW endpoint.
+ * <p>
+ * Batches are gzip-compressed and several of them may be in flight at once. A batch whose compressed payload
+ * exceeds {@link BufferingConfiguration#getMaxBatchPayloadSize()} is split into several requests. When indexer
+ * acknowledgement is enabled, each request is kept until Splunk acknowledges its {@code ackId} and is sent again
+ * when the acknowledgement does not arrive in time, so that events are delivered at least once. A batch only
+ * completes once all its requests are acknowledged, so the number of in-flight batches also bounds the number of
+ * payloads held for redelivery.
  */
 public final class SplunkAuditEventHandler extends AuditEventHandlerBase implements BatchConsumer {
 
@@ -84,12 +115,26 @@ public final class SplunkAuditEventHandler extends AuditEventHandlerBase impleme
      */
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(SplunkAuditEventHandler.class);
+
+    private static final String CHANNEL_HEADER = "X-Splunk-Request-Channel";
+
+    private static final int COMPRESSION_BUFFER_SIZE = 8192;
+
     private final SplunkAuditEventHandlerConfiguration configuration;
     private final Client client;
     private final HttpClientHandler defaultHttpClientHandler;
     private final String channelId;
     private final BatchPublisher batchPublisher;
     private final String serviceUrl;
+    private final String ackUrl;
+    private final boolean useCompression;
+    private final int maxBatchPayloadSize;
+    private final ScheduledExecutorService ackScheduler;
+    private final long ackPollIntervalMillis;
+    private final long ackTimeoutNanos;
+    private final int maxRedeliveries;
+    private final Map<Long, PendingRequest> pendingAcks = new ConcurrentHashMap<>();
 
     /**
      * Constructs a new Splunk audit event handler.
@@ -119,15 +164,23 @@ public final class SplunkAuditEventHandler extends AuditEventHandlerBase impleme
         channelId = UUID.randomUUID().toString();
 
         final ConnectionConfiguration connection = configuration.getConnection();
-        serviceUrl = connection.isUseSSL() ? "https://" : "http://"
-                + configuration.getConnection().getHost()
+        final String collectorUrl = (connection.isUseSSL() ? "https://" : "http://")
+                + connection.getHost()
                 + ':'
-                + configuration.getConnection().getPort()
-                + "/services/collector/raw";
+                + connection.getPort()
+                + "/services/collector";
+        serviceUrl = collectorUrl + "/raw";
+        ackUrl = collectorUrl + "/ack";
+        useCompression = connection.isUseCompression();
 
         final BufferingConfiguration bufferingConfiguration = configuration.getBuffering();
         final Duration writeInterval = isNullOrEmpty(bufferingConfiguration.getWriteInterval()) ? null
                 : Duration.duration(bufferingConfiguration.getWriteInterval());
+        final SpillQueue spillQueue = isNullOrEmpty(bufferingConfiguration.getSpillDirectory()) ? null
+                : SpillQueue.newBuilder(new File(bufferingConfiguration.getSpillDirectory()))
+                        .maxDiskUsage(bufferingConfiguration.getMaxSpillSize())
+                        .maxReplayRate(bufferingConfiguration.getMaxReplayRate())
+                        .build();
 
         if (publisherFactory == null) {
             publisherFactory = new BatchPublisherFactoryImpl();
@@ -138,17 +191,50 @@ public final class SplunkAuditEventHandler extends AuditEventHandlerBase impleme
                 .maxBatchEvents(bufferingConfiguration.getMaxBatchedEvents())
                 .averagePerEventPayloadSize(BATCH_INDEX_AVERAGE_PER_EVENT_PAYLOAD_SIZE)
                 .autoFlush(ALWAYS_FLUSH_BATCH_QUEUE)
+                .maxInFlightBatches(bufferingConfiguration.getMaxInFlightBatches())
+                .spillQueue(spillQueue)
                 .build();
+        maxBatchPayloadSize = bufferingConfiguration.getMaxBatchPayloadSize();
+
+        final AcknowledgementConfiguration acknowledgement = configuration.getAcknowledgement();
+        if (acknowledgement.isEnabled()) {
+            ackScheduler = Executors.newSingleThreadScheduledExecutor(
+                    Utils.newThreadFactory(null, "audit-splunk-ack-%d", true));
+            ackPollIntervalMillis = Duration.duration(acknowledgement.getPollInterval()).to(TimeUnit.MILLISECONDS);
+            ackTimeoutNanos = Duration.duration(acknowledgement.getTimeout()).to(TimeUnit.NANOSECONDS);
+            maxRedeliveries = Math.max(acknowledgement.getMaxRedeliveries(), 0);
+        } else {
+            ackScheduler = null;
+            ackPollIntervalMillis = 0L;
+            ackTimeoutNanos = 0L;
+            maxRedeliveries = 0;
+        }
     }
 
     @Override
     public void startup() throws ResourceException {
+        if (ackScheduler != null) {
+            ackScheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    pollAcknowledgements();
+                }
+            }, ackPollIntervalMillis, ackPollIntervalMillis, TimeUnit.MILLISECONDS);
+        }
         batchPublisher.startup();
     }
 
     @Override
     public void shutdown() throws ResourceException {
+        // the publisher waits for in-flight batches, so acknowledgements are still polled until it returns
         batchPublisher.shutdown();
+        if (ackScheduler != null) {
+            ackScheduler.shutdownNow();
+            for (final PendingRequest pending : pendingAcks.values()) {
+                pending.batch.failed(new BatchException("Handler shut down before Splunk acknowledged the batch"));
+            }
+            pendingAcks.clear();
+        }
         if (defaultHttpClientHandler != null) {
             try {
                 defaultHttpClientHandler.close();
@@ -203,33 +289,190 @@ public final class SplunkAuditEventHandler extends AuditEventHandlerBase impleme
 
     @Override
     public Promise<Void, BatchException> publishBatch(final String payload) {
-        final Request request = new Request();
-        request.setMethod("POST");
+        final List<byte[]> bodies;
+        try {
+            bodies = encodePayload(payload);
+        } catch (IOException e) {
+            return newExceptionPromise(new BatchException("Unable to encode batch payload", e));
+        }
+        if (bodies.isEmpty()) {
+            return newResultPromise(null);
+        }
+
+        final BatchCompletion batch = new BatchCompletion(bodies.size());
+        for (final byte[] body : bodies) {
+            send(new PendingRequest(body, batch));
+        }
+        return batch.promise;
+    }
+
+    /**
+     * Encodes the newline-delimited events of a batch payload into one or more request bodies, starting a new body
+     * once the encoded size reaches {@link #maxBatchPayloadSize}. Events are never split across bodies.
+     */
+    private List<byte[]> encodePayload(final String payload) throws IOException {
+        final List<byte[]> bodies = new ArrayList<>(1);
+        final int length = payload.length();
+        ByteArrayOutputStream out = null;
+        Writer writer = null;
+        int start = 0;
+        while (start < length) {
+            final int newline = payload.indexOf('\n', start);
+            final int end = newline < 0 ? length : newline + 1;
+            if (writer == null) {
+                out = new ByteArrayOutputStream(Math.min(maxBatchPayloadSize, COMPRESSION_BUFFER_SIZE));
+                writer = new OutputStreamWriter(
+                        useCompression ? new GZIPOutputStream(out, COMPRESSION_BUFFER_SIZE) : out, UTF_8);
+            }
+            writer.write(payload, start, end - start);
+            writer.flush();
+            start = end;
+            if (out.size() >= maxBatchPayloadSize) {
+                writer.close();
+                bodies.add(out.toByteArray());
+                writer = null;
+            }
+        }
+        if (writer != null) {
+            writer.close();
+            bodies.add(out.toByteArray());
+        }
+        return bodies;
+    }
 
+    private void send(final PendingRequest pending) {
+        final Request request;
         try {
-            request.setUri(serviceUrl);
+            request = newRequest(serviceUrl, pending.body);
         } catch (URISyntaxException e) {
-            return newExceptionPromise(new BatchException("Incorrect URI " + serviceUrl, e));
+            pending.batch.failed(new BatchException("Incorrect URI " + serviceUrl, e));
+            return;
+        }
+        if (useCompression) {
+            request.getHeaders().put("Content-Encoding", "gzip");
         }
 
-        request.getHeaders().put(ContentTypeHeader.NAME, "application/json; charset=UTF-8");
-        request.getHeaders().put("Authorization", "Splunk " + configuration.getAuthzToken());
-        request.getHeaders().put("X-Splunk-Request-Channel", channelId);
-        request.setEntity(payload);
+        client.send(request).thenOnResult(new ResultHandler<Response>() {
+            @Override
+            public void handleResult(final Response response) {
+                try {
+                    if (!response.getStatus().isSuccessful()) {
+                        pending.batch.failed(
+                                new BatchException("Publishing to Splunk failed: " + response.getEntity()));
+                    } else if (ackScheduler == null) {
+                        pending.batch.succeeded();
+                    } else {
+                        awaitAcknowledgement(pending, readAckId(response));
+                    }
+                } catch (BatchException e) {
+                    pending.batch.failed(e);
+                } finally {
+                    closeSilently(response);
+                }
+            }
+        });
+    }
 
-        return client.send(request).then(
-                closeSilently(new Function<Response, Void, BatchException>() {
+    private void awaitAcknowledgement(final PendingRequest pending, final long ackId) {
+        pending.sentAt = System.nanoTime();
+        final PendingRequest previous = pendingAcks.put(ackId, pending);
+        if (previous != null && previous != pending) {
+            // Splunk reused an ID (e.g. after a restart), so the earlier request's acknowledgement is ambiguous
+            redeliver(previous);
+        }
+    }
 
-                    @Override
-                    public Void apply(final Response response) throws BatchException {
-                        if (!response.getStatus().isSuccessful()) {
-                            throw new BatchException("Publishing to Splunk failed: " + response.getEntity());
-                        }
+    private long readAckId(final Response response) throws BatchException {
+        final JsonNode ackId;
+        try {
+            ackId = OBJECT_MAPPER.readTree(response.getEntity().getBytes()).get("ackId");
+        } catch (IOException e) {
+            throw new BatchException("Unable to read Splunk response", e);
+        }
+        if (ackId == null || !ackId.canConvertToLong()) {
+            throw new BatchException(
+                    "Splunk did not return an ackId, indexer acknowledgement must be enabled on the token");
+        }
+        return ackId.asLong();
+    }
 
-                        return null;
+    /**
+     * Queries the status of all pending acknowledgements, completing the acknowledged requests and redelivering
+     * those that have waited longer than the acknowledgement timeout.
+     */
+    private void pollAcknowledgements() {
+        if (pendingAcks.isEmpty()) {
+            return;
+        }
+        try {
+            queryAcknowledgements();
+        } catch (Exception e) {
+            LOGGER.warn("Unable to query Splunk indexer acknowledgements", e);
+        }
+
+        final long now = System.nanoTime();
+        final Iterator<Map.Entry<Long, PendingRequest>> entries = pendingAcks.entrySet().iterator();
+        while (entries.hasNext()) {
+            final Map.Entry<Long, PendingRequest> entry = entries.next();
+            final PendingRequest pending = entry.getValue();
+            if (now - pending.sentAt > ackTimeoutNanos && pendingAcks.remove(entry.getKey(), pending)) {
+                redeliver(pending);
+            }
+        }
+    }
+
+    private void queryAcknowledgements() throws IOException, URISyntaxException {
+        final List<Long> ackIds = new ArrayList<>(pendingAcks.keySet());
+        final Request request = newRequest(ackUrl, OBJECT_MAPPER.writeValueAsBytes(
+                singletonMap("acks", ackIds)));
+        final Response response = client.send(request).getOrThrowUninterruptibly();
+        try {
+            if (!response.getStatus().isSuccessful()) {
+                LOGGER.warn("Querying Splunk indexer acknowledgements failed: {}", response.getStatus());
+                return;
+            }
+            final JsonNode acks = OBJECT_MAPPER.readTree(response.getEntity().getBytes()).get("acks");
+            if (acks == null) {
+                return;
+            }
+            for (final Long ackId : ackIds) {
+                final JsonNode acknowledged = acks.get(ackId.toString());
+                if (acknowledged != null && acknowledged.asBoolean()) {
+                    final PendingRequest pending = pendingAcks.remove(ackId);
+                    if (pending != null) {
+                        pending.batch.succeeded();
                     }
+                }
+            }
+        } finally {
+            closeSilently(response);
+        }
+    }
 
-                }), Responses.<Void, BatchException>noopExceptionFunction());
+    private void redeliver(final PendingRequest pending) {
+        if (pending.batch.promise.isDone()) {
+            // another request of the batch already failed it
+            return;
+        }
+        if (pending.redeliveries >= maxRedeliveries) {
+            pending.batch.failed(new BatchException(
+                    "Splunk did not acknowledge batch after " + (pending.redeliveries + 1) + " attempts"));
+            return;
+        }
+        pending.redeliveries++;
+        LOGGER.debug("Redelivering unacknowledged batch to Splunk, attempt {}", pending.redeliveries + 1);
+        send(pending);
+    }
+
+    private Request newRequest(final String url, final byte[] body) throws URISyntaxException {
+        final Request request = new Request();
+        request.setMethod("POST");
+        request.setUri(url);
+        request.getHeaders().put(ContentTypeHeader.NAME, "application/json; charset=UTF-8");
+        request.getHeaders().put("Authorization", "Splunk " + configuration.getAuthzToken());
+        request.getHeaders().put(CHANNEL_HEADER, channelId);
+        request.getEntity().setBytes(body);
+        return request;
     }
 
     private HttpClientHandler defaultHttpClientHandler() {
@@ -246,4 +489,41 @@ public final class SplunkAuditEventHandler extends AuditEventHandlerBase impleme
             throw new RuntimeException("Error while building default HTTP Client", e);
         }
     }
+
+    /**
+     * An encoded request body, kept until it is acknowledged so that it can be redelivered.
+     */
+    private static final class PendingRequest {
+        private final byte[] body;
+        private final BatchCompletion batch;
+        private volatile long sentAt;
+        private volatile int redeliveries;
+
+        private PendingRequest(final byte[] body, final BatchCompletion batch) {
+            this.body = body;
+            this.batch = batch;
+        }
+    }
+
+    /**
+     * Completes a batch once all its requests succeeded, or as soon as one of them failed.
+     */
+    private static final class BatchCompletion {
+        private final PromiseImpl<Void, BatchException> promise = PromiseImpl.create();
+        private final AtomicInteger remaining;
+
+        private BatchCompletion(final int requests) {
+            this.remaining = new AtomicInteger(requests);
+        }
+
+        private void succeeded() {
+            if (remaining.decrementAndGet() == 0) {
+                promise.tryHandleResult(null);
+            }
+        }
+
+        private void failed(final BatchException e) {
+            promise.tryHandleException(e);
+        }
+    }
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.audit.handlers.splunk;
 
@@ -30,6 +31,9 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
     @JsonPropertyDescription("audit.handlers.splunk.buffering")
     private BufferingConfiguration buffering = new BufferingConfiguration();
 
+    @JsonPropertyDescription("audit.handlers.splunk.acknowledgement")
+    private AcknowledgementConfiguration acknowledgement = new AcknowledgementConfiguration();
+
     @JsonPropertyDescription("audit.handlers.splunk.authzToken")
     private String authzToken;
 
@@ -71,6 +75,25 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
         this.connection = connection;
     }
 
+    /**
+     * Gets the configuration of indexer acknowledgement.
+     *
+     * @return the indexer acknowledgement configuration
+     */
+    public AcknowledgementConfiguration getAcknowledgement() {
+        return acknowledgement;
+    }
+
+    /**
+     * Sets the configuration of indexer acknowledgement.
+     *
+     * @param acknowledgement
+     *         the indexer acknowledgement configuration
+     */
+    public void setAcknowledgement(final AcknowledgementConfiguration acknowledgement) {
+        this.acknowledgement = acknowledgement;
+    }
+
     /**
      * Gets the Splunk authorization token required for making HTTP event collector calls.
      *
@@ -115,6 +138,9 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
         @JsonPropertyDescription("audit.handlers.splunk.connection.port")
         private int port;
 
+        @JsonPropertyDescription("audit.handlers.splunk.connection.useCompression")
+        private boolean useCompression = true;
+
         /**
          * Indicates if the connection uses SSL.
          *
@@ -172,6 +198,25 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
             this.port = port;
         }
 
+        /**
+         * Indicates if batch payloads are gzip-compressed (default {@code true}).
+         *
+         * @return {@code true} when batch payloads are compressed.
+         */
+        public boolean isUseCompression() {
+            return useCompression;
+        }
+
+        /**
+         * Sets the use of gzip compression for batch payloads.
+         *
+         * @param useCompression
+         *         {@code true} when batch payloads are compressed.
+         */
+        public void setUseCompression(final boolean useCompression) {
+            this.useCompression = useCompression;
+        }
+
     }
 
     /**
@@ -179,6 +224,15 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
      */
     public final static class BufferingConfiguration {
 
+        // Default maximum number of concurrent HTTP event collector requests.
+        private static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
+
+        // Default number of bytes, as sent on the wire, after which a batch is split into another request.
+        private static final int DEFAULT_MAX_BATCH_PAYLOAD_SIZE = 1024 * 1024;
+
+        // Default maximum disk space used by spilled events.
+        private static final long DEFAULT_MAX_SPILL_SIZE = 1024L * 1024 * 1024;
+
         @JsonPropertyDescription("audit.handlers.splunk.buffering.maxSize")
         private int maxSize;
 
@@ -188,6 +242,21 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
         @JsonPropertyDescription("audit.handlers.splunk.buffering.maxBatchedEvents")
         private int maxBatchedEvents;
 
+        @JsonPropertyDescription("audit.handlers.splunk.buffering.maxInFlightBatches")
+        private int maxInFlightBatches;
+
+        @JsonPropertyDescription("audit.handlers.splunk.buffering.maxBatchPayloadSize")
+        private int maxBatchPayloadSize;
+
+        @JsonPropertyDescription("audit.handlers.splunk.buffering.spillDirectory")
+        private String spillDirectory;
+
+        @JsonPropertyDescription("audit.handlers.splunk.buffering.maxSpillSize")
+        private long maxSpillSize;
+
+        @JsonPropertyDescription("audit.handlers.splunk.buffering.maxReplayRate")
+        private int maxReplayRate;
+
         /**
          * Gets the buffer capacity, which are the maximum number of events that can be buffered.
          *
@@ -244,6 +313,211 @@ public final class SplunkAuditEventHandlerConfiguration extends EventHandlerConf
         public void setMaxBatchedEvents(final int maxBatchedEvents) {
             this.maxBatchedEvents = maxBatchedEvents;
         }
+
+        /**
+         * Gets the maximum number of batches sent to Splunk concurrently (default {@code 4}). While indexer
+         * acknowledgement is enabled, a batch stays in flight until Splunk has acknowledged it.
+         *
+         * @return Maximum number of in-flight batches
+         */
+        public int getMaxInFlightBatches() {
+            return maxInFlightBatches > 0 ? maxInFlightBatches : DEFAULT_MAX_IN_FLIGHT_BATCHES;
+        }
+
+        /**
+         * Sets the maximum number of batches sent to Splunk concurrently.
+         *
+         * @param maxInFlightBatches
+         *         Maximum number of in-flight batches
+         */
+        public void setMaxInFlightBatches(final int maxInFlightBatches) {
+            this.maxInFlightBatches = maxInFlightBatches;
+        }
+
+        /**
+         * Gets the number of bytes, as sent to Splunk and so after compression, after which the events of a batch
+         * are split into another request (default {@code 1 MiB}). The limit is approximate, as the compressed size
+         * is only known once the compressor emits its output.
+         *
+         * @return Maximum request payload size in bytes
+         */
+        public int getMaxBatchPayloadSize() {
+            return maxBatchPayloadSize > 0 ? maxBatchPayloadSize : DEFAULT_MAX_BATCH_PAYLOAD_SIZE;
+        }
+
+        /**
+         * Sets the number of bytes, as sent to Splunk, after which the events of a batch are split into another
+         * request.
+         *
+         * @param maxBatchPayloadSize
+         *         Maximum request payload size in bytes
+         */
+        public void setMaxBatchPayloadSize(final int maxBatchPayloadSize) {
+            this.maxBatchPayloadSize = maxBatchPayloadSize;
+        }
+
+        /**
+         * Gets the directory to which events are spilled when they do not fit in the buffer, or cannot be delivered to
+         * Splunk, so that they are replayed once Splunk recovers. When not set, such events are dropped.
+         *
+         * @return Spill directory, or {@code null}
+         */
+        public String getSpillDirectory() {
+            return spillDirectory;
+        }
+
+        /**
+         * Sets the directory to which events are spilled when they do not fit in the buffer, or cannot be delivered.
+         *
+         * @param spillDirectory
+         *         Spill directory, which must not be shared with other handlers
+         */
+        public void setSpillDirectory(final String spillDirectory) {
+            this.spillDirectory = spillDirectory;
+        }
+
+        /**
+         * Gets the maximum disk space, in bytes, used by spilled events (default {@code 1 GiB}).
+         *
+         * @return Maximum spill size in bytes
+         */
+        public long getMaxSpillSize() {
+            return maxSpillSize > 0 ? maxSpillSize : DEFAULT_MAX_SPILL_SIZE;
+        }
+
+        /**
+         * Sets the maximum disk space, in bytes, used by spilled events.
+         *
+         * @param maxSpillSize
+         *         Maximum spill size in bytes
+         */
+        public void setMaxSpillSize(final long maxSpillSize) {
+            this.maxSpillSize = maxSpillSize;
+        }
+
+        /**
+         * Gets the maximum number of spilled events per second replayed to Splunk, where {@code 0}
+         * means unlimited.
+         *
+         * @return Maximum replay rate
+         */
+        public int getMaxReplayRate() {
+            return maxReplayRate;
+        }
+
+        /**
+         * Sets the maximum number of spilled events per second replayed to Splunk.
+         *
+         * @param maxReplayRate
+         *         Maximum replay rate, where {@code 0} means unlimited
+         */
+        public void setMaxReplayRate(final int maxReplayRate) {
+            this.maxReplayRate = maxReplayRate;
+        }
+    }
+
+    /**
+     * Configuration of HTTP event collector indexer acknowledgement, which must also be enabled on the token.
+     */
+    public final static class AcknowledgementConfiguration {
+
+        // Default interval at which the status of pending acknowledgements is queried.
+        private static final String DEFAULT_POLL_INTERVAL = "1 second";
+
+        // Default delay after which an unacknowledged request is sent again.
+        private static final String DEFAULT_TIMEOUT = "30 seconds";
+
+        // Default number of times an unacknowledged request is sent again before its batch fails.
+        private static final int DEFAULT_MAX_REDELIVERIES = 3;
+
+        @JsonPropertyDescription("audit.handlers.splunk.acknowledgement.enabled")
+        private boolean enabled;
+
+        @JsonPropertyDescription("audit.handlers.splunk.acknowledgement.pollInterval")
+        private String pollInterval;
+
+        @JsonPropertyDescription("audit.handlers.splunk.acknowledgement.timeout")
+        private String timeout;
+
+        @JsonPropertyDescription("audit.handlers.splunk.acknowledgement.maxRedeliveries")
+        private int maxRedeliveries = DEFAULT_MAX_REDELIVERIES;
+
+        /**
+         * Indicates if indexer acknowledgement is tracked.
+         *
+         * @return {@code true} if indexer acknowledgement is tracked.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether indexer acknowledgement is tracked.
+         *
+         * @param enabled
+         *         {@code true} if indexer acknowledgement is tracked.
+         */
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Gets the interval at which the status of pending acknowledgements is queried (default {@code 1 second}).
+         *
+         * @return Interval (e.g., "500 millis")
+         */
+        public String getPollInterval() {
+            return pollInterval != null && !pollInterval.isEmpty() ? pollInterval : DEFAULT_POLL_INTERVAL;
+        }
+
+        /**
+         * Sets the interval at which the status of pending acknowledgements is queried.
+         *
+         * @param pollInterval
+         *         Interval (e.g., "500 millis")
+         */
+        public void setPollInterval(final String pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        /**
+         * Gets the delay after which an unacknowledged request is sent again (default {@code 30 seconds}).
+         *
+         * @return Delay (e.g., "10 seconds")
+         */
+        public String getTimeout() {
+            return timeout != null && !timeout.isEmpty() ? timeout : DEFAULT_TIMEOUT;
+        }
+
+        /**
+         * Sets the delay after which an unacknowledged request is sent again.
+         *
+         * @param timeout
+         *         Delay (e.g., "10 seconds")
+         */
+        public void setTimeout(final String timeout) {
+            this.timeout = timeout;
+        }
+
+        /**
+         * Gets the number of times an unacknowledged request is sent again before its batch fails
+         * (default {@code 3}).
+         *
+         * @return Maximum number of redeliveries
+         */
+        public int getMaxRedeliveries() {
+            return maxRedeliveries;
+        }
+
+        /**
+         * Sets the number of times an unacknowledged request is sent again before its batch fails.
+         *
+         * @param maxRedeliveries
+         *         Maximum number of redeliveries
+         */
+        public void setMaxRedeliveries(final int maxRedeliveries) {
+            this.maxRedeliveries = maxRedeliveries;
+        }
     }
 
 }
@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
- * Portions Copyright 2018 Wren Security.
+ * Portions Copyright 2018-2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.splunk;
@@ -25,18 +25,34 @@ import static org.forgerock.json.JsonValue.object;
 import static org.forgerock.util.time.Duration.duration;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import org.forgerock.audit.events.EventTopicsMetaData;
 import org.forgerock.audit.events.handlers.buffering.BatchException;
 import org.forgerock.audit.events.handlers.buffering.BatchPublisher;
 import org.forgerock.audit.events.handlers.buffering.BatchPublisherFactory;
 import org.forgerock.audit.events.handlers.buffering.BufferedBatchPublisher;
+import org.forgerock.audit.handlers.splunk.SplunkAuditEventHandlerConfiguration.AcknowledgementConfiguration;
 import org.forgerock.audit.handlers.splunk.SplunkAuditEventHandlerConfiguration.BufferingConfiguration;
 import org.forgerock.audit.handlers.splunk.SplunkAuditEventHandlerConfiguration.ConnectionConfiguration;
 import org.forgerock.http.Client;
@@ -53,17 +69,25 @@ import org.forgerock.json.resource.ResourceException;
 import org.forgerock.json.resource.ResourceResponse;
 import org.forgerock.json.resource.ServiceUnavailableException;
 import org.forgerock.services.context.Context;
+import org.forgerock.services.context.RootContext;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promise;
 import org.mockito.ArgumentCaptor;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
 /**
  * Unit test to exercise the {@link SplunkAuditEventHandler}.
  */
 public final class SplunkAuditEventHandlerTest {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private SplunkAuditEventHandler splunkHandler;
     private BatchPublisherFactory publisherFactory;
     private BatchPublisher publisher;
@@ -97,6 +121,8 @@ public final class SplunkAuditEventHandlerTest {
         when(publisherBuilder.maxBatchEvents(5)).thenReturn(publisherBuilder);
         when(publisherBuilder.averagePerEventPayloadSize(1280)).thenReturn(publisherBuilder);
         when(publisherBuilder.autoFlush(true)).thenReturn(publisherBuilder);
+        when(publisherBuilder.maxInFlightBatches(4)).thenReturn(publisherBuilder);
+        when(publisherBuilder.spillQueue(null)).thenReturn(publisherBuilder);
         publisher = mock(BatchPublisher.class);
         when(publisherBuilder.build()).thenReturn(publisher);
 
@@ -189,7 +215,10 @@ public final class SplunkAuditEventHandlerTest {
 
         Request request = requestCapture.getValue();
         assertThat(request.getUri().toString()).isEqualTo("http://localhost:8088/services/collector/raw");
-        assertThat(request.getEntity().getString()).isEqualTo("{ \"_id\": \"123\" }");
+        assertThat(request.getHeaders().get("Content-Encoding").getFirstValue()).isEqualTo("gzip");
+        try (InputStream in = new GZIPInputStream(request.getEntity().getRawContentInputStream())) {
+            assertThat(new Scanner(in, "UTF-8").useDelimiter("\\A").next()).isEqualTo("{ \"_id\": \"123\" }");
+        }
         assertThat(request.getHeaders().get("Authorization").getFirstValue()).isEqualTo("Splunk abc-def-ghi");
         assertThat(request.getHeaders().get("X-Splunk-Request-Channel").getFirstValue()).isNotEmpty();
         assertThat(request.getMethod()).isEqualTo("POST");
@@ -209,6 +238,96 @@ public final class SplunkAuditEventHandlerTest {
         promiseResponse.getOrThrowUninterruptibly();
     }
 
+    @Test
+    public void batchExceedingMaxPayloadSizeIsSplitIntoSeveralRequests() throws Exception {
+        // Given
+        SplunkAuditEventHandlerConfiguration configuration = newConfiguration(8088);
+        configuration.getConnection().setUseCompression(false);
+        configuration.getBuffering().setMaxBatchPayloadSize(40);
+        splunkHandler = new SplunkAuditEventHandler(configuration,
+                new EventTopicsMetaData(Collections.<String, JsonValue>emptyMap()), publisherFactory,
+                new Client(handler));
+        Promise<Response, NeverThrowsException> responsePromise = Response.newResponsePromise(new Response(Status.OK));
+        when(handler.handle(isA(Context.class), isA(Request.class))).thenReturn(responsePromise);
+        String payload = "{ \"_id\": \"1\", \"padding\": \"0123456789\" }\n"
+                + "{ \"_id\": \"2\", \"padding\": \"0123456789\" }\n"
+                + "{ \"_id\": \"3\", \"padding\": \"0123456789\" }\n";
+
+        // When
+        splunkHandler.publishBatch(payload).getOrThrow(5, TimeUnit.SECONDS);
+
+        // Then
+        ArgumentCaptor<Request> requestCapture = ArgumentCaptor.forClass(Request.class);
+        verify(handler, times(3)).handle(isA(Context.class), requestCapture.capture());
+        StringBuilder sent = new StringBuilder();
+        for (Request request : requestCapture.getAllValues()) {
+            assertThat(request.getHeaders().get("Content-Encoding")).isNull();
+            sent.append(request.getEntity().getString());
+        }
+        assertThat(sent.toString()).isEqualTo(payload);
+    }
+
+    @Test
+    public void bufferedEventsAreCompressedAndAcknowledgedByCollector() throws Exception {
+        // Given
+        StubCollector collector = new StubCollector();
+        SplunkAuditEventHandler handler = newAcknowledgingHandler(collector);
+        int events = 2000;
+        try {
+            for (int i = 0; i < events; i++) {
+                handler.publishEvent(new RootContext(), "access", json(object(field("_id", "event-" + i))))
+                        .getOrThrow();
+            }
+
+            // When
+            handler.startup();
+        } finally {
+            handler.shutdown();
+            collector.stop();
+        }
+
+        // Then
+        assertThat(collector.events.get()).isEqualTo(events);
+        assertThat(collector.compressedRequests.get()).isEqualTo(collector.requests.get());
+        assertThat(collector.acknowledged.get()).isEqualTo(collector.requests.get());
+    }
+
+    @Test
+    public void unacknowledgedBatchIsRedelivered() throws Exception {
+        // Given
+        StubCollector collector = new StubCollector();
+        collector.withheldAcks = 1;
+        SplunkAuditEventHandler handler = newAcknowledgingHandler(collector);
+        handler.startup();
+        try {
+            // When
+            handler.publishBatch("{ \"_id\": \"123\" }\n").getOrThrow(10, TimeUnit.SECONDS);
+        } finally {
+            handler.shutdown();
+            collector.stop();
+        }
+
+        // Then
+        assertThat(collector.requests.get()).isEqualTo(2);
+        assertThat(collector.bodies).containsExactly("{ \"_id\": \"123\" }\n", "{ \"_id\": \"123\" }\n");
+    }
+
+    @Test(expectedExceptions = BatchException.class, expectedExceptionsMessageRegExp = ".*after 2 attempts$")
+    public void batchFailsOnceRedeliveriesAreExhausted() throws Exception {
+        // Given
+        StubCollector collector = new StubCollector();
+        collector.withheldAcks = Integer.MAX_VALUE;
+        SplunkAuditEventHandler handler = newAcknowledgingHandler(collector);
+        handler.startup();
+        try {
+            // When
+            handler.publishBatch("{ \"_id\": \"123\" }\n").getOrThrow(10, TimeUnit.SECONDS);
+        } finally {
+            handler.shutdown();
+            collector.stop();
+        }
+    }
+
     @Test(expectedExceptions = NotSupportedException.class)
     public void readIsNotCurrentlySupported() throws ResourceException {
         // When
@@ -229,4 +348,114 @@ public final class SplunkAuditEventHandlerTest {
         response.getOrThrowUninterruptibly();
     }
 
+
+    private SplunkAuditEventHandler newAcknowledgingHandler(final StubCollector collector) {
+        SplunkAuditEventHandlerConfiguration configuration = newConfiguration(collector.getPort());
+        configuration.getBuffering().setMaxSize(10000);
+        configuration.getBuffering().setMaxBatchedEvents(500);
+        configuration.getBuffering().setWriteInterval("10 millis");
+        AcknowledgementConfiguration acknowledgement = new AcknowledgementConfiguration();
+        acknowledgement.setEnabled(true);
+        acknowledgement.setPollInterval("10 millis");
+        acknowledgement.setTimeout("200 millis");
+        acknowledgement.setMaxRedeliveries(1);
+        configuration.setAcknowledgement(acknowledgement);
+        return new SplunkAuditEventHandler(configuration,
+                new EventTopicsMetaData(Collections.<String, JsonValue>emptyMap()), null, null);
+    }
+
+    private static SplunkAuditEventHandlerConfiguration newConfiguration(final int port) {
+        BufferingConfiguration bufferingConfiguration = new BufferingConfiguration();
+        bufferingConfiguration.setMaxBatchedEvents(5);
+        bufferingConfiguration.setMaxSize(1024);
+        bufferingConfiguration.setWriteInterval("500 milliseconds");
+
+        ConnectionConfiguration connectionConfiguration = new ConnectionConfiguration();
+        connectionConfiguration.setPort(port);
+        connectionConfiguration.setHost("localhost");
+
+        SplunkAuditEventHandlerConfiguration configuration = new SplunkAuditEventHandlerConfiguration();
+        configuration.setAuthzToken("abc-def-ghi");
+        configuration.setName("test");
+        configuration.setTopics(singleton("access"));
+        configuration.setBuffering(bufferingConfiguration);
+        configuration.setConnection(connectionConfiguration);
+        return configuration;
+    }
+
+    /**
+     * Local stand-in for the Splunk HTTP event collector with indexer acknowledgement enabled, which acknowledges
+     * every request except the first {@code withheldAcks} ones.
+     */
+    private static final class StubCollector implements HttpHandler {
+
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger compressedRequests = new AtomicInteger();
+        private final AtomicInteger events = new AtomicInteger();
+        private final AtomicInteger acknowledged = new AtomicInteger();
+        private final AtomicInteger nextAckId = new AtomicInteger();
+        private final List<String> bodies = Collections.synchronizedList(new ArrayList<String>());
+        private volatile int withheldAcks;
+
+        private StubCollector() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/services/collector/", this);
+            server.setExecutor(executor);
+            server.start();
+        }
+
+        private int getPort() {
+            return server.getAddress().getPort();
+        }
+
+        private void stop() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            if (exchange.getRequestHeaders().getFirst("X-Splunk-Request-Channel") == null) {
+                respond(exchange, 400, "{\"text\":\"Data channel is missing\",\"code\":10}");
+                return;
+            }
+            final byte[] raw;
+            try (InputStream in = exchange.getRequestBody()) {
+                raw = new Scanner(in, "ISO-8859-1").useDelimiter("\\A").next().getBytes(StandardCharsets.ISO_8859_1);
+            }
+            if (exchange.getRequestURI().getPath().endsWith("/ack")) {
+                final Map<String, Boolean> acks = new HashMap<>();
+                for (Object ackId : (List<?>) OBJECT_MAPPER.readValue(raw, Map.class).get("acks")) {
+                    final boolean acked = ((Number) ackId).intValue() >= withheldAcks;
+                    acks.put(ackId.toString(), acked);
+                    if (acked) {
+                        acknowledged.incrementAndGet();
+                    }
+                }
+                respond(exchange, 200, OBJECT_MAPPER.writeValueAsString(Collections.singletonMap("acks", acks)));
+                return;
+            }
+            InputStream body = new ByteArrayInputStream(raw);
+            if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                compressedRequests.incrementAndGet();
+                body = new GZIPInputStream(body);
+            }
+            final String events = new Scanner(body, "UTF-8").useDelimiter("\\A").next();
+            bodies.add(events);
+            this.events.addAndGet(events.split("\n").length);
+            requests.incrementAndGet();
+            respond(exchange, 200, "{\"text\":\"Success\",\"code\":0,\"ackId\":" + nextAckId.getAndIncrement() + "}");
+        }
+
+        private void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013 Cybernetica AS
+ * Portions Copyright 2026 Wren Security.
  * Portions copyright 2014-2015 ForgeRock AS.
  */
 package org.forgerock.audit.handlers.syslog;
@@ -21,22 +22,27 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 import static org.forgerock.audit.batch.CommonAuditBatchConfiguration.POLLING_TIMEOUT;
 import static org.forgerock.audit.batch.CommonAuditBatchConfiguration.POLLING_TIMEOUT_UNIT;
 
 /**
  * SyslogPublisher that offloads message transmission to a separate thread.
+ * <p>
+ * Producers hand their encoded messages over through a non-blocking queue: publishing only takes a capacity permit
+ * and enqueues the buffer, and wakes the writer thread if it is parked waiting for work. The writer drains everything
+ * queued so far, frames it onto the connection and flushes once per drained batch.
  */
 class AsynchronousSyslogPublisher implements SyslogPublisher {
 
@@ -48,9 +54,15 @@ class AsynchronousSyslogPublisher implements SyslogPublisher {
     /** SyslogConnection through which buffered messages are sent. */
     private final SyslogConnection connection;
     /** Queue to store unpublished records. */
-    private final BlockingQueue<byte[]> queue;
+    private final Queue<SyslogMessageBuffer> queue;
+    /** Free slots in {@link #queue}; producers block on this once the writer falls {@link #CAPACITY} behind. */
+    private final Semaphore capacity;
+    /** Set by the writer before parking, so that producers know to wake it up. */
+    private final AtomicBoolean writerParked;
     /** Single threaded executor which runs the WriterTask. */
     private final ExecutorService executorService;
+    /** The thread running the WriterTask, once started. */
+    private volatile Thread writerThread;
     /** Flag for notifying the WriterTask to exit. */
     private volatile boolean stopRequested;
 
@@ -65,7 +77,9 @@ class AsynchronousSyslogPublisher implements SyslogPublisher {
     AsynchronousSyslogPublisher(final String name, final SyslogConnection connection) {
         Reject.ifNull(connection);
         this.connection = connection;
-        this.queue = new LinkedBlockingQueue<>(CAPACITY);
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.capacity = new Semaphore(CAPACITY);
+        this.writerParked = new AtomicBoolean(false);
         this.stopRequested = false;
         this.executorService = Executors.newSingleThreadExecutor(new ThreadFactory() {
             @Override
@@ -77,27 +91,46 @@ class AsynchronousSyslogPublisher implements SyslogPublisher {
     }
 
     @Override
-    public void publishMessage(String syslogMessage) throws IOException {
+    public void publishMessage(SyslogMessageBuffer syslogMessage) throws IOException {
         boolean interrupted = false;
+        boolean queued = false;
         while (!stopRequested) {
-            // Put request on queue for writer
+            // Claim a slot on the queue for the writer
             try {
-                queue.put(syslogMessage.getBytes(StandardCharsets.UTF_8));
-                break;
+                if (capacity.tryAcquire(POLLING_TIMEOUT, POLLING_TIMEOUT_UNIT)) {
+                    queue.offer(syslogMessage);
+                    queued = true;
+                    break;
+                }
             } catch (InterruptedException e) {
                 // We expect this to happen. Just ignore it and hopefully
                 // drop out in the next try.
                 interrupted = true;
             }
         }
+        if (queued) {
+            wakeWriter();
+        } else {
+            syslogMessage.release();
+        }
         if (interrupted) {
             Thread.currentThread().interrupt();
         }
     }
 
+    private void wakeWriter() {
+        if (writerParked.get() && writerParked.compareAndSet(true, false)) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
     @Override
     public void close() {
         stopRequested = true;
+        Thread writer = writerThread;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+        }
 
         executorService.shutdown();
         boolean interrupted = false;
@@ -117,13 +150,13 @@ class AsynchronousSyslogPublisher implements SyslogPublisher {
         }
     }
 
-    private void publishBufferedMessages(List<byte[]> syslogMessages) {
-        for (byte[] syslogMessage : syslogMessages) {
+    private void publishBufferedMessages(List<SyslogMessageBuffer> syslogMessages) {
+        for (SyslogMessageBuffer syslogMessage : syslogMessages) {
             try {
                 connection.reconnect();
-                connection.send(syslogMessage);
+                connection.send(syslogMessage.contents());
             } catch (IOException ex) {
-                logger.error("Error when writing a message, message size: " + syslogMessage.length, ex);
+                logger.error("Error when writing a message, message size: " + syslogMessage.length(), ex);
                 connection.close();
             }
         }
@@ -131,6 +164,10 @@ class AsynchronousSyslogPublisher implements SyslogPublisher {
             connection.flush();
         } catch (IOException ex) {
             logger.error("Error when flushing the connection", ex);
+            connection.close();
+        }
+        for (SyslogMessageBuffer syslogMessage : syslogMessages) {
+            syslogMessage.release();
         }
     }
 
@@ -144,30 +181,31 @@ class AsynchronousSyslogPublisher implements SyslogPublisher {
          */
         @Override
         public void run() {
-            List<byte[]> drainList = new ArrayList<>(CAPACITY);
+            writerThread = Thread.currentThread();
+            List<SyslogMessageBuffer> drainList = new ArrayList<>(CAPACITY);
 
-            boolean interrupted = false;
             while (!stopRequested || !queue.isEmpty()) {
-                try {
-                    queue.drainTo(drainList, CAPACITY);
-                    if (drainList.isEmpty()) {
-                        byte[] message = queue.poll(POLLING_TIMEOUT, POLLING_TIMEOUT_UNIT);
-                        if (message != null) {
-                            publishBufferedMessages(Arrays.asList(message));
-                        }
-                    } else {
-                        publishBufferedMessages(drainList);
-                        drainList.clear();
-                    }
-                } catch (InterruptedException ex) {
-                    // Ignore. We'll rerun the loop
-                    // and presumably fall out.
-                    interrupted = true;
+                SyslogMessageBuffer message;
+                while (drainList.size() < CAPACITY && (message = queue.poll()) != null) {
+                    drainList.add(message);
+                }
+                if (drainList.isEmpty()) {
+                    awaitMessages();
+                } else {
+                    capacity.release(drainList.size());
+                    publishBufferedMessages(drainList);
+                    drainList.clear();
                 }
             }
-            if (interrupted) {
-                Thread.currentThread().interrupt();
+        }
+
+        private void awaitMessages() {
+            writerParked.set(true);
+            // re-check after publishing the flag so that a concurrent offer cannot be missed
+            if (queue.isEmpty() && !stopRequested) {
+                LockSupport.parkNanos(POLLING_TIMEOUT_UNIT.toNanos(POLLING_TIMEOUT));
             }
+            writerParked.set(false);
         }
     }
 
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013 Cybernetica AS
+ * Portions Copyright 2026 Wren Security.
  * Portions copyright 2014-2015 ForgeRock AS.
  */
 package org.forgerock.audit.handlers.syslog;
@@ -19,10 +20,12 @@ package org.forgerock.audit.handlers.syslog;
 import org.forgerock.util.Reject;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 
 /**
  * SyslogPublisher that transmits messages using the current thread.
+ * <p>
+ * Messages are formatted by the calling threads before reaching this publisher, so only the socket write itself is
+ * serialized.
  */
 class SynchronousSyslogPublisher implements SyslogPublisher {
 
@@ -41,15 +44,29 @@ class SynchronousSyslogPublisher implements SyslogPublisher {
     }
 
     @Override
-    public void publishMessage(String syslogMessage) throws IOException {
-        connection.reconnect();
-        connection.send(syslogMessage.getBytes(StandardCharsets.UTF_8));
-        connection.flush();
+    public void publishMessage(SyslogMessageBuffer syslogMessage) throws IOException {
+        try {
+            synchronized (connection) {
+                try {
+                    connection.reconnect();
+                    connection.send(syslogMessage.contents());
+                    connection.flush();
+                } catch (IOException e) {
+                    // drop the broken connection so that the next message reconnects
+                    connection.close();
+                    throw e;
+                }
+            }
+        } finally {
+            syslogMessage.release();
+        }
     }
 
     @Override
     public void close() {
-        connection.close();
+        synchronized (connection) {
+            connection.close();
+        }
     }
 
 }
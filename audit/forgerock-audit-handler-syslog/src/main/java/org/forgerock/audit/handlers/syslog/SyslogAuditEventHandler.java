@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013 Cybernetica AS
+ * Portions Copyright 2026 Wren Security.
  * Portions copyright 2014-2016 ForgeRock AS.
  */
 package org.forgerock.audit.handlers.syslog;
@@ -47,13 +48,20 @@ import org.slf4j.LoggerFactory;
 /**
  * The handler publishes audit events formatted using {@link SyslogFormatter} to a syslog daemon using
  * the configured {@link SyslogPublisher}. The publisher is flushed after each write.
+ * <p>
+ * Events are encoded by the publishing thread into pooled {@link SyslogMessageBuffer}s, which are then handed over
+ * to the publisher without any handler-wide locking.
  */
 public class SyslogAuditEventHandler extends AuditEventHandlerBase {
 
     private static final Logger logger = LoggerFactory.getLogger(SyslogAuditEventHandler.class);
 
+    /** Maximum number of idle message buffers retained for reuse. */
+    private static final int MAX_POOLED_BUFFERS = 1024;
+
     private final SyslogPublisher publisher;
     private final SyslogFormatter formatter;
+    private final SyslogMessageBuffer.Pool bufferPool = new SyslogMessageBuffer.Pool(MAX_POOLED_BUFFERS);
 
     /**
      * Create a new SyslogAuditEventHandler instance.
@@ -126,19 +134,14 @@ public class SyslogAuditEventHandler extends AuditEventHandlerBase {
      */
     @Override
     public void shutdown() {
-        synchronized (publisher) {
-            publisher.close();
-        }
+        publisher.close();
     }
 
     @Override
     public Promise<ResourceResponse, ResourceException> publishEvent(Context context, String topic, JsonValue event) {
 
         try {
-            final String syslogMessage = formatAsSyslogMessage(topic, event);
-            synchronized (publisher) {
-                publisher.publishMessage(syslogMessage);
-            }
+            publisher.publishMessage(formatAsSyslogMessage(topic, event));
 
             return newResourceResponse(
                     event.get(ResourceResponse.FIELD_CONTENT_ID).asString(),
@@ -150,13 +153,16 @@ public class SyslogAuditEventHandler extends AuditEventHandlerBase {
         }
     }
 
-    private String formatAsSyslogMessage(String topic, JsonValue auditEvent) throws ResourceException {
+    private SyslogMessageBuffer formatAsSyslogMessage(String topic, JsonValue auditEvent) throws ResourceException {
         if (!formatter.canFormat(topic)) {
             throw new InternalServerErrorException("Unable to format " + topic + " audit event");
         }
+        final SyslogMessageBuffer buffer = bufferPool.acquire();
         try {
-            return formatter.format(topic, auditEvent);
+            formatter.format(topic, auditEvent, buffer);
+            return buffer;
         } catch (Exception ex) {
+            buffer.release();
             throw new BadRequestException(ex);
         }
     }
@@ -12,20 +12,25 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013 Cybernetica AS
+ * Portions Copyright 2026 Wren Security.
  * Portions copyright 2014-2015 ForgeRock AS.
  */
 package org.forgerock.audit.handlers.syslog;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Abstraction over Syslog connection types such as TCP or UDP.
+ * <p>
+ * Connections may defer transmission of the messages passed to {@link #send(ByteBuffer)} until {@link #flush()}
+ * is called, so callers must not reuse the contents of those buffers before flushing.
  */
 interface SyslogConnection extends AutoCloseable {
 
     void reconnect() throws IOException;
 
-    void send(byte[] syslogMessage) throws IOException;
+    void send(ByteBuffer syslogMessage) throws IOException;
 
     void flush() throws IOException;
 
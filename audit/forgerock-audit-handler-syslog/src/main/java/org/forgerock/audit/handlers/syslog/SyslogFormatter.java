@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013 Cybernetica AS
+ * Portions Copyright 2026 Wren Security.
  * Portions copyright 2014-2016 ForgeRock AS.
  */
 package org.forgerock.audit.handlers.syslog;
@@ -24,7 +25,6 @@ import static org.forgerock.audit.events.AuditEventHelper.jsonPointerToDotNotati
 import static org.forgerock.audit.util.JsonSchemaUtils.generateJsonPointers;
 import static org.forgerock.audit.util.JsonValueUtils.extractValueAsString;
 
-import org.forgerock.audit.AuditService;
 import org.forgerock.audit.events.EventTopicsMetaData;
 import org.forgerock.audit.providers.LocalHostNameProvider;
 import org.forgerock.audit.providers.ProductInfoProvider;
@@ -37,6 +37,9 @@ import org.forgerock.util.Reject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -57,8 +60,13 @@ class SyslogFormatter {
 
     private static final String SYSLOG_SPEC_VERSION = "1";
     private static final String NIL_VALUE = "-";
+    /**
+     * The set of audit event fields that should not be copied to structured-data.
+     */
+    private static final Set<String> IGNORED_FIELDS = unmodifiableSet(
+            new HashSet<>(asList("_id", TIMESTAMP, EVENT_NAME)));
 
-    private final Map<String, StructuredDataFormatter> structuredDataFormatters;
+    private final Map<String, TopicFormatter> topicFormatters;
     private final Map<String, SeverityFieldMapping> severityFieldMappings;
     private final String hostname;
     private final String appName;
@@ -84,8 +92,7 @@ class SyslogFormatter {
         this.facility = config.getFacility();
         this.severityFieldMappings =
                 createSeverityFieldMappings(config.getSeverityFieldMappings(), eventTopicsMetaData);
-        this.structuredDataFormatters = Collections.unmodifiableMap(
-                createStructuredDataFormatters(appName, eventTopicsMetaData));
+        this.topicFormatters = Collections.unmodifiableMap(createTopicFormatters(eventTopicsMetaData));
     }
 
     /**
@@ -99,25 +106,25 @@ class SyslogFormatter {
      * @throws IllegalArgumentException If this formatter has no meta-data for the specified <code>topic</code>.
      */
     public String format(String topic, JsonValue auditEvent) {
+        SyslogMessageBuffer buffer = new SyslogMessageBuffer();
+        format(topic, auditEvent, buffer);
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
 
-        Reject.ifFalse(canFormat(topic), "Unknown event topic");
-
-        final Severity severity = getSeverityLevel(topic, auditEvent);
-        final String priority = String.valueOf(calculatePriorityValue(facility, severity));
-        final String timestamp = auditEvent.get(TIMESTAMP).asString();
-        final String msgId = auditEvent.get(EVENT_NAME).asString();
-        final String structuredData = structuredDataFormatters.get(topic).format(auditEvent);
-        final String msg = "";
-
-        return "<" + priority + ">"         // https://tools.ietf.org/html/rfc5424#section-6.2.1    PRI
-                + SYSLOG_SPEC_VERSION + " " // https://tools.ietf.org/html/rfc5424#section-6.2.2    VERSION
-                + timestamp + " "           // https://tools.ietf.org/html/rfc5424#section-6.2.3    TIMESTAMP
-                + hostname + " "            // https://tools.ietf.org/html/rfc5424#section-6.2.4    HOSTNAME
-                + appName + " "             // https://tools.ietf.org/html/rfc5424#section-6.2.5    APP-NAME
-                + procId + " "              // https://tools.ietf.org/html/rfc5424#section-6.2.6    PROCID
-                + msgId + " "               // https://tools.ietf.org/html/rfc5424#section-6.2.7    MSGID
-                + structuredData + " "      // https://tools.ietf.org/html/rfc5424#section-6.3      STRUCTURED-DATA
-                + msg;                      // https://tools.ietf.org/html/rfc5424#section-6.4      MSG
+    /**
+     * Encode the provided <code>auditEvent</code> as an RFC-5424 compliant Syslog message, appending its UTF-8
+     * bytes to <code>buffer</code>.
+     *
+     * @param topic The topic of the provided <code>auditEvent</code>.
+     * @param auditEvent The audit event to be formatted.
+     * @param buffer The buffer to which the Syslog message is written.
+     *
+     * @throws IllegalArgumentException If this formatter has no meta-data for the specified <code>topic</code>.
+     */
+    public void format(String topic, JsonValue auditEvent, SyslogMessageBuffer buffer) {
+        final TopicFormatter topicFormatter = topicFormatters.get(topic);
+        Reject.ifFalse(topicFormatter != null, "Unknown event topic");
+        topicFormatter.format(auditEvent, buffer);
     }
 
     /**
@@ -129,7 +136,7 @@ class SyslogFormatter {
      *         <code>false</code> otherwise.
      */
     public boolean canFormat(String topic) {
-        return structuredDataFormatters.containsKey(topic);
+        return topicFormatters.containsKey(topic);
     }
 
     private Map<String, SeverityFieldMapping> createSeverityFieldMappings(
@@ -172,41 +179,15 @@ class SyslogFormatter {
         return results;
     }
 
-    private Map<String, StructuredDataFormatter> createStructuredDataFormatters(
-            String productName,
-            EventTopicsMetaData eventTopicsMetaData) {
-
-        final Map<String, StructuredDataFormatter> results = new HashMap<>();
+    private Map<String, TopicFormatter> createTopicFormatters(EventTopicsMetaData eventTopicsMetaData) {
+        final Map<String, TopicFormatter> results = new HashMap<>();
         for (String topic : eventTopicsMetaData.getTopics()) {
             JsonValue schema = eventTopicsMetaData.getSchema(topic);
-            results.put(topic, new StructuredDataFormatter(productName, topic, schema));
+            results.put(topic, new TopicFormatter(topic, schema, severityFieldMappings.get(topic)));
         }
         return results;
     }
 
-    private Severity getSeverityLevel(String topic, JsonValue auditEvent) {
-        if (severityFieldMappings.containsKey(topic)) {
-            SeverityFieldMapping severityFieldMapping = severityFieldMappings.get(topic);
-            String severityField = severityFieldMapping.getField();
-            if (severityField != null && !severityField.startsWith("/")) {
-                severityField = "/" + severityField;
-            }
-            JsonValue jsonValue = auditEvent.get(new JsonPointer(severityField));
-            String severityValue = jsonValue == null ? null : jsonValue.asString();
-            if (severityValue == null) {
-                logger.debug("{} value not set; defaulting to INFORMATIONAL Syslog SEVERITY level", severityField);
-            } else {
-                try {
-                    return Severity.valueOf(severityValue);
-                } catch (IllegalArgumentException ex) {
-                    logger.debug("{} is not a valid Syslog SEVERITY level; defaulting to INFORMATIONAL", severityValue);
-                }
-            }
-        }
-        // if no mapping was defined or the value wasn't a valid severity, default to INFORMATIONAL
-        return Severity.INFORMATIONAL;
-    }
-
     /**
      * Calculates the Syslog message PRI value.
      *
@@ -237,38 +218,40 @@ class SyslogFormatter {
     }
 
     /**
-     * Responsible for formatting an {@link AuditEvent}'s JSON representation as an RFC-5424 compliant SD-ELEMENT.
+     * Responsible for formatting the {@link AuditEvent}s of a single topic as RFC-5424 compliant Syslog messages.
+     *
+     * Everything that does not depend on the event itself (the PRI prefix for each severity, the HOSTNAME, APP-NAME
+     * and PROCID header fields, the SD-ID and each SD-PARAM name) is encoded once at construction time, so that
+     * formatting an event only resolves the schema fields and copies their UTF-8 bytes into the target buffer.
      *
      * Objects are immutable and can therefore be freely shared across threads without synchronization.
      *
-     * @see <a href="https://tools.ietf.org/html/rfc5424#section-6.3">RFC-5424 section 6.3</a>
+     * @see <a href="https://tools.ietf.org/html/rfc5424#section-6">RFC-5424 section 6</a>
      */
-    private static class StructuredDataFormatter {
+    private final class TopicFormatter {
 
         private static final String FORGEROCK_IANA_ENTERPRISE_ID = "36733";
-        /**
-         * The set of audit event fields that should not be copied to structured-data.
-         */
-        private static final Set<String> IGNORED_FIELDS = unmodifiableSet(
-                new HashSet<>(asList("_id", TIMESTAMP, EVENT_NAME)));
 
-        private final String id;
-        private final Set<String> fieldNames;
+        /** Encoded "&lt;PRI&gt;VERSION SP" prefix, indexed by {@link Severity#getCode()}. */
+        private final byte[][] priorityPrefixes;
+        /** Encoded "SP HOSTNAME SP APP-NAME SP PROCID SP" header section. */
+        private final byte[] headerFields;
+        /** Encoded "SP [SD-ID" opening of the SD-ELEMENT. */
+        private final byte[] structuredDataId;
+        private final ParamFormatter[] params;
+        private final String[] severityFieldPath;
 
         /**
-         * Construct a new StructuredDataFormatter.
+         * Construct a new TopicFormatter.
          *
-         * @param productName Name of the ForgeRock product in which the {@link AuditService}
-         *                    is executing; the SD-ID of each STRUCTURED-DATA element is derived from the
-         *                    <code>productName</code> and <code>topic</code>.
          * @param topic Coarse-grained categorisation of the types of audit events that this formatter handles;
-         *              the SD-ID of each STRUCTURED-DATA element is derived from the <code>productName</code>
+         *              the SD-ID of each STRUCTURED-DATA element is derived from the <code>appName</code>
          *              and <code>topic</code>.
          * @param auditEventMetaData Schema and additional meta-data for the audit event topic.
+         * @param severityFieldMapping The mapping of an event field to the Syslog SEVERITY, or <code>null</code>.
          */
-        public StructuredDataFormatter(String productName, String topic, JsonValue auditEventMetaData) {
+        TopicFormatter(String topic, JsonValue auditEventMetaData, SeverityFieldMapping severityFieldMapping) {
 
-            Reject.ifNull(productName, "Product name required.");
             Reject.ifNull(topic, "Audit event topic name required.");
 
             JsonValue auditEventSchema;
@@ -278,49 +261,142 @@ class SyslogFormatter {
                 throw new IllegalArgumentException(e.getMessage(), e);
             }
 
-            id = topic + "." + productName + "@" + FORGEROCK_IANA_ENTERPRISE_ID;
-            fieldNames = unmodifiableSet(generateJsonPointers(auditEventSchema));
+            final Severity[] severities = Severity.values();
+            priorityPrefixes = new byte[severities.length][];
+            for (Severity severity : severities) {
+                priorityPrefixes[severity.getCode()] = utf8("<" + calculatePriorityValue(facility, severity) + ">"
+                        + SYSLOG_SPEC_VERSION + " ");
+            }
+            headerFields = utf8(" " + hostname + " " + appName + " " + procId + " ");
+            structuredDataId = utf8(" [" + topic + "." + appName + "@" + FORGEROCK_IANA_ENTERPRISE_ID);
+
+            final List<ParamFormatter> paramFormatters = new ArrayList<>();
+            for (String fieldName : generateJsonPointers(auditEventSchema)) {
+                String formattedName = jsonPointerToDotNotation(fieldName);
+                if (!IGNORED_FIELDS.contains(formattedName)) {
+                    paramFormatters.add(new ParamFormatter(formattedName, new JsonPointer(fieldName)));
+                }
+            }
+            params = paramFormatters.toArray(new ParamFormatter[paramFormatters.size()]);
+
+            if (severityFieldMapping != null) {
+                String severityField = severityFieldMapping.getField();
+                if (severityField != null && !severityField.startsWith("/")) {
+                    severityField = "/" + severityField;
+                }
+                severityFieldPath = new JsonPointer(severityField).toArray();
+            } else {
+                severityFieldPath = null;
+            }
         }
 
         /**
-         * Translate the provided <code>auditEvent</code> to an RFC-5424 compliant SD-ELEMENT.
+         * Encode the provided <code>auditEvent</code> as an RFC-5424 compliant Syslog message.
          *
          * @param auditEvent The audit event to be formatted.
-         *
-         * @return an RFC-5424 compliant SD-ELEMENT.
+         * @param buffer The buffer to which the Syslog message is written.
          */
-        public String format(JsonValue auditEvent) {
-
-            StringBuilder sd = new StringBuilder();
+        void format(JsonValue auditEvent, SyslogMessageBuffer buffer) {
+            final Object event = auditEvent.getObject();
+            buffer.put(priorityPrefixes[getSeverityLevel(event).getCode()]);    // PRI VERSION
+            buffer.putUtf8(auditEvent.get(TIMESTAMP).asString(), false);        // TIMESTAMP
+            buffer.put(headerFields);                                           // HOSTNAME APP-NAME PROCID
+            buffer.putUtf8(auditEvent.get(EVENT_NAME).asString(), false);       // MSGID
+            buffer.put(structuredDataId);                                       // STRUCTURED-DATA
+            for (ParamFormatter param : params) {
+                param.format(auditEvent, event, buffer);
+            }
+            buffer.put((byte) ']');
+            buffer.put((byte) ' ');                                             // empty MSG
+        }
 
-            sd.append("[");
-            sd.append(id);
-            for (String fieldName : fieldNames) {
-                String formattedName = formatParamName(fieldName);
-                if (IGNORED_FIELDS.contains(formattedName)) {
-                    continue;
+        private Severity getSeverityLevel(Object event) {
+            if (severityFieldPath != null) {
+                Object value = resolve(event, severityFieldPath);
+                String severityValue = value == null ? null : value.toString();
+                if (severityValue == null) {
+                    logger.debug("{} value not set; defaulting to INFORMATIONAL Syslog SEVERITY level",
+                            new JsonPointer(severityFieldPath));
+                } else {
+                    try {
+                        return Severity.valueOf(severityValue);
+                    } catch (IllegalArgumentException ex) {
+                        logger.debug("{} is not a valid Syslog SEVERITY level; defaulting to INFORMATIONAL",
+                                severityValue);
+                    }
                 }
-                sd.append(" ");
-                sd.append(formattedName);
-                sd.append("=\"");
-                sd.append(formatParamValue(extractValueAsString(auditEvent, fieldName)));
-                sd.append("\"");
             }
-            sd.append("]");
+            // if no mapping was defined or the value wasn't a valid severity, default to INFORMATIONAL
+            return Severity.INFORMATIONAL;
+        }
+    }
+
+    /**
+     * Formats a single SD-PARAM of an RFC-5424 SD-ELEMENT.
+     *
+     * @see <a href="https://tools.ietf.org/html/rfc5424#section-6.3.3">RFC-5424 section 6.3.3</a>
+     */
+    private static final class ParamFormatter {
+
+        private final byte[] nameBytes;
+        private final JsonPointer pointer;
+        private final String[] path;
 
-            return sd.toString();
+        ParamFormatter(String name, JsonPointer pointer) {
+            this.nameBytes = utf8(" " + name + "=\"");
+            this.pointer = pointer;
+            this.path = pointer.toArray();
         }
 
-        private String formatParamName(String name) {
-            return jsonPointerToDotNotation(name);
+        void format(JsonValue auditEvent, Object event, SyslogMessageBuffer buffer) {
+            buffer.put(nameBytes);
+            Object value = resolve(event, path);
+            if (value instanceof String) {
+                buffer.putUtf8((String) value, true);
+            } else if (value instanceof Integer || value instanceof Long) {
+                buffer.putDecimal(((Number) value).longValue());
+            } else if (value instanceof Boolean) {
+                buffer.putUtf8(value.toString(), false);
+            } else if (value != null || containsCollection(event, path)) {
+                // complex values and array indices keep the generic JSON rendering
+                String formatted = extractValueAsString(auditEvent, pointer);
+                if (formatted != null) {
+                    buffer.putUtf8(formatted, true);
+                }
+            }
+            buffer.put((byte) '"');
         }
+    }
 
-        private String formatParamValue(String value) {
-            if (value == null) {
-                return "";
-            } else {
-                return value.replaceAll("[\\\\\"\\]]", "\\\\$0");
+    /**
+     * Resolves the value at <code>path</code> by walking nested maps; returns <code>null</code> if the path is
+     * absent or traverses anything other than a map.
+     */
+    private static Object resolve(Object event, String[] path) {
+        Object value = event;
+        for (String name : path) {
+            if (!(value instanceof Map<?, ?>)) {
+                return null;
             }
+            value = ((Map<?, ?>) value).get(name);
         }
+        return value;
+    }
+
+    private static boolean containsCollection(Object event, String[] path) {
+        Object value = event;
+        for (String name : path) {
+            if (value instanceof Collection<?>) {
+                return true;
+            } else if (!(value instanceof Map<?, ?>)) {
+                return false;
+            }
+            value = ((Map<?, ?>) value).get(name);
+        }
+        return false;
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,247 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.audit.handlers.syslog;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Growable byte buffer into which {@link SyslogFormatter} encodes a single Syslog message as UTF-8.
+ * <p>
+ * Buffers are obtained from a {@link Pool} and handed over to the {@link SyslogPublisher}, which calls
+ * {@link #release()} once the message has been transmitted so that the backing {@link ByteBuffer} can be reused
+ * by the next event. Instances are not thread-safe; a buffer is owned by exactly one thread at a time.
+ */
+final class SyslogMessageBuffer {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte[] DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' };
+
+    private final Pool pool;
+    private ByteBuffer buffer;
+
+    /**
+     * Construct a new buffer that is not associated with any pool.
+     */
+    SyslogMessageBuffer() {
+        this(null);
+    }
+
+    private SyslogMessageBuffer(Pool pool) {
+        this.pool = pool;
+        this.buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Appends the provided bytes.
+     *
+     * @param bytes The bytes to append.
+     * @return This buffer.
+     */
+    SyslogMessageBuffer put(byte[] bytes) {
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+        return this;
+    }
+
+    /**
+     * Appends a single byte.
+     *
+     * @param b The byte to append.
+     * @return This buffer.
+     */
+    SyslogMessageBuffer put(byte b) {
+        ensureRemaining(1);
+        buffer.put(b);
+        return this;
+    }
+
+    /**
+     * Appends the decimal representation of a non-negative number.
+     *
+     * @param value The number to append.
+     * @return This buffer.
+     */
+    SyslogMessageBuffer putDecimal(long value) {
+        if (value < 0) {
+            return putUtf8(String.valueOf(value), false);
+        }
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        ensureRemaining(digits);
+        int end = buffer.position() + digits;
+        long v = value;
+        for (int i = end - 1; i >= end - digits; i--) {
+            buffer.put(i, DIGITS[(int) (v % 10)]);
+            v /= 10;
+        }
+        buffer.position(end);
+        return this;
+    }
+
+    /**
+     * Appends the UTF-8 encoding of the provided characters.
+     *
+     * @param chars The characters to append; {@code null} is written as the literal {@code null}.
+     * @param escapeParamValue {@code true} if the characters form an SD-PARAM value, in which case the characters
+     *                         {@code '"'}, {@code '\'} and {@code ']'} are escaped as required by RFC-5424.
+     * @return This buffer.
+     */
+    SyslogMessageBuffer putUtf8(CharSequence chars, boolean escapeParamValue) {
+        if (chars == null) {
+            return putUtf8("null", false);
+        }
+        final int length = chars.length();
+        // worst case is three bytes per UTF-16 char (or two escaped ASCII bytes), checked up front once
+        ensureRemaining(length * 3);
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                if (escapeParamValue && (c == '"' || c == '\\' || c == ']')) {
+                    buffer.put((byte) '\\');
+                }
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, replaced in the same way as String.getBytes(UTF_8)
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return The message length in bytes.
+     */
+    int length() {
+        return buffer.position();
+    }
+
+    /**
+     * Returns a read-only view of the encoded message, positioned at its first byte.
+     *
+     * @return The encoded message.
+     */
+    ByteBuffer contents() {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        view.flip();
+        return view;
+    }
+
+    /**
+     * Returns a copy of the encoded message.
+     *
+     * @return The encoded message.
+     */
+    byte[] toByteArray() {
+        byte[] bytes = new byte[buffer.position()];
+        System.arraycopy(buffer.array(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    /**
+     * Discards the encoded message so that the buffer can be written again.
+     */
+    void clear() {
+        buffer.clear();
+    }
+
+    /**
+     * Returns this buffer to the pool it was obtained from, if any. The buffer must not be used afterwards.
+     */
+    void release() {
+        if (pool != null) {
+            pool.release(this);
+        }
+    }
+
+    private void ensureRemaining(int required) {
+        if (buffer.remaining() < required) {
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + required);
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+
+    /**
+     * Lock-free pool of {@link SyslogMessageBuffer}s shared by all threads publishing to one handler.
+     */
+    static final class Pool {
+
+        /** Buffers that have grown beyond this size are dropped rather than retained by the pool. */
+        private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+        private final Queue<SyslogMessageBuffer> buffers = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final int maxSize;
+
+        /**
+         * Construct a new pool.
+         *
+         * @param maxSize The maximum number of idle buffers to retain.
+         */
+        Pool(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Returns an empty buffer, reusing an idle one when available.
+         *
+         * @return An empty buffer.
+         */
+        SyslogMessageBuffer acquire() {
+            SyslogMessageBuffer messageBuffer = buffers.poll();
+            if (messageBuffer == null) {
+                return new SyslogMessageBuffer(this);
+            }
+            size.decrementAndGet();
+            return messageBuffer;
+        }
+
+        private void release(SyslogMessageBuffer messageBuffer) {
+            if (messageBuffer.buffer.capacity() > MAX_RETAINED_CAPACITY) {
+                return;
+            }
+            if (size.incrementAndGet() > maxSize) {
+                size.decrementAndGet();
+                return;
+            }
+            messageBuffer.clear();
+            buffers.offer(messageBuffer);
+        }
+    }
+}
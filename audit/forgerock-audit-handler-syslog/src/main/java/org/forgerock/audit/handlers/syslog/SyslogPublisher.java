@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013 Cybernetica AS
+ * Portions Copyright 2026 Wren Security.
  * Portions copyright 2014-2015 ForgeRock AS.
  */
 package org.forgerock.audit.handlers.syslog;
@@ -25,12 +26,15 @@ interface SyslogPublisher extends AutoCloseable {
 
     /**
      * Send the provided message to the Syslog server.
+     * <p>
+     * Ownership of <code>syslogMessage</code> passes to the publisher, which releases the buffer once the message
+     * has been transmitted (or discarded). Implementations must be safe to call from multiple threads.
      *
-     * @param syslogMessage The message to transmit to the Syslog server.
+     * @param syslogMessage The encoded message to transmit to the Syslog server.
      *
      * @throws IOException If connecting or publishing events to the Syslog daemon failed.
      */
-    void publishMessage(String syslogMessage) throws IOException;
+    void publishMessage(SyslogMessageBuffer syslogMessage) throws IOException;
 
     /**
      * Closes the underlying connection.
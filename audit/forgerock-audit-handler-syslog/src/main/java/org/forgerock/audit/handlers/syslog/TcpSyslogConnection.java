@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013 Cybernetica AS
+ * Portions Copyright 2026 Wren Security.
  * Portions copyright 2014-2016 ForgeRock AS.
  */
 package org.forgerock.audit.handlers.syslog;
@@ -20,50 +21,69 @@ import org.forgerock.util.Reject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.InetSocketAddress;
-import java.net.Socket;
 import java.net.SocketAddress;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
 
 /**
  * A {@link SyslogConnection} implementation that publishes Syslog messages using the TCP protocol.
+ * <p>
+ * Messages passed to {@link #send(ByteBuffer)} are framed and queued; {@link #flush()} then transmits all queued
+ * frames with gathering writes, so that a batch of messages costs a handful of system calls rather than one or more
+ * per message.
  */
 class TcpSyslogConnection implements SyslogConnection {
 
     private static final Logger logger = LoggerFactory.getLogger(TcpSyslogConnection.class);
 
+    /** Number of queued messages after which {@link #send(ByteBuffer)} flushes on its own. */
+    private static final int MAX_PENDING_MESSAGES = 512;
+    /** Room for the decimal digits of any int length followed by a space. */
+    private static final int MAX_FRAME_HEADER_LENGTH = 11;
+
     private final SocketAddress socketAddress;
     private final int connectTimeout; // ms
-    private Socket socket = null;
-    private OutputStream outputStream;
+    private SocketChannel channel = null;
+    /** Alternating frame headers and message bodies awaiting a gathering write. */
+    private final ByteBuffer[] pending = new ByteBuffer[MAX_PENDING_MESSAGES * 2];
+    /** Frame header buffers, reused across flushes. */
+    private final ByteBuffer[] frameHeaders = new ByteBuffer[MAX_PENDING_MESSAGES];
+    private int pendingMessages = 0;
 
     TcpSyslogConnection(InetSocketAddress socketAddress, int connectTimeout) {
         this.socketAddress = socketAddress;
         this.connectTimeout = connectTimeout;
+        for (int i = 0; i < frameHeaders.length; i++) {
+            frameHeaders[i] = ByteBuffer.allocate(MAX_FRAME_HEADER_LENGTH);
+        }
     }
 
     @Override
     public void reconnect() throws IOException {
-        if (socket == null) {
+        if (channel == null) {
             connect();
-        } else if (!socket.isConnected() || socket.isClosed()) {
+        } else if (!channel.isConnected() || !channel.isOpen()) {
             close();
             connect();
         }
     }
 
     private void connect() throws IOException {
-        socket = new Socket();
-        socket.connect(socketAddress, connectTimeout);
-        socket.setKeepAlive(true);
-        outputStream = new BufferedOutputStream(socket.getOutputStream());
+        channel = SocketChannel.open();
+        try {
+            channel.socket().connect(socketAddress, connectTimeout);
+            channel.socket().setKeepAlive(true);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
     }
 
     /**
-     * Sends the Syslog message bytes to Syslog over TCP in the correct format.
+     * Frames the Syslog message bytes for transmission to Syslog over TCP in the correct format.
      *
      * Per <a href="https://tools.ietf.org/html/rfc6587#section-3.4.1">RFC 6587</a> the TCP messages should have the
      * following structure:
@@ -81,38 +101,71 @@ class TcpSyslogConnection implements SyslogConnection {
      * }
      * </pre>
      *
-     * @param syslogMessage The log record's byte[] representation.
+     * The frame is written out by the next {@link #flush()}, or immediately once
+     * {@value #MAX_PENDING_MESSAGES} messages are queued.
+     *
+     * @param syslogMessage The log record's encoded representation.
      * @throws IOException {@inheritDoc}
      */
     @Override
-    public void send(byte[] syslogMessage) throws IOException {
-        Reject.ifNull(outputStream, "TCP connection must be established before calling send");
-        outputStream.write(String.valueOf(syslogMessage.length).getBytes(StandardCharsets.UTF_8));
-        outputStream.write(' ');
-        outputStream.write(syslogMessage);
+    public void send(ByteBuffer syslogMessage) throws IOException {
+        Reject.ifNull(channel, "TCP connection must be established before calling send");
+        if (pendingMessages == MAX_PENDING_MESSAGES) {
+            flush();
+        }
+        ByteBuffer frameHeader = frameHeaders[pendingMessages];
+        // MSG-LEN digits are written right to left, ending with the SP separator
+        int position = MAX_FRAME_HEADER_LENGTH - 1;
+        frameHeader.clear();
+        frameHeader.put(position, (byte) ' ');
+        int length = syslogMessage.remaining();
+        do {
+            frameHeader.put(--position, (byte) ('0' + length % 10));
+            length /= 10;
+        } while (length > 0);
+        frameHeader.position(position);
+        pending[pendingMessages * 2] = frameHeader;
+        pending[pendingMessages * 2 + 1] = syslogMessage;
+        pendingMessages++;
     }
 
     @Override
     public void flush() throws IOException {
-        if (outputStream != null) {
-            outputStream.flush();
+        if (pendingMessages == 0) {
+            return;
+        }
+        final int length = pendingMessages * 2;
+        try {
+            Reject.ifNull(channel, "TCP connection must be established before calling flush");
+            int offset = 0;
+            while (offset < length) {
+                channel.write(pending, offset, length - offset);
+                while (offset < length && !pending[offset].hasRemaining()) {
+                    offset++;
+                }
+            }
+        } finally {
+            Arrays.fill(pending, 0, length, null);
+            pendingMessages = 0;
         }
     }
 
     @Override
     public void close() {
-        try {
-            flush();
-        } catch (IOException e) {
-            logger.warn("Error when flushing the connection", e);
-        }
-        if (socket != null) {
+        if (channel != null) {
+            try {
+                flush();
+            } catch (IOException e) {
+                logger.warn("Error when flushing the connection", e);
+            }
             try {
-                socket.close();
+                channel.close();
             } catch (IOException closeException) {
                 logger.warn("Unable to close Syslog TCP connection", closeException);
             }
         }
-        socket = null;
+        Arrays.fill(pending, null);
+        pendingMessages = 0;
+        channel = null;
     }
 }
@@ -12,15 +12,16 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013 Cybernetica AS
+ * Portions Copyright 2026 Wren Security.
  * Portions copyright 2014-2015 ForgeRock AS.
  */
 package org.forgerock.audit.handlers.syslog;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 
 /**
  * A {@link SyslogConnection} implementation that publishes Syslog messages using the UDP protocol.
@@ -28,7 +29,7 @@ import java.net.SocketAddress;
 class UdpSyslogConnection implements SyslogConnection {
 
     private final SocketAddress socketAddress;
-    private DatagramSocket datagramSocket;
+    private DatagramChannel datagramChannel;
 
     public UdpSyslogConnection(InetSocketAddress socketAddress) {
         this.socketAddress = socketAddress;
@@ -36,15 +37,14 @@ class UdpSyslogConnection implements SyslogConnection {
 
     @Override
     public void reconnect() throws IOException {
-        if (datagramSocket == null) {
-            datagramSocket = new DatagramSocket();
+        if (datagramChannel == null) {
+            datagramChannel = DatagramChannel.open();
         }
     }
 
     @Override
-    public void send(byte[] syslogMessage) throws IOException {
-        DatagramPacket packet = new DatagramPacket(syslogMessage, syslogMessage.length, socketAddress);
-        datagramSocket.send(packet);
+    public void send(ByteBuffer syslogMessage) throws IOException {
+        datagramChannel.send(syslogMessage, socketAddress);
     }
 
     @Override
@@ -54,9 +54,13 @@ class UdpSyslogConnection implements SyslogConnection {
 
     @Override
     public void close() {
-        if (datagramSocket != null) {
-            datagramSocket.close();
+        if (datagramChannel != null) {
+            try {
+                datagramChannel.close();
+            } catch (IOException e) {
+                // nothing useful can be done; the channel is discarded either way
+            }
         }
-        datagramSocket = null;
+        datagramChannel = null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.audit.handlers.syslog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+@SuppressWarnings("javadoc")
+public class AsynchronousSyslogPublisherTest {
+
+    private static final int THREADS = 4;
+    private static final int MESSAGES_PER_THREAD = 5000;
+
+    @Test
+    public void deliversEveryMessagePublishedConcurrently() throws Exception {
+        // given
+        final RecordingConnection connection = new RecordingConnection();
+        final AsynchronousSyslogPublisher publisher = new AsynchronousSyslogPublisher("test-publisher", connection);
+        final SyslogMessageBuffer.Pool pool = new SyslogMessageBuffer.Pool(64);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> producers = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < THREADS; t++) {
+            final int producer = t;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+                            SyslogMessageBuffer buffer = pool.acquire();
+                            buffer.putUtf8(producer + "-" + i, false);
+                            publisher.publishMessage(buffer);
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : producers) {
+            thread.join();
+        }
+        publisher.close();
+
+        // then
+        assertThat(connection.messages).hasSize(THREADS * MESSAGES_PER_THREAD);
+        assertThat(new HashSet<>(connection.messages)).hasSize(THREADS * MESSAGES_PER_THREAD);
+        assertThat(connection.closed).isTrue();
+    }
+
+    /**
+     * Connection that decodes messages on flush, after which the publisher may recycle their buffers.
+     */
+    private static final class RecordingConnection implements SyslogConnection {
+
+        private final List<ByteBuffer> pending = new ArrayList<>();
+        private final List<String> messages = new ArrayList<>();
+        private volatile boolean closed;
+
+        @Override
+        public void reconnect() {
+            closed = false;
+        }
+
+        @Override
+        public void send(ByteBuffer syslogMessage) {
+            pending.add(syslogMessage);
+        }
+
+        @Override
+        public void flush() {
+            for (ByteBuffer message : pending) {
+                messages.add(StandardCharsets.UTF_8.decode(message).toString());
+            }
+            pending.clear();
+        }
+
+        @Override
+        public void close() {
+            flush();
+            closed = true;
+        }
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.audit.handlers.syslog;
@@ -35,6 +36,7 @@ import org.forgerock.json.JsonValue;
 import org.testng.annotations.Test;
 
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -383,6 +385,63 @@ public class SyslogFormatterTest {
         assertThat(syslogMessage.structuredData.get("field4")).isEqualTo("\"]\\");
     }
 
+    @Test
+    public void encodesMultiByteCharactersAsUtf8() throws Exception {
+        // given
+        SyslogFormatter syslogFormatter = newSyslogFormatter("OpenAM", Facility.LOCAL5, "server.name");
+
+        AuditEvent auditEvent = firstTestTopic()
+                .transactionId("transactionId")
+                .timestamp(1427293286239L)
+                .eventName("AM-ACCESS-ATTEMPT")
+                .field1("\u00e9t\u00e9", "\u20ac\ud83d\ude00]")
+                .toEvent();
+
+        // when
+        SyslogMessageBuffer buffer = new SyslogMessageBuffer();
+        syslogFormatter.format("firstTestTopic", auditEvent.getValue(), buffer);
+        String formattedEvent = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        SyslogMessage syslogMessage = readSyslogMessage(formattedEvent);
+
+        // then
+        assertThat(buffer.length()).isEqualTo(formattedEvent.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(formattedEvent).isEqualTo(syslogFormatter.format("firstTestTopic", auditEvent.getValue()));
+        assertThat(syslogMessage.structuredData.get("field1.field2")).isEqualTo("\u00e9t\u00e9");
+        assertThat(syslogMessage.structuredData.get("field1.field3")).isEqualTo("\u20ac\ud83d\ude00]");
+    }
+
+    @Test
+    public void reusesPooledBuffersBetweenMessages() throws Exception {
+        // given
+        SyslogFormatter syslogFormatter = newSyslogFormatter("OpenAM", Facility.LOCAL5, "server.name");
+        SyslogMessageBuffer.Pool pool = new SyslogMessageBuffer.Pool(1);
+
+        AuditEvent firstEvent = firstTestTopic()
+                .transactionId("first")
+                .timestamp(1427293286239L)
+                .eventName("AM-ACCESS-ATTEMPT")
+                .field4("a considerably longer value than the one in the second event")
+                .toEvent();
+        AuditEvent secondEvent = firstTestTopic()
+                .transactionId("second")
+                .timestamp(1427293286239L)
+                .eventName("AM-ACCESS-OUTCOME")
+                .field4("short")
+                .toEvent();
+
+        // when
+        SyslogMessageBuffer first = pool.acquire();
+        syslogFormatter.format("firstTestTopic", firstEvent.getValue(), first);
+        first.release();
+        SyslogMessageBuffer second = pool.acquire();
+        syslogFormatter.format("firstTestTopic", secondEvent.getValue(), second);
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(new String(second.toByteArray(), StandardCharsets.UTF_8))
+                .isEqualTo(syslogFormatter.format("firstTestTopic", secondEvent.getValue()));
+    }
+
     private SyslogFormatter newSyslogFormatter(String productName, Facility facility, String localHostName)
             throws Exception {
         return newSyslogFormatter(productName, facility, localHostName, Collections.<SeverityFieldMapping>emptyList());
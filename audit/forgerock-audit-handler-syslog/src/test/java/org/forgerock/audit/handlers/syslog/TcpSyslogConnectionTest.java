@@ -0,0 +1,93 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.audit.handlers.syslog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+@SuppressWarnings("javadoc")
+public class TcpSyslogConnectionTest {
+
+    @Test
+    public void framesQueuedMessagesWithOctetCountsOnFlush() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            // given
+            TcpSyslogConnection connection = new TcpSyslogConnection(
+                    new InetSocketAddress("localhost", server.getLocalPort()), 1000);
+            connection.reconnect();
+            try (Socket accepted = server.accept()) {
+
+                // when
+                for (String message : new String[] { "<14>1 first", "<14>1 é", "<14>1 third message" }) {
+                    SyslogMessageBuffer buffer = new SyslogMessageBuffer();
+                    buffer.putUtf8(message, false);
+                    connection.send(buffer.contents());
+                }
+                connection.flush();
+                connection.close();
+
+                // then
+                assertThat(readFully(accepted.getInputStream()))
+                        .isEqualTo("11 <14>1 first8 <14>1 é19 <14>1 third message");
+            }
+        }
+    }
+
+    @Test
+    public void flushesOnItsOwnOnceThePendingBatchIsFull() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            // given
+            TcpSyslogConnection connection = new TcpSyslogConnection(
+                    new InetSocketAddress("localhost", server.getLocalPort()), 1000);
+            connection.reconnect();
+            try (Socket accepted = server.accept()) {
+                StringBuilder expected = new StringBuilder();
+
+                // when
+                for (int i = 0; i < 1200; i++) {
+                    String message = "message " + i;
+                    SyslogMessageBuffer buffer = new SyslogMessageBuffer();
+                    buffer.putUtf8(message, false);
+                    connection.send(buffer.contents());
+                    expected.append(message.length()).append(' ').append(message);
+                }
+                connection.close();
+
+                // then
+                assertThat(readFully(accepted.getInputStream())).isEqualTo(expected.toString());
+            }
+        }
+    }
+
+    private static String readFully(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.jaspi.modules.session.jwt;
@@ -22,7 +23,6 @@ import static org.forgerock.caf.authentication.framework.AuthenticationFramework
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.security.Key;
-import java.security.KeyStore;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
@@ -31,6 +31,8 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
 import javax.security.auth.Subject;
 import javax.security.auth.callback.Callback;
 import javax.security.auth.callback.CallbackHandler;
@@ -52,11 +54,13 @@ import org.forgerock.json.jose.jws.handlers.HmacSigningHandler;
 import org.forgerock.json.jose.jws.handlers.SigningHandler;
 import org.forgerock.json.jose.jwt.Jwt;
 import org.forgerock.json.jose.jwt.JwtClaimsSet;
-import org.forgerock.security.keystore.KeyStoreBuilder;
-import org.forgerock.security.keystore.KeyStoreManager;
+import org.forgerock.json.jose.jwt.JwtHeader;
+import org.forgerock.json.jose.jwt.VerifiedJwtCache;
 import org.forgerock.security.keystore.KeyStoreType;
 import org.forgerock.util.Utils;
 import org.forgerock.util.encode.Base64;
+import org.forgerock.util.time.Duration;
+import org.forgerock.util.time.TimeService;
 
 /**
  * A JASPI Session Module which creates a JWT when securing the response from a successful authentication and sets it
@@ -84,6 +88,8 @@ abstract class AbstractJwtSessionModule<C extends JwtSessionCookie> {
     public static final String KEYSTORE_FILE_KEY = "keystoreFile";
     /** The Keystore password configuration property key. */
     public static final String KEYSTORE_PASSWORD_KEY = "keystorePassword";
+    /** How often in seconds the keystore file is checked for changes configuration property key. */
+    public static final String KEYSTORE_RELOAD_INTERVAL_IN_SECONDS_KEY = "keystoreReloadIntervalSeconds";
     /** The Jwt Session Cookie Name configuration property key. */
     public static final String SESSION_COOKIE_NAME_KEY = "sessionCookieName";
     /** The Jwt Token Idle timeout configuration property key in minutes. */
@@ -106,17 +112,26 @@ abstract class AbstractJwtSessionModule<C extends JwtSessionCookie> {
     public static final String COOKIE_DOMAINS_KEY = "cookieDomains";
     /** HMAC signing key. */
     public static final String HMAC_SIGNING_KEY = "hmacKey";
+    /** The maximum number of verified session JWTs to cache property key. Caching is disabled if not set. */
+    public static final String VERIFIED_JWT_CACHE_SIZE_KEY = "verifiedJwtCacheSize";
+    /** The maximum time in seconds a verified session JWT is cached for property key. */
+    public static final String VERIFIED_JWT_CACHE_LIFETIME_IN_SECONDS_KEY = "verifiedJwtCacheLifetimeSeconds";
+    /**
+     * The shared session encryption keys configuration property key, a map of key id to base64 encoded 256-bit AES
+     * key. If set, session JWTs are directly encrypted with A256GCM instead of using the keystore RSA key pair.
+     */
+    public static final String ENCRYPTION_KEYS_KEY = "encryptionKeys";
+    /** The id of the shared key new session JWTs are encrypted with configuration property key. */
+    public static final String ENCRYPTION_KEY_ID_KEY = "encryptionKeyId";
     private static final JwsAlgorithm SIGNING_ALGORITHM = JwsAlgorithm.HS256;
+    private static final long DEFAULT_KEYSTORE_RELOAD_INTERVAL_IN_SECONDS = 1L;
 
     private final JwtBuilderFactory jwtBuilderFactory;
 
     private CallbackHandler handler;
 
-    private String keyAlias;
-    private String privateKeyPassword;
-    private KeyStoreType keystoreType;
-    private String keystoreFile;
-    private String keystorePassword;
+    private KeyStoreKeyPair keyPair;
+    private SessionKeyRing keyRing;
     String sessionCookieName;
     /** Stores the token idle time in seconds. */
     private int tokenIdleTime;
@@ -127,6 +142,7 @@ abstract class AbstractJwtSessionModule<C extends JwtSessionCookie> {
     boolean isSecure;
     Collection<String> cookieDomains;
     private SigningHandler signingHandler;
+    private VerifiedJwtCache verifiedJwtCache;
 
 
     /**
@@ -153,11 +169,20 @@ abstract class AbstractJwtSessionModule<C extends JwtSessionCookie> {
      */
     public void initialize(CallbackHandler handler, Map options) throws AuthenticationException {
         this.handler = handler;
-        this.keyAlias = (String) options.get(KEY_ALIAS_KEY);
-        this.privateKeyPassword = (String) options.get(PRIVATE_KEY_PASSWORD_KEY);
-        this.keystoreType = Utils.asEnum((String) options.get(KEYSTORE_TYPE_KEY), KeyStoreType.class);
-        this.keystoreFile = (String) options.get(KEYSTORE_FILE_KEY);
-        this.keystorePassword = (String) options.get(KEYSTORE_PASSWORD_KEY);
+        final Map<String, String> encryptionKeys = (Map<String, String>) options.get(ENCRYPTION_KEYS_KEY);
+        this.keyRing = encryptionKeys != null
+                ? SessionKeyRing.fromOptions(encryptionKeys, (String) options.get(ENCRYPTION_KEY_ID_KEY))
+                : null;
+        final String keystoreReloadInterval = (String) options.get(KEYSTORE_RELOAD_INTERVAL_IN_SECONDS_KEY);
+        this.keyPair = new KeyStoreKeyPair((String) options.get(KEYSTORE_FILE_KEY),
+                Utils.asEnum((String) options.get(KEYSTORE_TYPE_KEY), KeyStoreType.class),
+                (String) options.get(KEYSTORE_PASSWORD_KEY),
+                (String) options.get(KEY_ALIAS_KEY),
+                (String) options.get(PRIVATE_KEY_PASSWORD_KEY),
+                Duration.duration(isEmpty(keystoreReloadInterval)
+                        ? DEFAULT_KEYSTORE_RELOAD_INTERVAL_IN_SECONDS
+                        : Long.parseLong(keystoreReloadInterval), TimeUnit.SECONDS),
+                TimeService.SYSTEM);
         this.sessionCookieName = (String) options.get(SESSION_COOKIE_NAME_KEY);
         if (isEmpty(sessionCookieName)) {
             this.sessionCookieName = DEFAULT_JWT_SESSION_COOKIE_NAME;
@@ -202,6 +227,26 @@ abstract class AbstractJwtSessionModule<C extends JwtSessionCookie> {
         }
         this.signingHandler = new HmacSigningHandler(signingKey);
         Arrays.fill(signingKey, (byte) 0);
+        final String verifiedJwtCacheSize = (String) options.get(VERIFIED_JWT_CACHE_SIZE_KEY);
+        final String verifiedJwtCacheLifetime = (String) options.get(VERIFIED_JWT_CACHE_LIFETIME_IN_SECONDS_KEY);
+        if (!isEmpty(verifiedJwtCacheSize) && Integer.parseInt(verifiedJwtCacheSize) > 0) {
+            this.verifiedJwtCache = new VerifiedJwtCache(Integer.parseInt(verifiedJwtCacheSize),
+                    isEmpty(verifiedJwtCacheLifetime)
+                            ? Duration.UNLIMITED
+                            : Duration.duration(Long.parseLong(verifiedJwtCacheLifetime), TimeUnit.SECONDS));
+        } else {
+            this.verifiedJwtCache = null;
+        }
+    }
+
+    /**
+     * Returns the cache of verified session JWTs, which exposes its hit rate, or {@code null} if caching is not
+     * enabled.
+     *
+     * @return The verified session JWT cache, or {@code null}.
+     */
+    public VerifiedJwtCache getVerifiedJwtCache() {
+        return verifiedJwtCache;
     }
 
     /**
@@ -332,6 +377,9 @@ abstract class AbstractJwtSessionModule<C extends JwtSessionCookie> {
     /**
      * Verifies that the JWT has a valid signature and can be decrypted and that the JWT expiration time has not
      * passed.
+     * <p>
+     * If caching is enabled, a JWT which has already been verified and decrypted with the current keys is taken
+     * from the cache instead, so that only the expiration and idle timeout checks are repeated.
      *
      * The method will return null in the case where the JWT is not valid.
      *
@@ -339,28 +387,45 @@ abstract class AbstractJwtSessionModule<C extends JwtSessionCookie> {
      * @return The validated decrypted JWT.
      */
     private Jwt verifySessionJwt(String sessionJwt) throws FileNotFoundException {
-        final KeyStore keyStore = new KeyStoreBuilder()
-                .withKeyStoreFile(keystoreFile)
-                .withPassword(keystorePassword)
-                .withKeyStoreType(keystoreType)
-                .build();
-        final KeyStoreManager keyStoreManager = new KeyStoreManager(keyStore);
-
-        Key privateKey = keyStoreManager.getPrivateKey(keyAlias, privateKeyPassword);
-
-        SignedEncryptedJwt jwt = jwtBuilderFactory.reconstruct(sessionJwt, SignedEncryptedJwt.class);
-        if (!jwt.verify(signingHandler)) {
-            return null;
+        final Object keyVersion = verifiedJwtCache == null ? null : keyRing != null ? keyRing : keyPair.getVersion();
+        final JwtClaimsSet cachedClaimsSet = verifiedJwtCache != null
+                ? verifiedJwtCache.get(sessionJwt, keyVersion)
+                : null;
+
+        final Jwt jwt;
+        if (cachedClaimsSet != null) {
+            jwt = new VerifiedSessionJwt(sessionJwt, cachedClaimsSet);
+        } else {
+            SignedEncryptedJwt signedEncryptedJwt = jwtBuilderFactory.reconstruct(sessionJwt,
+                    SignedEncryptedJwt.class);
+            if (!signedEncryptedJwt.verify(signingHandler)) {
+                return null;
+            }
+            final Key privateKey;
+            if (keyRing != null) {
+                // The key id is carried on the signed outer header, so has just been verified
+                privateKey = keyRing.getKey(signedEncryptedJwt.getHeader().getKeyId());
+                if (privateKey == null) {
+                    LOG.debug("Session JWT encrypted with unknown key id");
+                    return null;
+                }
+            } else {
+                privateKey = keyPair.getPrivateKey();
+            }
+            signedEncryptedJwt.decrypt(privateKey);
+            jwt = signedEncryptedJwt;
         }
-        jwt.decrypt(privateKey);
 
-        Date expirationTime = jwt.getClaimsSet().getExpirationTime();
-        Date tokenIdleTime = new Date(jwt.getClaimsSet().getClaim(TOKEN_IDLE_TIME_IN_SECONDS_CLAIM_KEY, Integer.class)
-                .longValue() * 1000L);
+        long expirationTime = jwt.getClaimsSet().getExpirationEpochSeconds();
+        long tokenIdleTime = jwt.getClaimsSet().getClaim(TOKEN_IDLE_TIME_IN_SECONDS_CLAIM_KEY, Integer.class)
+                .longValue();
 
-        Date now = new Date(System.currentTimeMillis());
+        long now = System.currentTimeMillis() / 1000L;
 
-        if ((now.getTime() < expirationTime.getTime()) && (now.getTime() < tokenIdleTime.getTime())) {
+        if (expirationTime != JwtClaimsSet.NO_TIME && now < expirationTime && now < tokenIdleTime) {
+            if (verifiedJwtCache != null && cachedClaimsSet == null) {
+                verifiedJwtCache.put(sessionJwt, keyVersion, jwt.getClaimsSet());
+            }
             return jwt;
         }
 
@@ -408,14 +473,7 @@ abstract class AbstractJwtSessionModule<C extends JwtSessionCookie> {
         jwt.getClaimsSet().setNotBeforeTime(nbf);
         jwt.getClaimsSet().setClaim(TOKEN_IDLE_TIME_IN_SECONDS_CLAIM_KEY, tokenIdleTime.getTime() / 1000L);
 
-        final KeyStore keyStore = new KeyStoreBuilder()
-                .withKeyStoreFile(keystoreFile)
-                .withPassword(keystorePassword)
-                .withKeyStoreType(keystoreType)
-                .build();
-        final KeyStoreManager keyStoreManager = new KeyStoreManager(keyStore);
-
-        Key publicKey = keyStoreManager.getPublicKey(keyAlias);
+        Key publicKey = getEncryptionKey();
 
         String jwtString = rebuildEncryptedJwt(jwt, publicKey);
 
@@ -507,14 +565,7 @@ abstract class AbstractJwtSessionModule<C extends JwtSessionCookie> {
     private Collection<C> createSessionJwtCookies(Map<String, Object> jwtParameters)
             throws AuthenticationException, FileNotFoundException {
 
-        final KeyStore keyStore = new KeyStoreBuilder()
-                .withKeyStoreFile(keystoreFile)
-                .withPassword(keystorePassword)
-                .withKeyStoreType(keystoreType)
-                .build();
-        final KeyStoreManager keyStoreManager = new KeyStoreManager(keyStore);
-
-        Key publicKey = keyStoreManager.getPublicKey(keyAlias);
+        Key publicKey = getEncryptionKey();
 
         Calendar calendar = Calendar.getInstance();
         calendar.setTime(new Date());
@@ -543,7 +594,34 @@ abstract class AbstractJwtSessionModule<C extends JwtSessionCookie> {
         return createCookies(jwtString, getCookieMaxAge(now, exp), "/");
     }
 
+    /**
+     * Returns the key new session JWTs are encrypted with: the current shared key if configured, otherwise the
+     * keystore public key.
+     *
+     * @return The encryption key.
+     * @throws FileNotFoundException If unable to load keystore.
+     */
+    private Key getEncryptionKey() throws FileNotFoundException {
+        return keyRing != null ? keyRing.getCurrentKey() : keyPair.getPublicKey();
+    }
+
     private String buildJwtString(JwtClaimsSet claimsSet, Key publicKey) {
+        if (keyRing != null && publicKey instanceof SecretKey) {
+            final String keyId = keyRing.getCurrentKeyId();
+            return jwtBuilderFactory
+                    .jwe(publicKey)
+                    .headers()
+                    .alg(JweAlgorithm.DIRECT)
+                    .enc(EncryptionMethod.A256GCM)
+                    .kid(keyId)
+                    .done()
+                    .claims(claimsSet)
+                    .sign(signingHandler, SIGNING_ALGORITHM)
+                    .headers()
+                    .kid(keyId)
+                    .done()
+                    .build();
+        }
         return jwtBuilderFactory
                 .jwe(publicKey)
                 .headers()
@@ -581,4 +659,33 @@ abstract class AbstractJwtSessionModule<C extends JwtSessionCookie> {
     public void deleteSessionJwtCookie(MessageInfo messageInfo) {
         addCookiesToResponse(createCookies(null, 0, "/"), messageInfo);
     }
+
+    /**
+     * A session JWT whose claims were taken from the verified JWT cache.
+     */
+    private final class VerifiedSessionJwt implements Jwt {
+        private final String sessionJwt;
+        private final JwtClaimsSet claimsSet;
+
+        private VerifiedSessionJwt(String sessionJwt, JwtClaimsSet claimsSet) {
+            this.sessionJwt = sessionJwt;
+            this.claimsSet = claimsSet;
+        }
+
+        @Override
+        public JwtHeader getHeader() {
+            // The header is readable without decrypting the nested JWT
+            return jwtBuilderFactory.reconstruct(sessionJwt, SignedEncryptedJwt.class).getHeader();
+        }
+
+        @Override
+        public JwtClaimsSet getClaimsSet() {
+            return claimsSet;
+        }
+
+        @Override
+        public String build() {
+            return sessionJwt;
+        }
+    }
 }
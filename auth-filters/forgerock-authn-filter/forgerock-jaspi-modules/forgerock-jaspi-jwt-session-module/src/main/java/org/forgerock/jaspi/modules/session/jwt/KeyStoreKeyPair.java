@@ -0,0 +1,198 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.jaspi.modules.session.jwt;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.forgerock.caf.authentication.framework.AuthenticationFramework.LOG;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+import org.forgerock.security.keystore.KeyStoreBuilder;
+import org.forgerock.security.keystore.KeyStoreManager;
+import org.forgerock.security.keystore.KeyStoreType;
+import org.forgerock.util.Reject;
+import org.forgerock.util.time.Duration;
+import org.forgerock.util.time.TimeService;
+
+/**
+ * Holds the session key pair decoded from a keystore file, so that the keystore is only read, decrypted and unwrapped
+ * once rather than on every request.
+ * <p>
+ * The keystore file is watched for changes: at most once per check interval, the last modification time and length
+ * of the file are compared with those it was loaded from, and if they differ the keys are reloaded and swapped in
+ * atomically. Should the changed keystore fail to load, the previously loaded keys stay in use until the file
+ * changes again.
+ */
+final class KeyStoreKeyPair {
+
+    private final String keystoreFile;
+    private final KeyStoreType keystoreType;
+    private final String keystorePassword;
+    private final String keyAlias;
+    private final String privateKeyPassword;
+    private final long checkIntervalMillis;
+    private final TimeService timeService;
+
+    private volatile Keys keys;
+    private volatile long nextCheck;
+    /** The stamp of the last changed keystore that failed to load, so that it is not retried until it changes. */
+    private Stamp failedStamp;
+
+    /**
+     * Creates a key pair which is loaded from the keystore file on first use.
+     *
+     * @param keystoreFile The keystore file path.
+     * @param keystoreType The keystore type.
+     * @param keystorePassword The keystore password.
+     * @param keyAlias The alias of the key pair.
+     * @param privateKeyPassword The private key password.
+     * @param checkInterval How often to check the keystore file for changes.
+     * @param timeService The time service.
+     */
+    KeyStoreKeyPair(String keystoreFile, KeyStoreType keystoreType, String keystorePassword, String keyAlias,
+            String privateKeyPassword, Duration checkInterval, TimeService timeService) {
+        Reject.ifNull(checkInterval, timeService);
+        this.keystoreFile = keystoreFile;
+        this.keystoreType = keystoreType;
+        this.keystorePassword = keystorePassword;
+        this.keyAlias = keyAlias;
+        this.privateKeyPassword = privateKeyPassword;
+        this.checkIntervalMillis = checkInterval.isUnlimited() ? Long.MAX_VALUE : checkInterval.to(MILLISECONDS);
+        this.timeService = timeService;
+    }
+
+    /**
+     * Returns the private key.
+     *
+     * @return The private key.
+     * @throws FileNotFoundException If the keystore has never been loaded and the file cannot be read.
+     */
+    PrivateKey getPrivateKey() throws FileNotFoundException {
+        return current().privateKey;
+    }
+
+    /**
+     * Returns the public key.
+     *
+     * @return The public key.
+     * @throws FileNotFoundException If the keystore has never been loaded and the file cannot be read.
+     */
+    PublicKey getPublicKey() throws FileNotFoundException {
+        return current().publicKey;
+    }
+
+    /**
+     * Returns a tag which changes whenever the keys are reloaded, so that anything derived from the keys can be
+     * discarded when they change.
+     *
+     * @return The current version of the keys.
+     * @throws FileNotFoundException If the keystore has never been loaded and the file cannot be read.
+     */
+    Object getVersion() throws FileNotFoundException {
+        return current();
+    }
+
+    private Keys current() throws FileNotFoundException {
+        final Keys loaded = keys;
+        final long now = timeService.now();
+        if (loaded != null && now < nextCheck) {
+            return loaded;
+        }
+        synchronized (this) {
+            if (keys != null && timeService.now() < nextCheck) {
+                return keys;
+            }
+            final Stamp stamp = Stamp.of(keystoreFile);
+            if (keys == null) {
+                keys = load(stamp);
+            } else if (!keys.stamp.equals(stamp) && !stamp.equals(failedStamp)) {
+                try {
+                    keys = load(stamp);
+                    failedStamp = null;
+                    LOG.debug("Reloaded session keys from changed keystore {}", keystoreFile);
+                } catch (FileNotFoundException | RuntimeException e) {
+                    LOG.error("Unable to reload changed keystore " + keystoreFile + ", keeping previous keys", e);
+                    failedStamp = stamp;
+                }
+            }
+            nextCheck = checkIntervalMillis == Long.MAX_VALUE ? Long.MAX_VALUE : now + checkIntervalMillis;
+            return keys;
+        }
+    }
+
+    private Keys load(Stamp stamp) throws FileNotFoundException {
+        final KeyStoreManager keyStoreManager = new KeyStoreManager(new KeyStoreBuilder()
+                .withKeyStoreFile(keystoreFile)
+                .withPassword(keystorePassword)
+                .withKeyStoreType(keystoreType)
+                .build());
+        return new Keys(stamp, keyStoreManager.getPrivateKey(keyAlias, privateKeyPassword),
+                keyStoreManager.getPublicKey(keyAlias));
+    }
+
+    /** An immutable snapshot of the keys loaded from one version of the keystore file. */
+    private static final class Keys {
+        private final Stamp stamp;
+        private final PrivateKey privateKey;
+        private final PublicKey publicKey;
+
+        private Keys(Stamp stamp, PrivateKey privateKey, PublicKey publicKey) {
+            this.stamp = stamp;
+            this.privateKey = privateKey;
+            this.publicKey = publicKey;
+        }
+    }
+
+    /** The last modification time and length of the keystore file. */
+    private static final class Stamp {
+        private final long lastModified;
+        private final long length;
+
+        private Stamp(long lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        private static Stamp of(String path) {
+            if (path == null) {
+                return new Stamp(0L, 0L);
+            }
+            final File file = new File(path);
+            return new Stamp(file.lastModified(), file.length());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Stamp)) {
+                return false;
+            }
+            final Stamp other = (Stamp) o;
+            return lastModified == other.lastModified && length == other.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(lastModified) + Long.hashCode(length);
+        }
+    }
+}
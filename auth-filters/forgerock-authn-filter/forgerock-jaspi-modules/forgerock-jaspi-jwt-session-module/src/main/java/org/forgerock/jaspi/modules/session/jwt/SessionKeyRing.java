@@ -0,0 +1,109 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.jaspi.modules.session.jwt;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.forgerock.caf.authentication.api.AuthenticationException;
+import org.forgerock.util.encode.Base64;
+
+/**
+ * An immutable ring of shared AES keys, identified by key id, used to directly encrypt session JWTs.
+ * <p>
+ * New sessions are always encrypted with the current key, while sessions encrypted with any other key in the ring
+ * are still accepted, so that keys can be rotated by first adding the new key, then making it current, and finally
+ * removing the old key once all sessions encrypted with it have expired.
+ */
+final class SessionKeyRing {
+
+    /** The size in bytes of the keys, as required by A256GCM. */
+    private static final int KEY_SIZE = 32;
+
+    private final String currentKeyId;
+    private final Map<String, SecretKey> keys;
+
+    private SessionKeyRing(String currentKeyId, Map<String, SecretKey> keys) {
+        this.currentKeyId = currentKeyId;
+        this.keys = keys;
+    }
+
+    /**
+     * Creates a key ring from the configured base64 encoded keys.
+     *
+     * @param encodedKeys The base64 encoded 256-bit keys, keyed by key id.
+     * @param currentKeyId The id of the key to encrypt new sessions with, which may be {@code null} if there is
+     *                     only one key.
+     * @return The key ring.
+     * @throws AuthenticationException If there are no keys, a key is not 256-bits or the current key is not known.
+     */
+    static SessionKeyRing fromOptions(Map<String, String> encodedKeys, String currentKeyId)
+            throws AuthenticationException {
+        if (encodedKeys.isEmpty()) {
+            throw new AuthenticationException("At least one session encryption key must be configured");
+        }
+        final Map<String, SecretKey> keys = new HashMap<>(encodedKeys.size());
+        for (final Map.Entry<String, String> encodedKey : encodedKeys.entrySet()) {
+            final byte[] key = Base64.decode(encodedKey.getValue());
+            if (key == null || key.length != KEY_SIZE) {
+                throw new AuthenticationException("Session encryption key " + encodedKey.getKey()
+                        + " must be 256-bits base64 encoded");
+            }
+            keys.put(encodedKey.getKey(), new SecretKeySpec(key, "AES"));
+            Arrays.fill(key, (byte) 0);
+        }
+        if (currentKeyId == null && keys.size() == 1) {
+            currentKeyId = keys.keySet().iterator().next();
+        }
+        if (!keys.containsKey(currentKeyId)) {
+            throw new AuthenticationException("Current session encryption key id must be one of " + keys.keySet());
+        }
+        return new SessionKeyRing(currentKeyId, Collections.unmodifiableMap(keys));
+    }
+
+    /**
+     * Returns the id of the key new sessions are encrypted with.
+     *
+     * @return The current key id.
+     */
+    String getCurrentKeyId() {
+        return currentKeyId;
+    }
+
+    /**
+     * Returns the key new sessions are encrypted with.
+     *
+     * @return The current key.
+     */
+    SecretKey getCurrentKey() {
+        return keys.get(currentKeyId);
+    }
+
+    /**
+     * Returns the key with the given id.
+     *
+     * @param keyId The key id.
+     * @return The key, or {@code null} if the ring does not contain the key.
+     */
+    SecretKey getKey(String keyId) {
+        return keyId != null ? keys.get(keyId) : null;
+    }
+}
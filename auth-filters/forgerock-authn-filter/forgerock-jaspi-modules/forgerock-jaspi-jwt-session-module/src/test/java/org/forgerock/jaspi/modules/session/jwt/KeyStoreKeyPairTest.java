@@ -0,0 +1,153 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.jaspi.modules.session.jwt;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.PrivateKey;
+
+import org.forgerock.security.keystore.KeyStoreType;
+import org.forgerock.util.time.Duration;
+import org.forgerock.util.time.TimeService;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class KeyStoreKeyPairTest {
+
+    private File keystoreFile;
+    private TimeService timeService;
+    private KeyStoreKeyPair keyPair;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        keystoreFile = File.createTempFile("keystore", ".jks");
+        copyKeystore();
+        timeService = mock(TimeService.class);
+        given(timeService.now()).willReturn(0L);
+        keyPair = newKeyPair(keystoreFile.getPath());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        keystoreFile.delete();
+    }
+
+    @Test
+    public void shouldLoadKeysOnce() throws Exception {
+        // Given
+        PrivateKey privateKey = keyPair.getPrivateKey();
+        Object version = keyPair.getVersion();
+
+        // When
+        given(timeService.now()).willReturn(10000L);
+
+        // Then
+        assertThat(privateKey).isNotNull();
+        assertThat(keyPair.getPublicKey()).isNotNull();
+        assertThat(keyPair.getPrivateKey()).isSameAs(privateKey);
+        assertThat(keyPair.getVersion()).isSameAs(version);
+    }
+
+    @Test
+    public void shouldReloadKeysWhenKeystoreChanges() throws Exception {
+        // Given
+        PrivateKey privateKey = keyPair.getPrivateKey();
+        Object version = keyPair.getVersion();
+
+        // When
+        copyKeystore();
+        keystoreFile.setLastModified(keystoreFile.lastModified() - 60000L);
+        given(timeService.now()).willReturn(10000L);
+
+        // Then
+        assertThat(keyPair.getPrivateKey()).isNotSameAs(privateKey).isEqualTo(privateKey);
+        assertThat(keyPair.getVersion()).isNotSameAs(version);
+    }
+
+    @Test
+    public void shouldNotCheckKeystoreWithinCheckInterval() throws Exception {
+        // Given
+        PrivateKey privateKey = keyPair.getPrivateKey();
+
+        // When
+        keystoreFile.setLastModified(keystoreFile.lastModified() - 60000L);
+        given(timeService.now()).willReturn(999L);
+
+        // Then
+        assertThat(keyPair.getPrivateKey()).isSameAs(privateKey);
+    }
+
+    @Test
+    public void shouldKeepPreviousKeysWhenChangedKeystoreCannotBeLoaded() throws Exception {
+        // Given
+        PrivateKey privateKey = keyPair.getPrivateKey();
+        Object version = keyPair.getVersion();
+
+        // When
+        Files.write(keystoreFile.toPath(), "corrupt".getBytes(StandardCharsets.UTF_8));
+        given(timeService.now()).willReturn(10000L);
+
+        // Then
+        assertThat(keyPair.getPrivateKey()).isSameAs(privateKey);
+        assertThat(keyPair.getVersion()).isSameAs(version);
+    }
+
+    @Test
+    public void shouldReloadKeysOnceFailedKeystoreChangesAgain() throws Exception {
+        // Given
+        PrivateKey privateKey = keyPair.getPrivateKey();
+        Object version = keyPair.getVersion();
+        Files.write(keystoreFile.toPath(), "corrupt".getBytes(StandardCharsets.UTF_8));
+        given(timeService.now()).willReturn(10000L);
+        keyPair.getPrivateKey();
+
+        // When
+        copyKeystore();
+        keystoreFile.setLastModified(keystoreFile.lastModified() - 60000L);
+        given(timeService.now()).willReturn(20000L);
+
+        // Then
+        assertThat(keyPair.getPrivateKey()).isNotSameAs(privateKey).isEqualTo(privateKey);
+        assertThat(keyPair.getVersion()).isNotSameAs(version);
+    }
+
+    @Test(expectedExceptions = FileNotFoundException.class)
+    public void shouldFailWhenKeystoreDoesNotExist() throws Exception {
+        newKeyPair(new File(keystoreFile.getParentFile(), "missing.jks").getPath()).getPrivateKey();
+    }
+
+    private KeyStoreKeyPair newKeyPair(String path) {
+        return new KeyStoreKeyPair(path, KeyStoreType.JKS, "password", "jwt-test-ks", "password",
+                Duration.duration(1L, SECONDS), timeService);
+    }
+
+    private void copyKeystore() throws Exception {
+        File source = new File(URLDecoder.decode(ClassLoader.getSystemResource("keystore.jks").getFile(), "UTF-8"));
+        Files.copy(source.toPath(), keystoreFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2016 ForgeRock AS.
- * Portions Copyright 2018 Wren Security.
+ * Portions Copyright 2018-2026 Wren Security.
  */
 
 package org.forgerock.jaspi.modules.session.jwt;
@@ -26,6 +26,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.testng.Assert.assertEquals;
@@ -71,6 +72,7 @@ import org.forgerock.json.jose.jws.handlers.HmacSigningHandler;
 import org.forgerock.json.jose.jwt.Jwt;
 import org.forgerock.json.jose.jwt.JwtClaimsSet;
 import org.forgerock.util.encode.Base64;
+import org.forgerock.util.encode.Base64url;
 import org.mockito.ArgumentCaptor;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -398,6 +400,7 @@ public class ServletJwtSessionModuleTest {
         given(jwtBuilderFactory.reconstruct("SESSION_JWT", SignedEncryptedJwt.class)).willReturn(encryptedJwt);
         given(encryptedJwt.getClaimsSet()).willReturn(claimsSet);
         given(claimsSet.getExpirationTime()).willReturn(expiryTime);
+        given(claimsSet.getExpirationEpochSeconds()).willReturn(expiryTime.getTime() / 1000L);
         given(claimsSet.getClaim(JwtSessionModule.TOKEN_IDLE_TIME_IN_SECONDS_CLAIM_KEY, Integer.class))
                 .willReturn(idleTimeoutSeconds);
 
@@ -483,6 +486,7 @@ public class ServletJwtSessionModuleTest {
         given(jwtBuilderFactory.reconstruct("SESSION_JWT", SignedEncryptedJwt.class)).willReturn(encryptedJwt);
         given(encryptedJwt.getClaimsSet()).willReturn(claimsSet);
         given(claimsSet.getExpirationTime()).willReturn(expiryTime);
+        given(claimsSet.getExpirationEpochSeconds()).willReturn(expiryTime.getTime() / 1000L);
         given(claimsSet.getClaim(JwtSessionModule.TOKEN_IDLE_TIME_IN_SECONDS_CLAIM_KEY, Integer.class))
                 .willReturn(idleTimeoutSeconds);
 
@@ -548,6 +552,7 @@ public class ServletJwtSessionModuleTest {
         given(encryptedJwt.verify(any(HmacSigningHandler.class))).willReturn(true);
         given(encryptedJwt.getClaimsSet()).willReturn(claimsSet);
         given(claimsSet.getExpirationTime()).willReturn(expiryTime);
+        given(claimsSet.getExpirationEpochSeconds()).willReturn(expiryTime.getTime() / 1000L);
         given(claimsSet.getClaim(JwtSessionModule.TOKEN_IDLE_TIME_IN_SECONDS_CLAIM_KEY, Integer.class))
                 .willReturn(idleTimeoutSeconds);
         given(claimsSet.getIssuedAtTime()).willReturn(issuedAtTime);
@@ -629,6 +634,7 @@ public class ServletJwtSessionModuleTest {
         given(encryptedJwt.verify(any(HmacSigningHandler.class))).willReturn(true);
         given(encryptedJwt.getClaimsSet()).willReturn(claimsSet);
         given(claimsSet.getExpirationTime()).willReturn(expiryTime);
+        given(claimsSet.getExpirationEpochSeconds()).willReturn(expiryTime.getTime() / 1000L);
         given(claimsSet.getClaim(JwtSessionModule.TOKEN_IDLE_TIME_IN_SECONDS_CLAIM_KEY, Integer.class))
                 .willReturn(idleTimeoutSeconds);
         given(claimsSet.getIssuedAtTime()).willReturn(issuedAtTime);
@@ -1220,6 +1226,7 @@ public class ServletJwtSessionModuleTest {
         given(encryptedJwt.getClaimsSet()).willReturn(claimsSet);
         given(claimsSet.getIssuedAtTime()).willReturn(issuedAtTime);
         given(claimsSet.getExpirationTime()).willReturn(expiryTime);
+        given(claimsSet.getExpirationEpochSeconds()).willReturn(expiryTime.getTime() / 1000L);
         given(claimsSet.getClaim(JwtSessionModule.TOKEN_IDLE_TIME_IN_SECONDS_CLAIM_KEY, Integer.class))
                 .willReturn(idleTimeoutSeconds);
 
@@ -1295,4 +1302,131 @@ public class ServletJwtSessionModuleTest {
         assertThat(cookieCaptor.getValue().getMaxAge()).isEqualTo(0);
         assertThat(cookieCaptor.getValue().getPath()).isEqualTo("/");
     }
+
+    @Test
+    public void shouldSkipVerificationOfCachedSessionJwt() throws Exception {
+
+        //Given
+        Map<String, Object> options = getOptionsMap(1, 2, Calendar.MINUTE);
+        options.put(JwtSessionModule.VERIFIED_JWT_CACHE_SIZE_KEY, "10");
+        jwtSessionModule.initialize(null, null, mock(CallbackHandler.class), options);
+
+        MessageInfo messageInfo = mock(MessageInfo.class);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        Cookie jwtSessionCookie = mock(Cookie.class);
+        SignedEncryptedJwt encryptedJwt = mock(SignedEncryptedJwt.class);
+        long now = System.currentTimeMillis() / 1000L;
+        JwtClaimsSet claimsSet = new JwtClaimsSet();
+        claimsSet.setExpirationTime(new Date((now + 120L) * 1000L));
+        claimsSet.setIssuedAtTime(new Date(now * 1000L));
+        claimsSet.setClaim(JwtSessionModule.TOKEN_IDLE_TIME_IN_SECONDS_CLAIM_KEY, (int) (now + 60L));
+        claimsSet.setClaim("prn", "PRINCIPAL");
+        claimsSet.setClaim("sessionId", "SESSION_ID");
+
+        given(messageInfo.getRequestMessage()).willReturn(request);
+        given(messageInfo.getResponseMessage()).willReturn(mock(HttpServletResponse.class));
+        given(messageInfo.getMap()).willReturn(new HashMap<String, Object>());
+        given(request.getCookies()).willReturn(new Cookie[]{jwtSessionCookie});
+        given(jwtSessionCookie.getName()).willReturn("session-jwt");
+        given(jwtSessionCookie.getValue()).willReturn("SESSION_JWT");
+        given(jwtBuilderFactory.reconstruct("SESSION_JWT", SignedEncryptedJwt.class)).willReturn(encryptedJwt);
+        given(encryptedJwt.verify(any(HmacSigningHandler.class))).willReturn(true);
+        given(encryptedJwt.getClaimsSet()).willReturn(claimsSet);
+
+        //When
+        Jwt first = jwtSessionModule.validateJwtSessionCookie(messageInfo);
+        Jwt second = jwtSessionModule.validateJwtSessionCookie(messageInfo);
+
+        //Then
+        assertThat(first).isSameAs(encryptedJwt);
+        assertThat(second.getClaimsSet().getClaim("prn", String.class)).isEqualTo("PRINCIPAL");
+        assertThat(second.build()).isEqualTo("SESSION_JWT");
+        verify(encryptedJwt, times(1)).decrypt(any(Key.class));
+        assertThat(jwtSessionModule.getVerifiedJwtCache().getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCreateAndValidateSymmetricSessionJwt() throws Exception {
+
+        //Given
+        ServletJwtSessionModule module = new ServletJwtSessionModule(new JwtBuilderFactory());
+        module.initialize(null, null, mock(CallbackHandler.class), getSymmetricOptionsMap("k1", "k1"));
+        String sessionJwt = createSessionJwt(module);
+
+        //When
+        Jwt jwt = module.validateJwtSessionCookie(getSessionCookieMessageInfo(sessionJwt));
+
+        //Then
+        assertThat(new String(Base64url.decode(sessionJwt.substring(0, sessionJwt.indexOf('.'))), "UTF-8"))
+                .contains("\"kid\":\"k1\"");
+        assertThat(jwt).isNotNull();
+        assertThat(jwt.getClaimsSet().getClaim("prn", String.class)).isEqualTo("PRINCIPAL");
+    }
+
+    @Test
+    public void shouldAcceptSymmetricSessionJwtEncryptedWithPreviousKeyDuringRotation() throws Exception {
+
+        //Given
+        ServletJwtSessionModule module = new ServletJwtSessionModule(new JwtBuilderFactory());
+        module.initialize(null, null, mock(CallbackHandler.class), getSymmetricOptionsMap("k1", "k1"));
+        String sessionJwt = createSessionJwt(module);
+
+        //When
+        module.initialize(null, null, mock(CallbackHandler.class), getSymmetricOptionsMap("k2", "k1", "k2"));
+        Jwt rotated = module.validateJwtSessionCookie(getSessionCookieMessageInfo(sessionJwt));
+        module.initialize(null, null, mock(CallbackHandler.class), getSymmetricOptionsMap("k2", "k2"));
+        Jwt retired = module.validateJwtSessionCookie(getSessionCookieMessageInfo(sessionJwt));
+
+        //Then
+        assertThat(rotated).isNotNull();
+        assertThat(retired).isNull();
+    }
+
+    @Test(expectedExceptions = AuthException.class)
+    public void shouldNotInitializeWithUnknownCurrentEncryptionKeyId() throws Exception {
+        jwtSessionModule.initialize(null, null, null, getSymmetricOptionsMap("k3", "k1", "k2"));
+    }
+
+    private Map<String, Object> getSymmetricOptionsMap(String currentKeyId, String... keyIds)
+            throws UnsupportedEncodingException {
+        Map<String, Object> options = getOptionsMap(1, 2, Calendar.MINUTE);
+        Map<String, String> keys = new HashMap<>();
+        for (String keyId : keyIds) {
+            byte[] key = new byte[32];
+            Arrays.fill(key, (byte) keyId.hashCode());
+            keys.put(keyId, Base64.encode(key));
+        }
+        options.put(JwtSessionModule.ENCRYPTION_KEYS_KEY, keys);
+        options.put(JwtSessionModule.ENCRYPTION_KEY_ID_KEY, currentKeyId);
+        return options;
+    }
+
+    private String createSessionJwt(ServletJwtSessionModule module) throws Exception {
+        MessageInfo messageInfo = mock(MessageInfo.class);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        given(messageInfo.getRequestMessage()).willReturn(request);
+        given(messageInfo.getResponseMessage()).willReturn(response);
+        given(messageInfo.getMap()).willReturn(new HashMap<String, Object>());
+        given(request.getAttribute(AuthenticationFramework.ATTRIBUTE_AUTH_PRINCIPAL)).willReturn("PRINCIPAL");
+
+        assertEquals(module.secureResponse(messageInfo, null), AuthStatus.SEND_SUCCESS);
+
+        ArgumentCaptor<Cookie> cookieCaptor = ArgumentCaptor.forClass(Cookie.class);
+        verify(response).addCookie(cookieCaptor.capture());
+        return cookieCaptor.getValue().getValue();
+    }
+
+    private MessageInfo getSessionCookieMessageInfo(String sessionJwt) {
+        MessageInfo messageInfo = mock(MessageInfo.class);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        Cookie jwtSessionCookie = mock(Cookie.class);
+        given(messageInfo.getRequestMessage()).willReturn(request);
+        given(messageInfo.getResponseMessage()).willReturn(mock(HttpServletResponse.class));
+        given(messageInfo.getMap()).willReturn(new HashMap<String, Object>());
+        given(request.getCookies()).willReturn(new Cookie[]{jwtSessionCookie});
+        given(jwtSessionCookie.getName()).willReturn("session-jwt");
+        given(jwtSessionCookie.getValue()).willReturn(sessionJwt);
+        return messageInfo;
+    }
 }
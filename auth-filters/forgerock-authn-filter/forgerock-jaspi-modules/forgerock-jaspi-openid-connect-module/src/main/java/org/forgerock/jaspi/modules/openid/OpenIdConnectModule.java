@@ -12,6 +12,7 @@
 * information: "Portions copyright [year] [name of copyright owner]".
 *
 * Copyright 2014-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
 */
 
 package org.forgerock.jaspi.modules.openid;
@@ -35,6 +36,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.forgerock.caf.authentication.api.AsyncServerAuthModule;
 import org.forgerock.caf.authentication.api.AuthenticationException;
@@ -42,6 +44,7 @@ import org.forgerock.caf.authentication.api.MessageInfoContext;
 import org.forgerock.http.protocol.Request;
 import org.forgerock.http.protocol.Response;
 import org.forgerock.jaspi.modules.openid.exceptions.OpenIdConnectVerificationException;
+import org.forgerock.jaspi.modules.openid.resolvers.BaseOpenIdResolver;
 import org.forgerock.jaspi.modules.openid.resolvers.OpenIdResolver;
 import org.forgerock.jaspi.modules.openid.resolvers.service.OpenIdResolverService;
 import org.forgerock.jaspi.modules.openid.resolvers.service.OpenIdResolverServiceConfigurator;
@@ -52,7 +55,9 @@ import org.forgerock.json.jose.exceptions.InvalidJwtException;
 import org.forgerock.json.jose.exceptions.JwtReconstructionException;
 import org.forgerock.json.jose.jws.SignedJwt;
 import org.forgerock.json.jose.jwt.JwtClaimsSet;
+import org.forgerock.json.jose.jwt.VerifiedJwtCache;
 import org.forgerock.util.promise.Promise;
+import org.forgerock.util.time.Duration;
 
 /**
  * OpenID Connect module that allows access when a valid OpenID Connect JWT which
@@ -90,6 +95,16 @@ public class OpenIdConnectModule implements AsyncServerAuthModule {
      */
     public static final String RESOLVERS_KEY = "resolvers";
 
+    /**
+     * Lookup key for the configured maximum number of verified JWTs to cache. Caching is disabled if not set.
+     */
+    public static final String VERIFIED_JWT_CACHE_SIZE_KEY = "verifiedJwtCacheSize";
+
+    /**
+     * Lookup key for the configured maximum time in seconds a verified JWT is cached for.
+     */
+    public static final String VERIFIED_JWT_CACHE_LIFETIME_KEY = "verifiedJwtCacheLifetimeSeconds";
+
     private final JwtReconstruction constructor;
     private final OpenIdResolverServiceConfigurator serviceConfigurator;
 
@@ -99,6 +114,8 @@ public class OpenIdConnectModule implements AsyncServerAuthModule {
 
     private CallbackHandler callbackHandler;
 
+    private VerifiedJwtCache verifiedJwtCache;
+
     /**
      * Default constructor.
      */
@@ -118,11 +135,28 @@ public class OpenIdConnectModule implements AsyncServerAuthModule {
                         final OpenIdResolverService service,
                         final CallbackHandler callback,
                         final String openIdConnectHeader) {
+        this(serviceConfigurator, constructor, service, callback, openIdConnectHeader, null);
+    }
+
+    /**
+     * Used for tests.
+     *
+     * @param serviceConfigurator Configurator device for setting up our resolver service
+     * @param constructor Builder for creating our JWTs out of their representation
+     * @param verifiedJwtCache Cache of verified JWTs, or {@code null}
+     */
+    OpenIdConnectModule(final OpenIdResolverServiceConfigurator serviceConfigurator,
+                        final JwtReconstruction constructor,
+                        final OpenIdResolverService service,
+                        final CallbackHandler callback,
+                        final String openIdConnectHeader,
+                        final VerifiedJwtCache verifiedJwtCache) {
         this.serviceConfigurator = serviceConfigurator;
         this.constructor = constructor;
         this.resolverService = service;
         this.callbackHandler = callback;
         this.openIdConnectHeader = openIdConnectHeader;
+        this.verifiedJwtCache = verifiedJwtCache;
     }
 
     @Override
@@ -169,6 +203,25 @@ public class OpenIdConnectModule implements AsyncServerAuthModule {
             LOG.debug("OpenIdConnectModule config is invalid. You must configure at least one valid resolver.");
             throw new AuthenticationException("OpenIdConnectModule configuration is invalid.");
         }
+
+        final Integer verifiedJwtCacheSize = (Integer) config.get(VERIFIED_JWT_CACHE_SIZE_KEY);
+        final Integer verifiedJwtCacheLifetime = (Integer) config.get(VERIFIED_JWT_CACHE_LIFETIME_KEY);
+        if (verifiedJwtCacheSize != null && verifiedJwtCacheSize > 0) {
+            verifiedJwtCache = new VerifiedJwtCache(verifiedJwtCacheSize, verifiedJwtCacheLifetime == null
+                    ? Duration.UNLIMITED
+                    : Duration.duration(verifiedJwtCacheLifetime, TimeUnit.SECONDS));
+        } else {
+            verifiedJwtCache = null;
+        }
+    }
+
+    /**
+     * Returns the cache of verified JWTs, which exposes its hit rate, or {@code null} if caching is not enabled.
+     *
+     * @return The verified JWT cache, or {@code null}.
+     */
+    public VerifiedJwtCache getVerifiedJwtCache() {
+        return verifiedJwtCache;
     }
 
     /**
@@ -219,16 +272,37 @@ public class OpenIdConnectModule implements AsyncServerAuthModule {
             return newResultPromise(SEND_FAILURE);
         }
 
+        // Tag the verified token with the issuer's current keys, so that it is verified again once they change
+        final Object keyVersion = resolver instanceof BaseOpenIdResolver
+                ? ((BaseOpenIdResolver) resolver).getKeyVersion()
+                : resolver;
+        final JwtClaimsSet cachedClaimSet = verifiedJwtCache != null
+                ? verifiedJwtCache.get(jwtValue, keyVersion)
+                : null;
+        if (cachedClaimSet != null) {
+            return handleCallerPrincipal(clientSubject, cachedClaimSet);
+        }
+
         try {
             resolver.validateIdentity(retrievedJwt);
+        } catch (OpenIdConnectVerificationException oice) {
+            LOG.debug("Unable to validate authenticated identity from JWT.", oice);
+            return newResultPromise(SEND_FAILURE);
+        }
+
+        if (verifiedJwtCache != null) {
+            verifiedJwtCache.put(jwtValue, keyVersion, jwtClaimSet);
+        }
+
+        return handleCallerPrincipal(clientSubject, jwtClaimSet);
+    }
 
+    private Promise<AuthStatus, AuthenticationException> handleCallerPrincipal(Subject clientSubject,
+            JwtClaimsSet jwtClaimSet) {
+        try {
             callbackHandler.handle(new Callback[]{
                 new CallerPrincipalCallback(clientSubject, jwtClaimSet.getSubject())
             });
-
-        } catch (OpenIdConnectVerificationException oice) {
-            LOG.debug("Unable to validate authenticated identity from JWT.", oice);
-            return newResultPromise(SEND_FAILURE);
         } catch (IOException | UnsupportedCallbackException e) {
             LOG.debug("Error setting user principal", e);
             return newExceptionPromise(new AuthenticationException(e.getMessage()));
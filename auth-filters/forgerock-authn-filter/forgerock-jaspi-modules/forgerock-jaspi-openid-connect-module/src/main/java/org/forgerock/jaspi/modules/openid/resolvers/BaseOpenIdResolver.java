@@ -12,6 +12,7 @@
 * information: "Portions copyright [year] [name of copyright owner]".
 *
 * Copyright 2014-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
 */
 package org.forgerock.jaspi.modules.openid.resolvers;
 
@@ -111,6 +112,17 @@ public abstract class BaseOpenIdResolver implements OpenIdResolver {
         }
     }
 
+    /**
+     * Returns an opaque tag of the keys this resolver verifies identities with, which changes whenever these keys
+     * change, so that what was verified with the previous keys can be invalidated. The keys of this resolver are
+     * fixed unless overridden, so this returns the resolver itself.
+     *
+     * @return the version of the current keys, to be compared with {@link Object#equals(Object)}.
+     */
+    public Object getKeyVersion() {
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -12,6 +12,7 @@
 * information: "Portions copyright [year] [name of copyright owner]".
 *
 * Copyright 2014-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
 */
 
 package org.forgerock.jaspi.modules.openid.resolvers;
@@ -74,6 +75,17 @@ public class JWKOpenIdResolverImpl extends BaseOpenIdResolver {
         }
     }
 
+    /**
+     * Returns the version of the keys currently held by the {@link JwksStore}, which changes whenever a reload
+     * brings different keys.
+     *
+     * @return the version of the current keys.
+     */
+    @Override
+    public Object getKeyVersion() {
+        return jwksStore.getKeyVersion();
+    }
+
     /**
      * Verifies that the JWS was signed by the supplied key. Throws an exception otherwise.
      *
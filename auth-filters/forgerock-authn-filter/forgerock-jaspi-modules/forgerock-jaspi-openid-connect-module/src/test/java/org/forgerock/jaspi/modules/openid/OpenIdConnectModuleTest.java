@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2014-2016 ForgeRock AS.
- * Portions Copyright 2018 Wren Security.
+ * Portions Copyright 2018-2026 Wren Security.
  */
 
 package org.forgerock.jaspi.modules.openid;
@@ -32,6 +32,7 @@ import static org.testng.Assert.assertTrue;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +50,7 @@ import org.forgerock.http.protocol.Request;
 import org.forgerock.http.protocol.Response;
 import org.forgerock.http.protocol.Status;
 import org.forgerock.jaspi.modules.openid.exceptions.OpenIdConnectVerificationException;
+import org.forgerock.jaspi.modules.openid.resolvers.JWKOpenIdResolverImpl;
 import org.forgerock.jaspi.modules.openid.resolvers.OpenIdResolver;
 import org.forgerock.jaspi.modules.openid.resolvers.service.OpenIdResolverService;
 import org.forgerock.jaspi.modules.openid.resolvers.service.OpenIdResolverServiceConfigurator;
@@ -57,6 +59,8 @@ import org.forgerock.json.jose.exceptions.InvalidJwtException;
 import org.forgerock.json.jose.exceptions.JwtReconstructionException;
 import org.forgerock.json.jose.jws.SignedJwt;
 import org.forgerock.json.jose.jwt.JwtClaimsSet;
+import org.forgerock.json.jose.jwt.VerifiedJwtCache;
+import org.forgerock.util.time.Duration;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -324,4 +328,72 @@ public class OpenIdConnectModuleTest {
                 .containsExactly(Request.class, Response.class);
     }
 
+    @Test
+    public void shouldSkipVerificationOfCachedJwt() throws Exception {
+        //given
+        VerifiedJwtCache cache = new VerifiedJwtCache(10, Duration.UNLIMITED);
+        testModule = new OpenIdConnectModule(mockConfigurator, mockReconstruction, mockService, mockCallback,
+                OpenIdConnectModule.HEADER_KEY, cache);
+        OpenIdResolver mockResolver = mock(OpenIdResolver.class);
+        Request request = new Request();
+        MessageInfoContext mockMessage = mock(MessageInfoContext.class);
+        SignedJwt jws = mock(SignedJwt.class);
+        JwtClaimsSet claimSet = new JwtClaimsSet();
+        claimSet.setIssuer("issuer");
+        claimSet.setSubject("demo");
+        claimSet.setExpirationTime(new Date(System.currentTimeMillis() + 60_000L));
+
+        given(jws.getClaimsSet()).willReturn(claimSet);
+        given(mockMessage.getRequest()).willReturn(request);
+        request.getHeaders().put(OpenIdConnectModule.HEADER_KEY, "jwt");
+        given(mockReconstruction.reconstructJwt(anyString(), any(Class.class))).willReturn(jws);
+        given(mockService.getResolverForIssuer("issuer")).willReturn(mockResolver);
+
+        //when
+        AuthStatus first = testModule.validateRequest(mockMessage, null, null).getOrThrowUninterruptibly();
+        AuthStatus second = testModule.validateRequest(mockMessage, null, null).getOrThrowUninterruptibly();
+
+        //then
+        assertEquals(first, AuthStatus.SUCCESS);
+        assertEquals(second, AuthStatus.SUCCESS);
+        verify(mockResolver, times(1)).validateIdentity(jws);
+        verify(mockCallback, times(2)).handle(any(Callback[].class));
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldVerifyCachedJwtAgainOnceIssuerKeysAreRotated() throws Exception {
+        //given
+        VerifiedJwtCache cache = new VerifiedJwtCache(10, Duration.UNLIMITED);
+        testModule = new OpenIdConnectModule(mockConfigurator, mockReconstruction, mockService, mockCallback,
+                OpenIdConnectModule.HEADER_KEY, cache);
+        JWKOpenIdResolverImpl mockResolver = mock(JWKOpenIdResolverImpl.class);
+        Request request = new Request();
+        MessageInfoContext mockMessage = mock(MessageInfoContext.class);
+        SignedJwt jws = mock(SignedJwt.class);
+        JwtClaimsSet claimSet = new JwtClaimsSet();
+        claimSet.setIssuer("issuer");
+        claimSet.setSubject("demo");
+        claimSet.setExpirationTime(new Date(System.currentTimeMillis() + 60_000L));
+
+        given(jws.getClaimsSet()).willReturn(claimSet);
+        given(mockMessage.getRequest()).willReturn(request);
+        request.getHeaders().put(OpenIdConnectModule.HEADER_KEY, "jwt");
+        given(mockReconstruction.reconstructJwt(anyString(), any(Class.class))).willReturn(jws);
+        given(mockService.getResolverForIssuer("issuer")).willReturn(mockResolver);
+        given(mockResolver.getKeyVersion()).willReturn("jwks-1", "jwks-1", "jwks-2");
+
+        //when
+        testModule.validateRequest(mockMessage, null, null).getOrThrowUninterruptibly();
+        AuthStatus cached = testModule.validateRequest(mockMessage, null, null).getOrThrowUninterruptibly();
+        doThrow(new OpenIdConnectVerificationException("revoked")).when(mockResolver).validateIdentity(jws);
+        AuthStatus rotated = testModule.validateRequest(mockMessage, null, null).getOrThrowUninterruptibly();
+
+        //then
+        assertEquals(cached, AuthStatus.SUCCESS);
+        assertEquals(rotated, AuthStatus.SEND_FAILURE);
+        verify(mockResolver, times(2)).validateIdentity(jws);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
 }
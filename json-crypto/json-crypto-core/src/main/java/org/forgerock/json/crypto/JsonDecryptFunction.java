@@ -12,24 +12,44 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.json.crypto;
 
 import static org.forgerock.json.JsonValueFunctions.identity;
 import static org.forgerock.util.Reject.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.JsonValueException;
 import org.forgerock.json.JsonValueTraverseFunction;
 
 /**
  * Create a new {@link JsonValue} by applying a decryptor.
+ * <p>
+ * When constructed with an executor, the {@code $crypto} values of the traversed JSON value are decrypted
+ * concurrently by the executor, the calling thread waiting for all of them to be decrypted.
  */
 public class JsonDecryptFunction extends JsonValueTraverseFunction {
 
     /** Decryptor to apply to JSON values. */
     private final JsonDecryptor decryptor;
 
+    /** Executor decrypting the {@code $crypto} values, or {@code null} to decrypt them on the calling thread. */
+    private final Executor executor;
+
+    /** Function decrypting the {@code $crypto} values nested in a decrypted value. */
+    private final JsonDecryptFunction nestedFunction;
+
     /**
      * Constructs a function to apply a decryptor.
      *
@@ -39,25 +59,150 @@ public class JsonDecryptFunction extends JsonValueTraverseFunction {
     public JsonDecryptFunction(JsonDecryptor decryptor) {
         super(identity());
         this.decryptor = checkNotNull(decryptor);
+        this.executor = null;
+        this.nestedFunction = this;
+    }
+
+    /**
+     * Constructs a function to apply a decryptor, the {@code $crypto} values being decrypted concurrently by the
+     * given executor. The decryptor must therefore be thread-safe.
+     *
+     * @param decryptor the decryptor to apply to JSON values.
+     * @param executor the executor decrypting the {@code $crypto} values.
+     * @throws NullPointerException if {@code decryptor} or {@code executor} is {@code null}.
+     */
+    public JsonDecryptFunction(JsonDecryptor decryptor, Executor executor) {
+        super(identity());
+        this.decryptor = checkNotNull(decryptor);
+        this.executor = checkNotNull(executor);
+        this.nestedFunction = new JsonDecryptFunction(decryptor);
+    }
+
+    @Override
+    protected Object traverseList(JsonValue value) {
+        if (executor != null) {
+            // only called for the root value, as the concurrent traversal applies its own function to the elements
+            return decryptConcurrently(value);
+        }
+        return super.traverseList(value);
     }
 
     @Override
     protected Object traverseMap(JsonValue value) {
-        if (JsonCrypto.isJsonCrypto(value)) {
-            JsonCrypto crypto = new JsonCrypto(value);
-            if (crypto.getType().equals(decryptor.getType())) { // only attempt decryption if type matches
+        if (executor != null) {
+            return decryptConcurrently(value);
+        }
+        if (isDecryptable(value)) {
+            return decrypt(value);
+        }
+        return super.traverseMap(value);
+    }
+
+    private boolean isDecryptable(JsonValue value) {
+        // only attempt decryption if type matches
+        return JsonCrypto.isJsonCrypto(value) && new JsonCrypto(value).getType().equals(decryptor.getType());
+    }
+
+    private Object decrypt(JsonValue value) {
+        try {
+            JsonValue decrypted = decryptor.decrypt(new JsonCrypto(value).getValue());
+            // Set a correct JsonPointer to the decrypted JsonValue (the decrypted one ends with /$crypto/value)
+//            decrypted = new JsonValue(decrypted.getObject(), value.getPointer());
+            // The decrypted JsonValue may contain a structure that itself contains some crypted JsonValue.
+            return nestedFunction.apply(decrypted).getObject();
+        } catch (JsonCryptoException jce) {
+            throw new JsonValueException(value, jce);
+        }
+    }
+
+    /**
+     * Copies the value, submitting the decryption of its {@code $crypto} values to the executor, then waits for the
+     * decrypted values to replace them in the copy.
+     */
+    private Object decryptConcurrently(JsonValue value) {
+        final Scheduler scheduler = new Scheduler();
+        boolean resolved = false;
+        try {
+            final Object result = resolve(scheduler.apply(value).getObject());
+            resolved = true;
+            return result;
+        } finally {
+            if (!resolved) {
+                for (PendingDecryption pending : scheduler.pendingDecryptions) {
+                    pending.cancel(true);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object resolve(Object object) {
+        if (object instanceof PendingDecryption) {
+            return ((PendingDecryption) object).await();
+        } else if (object instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) object).entrySet()) {
+                entry.setValue(resolve(entry.getValue()));
+            }
+        } else if (object instanceof List) {
+            for (ListIterator<Object> iterator = ((List<Object>) object).listIterator(); iterator.hasNext();) {
+                iterator.set(resolve(iterator.next()));
+            }
+        }
+        return object;
+    }
+
+    /** Copies a JSON value, replacing its {@code $crypto} values with their pending decryption. */
+    private final class Scheduler extends JsonValueTraverseFunction {
+
+        private final List<PendingDecryption> pendingDecryptions = new ArrayList<>();
+
+        private Scheduler() {
+            super(identity());
+        }
+
+        @Override
+        protected Object traverseMap(JsonValue value) {
+            if (isDecryptable(value)) {
+                final PendingDecryption pending = new PendingDecryption(value);
+                pendingDecryptions.add(pending);
                 try {
-                    JsonValue decrypted = decryptor.decrypt(crypto.getValue());
-                    // Set a correct JsonPointer to the decrypted JsonValue (the decrypted one ends with /$crypto/value)
-//                    decrypted = new JsonValue(decrypted.getObject(), value.getPointer());
-                    // The decrypted JsonValue may contain a structure that itself contains some crypted JsonValue.
-                    return apply(decrypted);
-                } catch (JsonCryptoException jce) {
-                    throw new JsonValueException(value, jce);
+                    executor.execute(pending);
+                } catch (RejectedExecutionException e) {
+                    pending.run();
                 }
+                return pending;
             }
+            return super.traverseMap(value);
         }
-        return super.traverseMap(value);
     }
 
+    /** The decryption of a {@code $crypto} value, run by the executor. */
+    private final class PendingDecryption extends FutureTask<Object> {
+
+        private final JsonValue value;
+
+        private PendingDecryption(final JsonValue value) {
+            super(new Callable<Object>() {
+                @Override
+                public Object call() {
+                    return decrypt(value);
+                }
+            });
+            this.value = value;
+        }
+
+        private Object await() {
+            try {
+                return get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JsonValueException(value, "Interrupted while decrypting the value", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new JsonValueException(value, e.getCause());
+            }
+        }
+    }
 }
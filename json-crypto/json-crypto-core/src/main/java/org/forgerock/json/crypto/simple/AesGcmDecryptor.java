@@ -0,0 +1,129 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.json.crypto.simple;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.JsonValueException;
+import org.forgerock.json.crypto.JsonCryptoException;
+import org.forgerock.json.crypto.JsonDecryptor;
+import org.forgerock.util.Reject;
+import org.forgerock.util.encode.Base64;
+
+/**
+ * Decrypts a {@code $crypto} JSON object value encrypted with the {@code x-aes-gcm-encryption} type.
+ * <p>
+ * The AES keys derived from the selected keys are cached per key alias and salt, so that the values encrypted by the
+ * same encryptor only cost a key derivation once: the key selected for an alias is therefore expected not to change
+ * over the lifetime of the decryptor. Instances are thread-safe.
+ *
+ * @see AesGcmEncryptor
+ */
+public class AesGcmDecryptor implements JsonDecryptor {
+    private static final Logger logger = Logger.getLogger(AesGcmDecryptor.class.getName());
+
+    /** The type of cryptographic representation that this decryptor supports. */
+    public static final String TYPE = AesGcmEncryptor.TYPE;
+
+    /** Bounds the cache of derived keys, as the salts are read from the decrypted values. */
+    private static final int MAX_CACHED_KEYS = 256;
+
+    /** Selects the keys listed in the encrypted values. */
+    private final SimpleKeySelector selector;
+
+    /** The derived keys, per key alias and salt. */
+    private final ConcurrentMap<String, Key> derivedKeys = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new AES-GCM decryptor selecting keys with the specified selector.
+     *
+     * @param selector the selector of the keys listed in the encrypted values.
+     */
+    public AesGcmDecryptor(SimpleKeySelector selector) {
+        this.selector = Reject.checkNotNull(selector);
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public JsonValue decrypt(JsonValue value) throws JsonCryptoException {
+        try {
+            if (!AesGcmEncryptor.CIPHER.equals(value.get("cipher").required().asString())) {
+                throw new GeneralSecurityException("Unsupported cipher");
+            }
+            final String alias = value.get("key").required().asString();
+            final String salt = value.get("salt").required().asString();
+            final byte[] iv = decode(value.get("iv").required().asString());
+            final byte[] data = decode(value.get("data").required().asString());
+            if (iv.length != AesGcmEncryptor.IV_SIZE) {
+                throw new GeneralSecurityException("Invalid IV");
+            }
+
+            final Cipher cipher = AesGcmEncryptor.cipher();
+            cipher.init(Cipher.DECRYPT_MODE, derivedKey(alias, salt),
+                    new GCMParameterSpec(AesGcmEncryptor.TAG_SIZE, iv));
+            cipher.updateAAD(AesGcmEncryptor.aad(alias, salt));
+            final byte[] plaintext = cipher.doFinal(data);
+            return new JsonValue(AesGcmEncryptor.MAPPER.readValue(plaintext, Object.class));
+        } catch (GeneralSecurityException | IOException | JsonValueException e) {
+            logger.log(Level.FINE, "AesGcmDecryptor: decryption failure", e);
+            throw new JsonCryptoException("Decryption failed");
+        }
+    }
+
+    private Key derivedKey(String alias, String salt) throws GeneralSecurityException, JsonCryptoException {
+        final String cacheKey = alias + "." + salt;
+        Key derivedKey = derivedKeys.get(cacheKey);
+        if (derivedKey == null) {
+            final Key key = selector.select(alias);
+            if (key == null || key.getEncoded() == null) {
+                throw new JsonCryptoException("key not found: " + alias);
+            }
+            final byte[] keyMaterial = key.getEncoded();
+            if (keyMaterial.length != 16 && keyMaterial.length != 24 && keyMaterial.length != 32) {
+                throw new GeneralSecurityException("Invalid key size");
+            }
+            derivedKey = AesGcmEncryptor.deriveKey(
+                    HKDFKeyGenerator.extractMasterKey(keyMaterial, decode(salt)), keyMaterial.length);
+            if (derivedKeys.size() >= MAX_CACHED_KEYS) {
+                derivedKeys.clear();
+            }
+            derivedKeys.put(cacheKey, derivedKey);
+        }
+        return derivedKey;
+    }
+
+    private static byte[] decode(String base64) throws GeneralSecurityException {
+        final byte[] decoded = Base64.decode(base64);
+        if (decoded == null) {
+            throw new GeneralSecurityException("Invalid base64 value");
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+package org.forgerock.json.crypto.simple;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import org.forgerock.json.JsonValue;
+import org.forgerock.json.crypto.JsonCryptoException;
+import org.forgerock.json.crypto.JsonEncryptor;
+import org.forgerock.util.Reject;
+import org.forgerock.util.encode.Base64;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Encrypts a JSON value into an {@code x-aes-gcm-encryption} type {@code $crypto} JSON object.
+ * <p>
+ * The value is encrypted with AES in Galois/Counter Mode, which authenticates the ciphertext as well as the key
+ * alias and salt listed in the encrypted object. The AES key is derived once per encryptor from the provided secret
+ * key with HKDF, using a random salt, and each value is encrypted with a random IV. Instances are thread-safe and
+ * are meant to be reused for all the values encrypted with the same key.
+ */
+public class AesGcmEncryptor implements JsonEncryptor {
+
+    /** The type of cryptographic representation that this encryptor supports. */
+    public static final String TYPE = "x-aes-gcm-encryption";
+
+    static final String CIPHER = "AES/GCM/NoPadding";
+    static final int IV_SIZE = 96 / 8;
+    static final int TAG_SIZE = 128;
+    private static final byte[] KEY_INFO = TYPE.getBytes(StandardCharsets.UTF_8);
+
+    /** Converts between Java objects and JSON constructs, shared as it is thread-safe once configured. */
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** The ciphers are reused by each thread, as looking up a cipher implementation is comparatively costly. */
+    private static final ThreadLocal<Cipher> THREAD_LOCAL_CIPHER = new ThreadLocal<Cipher>() {
+        @Override
+        protected Cipher initialValue() {
+            try {
+                return Cipher.getInstance(CIPHER);
+            } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    private static final ThreadLocal<SecureRandom> THREAD_LOCAL_SECURE_RANDOM = new ThreadLocal<SecureRandom>() {
+        @Override
+        protected SecureRandom initialValue() {
+            return new SecureRandom();
+        }
+    };
+
+    /** The key alias to list in the encrypted object. */
+    private final String alias;
+
+    /** The salt the encryption key was derived with, listed in the encrypted object. */
+    private final String salt;
+
+    /** The key derived from the secret key to encrypt with. */
+    private final Key encryptionKey;
+
+    /** The additional authenticated data, binding the key alias and salt to the ciphertext. */
+    private final byte[] aad;
+
+    /**
+     * Constructs a new AES-GCM encryptor for the specified key and alias.
+     *
+     * @param key the 128, 192 or 256-bit secret key to derive the encryption key from.
+     * @param alias the key alias to list in the encrypted object.
+     * @throws IllegalArgumentException if the key is not 128, 192 or 256 bits long.
+     */
+    public AesGcmEncryptor(SecretKey key, String alias) {
+        Reject.ifNull(key, alias);
+        final byte[] keyMaterial = key.getEncoded();
+        Reject.ifFalse(keyMaterial.length == 16 || keyMaterial.length == 24 || keyMaterial.length == 32,
+                "The key should be 128, 192 or 256 bits long");
+        final HKDFKeyGenerator.HKDFMasterKey masterKey = HKDFKeyGenerator.extractMasterKey(keyMaterial);
+        this.alias = alias;
+        this.salt = Base64.encode(masterKey.getSalt());
+        this.encryptionKey = deriveKey(masterKey, keyMaterial.length);
+        this.aad = aad(alias, salt);
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public JsonValue encrypt(JsonValue value) throws JsonCryptoException {
+        try {
+            final byte[] iv = new byte[IV_SIZE];
+            THREAD_LOCAL_SECURE_RANDOM.get().nextBytes(iv);
+            final Cipher cipher = cipher();
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_SIZE, iv));
+            cipher.updateAAD(aad);
+            final byte[] data = cipher.doFinal(MAPPER.writeValueAsBytes(value.getObject()));
+
+            final Map<String, Object> result = new LinkedHashMap<>();
+            result.put("cipher", CIPHER);
+            result.put("key", alias);
+            result.put("salt", salt);
+            result.put("iv", Base64.encode(iv));
+            result.put("data", Base64.encode(data));
+            return new JsonValue(result);
+        } catch (GeneralSecurityException | IOException e) {
+            throw new JsonCryptoException(e);
+        }
+    }
+
+    /**
+     * Returns the cipher of the calling thread, to be initialized before each use.
+     *
+     * @return the AES-GCM cipher of the calling thread.
+     */
+    static Cipher cipher() {
+        return THREAD_LOCAL_CIPHER.get();
+    }
+
+    /**
+     * Derives the AES key from the HKDF master key.
+     *
+     * @param masterKey the master key extracted from the secret key and salt.
+     * @param keySize the AES key size, in bytes.
+     * @return the AES key.
+     */
+    static Key deriveKey(HKDFKeyGenerator.HKDFMasterKey masterKey, int keySize) {
+        return HKDFKeyGenerator.expandKey(masterKey, "AES", KEY_INFO, keySize);
+    }
+
+    /**
+     * Returns the additional authenticated data of the values encrypted with the key alias and salt.
+     *
+     * @param alias the key alias.
+     * @param salt the base64 encoded salt.
+     * @return the additional authenticated data.
+     */
+    static byte[] aad(String alias, String salt) {
+        return (alias + "." + salt).getBytes(StandardCharsets.UTF_8);
+    }
+}
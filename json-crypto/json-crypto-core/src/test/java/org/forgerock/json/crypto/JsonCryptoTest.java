@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.crypto;
@@ -26,12 +27,16 @@ import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 
 import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
+import org.forgerock.json.crypto.simple.AesGcmDecryptor;
+import org.forgerock.json.crypto.simple.AesGcmEncryptor;
 import org.forgerock.json.crypto.simple.SimpleDecryptor;
 import org.forgerock.json.crypto.simple.SimpleEncryptor;
 import org.forgerock.json.crypto.simple.SimpleKeySelector;
@@ -144,8 +149,67 @@ public class JsonCryptoTest {
         assertThat(value.get("description").getObject()).isEqualTo(PLAINTEXT);
     }
 
+    @Test
+    public void testAesGcmEncryption() throws JsonCryptoException {
+        AesGcmEncryptor encryptor = new AesGcmEncryptor(secretKey, "secretKey");
+        JsonValue value = encryptor.encrypt(new JsonValue(PLAINTEXT));
+        assertThat(value.get("data").asString()).doesNotContain(PLAINTEXT);
+        assertThat(value.get("key").asString()).isEqualTo("secretKey");
+
+        AesGcmDecryptor decryptor = new AesGcmDecryptor(selector);
+        assertThat(decryptor.decrypt(value).getObject()).isEqualTo(PLAINTEXT);
+        // the key derived for the first value is reused for the next ones
+        assertThat(decryptor.decrypt(encryptor.encrypt(new JsonValue(PASSWORD))).getObject()).isEqualTo(PASSWORD);
+    }
+
+    @Test
+    public void testConcurrentAesGcmDeepObjectDecryption() throws JsonCryptoException {
+        AesGcmEncryptor encryptor = new AesGcmEncryptor(secretKey, "secretKey");
+        JsonValue value = new JsonValue(new HashMap<>());
+        for (int i = 0; i < 100; i++) {
+            value.put("password" + i, new JsonCrypto(encryptor.getType(),
+                    encryptor.encrypt(new JsonValue(PASSWORD + i))).toJsonValue().getObject());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            value = value.as(new JsonDecryptFunction(new AesGcmDecryptor(selector), executor));
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int i = 0; i < 100; i++) {
+            assertThat(value.get("password" + i).getObject()).isEqualTo(PASSWORD + i);
+        }
+    }
+
     // ----- exceptions ----------
 
+    @Test(expectedExceptions = JsonCryptoException.class)
+    public void testAesGcmTamperedData() throws Exception {
+        JsonValue value = new AesGcmEncryptor(secretKey, "secretKey").encrypt(new JsonValue(PLAINTEXT));
+        byte[] data = Base64.decode(value.get("data").asString());
+        data[0] ^= 0x01;
+        value.put("data", Base64.encode(data));
+        new AesGcmDecryptor(selector).decrypt(value);
+    }
+
+    @Test(expectedExceptions = JsonCryptoException.class)
+    public void testAesGcmTamperedSalt() throws Exception {
+        JsonValue value = new AesGcmEncryptor(secretKey, "secretKey").encrypt(new JsonValue(PLAINTEXT));
+        byte[] salt = Base64.decode(value.get("salt").asString());
+        salt[0] ^= 0x01;
+        value.put("salt", Base64.encode(salt));
+        new AesGcmDecryptor(selector).decrypt(value);
+    }
+
+    @Test(expectedExceptions = JsonCryptoException.class)
+    public void testAesGcmUnknownKey() throws JsonCryptoException {
+        JsonValue value = new AesGcmEncryptor(secretKey, "secretKey").encrypt(new JsonValue(PLAINTEXT));
+        value.put("key", "somethingCompletelyDifferent");
+        new AesGcmDecryptor(selector).decrypt(value);
+    }
+
+
     @Test(expectedExceptions = JsonCryptoException.class)
     public void testDroppedIV() throws JsonCryptoException {
         JsonValue value = new JsonValue(PLAINTEXT);
@@ -12,23 +12,44 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 package org.forgerock.json.crypto;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.forgerock.json.JsonValue.array;
 import static org.forgerock.json.JsonValue.field;
 import static org.forgerock.json.JsonValue.json;
 import static org.forgerock.json.JsonValue.object;
 import static org.forgerock.json.crypto.JsonDecryptorUtilsTest.BASE64_DECRYPTOR;
 import static org.forgerock.json.crypto.JsonDecryptorUtilsTest.BASE64_ENCRYPTOR;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
+import org.forgerock.json.JsonValueException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 @SuppressWarnings("javadoc")
 public class JsonDecryptFunctionTest {
 
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
     @Test
     public void shouldDecryptEncryptedJsonValue() throws Exception {
         JsonValue value = new JsonValue("ForgeRock", new JsonPointer("/a/b/0"));
@@ -62,6 +83,46 @@ public class JsonDecryptFunctionTest {
         assertThat(decode64(crypted2).get("foo").get("bar").asString()).isEqualTo(forgeRock);
     }
 
+    @Test
+    public void shouldDecryptConcurrentlyAllCryptedValues() throws Exception {
+        JsonValue value = json(object(
+                field("foo", encode64(json("ForgeRock")).getObject()),
+                field("bar", array(encode64(json(1)).getObject(), "plain", encode64(json(object(
+                        field("nested", encode64(json("inner")).getObject())))).getObject())),
+                field("quix", object(field("baz", true)))));
+
+        JsonValue decrypted = value.as(new JsonDecryptFunction(BASE64_DECRYPTOR, executor));
+
+        assertThat(decrypted.isEqualTo(json(object(
+                field("foo", "ForgeRock"),
+                field("bar", array(1, "plain", object(field("nested", "inner")))),
+                field("quix", object(field("baz", true))))))).isTrue();
+    }
+
+    @Test
+    public void shouldDecryptConcurrentlyCryptedRootValue() throws Exception {
+        JsonValue crypted = encode64(json(array("a", "b")));
+
+        assertThat(crypted.as(new JsonDecryptFunction(BASE64_DECRYPTOR, executor)).asList())
+                .containsExactly("a", "b");
+        assertThat(json(array(crypted.getObject())).as(new JsonDecryptFunction(BASE64_DECRYPTOR, executor))
+                .get(0).asList()).containsExactly("a", "b");
+    }
+
+    @Test
+    public void shouldReportFailedConcurrentDecryption() throws Exception {
+        JsonValue value = json(object(
+                field("foo", encode64(json("ForgeRock")).getObject()),
+                field("bar", new JsonCrypto("base64", json("ew==")).toJsonValue().getObject())));
+
+        try {
+            value.as(new JsonDecryptFunction(BASE64_DECRYPTOR, executor));
+            fail("Expected a JsonValueException");
+        } catch (JsonValueException e) {
+            assertThat(e.getJsonValue().getPointer()).isEqualTo(new JsonPointer("/bar"));
+        }
+    }
+
     private static JsonValue encode64(JsonValue value) throws JsonCryptoException {
         return value.as(new JsonEncryptFunction(BASE64_ENCRYPTOR));
     }
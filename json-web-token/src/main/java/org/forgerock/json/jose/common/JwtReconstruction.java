@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.common;
@@ -22,6 +23,7 @@ import java.util.Map;
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.jose.exceptions.InvalidJwtException;
 import org.forgerock.json.jose.exceptions.JwtReconstructionException;
+import org.forgerock.json.jose.jwe.CompressionAlgorithm;
 import org.forgerock.json.jose.jwe.CompressionManager;
 import org.forgerock.json.jose.jwe.EncryptedJwt;
 import org.forgerock.json.jose.jwe.JweHeader;
@@ -34,7 +36,6 @@ import org.forgerock.json.jose.jwt.Jwt;
 import org.forgerock.json.jose.jwt.JwtClaimsSet;
 import org.forgerock.json.jose.jwt.JwtType;
 import org.forgerock.json.jose.utils.Utils;
-import org.forgerock.util.encode.Base64url;
 
 /**
  * A service that provides a method for reconstruct a JWT string back into its relevant JWT object,
@@ -51,8 +52,14 @@ public class JwtReconstruction {
     private static final int JWS_NUM_PARTS = 3;
     private static final int JWE_NUM_PARTS = 5;
 
+    private final CompressionManager compressionManager = new CompressionManager();
+
     /**
      * Reconstructs the given JWT string into a JWT object of the specified type.
+     * <p>
+     * The JWT string is scanned once for the offsets of its parts, which are then decoded directly from the
+     * original string. The header is parsed once from its decoded bytes, and the signing input of a signed JWT is
+     * taken from the original string rather than re-assembled from its parts.
      *
      * @param jwtString The JWT string.
      * @param jwtClass The JWT class to reconstruct the JWT string to.
@@ -63,16 +70,16 @@ public class JwtReconstruction {
      */
     public <T extends Jwt> T reconstructJwt(String jwtString, Class<T> jwtClass) {
 
-
-        //split into parts
-        String[] jwtParts = jwtString.split("\\.", -1);
-        if (jwtParts.length != 3 && jwtParts.length != 5) {
-            throw new InvalidJwtException("not right number of dots, " + jwtParts.length);
+        //locate the parts
+        JwtParts jwtParts = new JwtParts(jwtString);
+        if (jwtParts.size() != JWS_NUM_PARTS && jwtParts.size() != JWE_NUM_PARTS) {
+            throw new InvalidJwtException("not right number of dots, " + jwtParts.size());
         }
 
         //first part always header
-        //turn into json value
-        JsonValue headerJson = new JsonValue(Utils.parseJson(Utils.base64urlDecode(jwtParts[0])));
+        //parse once and wrap as json value
+        Map<String, Object> header = Utils.parseJson(jwtParts.decode(0));
+        JsonValue headerJson = new JsonValue(header);
         JwtType contentType = null;
         if (headerJson.isDefined(PAYLOAD_CONTENT_TYPE)) {
             contentType = JwtType.jwtType(headerJson.get(PAYLOAD_CONTENT_TYPE).asString());
@@ -87,21 +94,21 @@ public class JwtReconstruction {
         if (headerJson.isDefined(ENCRYPTION_METHOD)) {
             //is encrypted jwt
             verifyNumberOfParts(jwtParts, JWE_NUM_PARTS);
-            jwt = reconstructEncryptedJwt(jwtParts);
+            jwt = reconstructEncryptedJwt(jwtParts, header);
         } else if (JwtType.JWE == contentType || JwtType.JWT == contentType || JwtType.JWE == jwtType) {
             verifyNumberOfParts(jwtParts, JWS_NUM_PARTS);
-            jwt = reconstructSignedEncryptedJwt(jwtParts);
+            jwt = reconstructSignedEncryptedJwt(jwtParts, header);
         } else if (headerJson.isDefined(ALGORITHM)) {
             //is signed jwt
             verifyNumberOfParts(jwtParts, JWS_NUM_PARTS);
-            jwt = reconstructSignedJwt(jwtParts);
+            jwt = reconstructSignedJwt(jwtParts, header);
         } else {
             //plaintext jwt
             verifyNumberOfParts(jwtParts, JWS_NUM_PARTS);
-            if (!jwtParts[2].isEmpty()) {
+            if (!jwtParts.isEmpty(2)) {
                 throw new InvalidJwtException("Third part of Plaintext JWT not empty.");
             }
-            jwt = reconstructSignedJwt(jwtParts);
+            jwt = reconstructSignedJwt(jwtParts, header);
         }
 
         return jwtClass.cast(jwt);
@@ -114,10 +121,10 @@ public class JwtReconstruction {
      * @param required The required number of parts.
      * @throws JwtReconstructionException If the jwt does not consist of the correct number of parts.
      */
-    private void verifyNumberOfParts(String[] jwtParts, int required) {
-        if (jwtParts.length != required) {
+    private void verifyNumberOfParts(JwtParts jwtParts, int required) {
+        if (jwtParts.size() != required) {
             throw new JwtReconstructionException("Not the correct number of JWT parts. Expecting, " + required
-                    + ", actually, " + jwtParts.length);
+                    + ", actually, " + jwtParts.size());
         }
     }
 
@@ -128,50 +135,47 @@ public class JwtReconstruction {
      * as well as signed JWTs.
      *
      * @param jwtParts The three base64url UTF-8 encoded string parts of a plaintext or signed JWT.
+     * @param header The parsed header of the JWT.
      * @return A SignedJwt object.
      */
-    private SignedJwt reconstructSignedJwt(String[] jwtParts) {
-
-        String encodedHeader = jwtParts[0];
-        String encodedClaimsSet = jwtParts[1];
-        String encodedSignature = jwtParts[2];
+    private SignedJwt reconstructSignedJwt(JwtParts jwtParts, Map<String, Object> header) {
 
-        String header = Utils.base64urlDecode(encodedHeader);
+        JwsHeader jwsHeader = new JwsHeader(header);
+        byte[] signature = jwtParts.decode(2);
 
-        byte[] signature = Base64url.decode(encodedSignature);
+        byte[] payload = decompress(jwsHeader.getCompressionAlgorithm(), jwtParts.decode(1));
+        JwtClaimsSet claimsSet = new JwtClaimsSet(Utils.parseJson(payload));
 
-        JwsHeader jwsHeader = new JwsHeader(Utils.parseJson(header));
-
-        byte[] payload = new CompressionManager().decompress(jwsHeader.getCompressionAlgorithm(), encodedClaimsSet);
-        JwtClaimsSet claimsSet = new JwtClaimsSet(Utils.parseJson(new String(payload, Utils.CHARSET)));
+        return new SignedJwt(jwsHeader, claimsSet, jwtParts.signingInput(), signature);
+    }
 
-        return new SignedJwt(jwsHeader, claimsSet, (encodedHeader + "." + encodedClaimsSet).getBytes(Utils.CHARSET),
-                signature);
+    /**
+     * Decompresses the decoded payload of a JWS, skipping the copy made by the no-op compression handler.
+     */
+    private byte[] decompress(CompressionAlgorithm compressionAlgorithm, byte[] payload) {
+        if (compressionAlgorithm == CompressionAlgorithm.NONE) {
+            return payload;
+        }
+        return compressionManager.getCompressionHandler(compressionAlgorithm).decompress(payload);
     }
 
     /**
      * Reconstructs an encrypted JWT from the given JWT string parts.
      *
      * @param jwtParts The five base64url UTF-8 encoded string parts of an encrypted JWT.
+     * @param header The parsed header of the JWT.
      * @return An EncryptedJwt object.
      */
-    private EncryptedJwt reconstructEncryptedJwt(String[] jwtParts) {
-
-        String encodedHeader = jwtParts[0];
-        String encodedEncryptedKey = jwtParts[1];
-        String encodedInitialisationVector = jwtParts[2];
-        String encodedCiphertext = jwtParts[3];
-        String encodedAuthenticationTag = jwtParts[4];
+    private EncryptedJwt reconstructEncryptedJwt(JwtParts jwtParts, Map<String, Object> header) {
 
+        String encodedHeader = jwtParts.get(0);
+        byte[] encryptedContentEncryptionKey = jwtParts.decode(1);
+        byte[] initialisationVector = jwtParts.decode(2);
+        byte[] ciphertext = jwtParts.decode(3);
+        byte[] authenticationTag = jwtParts.decode(4);
 
-        String header = Utils.base64urlDecode(encodedHeader);
-        byte[] encryptedContentEncryptionKey = Base64url.decode(encodedEncryptedKey);
-        byte[] initialisationVector = Base64url.decode(encodedInitialisationVector);
-        byte[] ciphertext = Base64url.decode(encodedCiphertext);
-        byte[] authenticationTag = Base64url.decode(encodedAuthenticationTag);
 
-
-        JweHeader jweHeader = new JweHeader(Utils.parseJson(header));
+        JweHeader jweHeader = new JweHeader(header);
 
         if (jweHeader.getContentType() != null) {
             return new SignedThenEncryptedJwt(jweHeader, encodedHeader, encryptedContentEncryptionKey,
@@ -189,31 +193,80 @@ public class JwtReconstruction {
      * the reconstructed nested EncryptedJwt.
      *
      * @param jwtParts The three base64url UTF-8 encoded string parts of a signed JWT.
+     * @param header The parsed header of the JWT.
      * @return A SignedEncryptedJwt object.
      */
-    private EncryptedThenSignedJwt reconstructSignedEncryptedJwt(String[] jwtParts) {
-
-        String encodedHeader = jwtParts[0];
-        String encodedPayload = jwtParts[1];
-        String encodedSignature = jwtParts[2];
+    private EncryptedThenSignedJwt reconstructSignedEncryptedJwt(JwtParts jwtParts, Map<String, Object> header) {
 
+        String payloadString = new String(jwtParts.decode(1), Utils.CHARSET);
+        byte[] signature = jwtParts.decode(2);
 
-        String header = Utils.base64urlDecode(encodedHeader);
-        String payloadString = Utils.base64urlDecode(encodedPayload);
-        byte[] signature = Base64url.decode(encodedSignature);
-
-        //split into parts
-        String[] encryptedJwtParts = payloadString.split("\\.", -1);
+        //locate the parts of the nested jwt
+        JwtParts encryptedJwtParts = new JwtParts(payloadString);
         verifyNumberOfParts(encryptedJwtParts, JWE_NUM_PARTS);
-        EncryptedJwt encryptedJwt = reconstructEncryptedJwt(encryptedJwtParts);
+        EncryptedJwt encryptedJwt = reconstructEncryptedJwt(encryptedJwtParts,
+                Utils.parseJson(encryptedJwtParts.decode(0)));
 
         Map<String, Object> combinedHeader = new HashMap<>(encryptedJwt.getHeader().getParameters());
-        combinedHeader.putAll(Utils.parseJson(header));
+        combinedHeader.putAll(header);
 
         JwsHeader jwsHeader = new JwsHeader(combinedHeader);
 
         // This can be changed to return EncryptedThenSignedJwt once SignedEncryptedJwt is removed
-        return new SignedEncryptedJwt(jwsHeader, encryptedJwt,
-                (encodedHeader + "." + encodedPayload).getBytes(Utils.CHARSET), signature);
+        return new SignedEncryptedJwt(jwsHeader, encryptedJwt, jwtParts.signingInput(), signature);
+    }
+
+    /**
+     * The offsets of the dot separated parts of a compact serialized JWT, found in a single scan of the string.
+     */
+    private static final class JwtParts {
+        private final String jwt;
+        /** Index of the dot ending each part, or of the end of the string for the last part. */
+        private final int[] ends = new int[JWE_NUM_PARTS];
+        private final int size;
+
+        private JwtParts(String jwt) {
+            this.jwt = jwt;
+            int count = 0;
+            int dot = jwt.indexOf('.');
+            while (dot >= 0) {
+                if (count < ends.length) {
+                    ends[count] = dot;
+                }
+                count++;
+                dot = jwt.indexOf('.', dot + 1);
+            }
+            if (count < ends.length) {
+                ends[count] = jwt.length();
+            }
+            this.size = count + 1;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private int start(int part) {
+            return part == 0 ? 0 : ends[part - 1] + 1;
+        }
+
+        String get(int part) {
+            return jwt.substring(start(part), ends[part]);
+        }
+
+        boolean isEmpty(int part) {
+            return start(part) == ends[part];
+        }
+
+        byte[] decode(int part) {
+            return Utils.base64urlDecode(jwt, start(part), ends[part]);
+        }
+
+        /**
+         * Returns the bytes of the encoded header and payload, including the dot separating them.
+         */
+        byte[] signingInput() {
+            return jwt.substring(0, ends[1]).getBytes(Utils.CHARSET);
+        }
     }
 }
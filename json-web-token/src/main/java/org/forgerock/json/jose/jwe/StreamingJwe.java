@@ -0,0 +1,308 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.jose.jwe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.Key;
+import java.util.Base64;
+import java.util.zip.ZipException;
+
+import org.forgerock.json.jose.exceptions.InvalidJwtException;
+import org.forgerock.json.jose.exceptions.JweException;
+import org.forgerock.json.jose.jwe.handlers.compression.DeflateCompressionHandler;
+import org.forgerock.json.jose.jwe.handlers.encryption.EncryptionHandler;
+import org.forgerock.json.jose.jwe.handlers.encryption.StreamingEncryptionHandler;
+import org.forgerock.json.jose.utils.Utils;
+import org.forgerock.util.annotations.VisibleForTesting;
+import org.forgerock.util.encode.Base64url;
+
+/**
+ * Encrypts and decrypts JWEs in compact serialization as streams, for payloads too large to be comfortably held in
+ * memory as an {@link EncryptedJwt}.
+ * <p>
+ * The plaintext is compressed (when the header asks for {@link CompressionAlgorithm#DEF}), encrypted and
+ * base64url-encoded as it is read, so memory use is bounded whatever the size of the payload. The serialization
+ * written is the same as {@link EncryptedJwt#build()} would produce for the same header, key, initialisation vector
+ * and plaintext, and the two can decrypt each other's output.
+ * <p>
+ * When decrypting, plaintext is written before the authentication tag at the end of the JWE has been checked.
+ * Callers must treat what has been written as untrusted until {@link #decrypt(Key, InputStream, OutputStream)}
+ * returns, and discard it if that method throws.
+ */
+public final class StreamingJwe {
+    /** Upper bound on the length of the encoded header, encrypted key and initialisation vector. */
+    private static final int MAX_PART_LENGTH = 64 * 1024;
+    private static final int BUFFER_SIZE = 8192;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final EncryptionManager encryptionManager = new EncryptionManager();
+
+    /**
+     * Encrypts the plaintext read from the given stream, writing the JWE in compact serialization to the given
+     * output. Neither stream is closed.
+     *
+     * @param header The JWE header, which determines the algorithms used.
+     * @param key The key to encrypt the JWE with.
+     * @param plaintext The stream to read the plaintext from.
+     * @param jwe The stream to write the JWE to.
+     * @throws IOException If reading or writing one of the streams fails.
+     * @throws JweException If the header's algorithms do not support streaming.
+     */
+    public void encrypt(JweHeader header, Key key, InputStream plaintext, OutputStream jwe) throws IOException {
+        encrypt(header, key, getEncryptionHandler(header).generateInitialisationVector(), plaintext, jwe);
+    }
+
+    @VisibleForTesting
+    void encrypt(JweHeader header, Key key, byte[] initialisationVector, InputStream plaintext, OutputStream jwe)
+            throws IOException {
+        StreamingEncryptionHandler encryptionHandler = getEncryptionHandler(header);
+
+        Key contentEncryptionKey = encryptionHandler.getContentEncryptionKey();
+        if (contentEncryptionKey == null) {
+            contentEncryptionKey = key;
+        }
+        byte[] encryptedContentEncryptionKey = encryptionHandler.generateJWEEncryptedKey(key, contentEncryptionKey);
+
+        String encodedJweHeader = Utils.base64urlEncode(header.build());
+        byte[] additionalAuthenticatedData = encodedJweHeader.getBytes(Utils.CHARSET);
+        jwe.write(new StringBuilder(encodedJweHeader)
+                .append(".").append(Base64url.encode(encryptedContentEncryptionKey))
+                .append(".").append(Base64url.encode(initialisationVector))
+                .append(".")
+                .toString().getBytes(Utils.CHARSET));
+
+        byte[] authenticationTag;
+        try (InputStream in = compress(header, new NonClosingInputStream(plaintext));
+             OutputStream ciphertext = ENCODER.wrap(new NonClosingOutputStream(jwe))) {
+            authenticationTag = encryptionHandler.encryptPlaintext(contentEncryptionKey, initialisationVector, in,
+                    additionalAuthenticatedData, ciphertext);
+        }
+        jwe.write(("." + Base64url.encode(authenticationTag)).getBytes(Utils.CHARSET));
+    }
+
+    /**
+     * Decrypts the JWE in compact serialization read from the given stream, writing its plaintext to the given
+     * output. Neither stream is closed.
+     * <p>
+     * The plaintext is written as it is decrypted and is only authenticated once this method returns normally; if
+     * it throws, everything written to {@code plaintext} must be discarded.
+     *
+     * @param key The key to decrypt the JWE with.
+     * @param jwe The stream to read the JWE from.
+     * @param plaintext The stream to write the plaintext to.
+     * @return The header of the decrypted JWE.
+     * @throws IOException If reading or writing one of the streams fails, or the JWE is not valid base64url.
+     * @throws InvalidJwtException If the JWE is malformed.
+     * @throws org.forgerock.json.jose.exceptions.JweDecryptionException If the JWE cannot be decrypted or
+     * authenticated with the given key.
+     */
+    public JweHeader decrypt(Key key, InputStream jwe, OutputStream plaintext) throws IOException {
+        PartReader parts = new PartReader(jwe);
+        String encodedHeader = parts.readPart();
+        JweHeader header = new JweHeader(Utils.parseJson(Utils.base64urlDecode(encodedHeader)));
+        byte[] encryptedContentEncryptionKey = Base64url.decode(parts.readPart());
+        byte[] initialisationVector = Base64url.decode(parts.readPart());
+
+        StreamingEncryptionHandler encryptionHandler = getEncryptionHandler(header);
+        Key contentEncryptionKey = encryptionHandler.decryptContentEncryptionKey(key, encryptedContentEncryptionKey);
+        try (OutputStream out = decompress(header, new NonClosingOutputStream(plaintext))) {
+            encryptionHandler.decryptCiphertext(contentEncryptionKey, initialisationVector,
+                    DECODER.wrap(parts.nextPart(false)), DECODER.wrap(parts.nextPart(true)),
+                    encodedHeader.getBytes(Utils.CHARSET), out);
+        }
+        return header;
+    }
+
+    private StreamingEncryptionHandler getEncryptionHandler(JweHeader header) {
+        EncryptionHandler encryptionHandler = encryptionManager.getEncryptionHandler(header);
+        if (!(encryptionHandler instanceof StreamingEncryptionHandler)) {
+            throw new JweException("Streaming is not supported for encryption algorithm, "
+                    + header.getAlgorithm() + ".");
+        }
+        return (StreamingEncryptionHandler) encryptionHandler;
+    }
+
+    private static InputStream compress(JweHeader header, InputStream plaintext) {
+        if (header.getCompressionAlgorithm() == CompressionAlgorithm.DEF) {
+            return new DeflateCompressionHandler().compress(plaintext);
+        }
+        return plaintext;
+    }
+
+    private static OutputStream decompress(JweHeader header, OutputStream plaintext) {
+        if (header.getCompressionAlgorithm() == CompressionAlgorithm.DEF) {
+            return new DeferredZipFailureOutputStream(new DeflateCompressionHandler().decompress(plaintext));
+        }
+        return plaintext;
+    }
+
+    /**
+     * Splits a compact serialization into its dot-separated parts without reading ahead of the part being consumed.
+     */
+    private static final class PartReader {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+
+        PartReader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Reads the whole of the next part, which must be short and followed by another part.
+         */
+        String readPart() throws IOException {
+            InputStream part = nextPart(false);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] chunk = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = part.read(chunk)) != -1) {
+                bytes.write(chunk, 0, read);
+                if (bytes.size() > MAX_PART_LENGTH) {
+                    throw new InvalidJwtException("JWE part exceeds " + MAX_PART_LENGTH + " bytes");
+                }
+            }
+            return new String(bytes.toByteArray(), Utils.CHARSET);
+        }
+
+        /**
+         * Returns a stream over the next part, ending at the next dot, or at the end of the input if
+         * {@code last}.
+         */
+        InputStream nextPart(final boolean last) {
+            return new InputStream() {
+                private boolean done;
+
+                @Override
+                public int read() throws IOException {
+                    byte[] b = new byte[1];
+                    return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (done) {
+                        return -1;
+                    }
+                    if (len == 0) {
+                        return 0;
+                    }
+                    if (position == limit) {
+                        limit = in.read(buffer);
+                        position = 0;
+                        if (limit == -1) {
+                            limit = 0;
+                            done = true;
+                            if (!last) {
+                                throw new InvalidJwtException("not right number of dots");
+                            }
+                            return -1;
+                        }
+                    }
+                    int end = Math.min(limit, position + len);
+                    for (int i = position; i < end; i++) {
+                        if (buffer[i] == '.') {
+                            if (last) {
+                                throw new InvalidJwtException("not right number of dots");
+                            }
+                            done = true;
+                            end = i;
+                            break;
+                        }
+                    }
+                    int count = end - position;
+                    System.arraycopy(buffer, position, b, off, count);
+                    position = done ? end + 1 : end;
+                    return done && count == 0 ? -1 : count;
+                }
+            };
+        }
+    }
+
+    /**
+     * Holds back decompression failures until the stream is closed, so that a JWE whose ciphertext has been tampered
+     * with fails authentication rather than decompression.
+     */
+    private static final class DeferredZipFailureOutputStream extends FilterOutputStream {
+        private ZipException failure;
+
+        DeferredZipFailureOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (failure == null) {
+                try {
+                    out.write(b, off, len);
+                } catch (ZipException e) {
+                    failure = e;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.close();
+            } catch (ZipException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /** Keeps the caller's input open when the compression stream wrapping it is closed. */
+    private static final class NonClosingInputStream extends FilterInputStream {
+        NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+            // The caller owns the stream
+        }
+    }
+
+    /** Keeps the caller's output open when the encoding or decompression stream wrapping it is closed. */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
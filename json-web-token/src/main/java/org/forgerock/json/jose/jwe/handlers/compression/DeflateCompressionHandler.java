@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwe.handlers.compression;
@@ -19,10 +20,14 @@ package org.forgerock.json.jose.jwe.handlers.compression;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
+import java.util.zip.InflaterOutputStream;
 
 import org.forgerock.json.jose.exceptions.JweCompressionException;
 
@@ -70,4 +75,46 @@ public class DeflateCompressionHandler implements CompressionHandler {
 
         return byteOutputStream.toByteArray();
     }
+
+    /**
+     * Returns a stream that reads the DEFLATE compressed form of the given stream, producing the same bytes as
+     * {@link #compress(byte[])} would for its whole content. Closing the returned stream closes {@code in}.
+     *
+     * @param in The stream of uncompressed data.
+     * @return A stream of the compressed data.
+     */
+    public InputStream compress(InputStream in) {
+        final Deflater deflater = new Deflater(Deflater.DEFLATED, true);
+        return new DeflaterInputStream(in, deflater) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns a stream that decompresses the DEFLATE data written to it, writing the result to the given stream.
+     * Closing the returned stream writes any remaining data and closes {@code out}.
+     *
+     * @param out The stream to write the decompressed data to.
+     * @return A stream accepting compressed data.
+     */
+    public OutputStream decompress(OutputStream out) {
+        final Inflater inflater = new Inflater(true);
+        return new InflaterOutputStream(out, inflater) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
 }
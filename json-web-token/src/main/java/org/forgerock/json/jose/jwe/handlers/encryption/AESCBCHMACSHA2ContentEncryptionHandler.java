@@ -12,10 +12,14 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwe.handlers.encryption;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.security.GeneralSecurityException;
@@ -117,6 +121,81 @@ final class AESCBCHMACSHA2ContentEncryptionHandler extends ContentEncryptionHand
         }
     }
 
+    @Override
+    byte[] encrypt(final Key key, final byte[] iv, final InputStream plainText, final byte[] additionalData,
+            final OutputStream cipherText) throws IOException {
+        try {
+            final Cipher cipher = Cipher.getInstance(method.getTransformation());
+            cipher.init(Cipher.ENCRYPT_MODE, encKey(key, method), new IvParameterSpec(iv));
+
+            final Mac mac = Mac.getInstance(method.getMacAlgorithm());
+            mac.init(macKey(key, method));
+            mac.update(additionalData);
+            mac.update(iv);
+
+            final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            final byte[] output = new byte[cipher.getOutputSize(STREAM_BUFFER_SIZE)];
+            int read;
+            while ((read = plainText.read(buffer)) != -1) {
+                final int length = cipher.update(buffer, 0, read, output);
+                mac.update(output, 0, length);
+                cipherText.write(output, 0, length);
+            }
+            final byte[] last = cipher.doFinal();
+            mac.update(last);
+            cipherText.write(last);
+            mac.update(additionalDataLength(additionalData));
+
+            return Arrays.copyOf(mac.doFinal(), method.getKeyOffset());
+        } catch (GeneralSecurityException e) {
+            throw new JweEncryptionException(e);
+        }
+    }
+
+    @Override
+    void decrypt(final Key key, final byte[] iv, final InputStream cipherText, final InputStream authenticationTag,
+            final byte[] additionalData, final OutputStream plainText) throws IOException {
+        try {
+            final Mac mac = Mac.getInstance(method.getMacAlgorithm());
+            mac.init(macKey(key, method));
+            mac.update(additionalData);
+            mac.update(iv);
+
+            final Cipher cipher = Cipher.getInstance(method.getTransformation());
+            cipher.init(Cipher.DECRYPT_MODE, encKey(key, method), new IvParameterSpec(iv));
+
+            final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            // Decryption holds back up to a block of input until it knows where the padding is
+            final byte[] output = new byte[STREAM_BUFFER_SIZE + cipher.getBlockSize()];
+            int read;
+            while ((read = cipherText.read(buffer)) != -1) {
+                mac.update(buffer, 0, read);
+                plainText.write(output, 0, cipher.update(buffer, 0, read, output));
+            }
+            mac.update(additionalDataLength(additionalData));
+
+            final byte[] tag = readAuthenticationTag(authenticationTag);
+            final boolean macValid = tag != null
+                    && Utils.constantEquals(Arrays.copyOf(mac.doFinal(), method.getKeyOffset()), tag);
+
+            // The final (padded) block is only released once the MAC has been checked
+            final byte[] last = cipher.doFinal();
+            if (!macValid) {
+                throw new GeneralSecurityException("MAC verification failed");
+            }
+            plainText.write(last);
+        } catch (GeneralSecurityException ex) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Decryption failed: " + ex, ex);
+            }
+            throw new JweDecryptionException();
+        }
+    }
+
+    private static byte[] additionalDataLength(final byte[] additionalData) {
+        return ByteBuffer.allocate(8).order(ByteOrder.BIG_ENDIAN).putLong(additionalData.length * 8L).array();
+    }
+
     @Override
     Key generateEncryptionKey() {
         // We need to generate a CEK sufficiently large to supply the key for the AES block cipher and the HMAC. As
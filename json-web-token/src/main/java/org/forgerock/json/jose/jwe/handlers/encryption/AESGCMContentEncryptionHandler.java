@@ -12,10 +12,14 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwe.handlers.encryption;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
@@ -26,11 +30,13 @@ import java.util.logging.Logger;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
 
 import org.forgerock.json.jose.exceptions.JweDecryptionException;
 import org.forgerock.json.jose.exceptions.JweEncryptionException;
 import org.forgerock.json.jose.jwe.EncryptionMethod;
 import org.forgerock.json.jose.jwe.JweEncryption;
+import org.forgerock.json.jose.utils.Utils;
 
 /**
  * Encrypts content using Galois Counter Mode (GCM), an efficient authenticated encryption with associated data
@@ -42,6 +48,8 @@ final class AESGCMContentEncryptionHandler extends ContentEncryptionHandler {
     private static final Logger LOGGER = Logger.getLogger(AESGCMContentEncryptionHandler.class.getName());
     private static final int TAG_LENGTH = 128;
     private static final int IV_LENGTH = 96 / 8;
+    private static final String CTR_TRANSFORMATION = "AES/CTR/NoPadding";
+    private static final int BLOCK_SIZE = 16;
 
     private final EncryptionMethod encryptionMethod;
 
@@ -81,6 +89,75 @@ final class AESGCMContentEncryptionHandler extends ContentEncryptionHandler {
         }
     }
 
+    @Override
+    byte[] encrypt(final Key key, final byte[] iv, final InputStream plainText, final byte[] additionalData,
+            final OutputStream cipherText) throws IOException {
+        try {
+            final Cipher cipher = Cipher.getInstance(encryptionMethod.getTransformation());
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+            cipher.updateAAD(additionalData);
+            final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            final byte[] output = new byte[cipher.getOutputSize(STREAM_BUFFER_SIZE)];
+            int read;
+            while ((read = plainText.read(buffer)) != -1) {
+                cipherText.write(output, 0, cipher.update(buffer, 0, read, output));
+            }
+            final byte[] last = cipher.doFinal();
+            final int tagStart = last.length - TAG_LENGTH / 8;
+            cipherText.write(last, 0, tagStart);
+            return Arrays.copyOfRange(last, tagStart, last.length);
+        } catch (GeneralSecurityException ex) {
+            throw new JweEncryptionException(ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The JCE buffers the whole ciphertext when decrypting in GCM mode, since it will not release any plaintext
+     * before checking the tag. To keep memory bounded the ciphertext is instead decrypted with the underlying CTR
+     * keystream (which starts at counter block {@code IV || 0x00000002} for a 96-bit IV), while the recovered
+     * plaintext is re-encrypted in GCM mode under the same key, IV and additional data. That re-encryption
+     * reproduces the ciphertext, so the tag it yields is the one the ciphertext must carry.
+     */
+    @Override
+    void decrypt(final Key key, final byte[] iv, final InputStream cipherText, final InputStream authenticationTag,
+            final byte[] additionalData, final OutputStream plainText) throws IOException {
+        try {
+            if (iv.length != IV_LENGTH) {
+                throw new GeneralSecurityException("Unsupported initialisation vector length: " + iv.length);
+            }
+            final byte[] counter = Arrays.copyOf(iv, BLOCK_SIZE);
+            counter[BLOCK_SIZE - 1] = 2;
+            final Cipher keystream = Cipher.getInstance(CTR_TRANSFORMATION);
+            keystream.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(counter));
+            final Cipher authenticator = Cipher.getInstance(encryptionMethod.getTransformation());
+            authenticator.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+            authenticator.updateAAD(additionalData);
+
+            final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            final byte[] output = new byte[STREAM_BUFFER_SIZE];
+            final byte[] scratch = new byte[authenticator.getOutputSize(STREAM_BUFFER_SIZE)];
+            int read;
+            while ((read = cipherText.read(buffer)) != -1) {
+                final int length = keystream.update(buffer, 0, read, output);
+                authenticator.update(output, 0, length, scratch);
+                plainText.write(output, 0, length);
+            }
+            final byte[] last = authenticator.doFinal();
+            final byte[] expectedTag = Arrays.copyOfRange(last, last.length - TAG_LENGTH / 8, last.length);
+            final byte[] tag = readAuthenticationTag(authenticationTag);
+            if (tag == null || !Utils.constantEquals(expectedTag, tag)) {
+                throw new GeneralSecurityException("Tag mismatch!");
+            }
+        } catch (GeneralSecurityException ex) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Decryption failed: " + ex, ex);
+            }
+            throw new JweDecryptionException();
+        }
+    }
+
     @Override
     Key generateEncryptionKey() {
         try {
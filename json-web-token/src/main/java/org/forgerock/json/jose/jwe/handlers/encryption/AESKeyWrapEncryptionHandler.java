@@ -12,10 +12,14 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwe.handlers.encryption;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 
@@ -29,7 +33,7 @@ import org.forgerock.json.jose.jwe.JweEncryption;
 /**
  * Provides JWE key encapsulation using the AES KeyWrap algorithm.
  */
-public final class AESKeyWrapEncryptionHandler implements EncryptionHandler {
+public final class AESKeyWrapEncryptionHandler implements StreamingEncryptionHandler {
     private final ContentEncryptionHandler contentEncryptionHandler;
     private final EncryptionMethod encryptionMethod;
 
@@ -91,4 +95,20 @@ public final class AESKeyWrapEncryptionHandler implements EncryptionHandler {
         return contentEncryptionHandler.decrypt(contentEncryptionKey, initialisationVector,
                 new JweEncryption(ciphertext, authenticationTag), additionalAuthenticatedData);
     }
+
+    @Override
+    public byte[] encryptPlaintext(final Key contentEncryptionKey, final byte[] initialisationVector,
+            final InputStream plaintext, final byte[] additionalAuthenticatedData, final OutputStream ciphertext)
+            throws IOException {
+        return contentEncryptionHandler.encrypt(contentEncryptionKey, initialisationVector, plaintext,
+                additionalAuthenticatedData, ciphertext);
+    }
+
+    @Override
+    public void decryptCiphertext(final Key contentEncryptionKey, final byte[] initialisationVector,
+            final InputStream ciphertext, final InputStream authenticationTag,
+            final byte[] additionalAuthenticatedData, final OutputStream plaintext) throws IOException {
+        contentEncryptionHandler.decrypt(contentEncryptionKey, initialisationVector, ciphertext, authenticationTag,
+                additionalAuthenticatedData, plaintext);
+    }
 }
@@ -12,13 +12,18 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwe.handlers.encryption;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Arrays;
 
 import org.forgerock.json.jose.exceptions.JweEncryptionException;
 import org.forgerock.json.jose.jwe.EncryptionMethod;
@@ -30,6 +35,10 @@ import org.forgerock.util.Reject;
  */
 abstract class ContentEncryptionHandler {
     private static final String INITIALISATION_VECTOR_ALGORITHM = "SHA1PRNG";
+    /** Size of the chunks read from the input by the streaming operations. */
+    static final int STREAM_BUFFER_SIZE = 8192;
+    /** Upper bound on the size of an authentication tag read by the streaming operations. */
+    private static final int MAX_TAG_LENGTH = 64;
 
     /**
      * Returns an appropriate content encryption handler for the given encryption method.
@@ -57,6 +66,41 @@ abstract class ContentEncryptionHandler {
 
     abstract byte[] decrypt(Key key, byte[] iv, JweEncryption cipherText, byte[] additionalData);
 
+    /**
+     * Encrypts the plaintext read from the given stream, writing the ciphertext to the given stream as it is
+     * produced. Neither stream is closed.
+     *
+     * @param key the content encryption key.
+     * @param iv the initialisation vector.
+     * @param plainText the stream to read the plaintext from.
+     * @param additionalData the additional authenticated data.
+     * @param cipherText the stream to write the ciphertext to.
+     * @return the authentication tag.
+     * @throws IOException if reading or writing one of the streams fails.
+     */
+    abstract byte[] encrypt(Key key, byte[] iv, InputStream plainText, byte[] additionalData,
+            OutputStream cipherText) throws IOException;
+
+    /**
+     * Decrypts the ciphertext read from the given stream, writing the plaintext to the given stream as it is
+     * produced. Neither stream is closed.
+     * <p>
+     * The authentication tag can only be checked once the whole ciphertext has been read, so plaintext is written
+     * before it has been authenticated: if this method throws then everything written to {@code plainText} must be
+     * discarded.
+     *
+     * @param key the content encryption key.
+     * @param iv the initialisation vector.
+     * @param cipherText the stream to read the ciphertext from.
+     * @param authenticationTag the stream to read the authentication tag from, once the ciphertext is exhausted.
+     * @param additionalData the additional authenticated data.
+     * @param plainText the stream to write the plaintext to.
+     * @throws IOException if reading or writing one of the streams fails.
+     * @throws org.forgerock.json.jose.exceptions.JweDecryptionException if the ciphertext cannot be authenticated.
+     */
+    abstract void decrypt(Key key, byte[] iv, InputStream cipherText, InputStream authenticationTag,
+            byte[] additionalData, OutputStream plainText) throws IOException;
+
     abstract Key generateEncryptionKey();
 
     byte[] generateInitialisationVector() {
@@ -75,4 +119,21 @@ abstract class ContentEncryptionHandler {
     int getIVByteLength() {
         return 128 / 8;
     }
+
+    /**
+     * Reads the whole authentication tag from the given stream.
+     *
+     * @param authenticationTag the stream holding the tag.
+     * @return the tag, or {@code null} if the stream holds more than any supported tag.
+     * @throws IOException if reading the stream fails.
+     */
+    static byte[] readAuthenticationTag(final InputStream authenticationTag) throws IOException {
+        final byte[] tag = new byte[MAX_TAG_LENGTH + 1];
+        int length = 0;
+        int read;
+        while (length < tag.length && (read = authenticationTag.read(tag, length, tag.length - length)) != -1) {
+            length += read;
+        }
+        return length > MAX_TAG_LENGTH ? null : Arrays.copyOf(tag, length);
+    }
 }
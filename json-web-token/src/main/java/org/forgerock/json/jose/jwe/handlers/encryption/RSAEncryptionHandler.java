@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwe.handlers.encryption;
@@ -22,6 +23,9 @@ import static org.forgerock.json.jose.jwe.JweAlgorithm.RSA_OAEP_256;
 import static org.forgerock.json.jose.jwe.JweAlgorithmType.RSA;
 import static org.forgerock.util.Reject.checkNotNull;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.interfaces.RSAPublicKey;
@@ -42,7 +46,7 @@ import org.forgerock.util.Reject;
  *
  * @see <a href="https://tools.ietf.org/html/rfc7518#section-4.2">RFC 7518 Section 4.2 and 4.3</a>
  */
-public final class RSAEncryptionHandler implements EncryptionHandler {
+public final class RSAEncryptionHandler implements StreamingEncryptionHandler {
     private static final OAEPParameterSpec RSA_OAEP_256_PARAMS = new OAEPParameterSpec("SHA-256", "MGF1", SHA256,
             DEFAULT);
     private final EncryptionMethod encryptionMethod;
@@ -161,4 +165,20 @@ public final class RSAEncryptionHandler implements EncryptionHandler {
             throw new JweEncryptionException(e);
         }
     }
+
+    @Override
+    public byte[] encryptPlaintext(final Key contentEncryptionKey, final byte[] initialisationVector,
+            final InputStream plaintext, final byte[] additionalAuthenticatedData, final OutputStream ciphertext)
+            throws IOException {
+        return contentEncryptionHandler.encrypt(contentEncryptionKey, initialisationVector, plaintext,
+                additionalAuthenticatedData, ciphertext);
+    }
+
+    @Override
+    public void decryptCiphertext(final Key contentEncryptionKey, final byte[] initialisationVector,
+            final InputStream ciphertext, final InputStream authenticationTag,
+            final byte[] additionalAuthenticatedData, final OutputStream plaintext) throws IOException {
+        contentEncryptionHandler.decrypt(contentEncryptionKey, initialisationVector, ciphertext, authenticationTag,
+                additionalAuthenticatedData, plaintext);
+    }
 }
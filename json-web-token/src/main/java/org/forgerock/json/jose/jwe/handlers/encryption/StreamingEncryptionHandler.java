@@ -0,0 +1,72 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.jose.jwe.handlers.encryption;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.Key;
+
+/**
+ * An {@link EncryptionHandler} that can also encrypt and decrypt content as a stream, so that the memory used does
+ * not grow with the size of the plaintext.
+ * <p>
+ * The streaming operations produce and consume exactly the same ciphertext and authentication tag as
+ * {@link #encryptPlaintext(Key, byte[], byte[], byte[])} and
+ * {@link #decryptCiphertext(Key, byte[], byte[], byte[], byte[])}, so content encrypted one way can be decrypted the
+ * other.
+ *
+ * @see org.forgerock.json.jose.jwe.StreamingJwe
+ */
+public interface StreamingEncryptionHandler extends EncryptionHandler {
+
+    /**
+     * Encrypts the plaintext read from a stream with the Content Encryption Key, using the initialisation vector and
+     * additional authenticated data, writing the ciphertext as it is produced. Neither stream is closed.
+     *
+     * @param contentEncryptionKey The Content Encryption Key.
+     * @param initialisationVector The Initialisation Vector.
+     * @param plaintext The stream to read the plaintext from.
+     * @param additionalAuthenticatedData An array of bytes representing the additional authenticated data.
+     * @param ciphertext The stream to write the ciphertext to.
+     * @return The authentication tag.
+     * @throws IOException If reading or writing one of the streams fails.
+     */
+    byte[] encryptPlaintext(Key contentEncryptionKey, byte[] initialisationVector, InputStream plaintext,
+            byte[] additionalAuthenticatedData, OutputStream ciphertext) throws IOException;
+
+    /**
+     * Decrypts the ciphertext read from a stream with the Content Encryption Key, using the initialisation vector
+     * and additional authenticated data, writing the plaintext as it is produced. Neither stream is closed.
+     * <p>
+     * The authentication tag can only be checked once all of the ciphertext has been read, so the plaintext written
+     * is <em>unauthenticated</em> until this method returns normally. If it throws, everything that was written to
+     * {@code plaintext} must be discarded.
+     *
+     * @param contentEncryptionKey The Content Encryption Key.
+     * @param initialisationVector The Initialisation Vector.
+     * @param ciphertext The stream to read the ciphertext from.
+     * @param authenticationTag The stream to read the authentication tag from, once the ciphertext is exhausted.
+     * @param additionalAuthenticatedData An array of bytes representing the additional authenticated data.
+     * @param plaintext The stream to write the plaintext to.
+     * @throws IOException If reading or writing one of the streams fails.
+     * @throws org.forgerock.json.jose.exceptions.JweDecryptionException If the ciphertext cannot be authenticated.
+     */
+    void decryptCiphertext(Key contentEncryptionKey, byte[] initialisationVector, InputStream ciphertext,
+            InputStream authenticationTag, byte[] additionalAuthenticatedData, OutputStream plaintext)
+            throws IOException;
+}
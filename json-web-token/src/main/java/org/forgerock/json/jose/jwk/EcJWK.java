@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2013-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwk;
@@ -57,6 +58,10 @@ public class EcJWK extends JWK {
      */
     private final static String CURVE = "crv";
 
+    /** The keys created from the JWK, cleared when the JWK is modified. */
+    private volatile ECPublicKey cachedPublicKey;
+    private volatile ECPrivateKey cachedPrivateKey;
+
     /**
      * Creates a public EcJWK.
      * @param publicKey The public key for the JWK
@@ -228,10 +233,19 @@ public class EcJWK extends JWK {
     }
 
     /**
-     * Converts the JWK to a ECPublicKey.
+     * Converts the JWK to a ECPublicKey. The key is created once and reused until the JWK is modified.
      * @return an ECPublicKey
      */
     public ECPublicKey toECPublicKey() {
+        ECPublicKey key = cachedPublicKey;
+        if (key == null) {
+            key = createECPublicKey();
+            cachedPublicKey = key;
+        }
+        return key;
+    }
+
+    private ECPublicKey createECPublicKey() {
         try {
             final SupportedEllipticCurve curve = SupportedEllipticCurve.forName(getCurve());
 
@@ -246,10 +260,19 @@ public class EcJWK extends JWK {
     }
 
     /**
-     * Converts the JWK to a ECPrivateKey.
+     * Converts the JWK to a ECPrivateKey. The key is created once and reused until the JWK is modified.
      * @return an ECPrivateKey
      */
     public ECPrivateKey toECPrivateKey() {
+        ECPrivateKey key = cachedPrivateKey;
+        if (key == null) {
+            key = createECPrivateKey();
+            cachedPrivateKey = key;
+        }
+        return key;
+    }
+
+    private ECPrivateKey createECPrivateKey() {
         try {
             final SupportedEllipticCurve curve = SupportedEllipticCurve.forName(getCurve());
 
@@ -261,6 +284,13 @@ public class EcJWK extends JWK {
         }
     }
 
+    @Override
+    public void put(String key, Object value) {
+        super.put(key, value);
+        cachedPublicKey = null;
+        cachedPrivateKey = null;
+    }
+
     /**
      * Converts the JWK to a KeyPair.
      * @return an KeyPair
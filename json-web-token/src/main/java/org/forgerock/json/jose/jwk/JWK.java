@@ -12,17 +12,22 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2013-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwk;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
 
 import org.forgerock.json.JsonException;
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.jose.jwt.JWObject;
+import org.forgerock.util.encode.Base64url;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -65,6 +70,9 @@ public abstract class JWK extends JWObject {
      */
     protected static final String X5C = "x5c";
 
+    /** The JWK thumbprint, computed on first use and cleared when the JWK is modified. */
+    private volatile String thumbprint;
+
     /**
      * Creates a JWK given the basic parameters.
      * @param kty the JWK key type
@@ -145,6 +153,67 @@ public abstract class JWK extends JWObject {
         return get(KID).asString();
     }
 
+    /**
+     * Gets the JWK thumbprint of the key, as defined by
+     * <a href="https://tools.ietf.org/html/rfc7638">RFC 7638</a>: the base64url encoded SHA-256 digest of the
+     * required members of the key. The thumbprint is computed once and remembered until the JWK is modified.
+     *
+     * @return the thumbprint, or {@code null} if a member the thumbprint requires is missing.
+     */
+    public String getThumbprint() {
+        String result = thumbprint;
+        if (result == null) {
+            result = computeThumbprint();
+            thumbprint = result;
+        }
+        return result;
+    }
+
+    private String computeThumbprint() {
+        final KeyType keyType = getKeyType();
+        if (keyType == null) {
+            return null;
+        }
+        // The required members, in lexicographic order
+        final String[] members;
+        switch (keyType) {
+        case RSA:
+            members = new String[] { "e", KTY, "n" };
+            break;
+        case EC:
+            members = new String[] { "crv", KTY, "x", "y" };
+            break;
+        default:
+            members = new String[] { "k", KTY };
+            break;
+        }
+        // The member values are base64url or curve names so need no escaping
+        final StringBuilder json = new StringBuilder("{");
+        for (final String member : members) {
+            final String value = get(member).asString();
+            if (value == null) {
+                return null;
+            }
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(member).append("\":\"").append(value).append('"');
+        }
+        json.append('}');
+        try {
+            return Base64url.encode(MessageDigest.getInstance("SHA-256")
+                    .digest(json.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        super.put(key, value);
+        thumbprint = null;
+    }
+
     /**
      * Prints the JWK Object as a json string.
      * @return A String representing JWK
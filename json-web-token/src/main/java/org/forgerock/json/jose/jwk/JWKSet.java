@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2013-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwk;
@@ -19,10 +20,13 @@ package org.forgerock.json.jose.jwk;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.forgerock.json.JsonException;
 import org.forgerock.json.JsonValue;
@@ -35,11 +39,20 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Holds a Set of JWKs.
+ * <p>
+ * The JWKs are parsed once, on first use, and indexed by key ID, by algorithm and key use, and by thumbprint, so
+ * that repeated lookups neither parse the set again nor scan it. The parsed JWKs are shared by every lookup, so the
+ * public and private keys they create are also only created once.
+ * <p>
+ * The JSON of the keys is copied when it is set and cannot be modified in place, so the index always matches it.
  */
 public class JWKSet extends JWObject {
 
     private static final Logger logger = LoggerFactory.getLogger(JWKSet.class);
 
+    /** The parsed and indexed JWKs, built on first use and cleared when the set is modified. */
+    private volatile Index index;
+
     /**
      * Constructs an empty JWKSet.
      */
@@ -87,20 +100,18 @@ public class JWKSet extends JWObject {
 
     /**
      * Get the JWKs in the set.
+     * <p>
+     * The list is a copy, but the JWKs in it are shared with the set and with every lookup, and must not be modified.
      * @return a list of JWKs
      */
     public List<JWK> getJWKsAsList() {
-        List<JWK> listOfJWKs = new LinkedList<>();
-        JsonValue jwks = get("keys");
-        Iterator<JsonValue> i = jwks.iterator();
-        while (i.hasNext()) {
-            listOfJWKs.add(JWK.parse(i.next()));
-        }
-        return listOfJWKs;
+        return new LinkedList<>(getIndex().jwks);
     }
 
     /**
      * Get the JWKs in the set.
+     * <p>
+     * The returned JSON cannot be modified; use {@link JsonValue#copy()} to get a modifiable copy.
      * @return a list of JWKs as JsonValues
      */
     public JsonValue getJWKsAsJsonValue() {
@@ -161,20 +172,13 @@ public class JWKSet extends JWObject {
      * without key usage defined. If still no JWK found, then returns null.
      */
     public JWK findJwk(Algorithm algorithm, KeyUse keyUse) {
-        //First, we try to find a JWK that matches the keyUse
-        for (JWK jwk : getJWKsAsList()) {
-            try {
-                if (algorithm.getJwaAlgorithmName().equalsIgnoreCase(jwk.getAlgorithm()) && (keyUse == jwk.getUse())) {
-                    return jwk;
-                }
-            } catch (IllegalArgumentException e) {
-                // We raise a warning as the JWKs could be the client one, with some non-compliant JWK.
-                logger.warn("Can't load JWK with kid'" + jwk.getKeyId() + "'", e);
-            }
+        Map<KeyUse, JWK> jwksByUse = getIndex().jwksByAlgorithm.get(algorithm.getJwaAlgorithmName());
+        if (jwksByUse == null) {
+            return null;
         }
-
-        //At this point, no jwk was found. We can try to find a JWK without a keyUse now
-        return keyUse != null ? findJwk(algorithm, null) :  null;
+        //First, we try to find a JWK that matches the keyUse, then one without a keyUse
+        JWK jwk = jwksByUse.get(keyUse);
+        return jwk == null && keyUse != null ? jwksByUse.get(null) : jwk;
     }
 
     /**
@@ -184,11 +188,105 @@ public class JWKSet extends JWObject {
      * @return A jwk that matches the kid. If no JWK found, returns null
      */
     public JWK findJwk(String kid) {
-        for (JWK jwk : getJWKsAsList()) {
-            if (kid.equals(jwk.getKeyId())) {
-                return jwk;
+        return getIndex().jwksByKid.get(kid);
+    }
+
+    /**
+     * Search for a JWK that matches the JWK thumbprint.
+     *
+     * @param thumbprint the <a href="https://tools.ietf.org/html/rfc7638">RFC 7638</a> thumbprint of the JWK.
+     * @return A jwk that matches the thumbprint. If no JWK found, returns null
+     * @see JWK#getThumbprint()
+     */
+    public JWK findJwkByThumbprint(String thumbprint) {
+        return getIndex().jwksByThumbprint.get(thumbprint);
+    }
+
+    @Override
+    public synchronized void put(String key, Object value) {
+        super.put(key, unmodifiableCopy(value));
+        index = null;
+    }
+
+    /**
+     * Deep copies the given JSON into unmodifiable maps and lists, so that neither the caller's JSON nor the JSON
+     * returned by {@link #get(String)} can change the set behind its index.
+     */
+    private static Object unmodifiableCopy(Object value) {
+        if (value instanceof JsonValue) {
+            return unmodifiableCopy(((JsonValue) value).getObject());
+        } else if (value instanceof Map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(String.valueOf(entry.getKey()), unmodifiableCopy(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(copy);
+        } else if (value instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                copy.add(unmodifiableCopy(element));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    private Index getIndex() {
+        Index result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = new Index(get("keys"));
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The JWKs of the set, parsed and indexed. When several JWKs match a lookup, the index keeps the first one in the
+     * set, as a scan of the set would.
+     */
+    private static final class Index {
+        private final List<JWK> jwks;
+        private final Map<String, JWK> jwksByKid = new HashMap<>();
+        private final Map<String, Map<KeyUse, JWK>> jwksByAlgorithm = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<String, JWK> jwksByThumbprint = new HashMap<>();
+
+        private Index(JsonValue keys) {
+            List<JWK> parsed = new ArrayList<>();
+            Iterator<JsonValue> i = keys.iterator();
+            while (i.hasNext()) {
+                parsed.add(JWK.parse(i.next()));
+            }
+            this.jwks = Collections.unmodifiableList(parsed);
+            for (JWK jwk : jwks) {
+                putIfAbsent(jwksByKid, jwk.getKeyId(), jwk);
+                try {
+                    putIfAbsent(jwksByThumbprint, jwk.getThumbprint(), jwk);
+                    if (jwk.getAlgorithm() != null) {
+                        Map<KeyUse, JWK> jwksByUse = jwksByAlgorithm.get(jwk.getAlgorithm());
+                        if (jwksByUse == null) {
+                            jwksByUse = new HashMap<>();
+                            jwksByAlgorithm.put(jwk.getAlgorithm(), jwksByUse);
+                        }
+                        if (!jwksByUse.containsKey(jwk.getUse())) {
+                            jwksByUse.put(jwk.getUse(), jwk);
+                        }
+                    }
+                } catch (JsonException | IllegalArgumentException e) {
+                    // We raise a warning as the JWKs could be the client one, with some non-compliant JWK.
+                    logger.warn("Can't load JWK with kid'" + jwk.getKeyId() + "'", e);
+                }
+            }
+        }
+
+        private static void putIfAbsent(Map<String, JWK> jwks, String key, JWK jwk) {
+            if (key != null && !jwks.containsKey(key)) {
+                jwks.put(key, jwk);
             }
         }
-        return null;
     }
 }
@@ -12,6 +12,7 @@
  * information: "Portions Copyrighted [year] [name of copyright owner]".
  *
  * Copyright 2013-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwk;
@@ -156,6 +157,10 @@ public class RsaJWK extends JWK {
      */
     private final static String FACTORS = "factors";
 
+    /** The keys created from the JWK, cleared when the JWK is modified. */
+    private volatile RSAPublicKey cachedPublicKey;
+    private volatile RSAPrivateKey cachedPrivateKey;
+
     /**
      * Creates a RsaJWK.
      * @param use the use of the JWK
@@ -407,10 +412,19 @@ public class RsaJWK extends JWK {
     }
 
     /**
-     * Creates a RSAPublicKey from the JWK.
+     * Creates a RSAPublicKey from the JWK. The key is created once and reused until the JWK is modified.
      * @return a RSAPublicKey
      */
     public RSAPublicKey toRSAPublicKey() {
+        RSAPublicKey key = cachedPublicKey;
+        if (key == null) {
+            key = createRSAPublicKey();
+            cachedPublicKey = key;
+        }
+        return key;
+    }
+
+    private RSAPublicKey createRSAPublicKey() {
         try {
             RSAPublicKeySpec spec = new RSAPublicKeySpec(asPositiveBigInteger(getModulus()),
                     asPositiveBigInteger(getPublicExponent()));
@@ -422,10 +436,19 @@ public class RsaJWK extends JWK {
     }
 
     /**
-     * Creates a RSAPrivateKey from the JWK.
+     * Creates a RSAPrivateKey from the JWK. The key is created once and reused until the JWK is modified.
      * @return a RSAPrivateKey
      */
     public RSAPrivateKey toRSAPrivateKey() {
+        RSAPrivateKey key = cachedPrivateKey;
+        if (key == null) {
+            key = createRSAPrivateKey();
+            cachedPrivateKey = key;
+        }
+        return key;
+    }
+
+    private RSAPrivateKey createRSAPrivateKey() {
 
         if (getPrivateExponent() == null) {
             return null;
@@ -480,6 +503,13 @@ public class RsaJWK extends JWK {
         }
     }
 
+    @Override
+    public void put(String key, Object value) {
+        super.put(key, value);
+        cachedPublicKey = null;
+        cachedPrivateKey = null;
+    }
+
     /**
      * Create a KeyPair using the JWK.
      * @return a KeyPair
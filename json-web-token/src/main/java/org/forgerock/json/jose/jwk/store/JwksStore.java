@@ -12,12 +12,21 @@
 * information: "Portions copyright [year] [name of copyright owner]".
 *
 * Copyright 2014-2017 ForgeRock AS.
+* Portions Copyright 2026 Wren Security.
 */
 package org.forgerock.json.jose.jwk.store;
 
 
 import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.forgerock.json.jose.exceptions.FailedToLoadJWKException;
 import org.forgerock.json.jose.jwk.JWK;
@@ -27,24 +36,36 @@ import org.forgerock.json.jose.jwk.KeyUse;
 import org.forgerock.json.jose.jwt.Algorithm;
 import org.forgerock.util.Reject;
 import org.forgerock.util.SimpleHTTPClient;
+import org.forgerock.util.Utils;
 import org.forgerock.util.time.Duration;
+import org.forgerock.util.time.TimeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Store JWKs into a jwkSet from a JWKs_URI and refresh the jwkSet when necessary. */
+/**
+ * Store JWKs into a jwkSet from a JWKs_URI and refresh the jwkSet when necessary.
+ * <p>
+ * The jwkSet is refreshed in the background once three quarters of the cache timeout have elapsed, and the current
+ * keys are served until the refresh completes. Only a lookup which misses once the cache miss cache time has expired,
+ * or a lookup of an encryption key once the cache timeout has expired, waits for a reload. Concurrent reloads are
+ * coalesced into a single fetch of the JWKs_URI.
+ */
 public class JwksStore {
     private static final Logger logger = LoggerFactory.getLogger(JwksStore.class);
 
     private final String uid;
     private final JWKSetParser jwkParser;
+    private final Executor executor;
+    private final TimeService timeService;
 
     /** To prevent attackers reloading the cache too often. */
-    private long cacheMissCacheTimeInMs;
-    private long cacheTimeoutInMs;
-    private URL jwkUrl;
+    private volatile long cacheMissCacheTimeInMs;
+    private volatile long cacheTimeoutInMs;
+    private volatile URL jwkUrl;
 
-    private JWKSet jwksSet;
-    private long lastReloadJwksSet;
+    private volatile JwkSnapshot snapshot;
+    private volatile long lastReloadAttempt;
+    private final AtomicReference<ReloadTask> inFlightReload = new AtomicReference<>();
 
     /**
      * Create a new JWKs store.
@@ -75,11 +96,33 @@ public class JwksStore {
      */
     JwksStore(final String uid, final Duration cacheTimeout, final Duration cacheMissCacheTime,
             final URL jwkUrl, JWKSetParser jwkSetParser) throws FailedToLoadJWKException {
+        this(uid, cacheTimeout, cacheMissCacheTime, jwkUrl, jwkSetParser, RefreshExecutor.INSTANCE,
+                TimeService.SYSTEM);
+    }
+
+    /**
+     * Create a new JWKs store.
+     *
+     * @param uid the unique identifier for this store
+     * @param cacheTimeout a cache timeout to avoid reloading the cache all the time when doing encryption
+     * @param cacheMissCacheTime the cache time before reload the cache in case of a cache miss.
+     *                           This avoid polling the client application too often.
+     * @param jwkUrl the jwk url  of the JWKs hosted by the client application
+     * @param jwkSetParser the jwks set parser
+     * @param executor the executor background refreshes of the jwks are run on
+     * @param timeService the time service
+     * @throws FailedToLoadJWKException if the jwks can't be reloaded.
+     */
+    JwksStore(final String uid, final Duration cacheTimeout, final Duration cacheMissCacheTime,
+            final URL jwkUrl, JWKSetParser jwkSetParser, Executor executor, TimeService timeService)
+            throws FailedToLoadJWKException {
         this.uid = uid;
         this.cacheTimeoutInMs = cacheTimeout.to(TimeUnit.MILLISECONDS);
         this.cacheMissCacheTimeInMs = cacheMissCacheTime.to(TimeUnit.MILLISECONDS);
         this.jwkUrl = jwkUrl;
         this.jwkParser = jwkSetParser;
+        this.executor = executor;
+        this.timeService = timeService;
 
         try {
             reloadJwks();
@@ -90,13 +133,51 @@ public class JwksStore {
     }
 
     /**
-     * Communicates with the configured server, attempting to download the latest JWKs for use.
+     * Communicates with the configured server, attempting to download the latest JWKs for use. If a reload is
+     * already in progress, waits for it to complete instead of starting another.
      *
      * @throws FailedToLoadJWKException if there were issues parsing the supplied URL
      */
-    private synchronized void reloadJwks() throws FailedToLoadJWKException {
-        jwksSet = jwkParser.jwkSet(jwkUrl);
-        lastReloadJwksSet = System.currentTimeMillis();
+    private void reloadJwks() throws FailedToLoadJWKException {
+        final ReloadTask reload = startReload();
+        // Run the reload on this thread unless another thread got there first
+        reload.run();
+        try {
+            reload.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FailedToLoadJWKException) {
+                throw (FailedToLoadJWKException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new FailedToLoadJWKException("Unable to load keys from the JWK over HTTP", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FailedToLoadJWKException("Interrupted while loading keys from the JWK over HTTP", e);
+        }
+    }
+
+    /**
+     * Starts a reload of the JWKs on a background thread, unless a reload is already in progress.
+     */
+    private void refreshJwks() {
+        final ReloadTask reload = startReload();
+        if (reload.background.compareAndSet(false, true)) {
+            executor.execute(reload);
+        }
+    }
+
+    private ReloadTask startReload() {
+        while (true) {
+            final ReloadTask inFlight = inFlightReload.get();
+            if (inFlight != null && inFlight.url.equals(jwkUrl)) {
+                return inFlight;
+            }
+            final ReloadTask reload = new ReloadTask(jwkUrl);
+            if (inFlightReload.compareAndSet(inFlight, reload)) {
+                return reload;
+            }
+        }
     }
 
     /**
@@ -111,12 +192,14 @@ public class JwksStore {
     public JWK findJwk(Algorithm algorithm, KeyUse keyUse) throws FailedToLoadJWKException {
         if (keyUse == KeyUse.ENC && hasJwksCacheTimedOut()) {
             reloadJwks();
+        } else {
+            refreshJwksIfStale();
         }
 
-        JWK jwk = jwksSet.findJwk(algorithm, keyUse);
+        JWK jwk = snapshot.findJwk(algorithm, keyUse);
         if (jwk == null && isCacheMissCacheTimeExpired()) {
             reloadJwks();
-            return jwksSet.findJwk(algorithm, keyUse);
+            return snapshot.findJwk(algorithm, keyUse);
         }
         return jwk;
     }
@@ -129,14 +212,28 @@ public class JwksStore {
      * @throws FailedToLoadJWKException if the jwks can't be reloaded.
      */
     public JWK findJwk(String kid) throws FailedToLoadJWKException {
-        JWK jwk = jwksSet.findJwk(kid);
+        refreshJwksIfStale();
+
+        JWK jwk = snapshot.findJwk(kid);
         if (jwk == null && isCacheMissCacheTimeExpired()) {
             reloadJwks();
-            return jwksSet.findJwk(kid);
+            return snapshot.findJwk(kid);
         }
         return jwk;
     }
 
+    /**
+     * Returns an opaque tag of the JWKs currently in the store, which changes whenever a reload brings different
+     * JWKs, such as when the client application rotates or revokes a key. It may be used to invalidate what was
+     * verified with the previous JWKs. As for a lookup, a background refresh is started once the JWKs are stale.
+     *
+     * @return the version of the current JWKs, to be compared with {@link Object#equals(Object)}.
+     */
+    public Object getKeyVersion() {
+        refreshJwksIfStale();
+        return snapshot.version;
+    }
+
     /**
      * Get the UID.
      * @return the uid.
@@ -195,12 +292,25 @@ public class JwksStore {
         URL originalJwkUrl = this.jwkUrl;
         this.jwkUrl = jwkUrl;
         if (!jwkUrl.equals(originalJwkUrl)) {
+            // Any reload of the original URL still in progress is superseded by this one
             reloadJwks();
         }
     }
 
     private boolean hasJwksCacheTimedOut() {
-        return (System.currentTimeMillis() - lastReloadJwksSet) > cacheTimeoutInMs;
+        return timeService.since(snapshot.loadedAt) > cacheTimeoutInMs;
+    }
+
+    /**
+     * Starts a background refresh of the jwks once three quarters of the cache timeout have elapsed since they were
+     * loaded, so that they are normally refreshed before they time out.
+     */
+    private void refreshJwksIfStale() {
+        final long refreshAfter = cacheTimeoutInMs - cacheTimeoutInMs / 4;
+        if (timeService.since(snapshot.loadedAt) >= refreshAfter
+                && timeService.since(lastReloadAttempt) >= Math.min(refreshAfter, cacheMissCacheTimeInMs)) {
+            refreshJwks();
+        }
     }
 
     /**
@@ -209,6 +319,76 @@ public class JwksStore {
      * @return true is we  can reload the cache
      */
     private boolean isCacheMissCacheTimeExpired() {
-        return (System.currentTimeMillis() - lastReloadJwksSet) >= cacheMissCacheTimeInMs;
+        return timeService.since(lastReloadAttempt) >= cacheMissCacheTimeInMs;
+    }
+
+    /** A single fetch of the JWKs, shared by all the threads which need the JWKs reloaded at the same time. */
+    private final class ReloadTask extends FutureTask<JwkSnapshot> {
+        private final URL url;
+        private final AtomicBoolean background = new AtomicBoolean();
+
+        private ReloadTask(final URL url) {
+            super(new Callable<JwkSnapshot>() {
+                @Override
+                public JwkSnapshot call() throws FailedToLoadJWKException {
+                    lastReloadAttempt = timeService.now();
+                    final JwkSnapshot loaded = new JwkSnapshot(jwkParser.jwkSet(url), timeService.now(), snapshot);
+                    // Do not overwrite the JWKs of a URL which has since been changed
+                    if (url.equals(jwkUrl)) {
+                        snapshot = loaded;
+                    }
+                    return loaded;
+                }
+            });
+            this.url = url;
+        }
+
+        @Override
+        protected void done() {
+            inFlightReload.compareAndSet(this, null);
+            if (background.get() && !isCancelled()) {
+                try {
+                    get();
+                } catch (ExecutionException e) {
+                    logger.warn("Unable to refresh keys from the JWK over HTTP, keeping the current keys",
+                            e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /** The JWKs loaded by a single fetch. */
+    private static final class JwkSnapshot {
+        private final JWKSet jwkSet;
+        private final long loadedAt;
+        /** Shared with the previous snapshot as long as the fetched JWKs are the same. */
+        private final Object version;
+
+        private JwkSnapshot(final JWKSet jwkSet, final long loadedAt, final JwkSnapshot previous) {
+            this.jwkSet = jwkSet != null ? jwkSet : new JWKSet();
+            // Parse and index the set now, on the loading thread, rather than on the first lookup
+            this.jwkSet.getJWKsAsList();
+            this.loadedAt = loadedAt;
+            this.version = previous != null && previous.jwkSet.getJWKsAsJsonValue().getObject()
+                    .equals(this.jwkSet.getJWKsAsJsonValue().getObject())
+                    ? previous.version
+                    : new Object();
+        }
+
+        private JWK findJwk(final String kid) {
+            return jwkSet.findJwk(kid);
+        }
+
+        private JWK findJwk(final Algorithm algorithm, final KeyUse keyUse) {
+            return jwkSet.findJwk(algorithm, keyUse);
+        }
+    }
+
+    /** The executor shared by all the stores to refresh their jwks in the background. */
+    private static final class RefreshExecutor {
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(
+                Utils.newThreadFactory(null, "jwks-store-refresh-%d", true));
     }
 }
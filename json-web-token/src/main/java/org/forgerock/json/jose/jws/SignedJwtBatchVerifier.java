@@ -0,0 +1,317 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.jose.jws;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.forgerock.json.jose.common.JwtReconstruction;
+import org.forgerock.json.jose.exceptions.JwsVerifyingException;
+import org.forgerock.json.jose.jws.handlers.SigningHandler;
+import org.forgerock.util.Function;
+import org.forgerock.util.Reject;
+
+/**
+ * Verifies the signatures of large batches of compact signed JWTs in parallel.
+ * <p>
+ * The tokens are reconstructed and then grouped by algorithm and key id, so that the signing handler of each group
+ * is resolved only once, and each worker verifies runs of tokens signed with the same key, reusing the JCA
+ * primitives the signing handlers cache per thread. Identical tokens are only verified once. Both the reconstruction
+ * and the verification are split across a {@link ForkJoinPool}.
+ * <p>
+ * As the signing handler is resolved from the algorithm and key id only, the resolver must not depend on other
+ * header parameters.
+ */
+public final class SignedJwtBatchVerifier {
+
+    /** The number of tasks per worker thread each phase is split into, to balance uneven verification costs. */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final Function<JwsHeader, SigningHandler, ? extends Exception> signingHandlerResolver;
+    private final ForkJoinPool pool;
+    private final JwtReconstruction jwtReconstruction = new JwtReconstruction();
+
+    /**
+     * Constructs a batch verifier which runs on the common fork-join pool.
+     *
+     * @param signingHandlerResolver Resolves the signing handler to verify tokens with from their header. It may
+     *                               return {@code null} if the tokens cannot be verified.
+     */
+    public SignedJwtBatchVerifier(Function<JwsHeader, SigningHandler, ? extends Exception> signingHandlerResolver) {
+        this(signingHandlerResolver, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a batch verifier.
+     *
+     * @param signingHandlerResolver Resolves the signing handler to verify tokens with from their header. It may
+     *                               return {@code null} if the tokens cannot be verified.
+     * @param pool The fork-join pool the tokens are reconstructed and verified on.
+     */
+    public SignedJwtBatchVerifier(Function<JwsHeader, SigningHandler, ? extends Exception> signingHandlerResolver,
+            ForkJoinPool pool) {
+        Reject.ifNull(signingHandlerResolver, pool);
+        this.signingHandlerResolver = signingHandlerResolver;
+        this.pool = pool;
+    }
+
+    /**
+     * Verifies the signatures of the given compact signed JWTs.
+     *
+     * @param tokens The compact signed JWTs.
+     * @return The result of each token, in the order the tokens were given.
+     */
+    public List<Result> verify(List<String> tokens) {
+        Reject.ifNull(tokens);
+        // Identical tokens are verified once and share their result
+        final Map<String, Integer> distinctIndexes = new HashMap<>(tokens.size() * 2);
+        final List<String> distinct = new ArrayList<>(tokens.size());
+        final int[] resultIndexes = new int[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            final String token = Reject.checkNotNull(tokens.get(i), "Tokens must not be null");
+            Integer index = distinctIndexes.get(token);
+            if (index == null) {
+                index = distinct.size();
+                distinctIndexes.put(token, index);
+                distinct.add(token);
+            }
+            resultIndexes[i] = index;
+        }
+
+        final Result[] results = new Result[distinct.size()];
+        final int threshold = threshold(distinct.size());
+        pool.invoke(new Reconstruct(distinct, results, 0, distinct.size(), threshold));
+
+        final Map<GroupKey, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].jwt != null) {
+                final JwsHeader header = results[i].jwt.getHeader();
+                final GroupKey key = new GroupKey(header.getAlgorithm(), header.getKeyId());
+                List<Integer> group = groups.get(key);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    groups.put(key, group);
+                }
+                group.add(i);
+            }
+        }
+
+        final int[] order = new int[results.length];
+        final SigningHandler[] handlers = new SigningHandler[results.length];
+        int count = 0;
+        for (final List<Integer> group : groups.values()) {
+            final SigningHandler handler = resolve(results, group);
+            for (final int index : group) {
+                if (handler != null) {
+                    order[count] = index;
+                    handlers[count++] = handler;
+                }
+            }
+        }
+        pool.invoke(new Verify(results, Arrays.copyOf(order, count), handlers, 0, count, threshold(count)));
+
+        final List<Result> ordered = new ArrayList<>(tokens.size());
+        for (final int index : resultIndexes) {
+            ordered.add(results[index]);
+        }
+        return Collections.unmodifiableList(ordered);
+    }
+
+    private SigningHandler resolve(Result[] results, List<Integer> group) {
+        final JwsHeader header = results[group.get(0)].jwt.getHeader();
+        Exception failure;
+        try {
+            final SigningHandler handler = signingHandlerResolver.apply(header);
+            if (handler != null) {
+                return handler;
+            }
+            failure = new JwsVerifyingException("No signing handler for algorithm " + header.getAlgorithm()
+                    + " and key id " + header.getKeyId());
+        } catch (Exception e) {
+            failure = e;
+        }
+        for (final int index : group) {
+            results[index].failure = failure;
+        }
+        return null;
+    }
+
+    private int threshold(int size) {
+        return Math.max(1, size / (pool.getParallelism() * TASKS_PER_THREAD));
+    }
+
+    /** Reconstructs a range of the tokens, splitting the range while it is larger than the threshold. */
+    private final class Reconstruct extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<String> tokens;
+        private final Result[] results;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        private Reconstruct(List<String> tokens, Result[] results, int from, int to, int threshold) {
+            this.tokens = tokens;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Reconstruct(tokens, results, from, middle, threshold),
+                        new Reconstruct(tokens, results, middle, to, threshold));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                final Result result = new Result(tokens.get(i));
+                try {
+                    result.jwt = jwtReconstruction.reconstructJwt(result.token, SignedJwt.class);
+                } catch (RuntimeException e) {
+                    result.failure = e;
+                }
+                results[i] = result;
+            }
+        }
+    }
+
+    /** Verifies a range of the tokens, ordered by group, splitting the range while it is larger than the threshold. */
+    private static final class Verify extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Result[] results;
+        private final int[] order;
+        private final SigningHandler[] handlers;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        private Verify(Result[] results, int[] order, SigningHandler[] handlers, int from, int to, int threshold) {
+            this.results = results;
+            this.order = order;
+            this.handlers = handlers;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Verify(results, order, handlers, from, middle, threshold),
+                        new Verify(results, order, handlers, middle, to, threshold));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                final Result result = results[order[i]];
+                try {
+                    result.verified = result.jwt.verify(handlers[i]);
+                } catch (RuntimeException e) {
+                    result.failure = e;
+                }
+            }
+        }
+    }
+
+    /** The algorithm and key id tokens are grouped by. */
+    private static final class GroupKey {
+        private final JwsAlgorithm algorithm;
+        private final String keyId;
+
+        private GroupKey(JwsAlgorithm algorithm, String keyId) {
+            this.algorithm = algorithm;
+            this.keyId = keyId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof GroupKey)) {
+                return false;
+            }
+            final GroupKey other = (GroupKey) o;
+            return algorithm == other.algorithm && Objects.equals(keyId, other.keyId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(algorithm) + Objects.hashCode(keyId);
+        }
+    }
+
+    /**
+     * The verification result of a single token.
+     */
+    public static final class Result {
+        private final String token;
+        private SignedJwt jwt;
+        private boolean verified;
+        private Exception failure;
+
+        private Result(String token) {
+            this.token = token;
+        }
+
+        /**
+         * Returns the compact signed JWT this result is for.
+         *
+         * @return The token.
+         */
+        public String getToken() {
+            return token;
+        }
+
+        /**
+         * Returns the reconstructed JWT, whether or not its signature is valid.
+         *
+         * @return The JWT, or {@code null} if the token could not be reconstructed.
+         */
+        public SignedJwt getJwt() {
+            return jwt;
+        }
+
+        /**
+         * Returns whether the signature of the token is valid.
+         *
+         * @return {@code true} if the token was reconstructed and its signature verified.
+         */
+        public boolean isVerified() {
+            return verified;
+        }
+
+        /**
+         * Returns why the token could not be verified, if it was not because the signature did not match.
+         *
+         * @return The failure, or {@code null} if the token was reconstructed and checked against its signature.
+         */
+        public Exception getFailure() {
+            return failure;
+        }
+    }
+}
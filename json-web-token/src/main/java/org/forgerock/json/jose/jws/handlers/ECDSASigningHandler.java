@@ -12,15 +12,15 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jws.handlers;
 
 import java.nio.ByteBuffer;
-import java.security.InvalidKeyException;
+import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
 import java.security.Signature;
-import java.security.SignatureException;
 import java.security.interfaces.ECKey;
 import java.security.interfaces.ECPrivateKey;
 import java.security.interfaces.ECPublicKey;
@@ -75,14 +75,16 @@ public class ECDSASigningHandler implements SigningHandler {
         validateAlgorithm(algorithm);
 
         try {
-            final Signature signature = Signature.getInstance(algorithm.getAlgorithm());
-            signature.initSign(signingKey);
+            final JcaInstanceCache.Slot<Signature> slot = JcaInstanceCache.signer(algorithm.getAlgorithm(), signingKey);
+            final Signature signature = slot.get();
             signature.update(data);
-            return derDecode(signature.sign(), curve.getSignatureSize());
-        } catch (SignatureException | InvalidKeyException e) {
-            throw new JwsSigningException(e);
+            final byte[] signed = signature.sign();
+            slot.release();
+            return derDecode(signed, curve.getSignatureSize());
         } catch (NoSuchAlgorithmException e) {
             throw new JwsSigningException("Unsupported Signing Algorithm, " + algorithm.getAlgorithm(), e);
+        } catch (GeneralSecurityException e) {
+            throw new JwsSigningException(e);
         }
     }
 
@@ -91,14 +93,18 @@ public class ECDSASigningHandler implements SigningHandler {
         validateAlgorithm(algorithm);
 
         try {
-            final Signature validator = Signature.getInstance(algorithm.getAlgorithm());
-            validator.initVerify(verificationKey);
+            final byte[] encodedSignature = derEncode(signature);
+            final JcaInstanceCache.Slot<Signature> slot =
+                    JcaInstanceCache.verifier(algorithm.getAlgorithm(), verificationKey);
+            final Signature validator = slot.get();
             validator.update(data);
-            return validator.verify(derEncode(signature));
-        } catch (SignatureException | InvalidKeyException e) {
-            throw new JwsSigningException(e);
+            final boolean valid = validator.verify(encodedSignature);
+            slot.release();
+            return valid;
         } catch (NoSuchAlgorithmException e) {
             throw new JwsSigningException("Unsupported Signing Algorithm, " + algorithm.getAlgorithm(), e);
+        } catch (GeneralSecurityException e) {
+            throw new JwsSigningException(e);
         }
     }
 
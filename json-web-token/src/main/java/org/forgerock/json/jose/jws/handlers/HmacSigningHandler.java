@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jws.handlers;
@@ -21,7 +22,7 @@ import org.forgerock.json.jose.jws.JwsAlgorithm;
 import org.forgerock.json.jose.utils.Utils;
 import org.forgerock.util.Reject;
 
-import java.security.InvalidKeyException;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import javax.crypto.Mac;
@@ -36,6 +37,8 @@ import javax.crypto.spec.SecretKeySpec;
 public class HmacSigningHandler implements SigningHandler {
 
     private final byte[] sharedSecret;
+    /** The key spec for the most recently used algorithm, built once rather than for every signature. */
+    private volatile SecretKey secretKey;
 
     /**
      * Constructs a new HmacSigningHandler.
@@ -65,6 +68,9 @@ public class HmacSigningHandler implements SigningHandler {
 
     /**
      * Performs the creation of the MAC for the data using the given Java Cryptographic algorithm.
+     * <p>
+     * The {@code Mac} is borrowed from a per-thread cache of initialized instances and is only handed back once
+     * {@code doFinal} has reset it.
      *
      * @param algorithm The Java Cryptographic algorithm.
      * @param sharedSecret The shared secret to use to sign the data.
@@ -73,17 +79,26 @@ public class HmacSigningHandler implements SigningHandler {
      */
     private byte[] signWithHMAC(String algorithm, byte[] sharedSecret, byte[] data) {
         try {
-            Mac mac = Mac.getInstance(algorithm);
-            SecretKey secretKey = new SecretKeySpec(sharedSecret, algorithm.toUpperCase());
-            mac.init(secretKey);
-            return mac.doFinal(data);
+            JcaInstanceCache.Slot<Mac> slot = JcaInstanceCache.mac(algorithm, secretKey(algorithm, sharedSecret));
+            byte[] signed = slot.get().doFinal(data);
+            slot.release();
+            return signed;
         } catch (NoSuchAlgorithmException e) {
             throw new JwsSigningException("Unsupported Signing Algorithm, " + algorithm, e);
-        } catch (InvalidKeyException e) {
+        } catch (GeneralSecurityException e) {
             throw new JwsSigningException(e);
         }
     }
 
+    private SecretKey secretKey(String algorithm, byte[] sharedSecret) {
+        SecretKey key = secretKey;
+        if (key == null || !key.getAlgorithm().equalsIgnoreCase(algorithm)) {
+            key = new SecretKeySpec(sharedSecret, algorithm.toUpperCase());
+            secretKey = key;
+        }
+        return key;
+    }
+
     /**
      * Verifies that the given signature is valid for the given data.
      * <p>
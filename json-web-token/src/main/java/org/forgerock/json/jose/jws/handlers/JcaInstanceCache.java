@@ -0,0 +1,197 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.jose.jws.handlers;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+
+/**
+ * Per-thread cache of initialized JCA {@link Mac} and {@link Signature} instances used by the signing handlers.
+ * <p>
+ * Looking up a JCA primitive through its provider and initializing it with a key is typically more expensive than
+ * the signing operation itself for the small payloads of a JWS. Instances are therefore kept per thread and per
+ * algorithm, and are only re-initialized when they are requested with a different key. Both {@code Mac.doFinal}
+ * and {@code Signature.sign/verify} reset the instance to its initialized state, so a {@link Slot} may be handed
+ * back to the cache with {@link Slot#release()} once the operation has completed. A slot that is not released,
+ * for example because the operation threw an exception, is simply discarded and a fresh instance is created on the
+ * next use.
+ * <p>
+ * An initialized instance holds its key, so each thread retains the key material of the last key it used for each
+ * algorithm, beyond the lifetime of the handler that owns that key. It is replaced when the thread uses the same
+ * algorithm with another key, and released when the thread terminates or when the cache is {@link #evictAll()
+ * evicted}, for example once a key has been rotated out or revoked.
+ */
+public final class JcaInstanceCache {
+
+    private static final ThreadLocal<Map<String, Slot<Mac>>> MACS = newCache();
+    private static final ThreadLocal<Map<String, Slot<Signature>>> SIGNERS = newCache();
+    private static final ThreadLocal<Map<String, Slot<Signature>>> VERIFIERS = newCache();
+    private static final AtomicInteger GENERATION = new AtomicInteger();
+
+    private JcaInstanceCache() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Evicts the cached instances of all threads, and with them the key material they were initialized with. The
+     * instances cached by the current thread are released immediately, and those cached by other threads are
+     * discarded the next time these threads sign or verify.
+     */
+    public static void evictAll() {
+        GENERATION.incrementAndGet();
+        MACS.remove();
+        SIGNERS.remove();
+        VERIFIERS.remove();
+    }
+
+    /**
+     * Acquires a {@code Mac} for the given algorithm, initialized with the given key.
+     *
+     * @param algorithm The Java Cryptographic algorithm name.
+     * @param key The key to initialize the {@code Mac} with.
+     * @return A slot holding the initialized {@code Mac}.
+     * @throws GeneralSecurityException If the algorithm is not supported or the key is invalid.
+     */
+    static Slot<Mac> mac(final String algorithm, final Key key) throws GeneralSecurityException {
+        Slot<Mac> slot = acquire(MACS.get(), algorithm);
+        if (slot == null) {
+            slot = new Slot<>(MACS.get(), algorithm, Mac.getInstance(algorithm));
+        }
+        if (!slot.isInitializedWith(key)) {
+            slot.get().init(key);
+            slot.initializedWith(key);
+        }
+        return slot;
+    }
+
+    /**
+     * Acquires a {@code Signature} for the given algorithm, initialized for signing with the given key.
+     *
+     * @param algorithm The Java Cryptographic algorithm name.
+     * @param key The private key to initialize the {@code Signature} with.
+     * @return A slot holding the initialized {@code Signature}.
+     * @throws GeneralSecurityException If the algorithm is not supported or the key is invalid.
+     */
+    static Slot<Signature> signer(final String algorithm, final PrivateKey key) throws GeneralSecurityException {
+        Slot<Signature> slot = acquire(SIGNERS.get(), algorithm);
+        if (slot == null) {
+            slot = new Slot<>(SIGNERS.get(), algorithm, Signature.getInstance(algorithm));
+        }
+        if (!slot.isInitializedWith(key)) {
+            slot.get().initSign(key);
+            slot.initializedWith(key);
+        }
+        return slot;
+    }
+
+    /**
+     * Acquires a {@code Signature} for the given algorithm, initialized for verification with the given key.
+     *
+     * @param algorithm The Java Cryptographic algorithm name.
+     * @param key The public key to initialize the {@code Signature} with.
+     * @return A slot holding the initialized {@code Signature}.
+     * @throws GeneralSecurityException If the algorithm is not supported or the key is invalid.
+     */
+    static Slot<Signature> verifier(final String algorithm, final PublicKey key) throws GeneralSecurityException {
+        Slot<Signature> slot = acquire(VERIFIERS.get(), algorithm);
+        if (slot == null) {
+            slot = new Slot<>(VERIFIERS.get(), algorithm, Signature.getInstance(algorithm));
+        }
+        if (!slot.isInitializedWith(key)) {
+            slot.get().initVerify(key);
+            slot.initializedWith(key);
+        }
+        return slot;
+    }
+
+    /**
+     * Removes the cached slot for the algorithm, so that a re-entrant call on the same thread never shares it.
+     * Slots cached before the last eviction are discarded.
+     */
+    private static <T> Slot<T> acquire(final Map<String, Slot<T>> cache, final String algorithm) {
+        final Slot<T> slot = cache.remove(algorithm);
+        if (slot != null && slot.generation != GENERATION.get()) {
+            cache.clear();
+            return null;
+        }
+        return slot;
+    }
+
+    private static <T> ThreadLocal<Map<String, Slot<T>>> newCache() {
+        return new ThreadLocal<Map<String, Slot<T>>>() {
+            @Override
+            protected Map<String, Slot<T>> initialValue() {
+                return new HashMap<>();
+            }
+        };
+    }
+
+    /**
+     * An initialized JCA primitive borrowed from the cache of the current thread.
+     *
+     * @param <T> The type of the JCA primitive.
+     */
+    static final class Slot<T> {
+        private final Map<String, Slot<T>> owner;
+        private final String algorithm;
+        private final T instance;
+        private final int generation;
+        private Key key;
+
+        private Slot(final Map<String, Slot<T>> owner, final String algorithm, final T instance) {
+            this.owner = owner;
+            this.algorithm = algorithm;
+            this.instance = instance;
+            this.generation = GENERATION.get();
+        }
+
+        /**
+         * Returns the initialized JCA primitive.
+         *
+         * @return The JCA primitive.
+         */
+        T get() {
+            return instance;
+        }
+
+        /**
+         * Hands the primitive back to the cache of the current thread. Must only be called once the operation
+         * has completed successfully, leaving the primitive in its initialized state.
+         */
+        void release() {
+            if (generation == GENERATION.get()) {
+                owner.put(algorithm, this);
+            }
+        }
+
+        private boolean isInitializedWith(final Key candidate) {
+            return key != null && (key == candidate || key.equals(candidate));
+        }
+
+        private void initializedWith(final Key candidate) {
+            key = candidate;
+        }
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2015 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jws.handlers;
@@ -20,11 +21,10 @@ import org.forgerock.json.jose.exceptions.JwsSigningException;
 import org.forgerock.json.jose.exceptions.JwsVerifyingException;
 import org.forgerock.json.jose.jws.JwsAlgorithm;
 import org.forgerock.json.jose.jws.JwsAlgorithmType;
-import org.forgerock.json.jose.utils.Utils;
 import org.forgerock.util.Reject;
 import org.forgerock.util.SignatureUtil;
 
-import java.security.InvalidKeyException;
+import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
@@ -78,31 +78,40 @@ public class RSASigningHandler implements SigningHandler {
         validateAlgorithm(algorithm);
         try {
             Reject.ifFalse(key instanceof PrivateKey, "RSA requires private key for signing.");
-            Signature signature = Signature.getInstance(algorithm.getAlgorithm());
-            signature.initSign((PrivateKey) key);
+            JcaInstanceCache.Slot<Signature> slot = JcaInstanceCache.signer(algorithm.getAlgorithm(), (PrivateKey) key);
+            Signature signature = slot.get();
             signature.update(data);
-            return signature.sign();
-        } catch (SignatureException | InvalidKeyException e) {
-            throw new JwsSigningException(e);
+            byte[] signed = signature.sign();
+            slot.release();
+            return signed;
         } catch (NoSuchAlgorithmException e) {
             throw new JwsSigningException("Unsupported Signing Algorithm, " + algorithm.getAlgorithm(), e);
+        } catch (GeneralSecurityException e) {
+            throw new JwsSigningException(e);
         }
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The data is verified as given, using a {@code Signature} borrowed from a per-thread cache of instances
+     * already initialized with the public key.
      */
     @Override
     public boolean verify(JwsAlgorithm algorithm, byte[] data, byte[] signature) {
         validateAlgorithm(algorithm);
         try {
             Reject.ifFalse(key instanceof PublicKey, "RSA requires public key for signature verification.");
-            return signatureUtil.verify((PublicKey) key, algorithm.getAlgorithm(),
-                    new String(data, Utils.CHARSET), signature);
-        } catch (SignatureException e) {
-            if (e.getCause() != null && e.getCause().getClass().isAssignableFrom(NoSuchAlgorithmException.class)) {
-                throw new JwsVerifyingException("Unsupported Signing Algorithm, " + algorithm.getAlgorithm(), e);
-            }
+            JcaInstanceCache.Slot<Signature> slot =
+                    JcaInstanceCache.verifier(algorithm.getAlgorithm(), (PublicKey) key);
+            Signature validator = slot.get();
+            validator.update(data);
+            boolean valid = validator.verify(signature);
+            slot.release();
+            return valid;
+        } catch (NoSuchAlgorithmException e) {
+            throw new JwsVerifyingException("Unsupported Signing Algorithm, " + algorithm.getAlgorithm(), e);
+        } catch (GeneralSecurityException e) {
             throw new JwsVerifyingException(e);
         }
     }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwt;
@@ -22,10 +23,12 @@ import static org.forgerock.json.jose.jwt.JwtClaimsSetKey.*;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
 import org.forgerock.json.JsonValue;
+import org.forgerock.json.JsonValueException;
 import org.forgerock.json.jose.utils.IntDate;
 import org.forgerock.json.jose.utils.StringOrURI;
 
@@ -38,6 +41,17 @@ import org.forgerock.json.jose.utils.StringOrURI;
  */
 public class JwtClaimsSet extends JWObject implements Payload {
 
+    /**
+     * The value returned by the epoch seconds accessors, such as {@link #getExpirationEpochSeconds()}, when the claim
+     * is not present.
+     */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    /**
+     * The registered claims, decoded on first use and cleared when the Claims Set is modified.
+     */
+    private volatile RegisteredClaims registeredClaims;
+
     /**
      * Constructs a new, empty JwtClaimsSet.
      */
@@ -92,7 +106,7 @@ public class JwtClaimsSet extends JWObject implements Payload {
      * @return The JWT's ID or {@code null} if claim not present.
      */
     public String getJwtId() {
-        return get(JTI.value()).asString();
+        return getRegisteredClaims().checked(JTI).jwtId;
     }
 
     /**
@@ -124,7 +138,7 @@ public class JwtClaimsSet extends JWObject implements Payload {
      * @return The JWT's issuer or {@code null} if claim not present.
      */
     public String getIssuer() {
-        return get(ISS.value()).asString();
+        return getRegisteredClaims().checked(ISS).issuer;
     }
 
     /**
@@ -157,7 +171,7 @@ public class JwtClaimsSet extends JWObject implements Payload {
      * @return The JWT's principal or {@code null} if claim not present.
      */
     public String getSubject() {
-        return get(SUB.value()).asString();
+        return getRegisteredClaims().checked(SUB).subject;
     }
 
     /**
@@ -191,6 +205,7 @@ public class JwtClaimsSet extends JWObject implements Payload {
             put(AUD.value(), audience);
         } else if (audienceClaim.isList()) {
             audienceClaim.asList().add(audience);
+            registeredClaims = null;
         } else {
             List<String> audienceList = new ArrayList<>();
             audienceList.add(audienceClaim.asString());
@@ -202,17 +217,10 @@ public class JwtClaimsSet extends JWObject implements Payload {
     /**
      * Gets the intended audience for the JWT from the Claims Set.
      *
-     * @return The JWT's intended audience or {@code null} if claim not present.
+     * @return The JWT's intended audience, as an unmodifiable list, or {@code null} if claim not present.
      */
     public List<String> getAudience() {
-        JsonValue audience = get(AUD.value());
-        if (audience.isNull()) {
-            return null;
-        } else if (audience.isList()) {
-            return audience.asList(String.class);
-        } else {
-            return singletonList(audience.asString());
-        }
+        return getRegisteredClaims().checked(AUD).audience;
     }
 
     /**
@@ -244,7 +252,16 @@ public class JwtClaimsSet extends JWObject implements Payload {
      * @return The JWT's issued at time or {@code null} if claim not present.
      */
     public Date getIssuedAtTime() {
-        return getDate(IAT.value());
+        return toDate(getIssuedAtEpochSeconds());
+    }
+
+    /**
+     * Gets the time the JWT was issued at, from the Claims Set, as the number of seconds since epoch.
+     *
+     * @return The JWT's issued at time or {@link #NO_TIME} if claim not present.
+     */
+    public long getIssuedAtEpochSeconds() {
+        return getRegisteredClaims().checked(IAT).issuedAt;
     }
 
     /**
@@ -276,7 +293,17 @@ public class JwtClaimsSet extends JWObject implements Payload {
      * @return The JWT's not before time or {@code null} if claim not present.
      */
     public Date getNotBeforeTime() {
-        return getDate(NBF.value());
+        return toDate(getNotBeforeEpochSeconds());
+    }
+
+    /**
+     * Gets the time the JWT is not allowed to be processed before, from the Claims Set, as the number of seconds
+     * since epoch.
+     *
+     * @return The JWT's not before time or {@link #NO_TIME} if claim not present.
+     */
+    public long getNotBeforeEpochSeconds() {
+        return getRegisteredClaims().checked(NBF).notBefore;
     }
 
     /**
@@ -308,7 +335,16 @@ public class JwtClaimsSet extends JWObject implements Payload {
      * @return The JWT's expiration time or {@code null} if claim not present.
      */
     public Date getExpirationTime() {
-        return getDate(EXP.value());
+        return toDate(getExpirationEpochSeconds());
+    }
+
+    /**
+     * Gets the expiration time of the JWT from the Claims Set, as the number of seconds since epoch.
+     *
+     * @return The JWT's expiration time or {@link #NO_TIME} if claim not present.
+     */
+    public long getExpirationEpochSeconds() {
+        return getRegisteredClaims().checked(EXP).expiration;
     }
 
     /**
@@ -496,15 +532,92 @@ public class JwtClaimsSet extends JWObject implements Payload {
         return toString();
     }
 
+    @Override
+    public void put(String key, Object value) {
+        super.put(key, value);
+        registeredClaims = null;
+    }
+
+    private RegisteredClaims getRegisteredClaims() {
+        RegisteredClaims claims = registeredClaims;
+        if (claims == null) {
+            claims = new RegisteredClaims(this);
+            registeredClaims = claims;
+        }
+        return claims;
+    }
+
+    private static Date toDate(final long epochSeconds) {
+        return epochSeconds == NO_TIME ? null : IntDate.fromIntDate(epochSeconds);
+    }
+
     /**
-     * Returns the specified item value as a {@link Date}. If no such member value exists, then a JSON value containing
-     * {@code null} is returned.
-     *
-     * @param key the {@code Map} key identifying the item to return.
-     * @return a {@link Date} representing the value or {@code null}.
+     * The registered claims of a Claims Set, decoded from its JSON.
+     * <p>
+     * A claim of the wrong type does not stop the others from being decoded: its failure is kept and thrown only when
+     * that claim is read, as it would be if the claim were decoded on every call.
      */
-    private Date getDate(final String key) {
-        final JsonValue value = get(key);
-        return value.isNull() ? null : IntDate.fromIntDate(value.asLong());
+    private static final class RegisteredClaims {
+        private final Map<JwtClaimsSetKey, RuntimeException> failures = new EnumMap<>(JwtClaimsSetKey.class);
+        private final String jwtId;
+        private final String issuer;
+        private final String subject;
+        private final List<String> audience;
+        private final long issuedAt;
+        private final long notBefore;
+        private final long expiration;
+
+        private RegisteredClaims(final JwtClaimsSet claims) {
+            this.jwtId = string(claims, JTI);
+            this.issuer = string(claims, ISS);
+            this.subject = string(claims, SUB);
+            this.audience = audience(claims);
+            this.issuedAt = epochSeconds(claims, IAT);
+            this.notBefore = epochSeconds(claims, NBF);
+            this.expiration = epochSeconds(claims, EXP);
+        }
+
+        private RegisteredClaims checked(final JwtClaimsSetKey key) {
+            final RuntimeException failure = failures.get(key);
+            if (failure != null) {
+                throw failure;
+            }
+            return this;
+        }
+
+        private String string(final JwtClaimsSet claims, final JwtClaimsSetKey key) {
+            try {
+                return claims.get(key.value()).asString();
+            } catch (JsonValueException | ClassCastException e) {
+                failures.put(key, e);
+                return null;
+            }
+        }
+
+        private List<String> audience(final JwtClaimsSet claims) {
+            try {
+                final JsonValue audienceClaim = claims.get(AUD.value());
+                if (audienceClaim.isNull()) {
+                    return null;
+                } else if (audienceClaim.isList()) {
+                    return unmodifiableList(new ArrayList<>(audienceClaim.asList(String.class)));
+                } else {
+                    return singletonList(audienceClaim.asString());
+                }
+            } catch (JsonValueException | ClassCastException e) {
+                failures.put(AUD, e);
+                return null;
+            }
+        }
+
+        private long epochSeconds(final JwtClaimsSet claims, final JwtClaimsSetKey key) {
+            try {
+                final JsonValue value = claims.get(key.value());
+                return value.isNull() ? NO_TIME : value.asLong();
+            } catch (JsonValueException | ClassCastException e) {
+                failures.put(key, e);
+                return NO_TIME;
+            }
+        }
     }
 }
@@ -0,0 +1,273 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.jose.jwt;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.forgerock.json.jose.utils.Utils;
+import org.forgerock.util.Reject;
+import org.forgerock.util.time.Duration;
+import org.forgerock.util.time.TimeService;
+
+/**
+ * A bounded cache of the claims of JWTs which have already been verified, and decrypted where applicable.
+ * <p>
+ * Clients commonly present the same token on every request. Caching the outcome of its verification lets those
+ * requests skip the signature verification and decryption entirely. Entries are keyed by a SHA-256 digest of the
+ * compact serialization, so the cache never holds on to the tokens themselves. An entry is only returned while:
+ * <ul>
+ *     <li>the token has not reached its {@code exp} claim, nor the maximum lifetime of the cache,</li>
+ *     <li>and the key version given on lookup is equal to the one the token was verified with.</li>
+ * </ul>
+ * The key version is an opaque tag chosen by the caller, which should change whenever the keys used to verify or
+ * decrypt the tokens change, so that rotating the keys invalidates every entry verified with the previous ones.
+ * <p>
+ * The cache holds at most {@code maximumSize} entries and evicts the oldest entries first. Claims are copied on the
+ * way in and out, so callers are free to modify the claims set they are given.
+ * <p>
+ * The cache only remembers successful verifications: callers must still verify tokens not found in the cache and
+ * apply any checks that depend on the current time, such as an idle timeout, to the claims it returns.
+ */
+public final class VerifiedJwtCache {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final ThreadLocal<MessageDigest> DIGEST = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance(DIGEST_ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("Unsupported digest algorithm " + DIGEST_ALGORITHM, e);
+            }
+        }
+    };
+
+    private final int maximumSize;
+    private final long maximumLifetime;
+    private final TimeService timeService;
+    private final ConcurrentMap<TokenDigest, Entry> entries = new ConcurrentHashMap<>();
+    /** Digests in insertion order, used to evict the oldest entries. May still hold digests already removed. */
+    private final Queue<TokenDigest> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger insertionOrderSize = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new VerifiedJwtCache.
+     *
+     * @param maximumSize The maximum number of verified tokens to remember. Must be positive.
+     * @param maximumLifetime The maximum time a verified token is remembered for, even if it expires later. May be
+     *                        {@link Duration#UNLIMITED} to only rely on the expiration time of the tokens.
+     */
+    public VerifiedJwtCache(int maximumSize, Duration maximumLifetime) {
+        this(maximumSize, maximumLifetime, TimeService.SYSTEM);
+    }
+
+    /**
+     * Constructs a new VerifiedJwtCache.
+     *
+     * @param maximumSize The maximum number of verified tokens to remember. Must be positive.
+     * @param maximumLifetime The maximum time a verified token is remembered for, even if it expires later. May be
+     *                        {@link Duration#UNLIMITED} to only rely on the expiration time of the tokens.
+     * @param timeService The time service used to expire entries.
+     */
+    public VerifiedJwtCache(int maximumSize, Duration maximumLifetime, TimeService timeService) {
+        Reject.ifTrue(maximumSize <= 0, "Maximum size must be positive");
+        Reject.ifNull(maximumLifetime, timeService);
+        this.maximumSize = maximumSize;
+        this.maximumLifetime = maximumLifetime.isUnlimited()
+                ? Long.MAX_VALUE
+                : maximumLifetime.to(TimeUnit.MILLISECONDS);
+        this.timeService = timeService;
+    }
+
+    /**
+     * Returns a copy of the claims of the given token if it has already been verified with the given key version
+     * and has not expired since.
+     *
+     * @param jwt The compact serialization of the token.
+     * @param keyVersion The current version of the keys used to verify the token.
+     * @return A copy of the verified claims, or {@code null} if the token must be verified.
+     */
+    public JwtClaimsSet get(String jwt, Object keyVersion) {
+        final TokenDigest digest = digest(jwt);
+        final Entry entry = entries.get(digest);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= timeService.now() || !Objects.equals(entry.keyVersion, keyVersion)) {
+            entries.remove(digest, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copy(entry.claims);
+    }
+
+    /**
+     * Remembers that the given token has been verified with the given key version.
+     * <p>
+     * Tokens which have already expired are not cached.
+     *
+     * @param jwt The compact serialization of the token.
+     * @param keyVersion The version of the keys the token was verified with.
+     * @param claims The verified claims of the token.
+     */
+    public void put(String jwt, Object keyVersion, JwtClaimsSet claims) {
+        final long now = timeService.now();
+        long expiresAt = maximumLifetime == Long.MAX_VALUE ? Long.MAX_VALUE : now + maximumLifetime;
+        final long expirationTime = claims.getExpirationEpochSeconds();
+        if (expirationTime != JwtClaimsSet.NO_TIME) {
+            expiresAt = Math.min(expiresAt, expirationTime * 1000L);
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+        final TokenDigest digest = digest(jwt);
+        if (entries.put(digest, new Entry(copy(claims), keyVersion, expiresAt)) == null) {
+            insertionOrder.offer(digest);
+            insertionOrderSize.incrementAndGet();
+            evictOldest();
+        }
+    }
+
+    /**
+     * Forgets every verified token, for example after the keys have been replaced.
+     */
+    public void invalidateAll() {
+        entries.clear();
+        insertionOrder.clear();
+        insertionOrderSize.set(0);
+    }
+
+    /**
+     * Returns the number of verified tokens currently remembered, including expired ones not yet removed.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of lookups which returned verified claims.
+     *
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups for which the token had to be verified.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted because the cache was full.
+     *
+     * @return The eviction count.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the ratio of lookups which returned verified claims, or {@code 0} if there were no lookups.
+     *
+     * @return The hit rate, between {@code 0} and {@code 1}.
+     */
+    public double getHitRate() {
+        final long hitCount = hits.sum();
+        final long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Evicts the oldest entries while the cache is full, and also while the insertion order holds more than twice
+     * as many digests as the cache may hold, so that digests of entries removed on lookup do not accumulate.
+     */
+    private void evictOldest() {
+        while (entries.size() > maximumSize || insertionOrderSize.get() > 2L * maximumSize) {
+            final TokenDigest oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            insertionOrderSize.decrementAndGet();
+            if (entries.remove(oldest) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static JwtClaimsSet copy(JwtClaimsSet claims) {
+        return new JwtClaimsSet(claims.toJsonValue().asMap());
+    }
+
+    private static TokenDigest digest(String jwt) {
+        return new TokenDigest(DIGEST.get().digest(jwt.getBytes(Utils.CHARSET)));
+    }
+
+    private static final class Entry {
+        private final JwtClaimsSet claims;
+        private final Object keyVersion;
+        private final long expiresAt;
+
+        private Entry(JwtClaimsSet claims, Object keyVersion, long expiresAt) {
+            this.claims = claims;
+            this.keyVersion = keyVersion;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class TokenDigest {
+        private final byte[] digest;
+        private final int hashCode;
+
+        private TokenDigest(byte[] digest) {
+            this.digest = digest;
+            this.hashCode = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TokenDigest && Arrays.equals(digest, ((TokenDigest) other).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
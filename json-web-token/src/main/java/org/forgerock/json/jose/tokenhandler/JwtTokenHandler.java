@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.tokenhandler;
@@ -167,9 +168,9 @@ public final class JwtTokenHandler implements TokenHandler {
             signedEncryptedJwt.decrypt(jweKeyPair.getPrivate());
 
             JwtClaimsSet claimsSet = signedEncryptedJwt.getClaimsSet();
-            Date expirationTime = claimsSet.getExpirationTime();
+            long expirationTime = claimsSet.getExpirationEpochSeconds();
 
-            if (expirationTime != null && expirationTime.before(new Date())) {
+            if (expirationTime != JwtClaimsSet.NO_TIME && expirationTime * 1000L < System.currentTimeMillis()) {
                 throw new ExpiredTokenException("Token has expired");
             }
 
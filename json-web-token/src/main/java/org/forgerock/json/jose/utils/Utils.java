@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.utils;
@@ -19,6 +20,7 @@ package org.forgerock.json.jose.utils;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -45,6 +47,17 @@ public final class Utils {
     /** UTF-8 Charset. */
     public static final Charset CHARSET = StandardCharsets.UTF_8;
 
+    /** Maps the characters of the base64url alphabet to their six bit value, or -1 for any other character. */
+    private static final byte[] BASE64URL_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL_VALUES, (byte) -1);
+        final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL_VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
     /** Private constructor. */
     private Utils() {
         // Utility class
@@ -67,7 +80,48 @@ public final class Utils {
      * @return The UTF-8 decoded String.
      */
     public static String base64urlDecode(String s) {
-        return new String(Base64url.decode(s), CHARSET);
+        return new String(base64urlDecode(s, 0, s.length()), CHARSET);
+    }
+
+    /**
+     * Base64url decodes the given range of a String.
+     * <p>
+     * Well formed input is decoded in a single pass straight into a byte array of the exact decoded length, without
+     * copying the range or translating it to the standard Base64 alphabet first. Trailing padding is accepted.
+     * Input containing any other character is decoded with {@link Base64url#decode(String)}, so that its handling
+     * of such input is unchanged.
+     *
+     * @param s The String containing the Base64url encoded range.
+     * @param start The index of the first character of the range.
+     * @param end The index after the last character of the range.
+     * @return The decoded bytes.
+     */
+    public static byte[] base64urlDecode(String s, int start, int end) {
+        int length = end;
+        while (length > start && s.charAt(length - 1) == '=') {
+            length--;
+        }
+        if ((length - start) % 4 == 1) {
+            return Base64url.decode(s.substring(start, end));
+        }
+        final byte[] decoded = new byte[(length - start) * 3 / 4];
+        int buffer = 0;
+        int bits = 0;
+        int position = 0;
+        for (int i = start; i < length; i++) {
+            final char c = s.charAt(i);
+            final int value = c < BASE64URL_VALUES.length ? BASE64URL_VALUES[c] : -1;
+            if (value < 0) {
+                return Base64url.decode(s.substring(start, end));
+            }
+            buffer = buffer << 6 | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                decoded[position++] = (byte) (buffer >> bits);
+            }
+        }
+        return decoded;
     }
 
     /**
@@ -114,6 +168,25 @@ public final class Utils {
         }
     }
 
+    /**
+     * Parses the given UTF-8 encoded JSON bytes into a NoDuplicatesMap.
+     * <p>
+     * Equivalent to {@link #parseJson(String)}, but lets the parser read the bytes directly instead of requiring
+     * them to be decoded into a String first.
+     *
+     * @param json The UTF-8 encoded JSON to parse.
+     * @return A Map of the JSON properties.
+     * @throws InvalidJwtException if the json value is not well formed or contains duplicate keys.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseJson(byte[] json) {
+        try {
+            return OBJECT_MAPPER.readValue(json, LinkedHashMap.class);
+        } catch (IOException e) {
+            throw new InvalidJwtException("Failed to parse json: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Writes the given map as a string in JSON object format.
      *
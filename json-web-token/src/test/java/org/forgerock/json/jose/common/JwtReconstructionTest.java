@@ -12,13 +12,18 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.common;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Arrays;
+
 import org.forgerock.json.jose.builders.JwtBuilderFactory;
+import org.forgerock.json.jose.exceptions.InvalidJwtException;
+import org.forgerock.json.jose.exceptions.JwtRuntimeException;
 import org.forgerock.json.jose.helper.KeysHelper;
 import org.forgerock.json.jose.jwe.EncryptedJwt;
 import org.forgerock.json.jose.jwe.EncryptionMethod;
@@ -32,6 +37,8 @@ import org.forgerock.json.jose.jws.SigningManager;
 import org.forgerock.json.jose.jws.handlers.SigningHandler;
 import org.forgerock.json.jose.jwt.Jwt;
 import org.forgerock.json.jose.jwt.JwtClaimsSet;
+import org.forgerock.json.jose.utils.Utils;
+import org.forgerock.util.encode.Base64url;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
@@ -207,4 +214,84 @@ public class JwtReconstructionTest {
         assertThat(encryptedSignedJwt.getClaimsSet().getClaim(CLAIM_KEY)).isEqualTo(CLAIM_VALUE);
 
     }
+
+    @Test
+    public void shouldVerifySignatureOverOriginalSigningInput() {
+        // Given
+        SigningHandler signingHandler = new SigningManager().newHmacSigningHandler("secret".getBytes());
+        JwtClaimsSet jwtClaimsSet = jwtBuilderFactory.claims().claim(CLAIM_KEY, CLAIM_VALUE).build();
+        String jwtString = jwtBuilderFactory.jws(signingHandler)
+                .headers()
+                    .alg(JwsAlgorithm.HS256)
+                .done()
+                .claims(jwtClaimsSet)
+                .build();
+
+        String otherHeader = Utils.base64urlEncode("{\"alg\":\"HS256\",\"kid\":\"other\"}");
+        String tamperedString = otherHeader + jwtString.substring(jwtString.indexOf('.'));
+
+        // When
+        SignedJwt signedJwt = jwtBuilderFactory.reconstruct(jwtString, SignedJwt.class);
+        SignedJwt tamperedJwt = jwtBuilderFactory.reconstruct(tamperedString, SignedJwt.class);
+
+        // Then
+        assertThat(signedJwt.verify(signingHandler)).isTrue();
+        assertThat(tamperedJwt.verify(signingHandler)).isFalse();
+    }
+
+    @Test
+    public void shouldReconstructJwtWithPaddedParts() {
+        // Given
+        String header = Base64url.encode("{\"typ\":\"JWT\"}".getBytes(Utils.CHARSET));
+        String claims = Base64url.encode(("{\"" + CLAIM_KEY + "\":\"" + CLAIM_VALUE + "\"}").getBytes(Utils.CHARSET));
+        String jwtString = pad(header) + "." + pad(claims) + ".";
+
+        // When
+        Jwt jwt = jwtBuilderFactory.reconstruct(jwtString, Jwt.class);
+
+        // Then
+        assertThat(jwt.getClaimsSet().getClaim(CLAIM_KEY)).isEqualTo(CLAIM_VALUE);
+    }
+
+    @Test(expectedExceptions = JwtRuntimeException.class)
+    public void shouldRejectMalformedRegisteredClaimWhenReconstructing() {
+        // Given
+        String header = Base64url.encode("{\"typ\":\"JWT\"}".getBytes(Utils.CHARSET));
+        String claims = Base64url.encode("{\"sub\":\"alice\",\"jti\":5}".getBytes(Utils.CHARSET));
+
+        // When
+        jwtBuilderFactory.reconstruct(header + "." + claims + ".", Jwt.class);
+    }
+
+    @Test
+    public void shouldDecodeBase64urlRangesLikeBase64url() {
+        // Given
+        byte[] data = new byte[256];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        for (int length = 0; length < data.length; length++) {
+            String encoded = Base64url.encode(Arrays.copyOf(data, length));
+
+            // When
+            byte[] decoded = Utils.base64urlDecode("." + encoded + ".", 1, encoded.length() + 1);
+
+            // Then
+            assertThat(decoded).isEqualTo(Base64url.decode(encoded));
+        }
+    }
+
+    @Test(expectedExceptions = InvalidJwtException.class)
+    public void shouldRejectWrongNumberOfParts() {
+        jwtBuilderFactory.reconstruct("a.b.c.d", Jwt.class);
+    }
+
+    private static String pad(String encoded) {
+        StringBuilder padded = new StringBuilder(encoded);
+        while (padded.length() % 4 != 0) {
+            padded.append('=');
+        }
+        return padded.toString();
+    }
 }
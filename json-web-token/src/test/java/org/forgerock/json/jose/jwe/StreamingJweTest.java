@@ -0,0 +1,202 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.jose.jwe;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.forgerock.json.jose.common.JwtReconstruction;
+import org.forgerock.json.jose.exceptions.JweDecryptionException;
+import org.forgerock.json.jose.jwt.JwtClaimsSet;
+import org.forgerock.util.encode.Base64url;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class StreamingJweTest {
+
+    private KeyPair rsaKeyPair;
+    private StreamingJwe streamingJwe;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        rsaKeyPair = keyPairGenerator.generateKeyPair();
+        streamingJwe = new StreamingJwe();
+    }
+
+    @DataProvider
+    public Object[][] encryptionMethods() {
+        List<Object[]> methods = new ArrayList<>();
+        for (EncryptionMethod method : new EncryptionMethod[] { EncryptionMethod.A128GCM, EncryptionMethod.A256GCM,
+            EncryptionMethod.A128CBC_HS256, EncryptionMethod.A256CBC_HS512 }) {
+            for (CompressionAlgorithm zip : CompressionAlgorithm.values()) {
+                methods.add(new Object[] { method, zip });
+            }
+        }
+        return methods.toArray(new Object[0][]);
+    }
+
+    @Test(dataProvider = "encryptionMethods")
+    public void shouldProduceSameSerializationAsEncryptedJwt(EncryptionMethod method, CompressionAlgorithm zip)
+            throws Exception {
+        // Given
+        Key key = directKey(method);
+        JweHeader header = header(JweAlgorithm.DIRECT, method, zip);
+        JwtClaimsSet claims = new JwtClaimsSet();
+        claims.setClaim("data", largeText(20000));
+        String expected = new EncryptedJwt(header, claims, key).build();
+        byte[] initialisationVector = Base64url.decode(expected.split("\\.")[2]);
+
+        // When
+        ByteArrayOutputStream jwe = new ByteArrayOutputStream();
+        streamingJwe.encrypt(header, key, initialisationVector, utf8(claims.build()), jwe);
+
+        // Then
+        assertThat(jwe.toString("UTF-8")).isEqualTo(expected);
+    }
+
+    @Test(dataProvider = "encryptionMethods")
+    public void shouldRoundTripLargePayloads(EncryptionMethod method, CompressionAlgorithm zip) throws Exception {
+        // Given
+        skipIfUnsupported(method);
+        byte[] payload = new byte[1024 * 1024 + 7];
+        new Random(42).nextBytes(payload);
+        JweHeader header = header(JweAlgorithm.RSA_OAEP_256, method, zip);
+        ByteArrayOutputStream jwe = new ByteArrayOutputStream();
+        streamingJwe.encrypt(header, rsaKeyPair.getPublic(), new ByteArrayInputStream(payload), jwe);
+
+        // When
+        ByteArrayOutputStream plaintext = new ByteArrayOutputStream();
+        JweHeader decryptedHeader = streamingJwe.decrypt(rsaKeyPair.getPrivate(),
+                new ByteArrayInputStream(jwe.toByteArray()), plaintext);
+
+        // Then
+        assertThat(plaintext.toByteArray()).isEqualTo(payload);
+        assertThat(decryptedHeader.getEncryptionMethod()).isEqualTo(method);
+        assertThat(decryptedHeader.getCompressionAlgorithm()).isEqualTo(zip);
+    }
+
+    @Test(dataProvider = "encryptionMethods")
+    public void shouldDecryptEncryptedJwt(EncryptionMethod method, CompressionAlgorithm zip) throws Exception {
+        // Given
+        skipIfUnsupported(method);
+        JwtClaimsSet claims = new JwtClaimsSet();
+        claims.setClaim("data", largeText(5000));
+        String jwt = new EncryptedJwt(header(JweAlgorithm.RSA_OAEP_256, method, zip), claims,
+                rsaKeyPair.getPublic()).build();
+
+        // When
+        ByteArrayOutputStream plaintext = new ByteArrayOutputStream();
+        streamingJwe.decrypt(rsaKeyPair.getPrivate(), utf8(jwt), plaintext);
+
+        // Then
+        assertThat(plaintext.toString("UTF-8")).isEqualTo(claims.build());
+    }
+
+    @Test(dataProvider = "encryptionMethods")
+    public void shouldBeDecryptableByEncryptedJwt(EncryptionMethod method, CompressionAlgorithm zip)
+            throws Exception {
+        // Given
+        skipIfUnsupported(method);
+        JwtClaimsSet claims = new JwtClaimsSet();
+        claims.setClaim("data", largeText(5000));
+        ByteArrayOutputStream jwe = new ByteArrayOutputStream();
+        streamingJwe.encrypt(header(JweAlgorithm.RSA_OAEP_256, method, zip), rsaKeyPair.getPublic(),
+                utf8(claims.build()), jwe);
+
+        // When
+        EncryptedJwt jwt = new JwtReconstruction().reconstructJwt(jwe.toString("UTF-8"), EncryptedJwt.class);
+        jwt.decrypt(rsaKeyPair.getPrivate());
+
+        // Then
+        assertThat(jwt.getClaimsSet().getClaim("data")).isEqualTo(claims.getClaim("data"));
+    }
+
+    @Test(dataProvider = "encryptionMethods", expectedExceptions = JweDecryptionException.class)
+    public void shouldRejectTamperedCiphertext(EncryptionMethod method, CompressionAlgorithm zip) throws Exception {
+        // Given
+        Key key = directKey(method);
+        ByteArrayOutputStream jwe = new ByteArrayOutputStream();
+        streamingJwe.encrypt(header(JweAlgorithm.DIRECT, method, zip), key, utf8(largeText(100000)), jwe);
+        String[] parts = jwe.toString("UTF-8").split("\\.");
+        byte[] ciphertext = Base64url.decode(parts[3]);
+        ciphertext[ciphertext.length / 2] ^= 1;
+        parts[3] = Base64url.encode(ciphertext);
+
+        // When
+        streamingJwe.decrypt(key, utf8(String.join(".", parts)), new ByteArrayOutputStream());
+    }
+
+    private static JweHeader header(JweAlgorithm algorithm, EncryptionMethod method, CompressionAlgorithm zip) {
+        JweHeader header = new JweHeader();
+        header.setAlgorithm(algorithm);
+        header.setEncryptionMethod(method);
+        if (zip != CompressionAlgorithm.NONE) {
+            header.setCompressionAlgorithm(zip);
+        }
+        return header;
+    }
+
+    private static Key directKey(EncryptionMethod method) {
+        skipIfUnsupported(method);
+        byte[] keyData = new byte[method.getKeySize() / 8];
+        new SecureRandom().nextBytes(keyData);
+        return new SecretKeySpec(keyData, "AES");
+    }
+
+    private static void skipIfUnsupported(EncryptionMethod method) {
+        boolean aes256 = method == EncryptionMethod.A256GCM || method == EncryptionMethod.A256CBC_HS512;
+        try {
+            if (aes256 && Cipher.getMaxAllowedKeyLength("AES") < 256) {
+                throw new SkipException("Install JCE Unlimited Strength to test AES-256 and above");
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new SkipException(e.getMessage());
+        }
+    }
+
+    private static String largeText(int length) {
+        StringBuilder text = new StringBuilder(length);
+        Random random = new Random(length);
+        while (text.length() < length) {
+            text.append("lorem ipsum ").append(random.nextInt(1000)).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static ByteArrayInputStream utf8(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
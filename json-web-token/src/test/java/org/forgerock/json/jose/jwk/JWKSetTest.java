@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwk;
@@ -143,6 +144,31 @@ public class JWKSetTest  implements ITest {
         }
     }
 
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testJWKsAsJsonValueCannotBeModified() {
+        //Given
+        JWKSet jwkSet = JWKSet.parse(jwkSetJson);
+
+        //When
+        jwkSet.getJWKsAsJsonValue().get(0).put("kid", "modified");
+    }
+
+    @Test
+    public void testJWKSetIsNotChangedByModifyingTheParsedJson() {
+        //Given
+        JsonValue keys = jwkSetJson.get("keys").copy();
+        JWKSet jwkSet = new JWKSet(keys);
+        String kid = keys.get(0).get("kid").asString();
+
+        //When
+        keys.get(0).put("kid", "modified");
+
+        //Then
+        assertThat(jwkSet.findJwk(kid)).isNotNull();
+        assertThat(jwkSet.findJwk("modified")).isNull();
+        assertThat(jwkSet.getJWKsAsJsonValue().get(0).get("kid").asString()).isEqualTo(kid);
+    }
+
     @DataProvider
     private Object[][] jwks() throws NoSuchAlgorithmException {
         final List<Object[]> results = new ArrayList<>();
@@ -307,6 +333,61 @@ public class JWKSetTest  implements ITest {
         assertThat(jwkFound.getKeyId()).isEqualTo(testParameters.jwkExpected.getKeyId());
     }
 
+    @Test
+    public void testFindJWKByThumbprint() {
+        //Given
+        // Example from RFC 7638 section 3.1
+        JWK rfcJwk = JWK.parse(json(object(
+                field("kty", "RSA"),
+                field("n", "0vx7agoebGcQSuuPiLJXZptN9nndrQmbXEps2aiAFbWhM78LhWx4cbbfAAtVT86zwu1RK7aPFFxuhDR1L6tSo"
+                        + "c_BJECPebWKRXjBZCiFV4n3oknjhMstn64tZ_2W-5JsGY4Hc5n9yBXArwl93lqt7_RN5w6Cf0h4QyQ5v-65YGjQR0"
+                        + "_FDW2QvzqY368QQMicAtaSqzs8KJZgnYb9c7d0zgdAZHzu6qMQvRL5hajrn1n91CbOpbISD08qNLyrdkt-bFTWhAI4"
+                        + "vMQFh6WeZu0fM4lFd2NcRwr3XPksINHaQ-G_xBniIqbw0Ls1jF44-csFCur-kEgU8awapJzKnqDKgw"),
+                field("e", "AQAB"),
+                field("alg", "RS256"),
+                field("kid", "2011-04-29"))));
+        List<JWK> jwks = new ArrayList<>(jwksMapByKid.values());
+        jwks.add(rfcJwk);
+        JWKSet jwkSet = new JWKSet(jwks);
+
+        //When
+        JWK jwkFound = jwkSet.findJwkByThumbprint("NzbLsXh8uDCcd-6MNwXF4W_7noWXFZAfHkxZsRGC9Xs");
+
+        //Then
+        assertThat(rfcJwk.getThumbprint()).isEqualTo("NzbLsXh8uDCcd-6MNwXF4W_7noWXFZAfHkxZsRGC9Xs");
+        assertThat(jwkFound).isNotNull();
+        assertThat(jwkFound.getKeyId()).isEqualTo("2011-04-29");
+    }
+
+    @Test
+    public void testFoundJWKsAndTheirKeysAreReused() {
+        //Given
+        JWKSet jwkSet = JWKSet.parse(jwkSetJson);
+
+        //When
+        RsaJWK rsaJwk = (RsaJWK) jwkSet.findJwk(JwsAlgorithm.RS256, KeyUse.SIG);
+        EcJWK ecJwk = (EcJWK) jwkSet.findJwk("ecJwk3");
+
+        //Then
+        assertThat(jwkSet.findJwk(JwsAlgorithm.RS256, KeyUse.SIG)).isSameAs(rsaJwk);
+        assertThat(rsaJwk.toRSAPublicKey()).isSameAs(rsaJwk.toRSAPublicKey());
+        assertThat(jwkSet.findJwk("ecJwk3")).isSameAs(ecJwk);
+        assertThat(ecJwk.toECPublicKey()).isSameAs(ecJwk.toECPublicKey());
+    }
+
+    @Test
+    public void testModifyingJWKSetRebuildsItsIndex() {
+        //Given
+        JWKSet jwkSet = new JWKSet(jwksMapByKid.get("rsaJwk1"));
+        assertThat(jwkSet.findJwk("rsaJwk1")).isNotNull();
+
+        //When
+        jwkSet.put("keys", jwkSetJson.get("keys").getObject());
+
+        //Then
+        assertThat(jwkSet.findJwk("ecJwk2")).isNotNull();
+    }
+
     //Used to name the tests with a user friendly name
     public class TestParameters {
         public String testName = null;
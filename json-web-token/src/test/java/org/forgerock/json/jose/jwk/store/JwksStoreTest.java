@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2017 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwk.store;
@@ -34,6 +35,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.forgerock.json.jose.exceptions.FailedToLoadJWKException;
@@ -45,6 +52,9 @@ import org.forgerock.json.jose.jwk.KeyUse;
 import org.forgerock.json.jose.jwk.RsaJWK;
 import org.forgerock.json.jose.jws.JwsAlgorithm;
 import org.forgerock.util.time.Duration;
+import org.forgerock.util.time.TimeService;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -174,4 +184,137 @@ public class JwksStoreTest {
         assertThat(jwkFound).isNotNull();
         verify(jwkSetParser, times(2)).jwkSet(jwkUrl);
     }
+
+    @Test
+    public void testRefreshesInBackgroundBeforeCacheTimeout() throws Exception {
+        //Given
+        given(jwkSetParser.jwkSet(jwkUrl)).willReturn(jwkSet);
+        TimeService timeService = mock(TimeService.class);
+        List<Runnable> refreshes = new ArrayList<>();
+        JwksStore jwksStore = new JwksStore(jwksStoreID, Duration.duration(100L, TimeUnit.SECONDS),
+                Duration.duration(120L, TimeUnit.SECONDS), jwkUrl, jwkSetParser, collectingExecutor(refreshes),
+                timeService);
+        given(jwkSetParser.jwkSet(jwkUrl)).willReturn(jwkSetWithExtraJwk());
+
+        //When
+        given(timeService.since(0L)).willReturn(80000L);
+        JWK beforeRefresh = jwksStore.findJwk(extraJWK.getKeyId());
+        JWK duringRefresh = jwksStore.findJwk(extraJWK.getKeyId());
+        refreshes.get(0).run();
+        given(timeService.since(0L)).willReturn(0L);
+        JWK afterRefresh = jwksStore.findJwk(extraJWK.getKeyId());
+
+        //then
+        assertThat(beforeRefresh).isNull();
+        assertThat(duringRefresh).isNull();
+        assertThat(afterRefresh).isNotNull();
+        assertThat(refreshes).hasSize(1);
+        verify(jwkSetParser, times(2)).jwkSet(jwkUrl);
+    }
+
+    @Test
+    public void testKeepsCurrentKeysWhenBackgroundRefreshFails() throws Exception {
+        //Given
+        given(jwkSetParser.jwkSet(jwkUrl)).willReturn(jwkSet);
+        TimeService timeService = mock(TimeService.class);
+        List<Runnable> refreshes = new ArrayList<>();
+        JwksStore jwksStore = new JwksStore(jwksStoreID, Duration.duration(100L, TimeUnit.SECONDS),
+                Duration.duration(120L, TimeUnit.SECONDS), jwkUrl, jwkSetParser, collectingExecutor(refreshes),
+                timeService);
+        given(jwkSetParser.jwkSet(jwkUrl)).willThrow(new FailedToLoadJWKException("unavailable"));
+        given(timeService.since(0L)).willReturn(80000L);
+        String kid = jwksMapByKid.keySet().iterator().next();
+
+        //When
+        jwksStore.findJwk(kid);
+        refreshes.get(0).run();
+        JWK jwkFound = jwksStore.findJwk(kid);
+
+        //then
+        assertThat(jwkFound).isNotNull();
+        verify(jwkSetParser, times(2)).jwkSet(jwkUrl);
+    }
+
+    @Test
+    public void testCoalescesConcurrentReloadsOnCacheMiss() throws Exception {
+        //Given
+        given(jwkSetParser.jwkSet(jwkUrl)).willReturn(jwkSet);
+        final JwksStore jwksStore = new JwksStore(jwksStoreID, JwksStoreService.JWKS_STORE_DEFAULT_CACHE_TIMEOUT_MS,
+                Duration.duration(0L, TimeUnit.MILLISECONDS), jwkUrl, jwkSetParser);
+        final CountDownLatch fetchStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFetch = new CountDownLatch(1);
+        final JWKSet rotatedJwkSet = jwkSetWithExtraJwk();
+        given(jwkSetParser.jwkSet(jwkUrl)).willAnswer(new Answer<JWKSet>() {
+            @Override
+            public JWKSet answer(InvocationOnMock invocation) throws Throwable {
+                fetchStarted.countDown();
+                releaseFetch.await();
+                return rotatedJwkSet;
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Callable<JWK> findExtraJwk = new Callable<JWK>() {
+            @Override
+            public JWK call() throws Exception {
+                return jwksStore.findJwk(extraJWK.getKeyId());
+            }
+        };
+
+        try {
+            //When
+            List<Future<JWK>> results = new ArrayList<>();
+            results.add(executor.submit(findExtraJwk));
+            fetchStarted.await();
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(findExtraJwk));
+            }
+            Thread.sleep(100L);
+            releaseFetch.countDown();
+
+            //then
+            for (Future<JWK> result : results) {
+                assertThat(result.get()).isNotNull();
+            }
+            verify(jwkSetParser, times(2)).jwkSet(jwkUrl);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testKeyVersionChangesOnlyWhenReloadedJwksChange() throws Exception {
+        //Given
+        given(jwkSetParser.jwkSet(jwkUrl)).willReturn(jwkSet);
+        JwksStore jwksStore = new JwksStore(jwksStoreID, JwksStoreService.JWKS_STORE_DEFAULT_CACHE_TIMEOUT_MS,
+                Duration.duration(0L, TimeUnit.MILLISECONDS), jwkUrl, jwkSetParser);
+        Object initialVersion = jwksStore.getKeyVersion();
+
+        //When
+        given(jwkSetParser.jwkSet(jwkUrl)).willReturn(new JWKSet(new ArrayList<>(jwksMapByKid.values())));
+        jwksStore.findJwk(extraJWK.getKeyId());
+        Object reloadedVersion = jwksStore.getKeyVersion();
+        given(jwkSetParser.jwkSet(jwkUrl)).willReturn(jwkSetWithExtraJwk());
+        jwksStore.findJwk(extraJWK.getKeyId());
+        Object rotatedVersion = jwksStore.getKeyVersion();
+
+        //then
+        verify(jwkSetParser, times(3)).jwkSet(jwkUrl);
+        assertThat(reloadedVersion).isEqualTo(initialVersion);
+        assertThat(rotatedVersion).isNotEqualTo(initialVersion);
+    }
+
+    private JWKSet jwkSetWithExtraJwk() {
+        List<JWK> jwks = new ArrayList<>(jwksMapByKid.values());
+        jwks.add(extraJWK);
+        return new JWKSet(jwks);
+    }
+
+    private Executor collectingExecutor(final List<Runnable> tasks) {
+        return new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                tasks.add(task);
+            }
+        };
+    }
 }
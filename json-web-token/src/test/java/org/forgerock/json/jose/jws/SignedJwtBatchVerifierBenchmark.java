@@ -0,0 +1,149 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.jose.jws;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.json.jose.builders.JwtBuilderFactory;
+import org.forgerock.json.jose.jws.handlers.HmacSigningHandler;
+import org.forgerock.json.jose.jws.handlers.RSASigningHandler;
+import org.forgerock.json.jose.jws.handlers.SigningHandler;
+import org.forgerock.json.jose.jwt.JwtClaimsSet;
+import org.forgerock.util.Function;
+import org.forgerock.util.SignatureUtil;
+import org.forgerock.util.promise.NeverThrowsException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the tokens per second {@link SignedJwtBatchVerifier} verifies for each fork-join pool size, against
+ * verifying the same tokens one at a time. Run {@link #main(String[])} to see how throughput scales with cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@Threads(1)
+public class SignedJwtBatchVerifierBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int KEYS = 4;
+
+    @Param({ "HS256", "RS256" })
+    private JwsAlgorithm algorithm;
+
+    @Param({ "1", "2", "4", "8" })
+    private int parallelism;
+
+    private final List<SigningHandler> verificationHandlers = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private ForkJoinPool pool;
+    private SignedJwtBatchVerifier verifier;
+
+    @Setup
+    public void setup() throws GeneralSecurityException {
+        JwtBuilderFactory jwtBuilderFactory = new JwtBuilderFactory();
+        List<SigningHandler> signingHandlers = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            if (algorithm.getAlgorithmType() == JwsAlgorithmType.HMAC) {
+                byte[] sharedSecret = new byte[32];
+                new SecureRandom().nextBytes(sharedSecret);
+                signingHandlers.add(new HmacSigningHandler(sharedSecret));
+                verificationHandlers.add(new HmacSigningHandler(sharedSecret));
+            } else {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                KeyPair keyPair = generator.generateKeyPair();
+                signingHandlers.add(new RSASigningHandler(keyPair.getPrivate(), SignatureUtil.getInstance()));
+                verificationHandlers.add(new RSASigningHandler(keyPair.getPublic(), SignatureUtil.getInstance()));
+            }
+        }
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            JwtClaimsSet claims = new JwtClaimsSet();
+            claims.setSubject("user-" + i);
+            claims.setIssuer("https://example.com");
+            claims.setClaim("index", i);
+            tokens.add(jwtBuilderFactory.jws(signingHandlers.get(i % KEYS)).headers()
+                    .alg(algorithm).kid(String.valueOf(i % KEYS)).done().claims(claims).build());
+        }
+        pool = new ForkJoinPool(parallelism);
+        verifier = new SignedJwtBatchVerifier(new Function<JwsHeader, SigningHandler, NeverThrowsException>() {
+            @Override
+            public SigningHandler apply(JwsHeader header) {
+                return verificationHandlers.get(Integer.parseInt(header.getKeyId()));
+            }
+        }, pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<SignedJwtBatchVerifier.Result> batch() {
+        return verifier.verify(tokens);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int sequential() {
+        int verified = 0;
+        for (String token : tokens) {
+            SignedJwt jwt = new JwtBuilderFactory().reconstruct(token, SignedJwt.class);
+            if (jwt.verify(verificationHandlers.get(Integer.parseInt(jwt.getHeader().getKeyId())))) {
+                verified++;
+            }
+        }
+        return verified;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SignedJwtBatchVerifierBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.jose.jws;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.json.jose.builders.JwtBuilderFactory;
+import org.forgerock.json.jose.exceptions.InvalidJwtException;
+import org.forgerock.json.jose.exceptions.JwsVerifyingException;
+import org.forgerock.json.jose.jws.handlers.HmacSigningHandler;
+import org.forgerock.json.jose.jws.handlers.SigningHandler;
+import org.forgerock.json.jose.jwt.JwtClaimsSet;
+import org.forgerock.util.Function;
+import org.forgerock.util.promise.NeverThrowsException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class SignedJwtBatchVerifierTest {
+
+    private final Map<String, SigningHandler> handlersByKid = new HashMap<>();
+    private final AtomicInteger resolutions = new AtomicInteger();
+    private ForkJoinPool pool;
+    private SignedJwtBatchVerifier verifier;
+
+    @BeforeMethod
+    public void setUp() {
+        byte[] key1 = new byte[32];
+        byte[] key2 = new byte[32];
+        Arrays.fill(key2, (byte) 1);
+        handlersByKid.put("k1", new HmacSigningHandler(key1));
+        handlersByKid.put("k2", new HmacSigningHandler(key2));
+        resolutions.set(0);
+        pool = new ForkJoinPool(4);
+        verifier = new SignedJwtBatchVerifier(new Function<JwsHeader, SigningHandler, NeverThrowsException>() {
+            @Override
+            public SigningHandler apply(JwsHeader header) {
+                resolutions.incrementAndGet();
+                return handlersByKid.get(header.getKeyId());
+            }
+        }, pool);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void shouldVerifyTokensInOrder() {
+        // Given
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tokens.add(signedJwt(i % 2 == 0 ? "k1" : "k2", handlersByKid.get(i % 2 == 0 ? "k1" : "k2"), i));
+        }
+
+        // When
+        List<SignedJwtBatchVerifier.Result> results = verifier.verify(tokens);
+
+        // Then
+        assertThat(results).hasSize(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(results.get(i).getToken()).isEqualTo(tokens.get(i));
+            assertThat(results.get(i).isVerified()).isTrue();
+            assertThat(results.get(i).getFailure()).isNull();
+            assertThat(results.get(i).getJwt().getClaimsSet().getClaim("index")).isEqualTo(i);
+        }
+        assertThat(resolutions.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldReportEachFailingToken() {
+        // Given
+        String valid = signedJwt("k1", handlersByKid.get("k1"), 0);
+        String wrongKey = signedJwt("k1", handlersByKid.get("k2"), 1);
+        String unknownKey = signedJwt("k3", handlersByKid.get("k1"), 2);
+
+        // When
+        List<SignedJwtBatchVerifier.Result> results = verifier.verify(
+                Arrays.asList(valid, wrongKey, unknownKey, "not-a-jwt"));
+
+        // Then
+        assertThat(results.get(0).isVerified()).isTrue();
+        assertThat(results.get(1).isVerified()).isFalse();
+        assertThat(results.get(1).getFailure()).isNull();
+        assertThat(results.get(2).isVerified()).isFalse();
+        assertThat(results.get(2).getFailure()).isInstanceOf(JwsVerifyingException.class);
+        assertThat(results.get(3).isVerified()).isFalse();
+        assertThat(results.get(3).getJwt()).isNull();
+        assertThat(results.get(3).getFailure()).isInstanceOf(InvalidJwtException.class);
+    }
+
+    @Test
+    public void shouldVerifyIdenticalTokensOnce() {
+        // Given
+        final AtomicInteger verifications = new AtomicInteger();
+        final SigningHandler handler = handlersByKid.get("k1");
+        SignedJwtBatchVerifier countingVerifier = new SignedJwtBatchVerifier(
+                new Function<JwsHeader, SigningHandler, NeverThrowsException>() {
+                    @Override
+                    public SigningHandler apply(JwsHeader header) {
+                        return new HmacSigningHandler(new byte[32]) {
+                            @Override
+                            public boolean verify(JwsAlgorithm algorithm, byte[] data, byte[] signature) {
+                                verifications.incrementAndGet();
+                                return handler.verify(algorithm, data, signature);
+                            }
+                        };
+                    }
+                }, pool);
+        String token = signedJwt("k1", handler, 0);
+
+        // When
+        List<SignedJwtBatchVerifier.Result> results = countingVerifier.verify(Collections.nCopies(10, token));
+
+        // Then
+        assertThat(results).hasSize(10);
+        assertThat(results.get(9).isVerified()).isTrue();
+        assertThat(verifications.get()).isEqualTo(1);
+    }
+
+    private static String signedJwt(String kid, SigningHandler signingHandler, int index) {
+        JwtClaimsSet claims = new JwtClaimsSet();
+        claims.setClaim("index", index);
+        return new JwtBuilderFactory().jws(signingHandler).headers().alg(JwsAlgorithm.HS256).kid(kid).done()
+                .claims(claims).build();
+    }
+}
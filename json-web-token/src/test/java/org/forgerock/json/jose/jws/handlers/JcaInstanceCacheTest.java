@@ -0,0 +1,130 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.jose.jws.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.forgerock.json.jose.jws.JwsAlgorithm;
+import org.forgerock.util.SignatureUtil;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class JcaInstanceCacheTest {
+
+    private static final byte[] DATA = "Sample Message".getBytes(StandardCharsets.UTF_8);
+
+    private KeyPair keyPair;
+
+    @BeforeClass
+    public void generateKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+    }
+
+    @Test
+    public void shouldReuseReleasedInstanceOnSameThread() throws Exception {
+        // Given
+        SecretKeySpec key = new SecretKeySpec(new byte[32], "HMACSHA256");
+        JcaInstanceCache.Slot<Mac> first = JcaInstanceCache.mac("HmacSHA256", key);
+        first.release();
+
+        // When
+        JcaInstanceCache.Slot<Mac> second = JcaInstanceCache.mac("HmacSHA256", key);
+        second.release();
+
+        // Then
+        assertThat(second.get()).isSameAs(first.get());
+    }
+
+    @Test
+    public void shouldDiscardInstancesCachedBeforeEviction() throws Exception {
+        // Given
+        SecretKeySpec key = new SecretKeySpec(new byte[32], "HMACSHA256");
+        JcaInstanceCache.Slot<Mac> cached = JcaInstanceCache.mac("HmacSHA256", key);
+        cached.release();
+        JcaInstanceCache.Slot<Mac> borrowed = JcaInstanceCache.mac("HmacSHA256", key);
+
+        // When
+        JcaInstanceCache.evictAll();
+        borrowed.release();
+
+        // Then
+        JcaInstanceCache.Slot<Mac> fresh = JcaInstanceCache.mac("HmacSHA256", key);
+        fresh.release();
+        assertThat(fresh.get()).isNotSameAs(cached.get());
+        assertThat(JcaInstanceCache.mac("HmacSHA256", key).get()).isSameAs(fresh.get());
+    }
+
+    @Test
+    public void shouldNotShareInstanceThatWasNotReleased() throws Exception {
+        // Given
+        JcaInstanceCache.Slot<Signature> borrowed = JcaInstanceCache.verifier("SHA256withRSA", keyPair.getPublic());
+
+        // When
+        JcaInstanceCache.Slot<Signature> other = JcaInstanceCache.verifier("SHA256withRSA", keyPair.getPublic());
+        other.release();
+
+        // Then
+        assertThat(other.get()).isNotSameAs(borrowed.get());
+    }
+
+    @Test
+    public void shouldReinitializeCachedMacForDifferentKey() throws Exception {
+        // Given
+        byte[] secret = new byte[32];
+        HmacSigningHandler handler = new HmacSigningHandler(secret);
+        byte[] signature = handler.sign(JwsAlgorithm.HS256, DATA);
+        secret[0] = 1;
+
+        // When
+        byte[] otherSignature = new HmacSigningHandler(secret).sign(JwsAlgorithm.HS256, DATA);
+
+        // Then
+        assertThat(otherSignature).isNotEqualTo(signature);
+        assertThat(handler.sign(JwsAlgorithm.HS256, DATA)).isEqualTo(signature);
+    }
+
+    @Test
+    public void shouldVerifyRepeatedlyAfterFailedVerification() throws Exception {
+        // Given
+        RSASigningHandler signingHandler = new RSASigningHandler(keyPair.getPrivate(), SignatureUtil.getInstance());
+        RSASigningHandler verificationHandler =
+                new RSASigningHandler(keyPair.getPublic(), SignatureUtil.getInstance());
+        byte[] signature = signingHandler.sign(JwsAlgorithm.RS256, DATA);
+        byte[] tampered = signature.clone();
+        tampered[0] ^= 1;
+
+        // When
+        boolean invalid = verificationHandler.verify(JwsAlgorithm.RS256, DATA, tampered);
+        boolean valid = verificationHandler.verify(JwsAlgorithm.RS256, DATA, signature);
+
+        // Then
+        assertThat(invalid).isFalse();
+        assertThat(valid).isTrue();
+        assertThat(verificationHandler.verify(JwsAlgorithm.RS256, DATA, signature)).isTrue();
+    }
+}
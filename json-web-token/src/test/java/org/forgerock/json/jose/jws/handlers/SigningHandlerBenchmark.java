@@ -0,0 +1,140 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Wren Security.
+ */
+
+package org.forgerock.json.jose.jws.handlers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.forgerock.json.jose.jws.JwsAlgorithm;
+import org.forgerock.json.jose.jws.JwsAlgorithmType;
+import org.forgerock.util.SignatureUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures JWS signature verifications per second for each signing algorithm family.
+ * <p>
+ * The {@code handler} implementation verifies through the signing handlers, which reuse initialized JCA primitives,
+ * while the {@code uncached} implementation looks up and initializes a new {@code Mac} or {@code Signature} for
+ * every verification, as the handlers used to. Run {@link #main(String[])} to compare both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+public class SigningHandlerBenchmark {
+
+    /** A typical JWS signing input of a session token. */
+    private static final byte[] DATA = ("eyJ0eXAiOiJKV1QiLCJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJkZW1vIiwiaXNzIjoiaHR0cHM6Ly9"
+            + "leGFtcGxlLmNvbSIsImV4cCI6MTg5MzQ1NjAwMCwiaWF0IjoxNTc3ODM2ODAwfQ").getBytes(StandardCharsets.UTF_8);
+
+    @Param({ "HS256", "RS256", "ES256" })
+    private JwsAlgorithm algorithm;
+
+    @Param({ "handler", "uncached" })
+    private String implementation;
+
+    private SigningHandler verificationHandler;
+    private byte[] sharedSecret;
+    private KeyPair keyPair;
+    private byte[] jwsSignature;
+    private byte[] jcaSignature;
+
+    @Setup
+    public void setup() throws GeneralSecurityException {
+        SigningHandler signingHandler;
+        if (algorithm.getAlgorithmType() == JwsAlgorithmType.HMAC) {
+            sharedSecret = new byte[32];
+            new SecureRandom().nextBytes(sharedSecret);
+            signingHandler = new HmacSigningHandler(sharedSecret);
+            verificationHandler = signingHandler;
+        } else if (algorithm.getAlgorithmType() == JwsAlgorithmType.RSA) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            keyPair = generator.generateKeyPair();
+            signingHandler = new RSASigningHandler(keyPair.getPrivate(), SignatureUtil.getInstance());
+            verificationHandler = new RSASigningHandler(keyPair.getPublic(), SignatureUtil.getInstance());
+        } else {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            keyPair = generator.generateKeyPair();
+            signingHandler = new ECDSASigningHandler((ECPrivateKey) keyPair.getPrivate());
+            verificationHandler = new ECDSASigningHandler((ECPublicKey) keyPair.getPublic());
+        }
+        jwsSignature = signingHandler.sign(algorithm, DATA);
+        if (keyPair != null) {
+            // The JCA provider expects DER encoded ECDSA signatures rather than the JWS concatenated form
+            Signature signature = Signature.getInstance(algorithm.getAlgorithm());
+            signature.initSign(keyPair.getPrivate());
+            signature.update(DATA);
+            jcaSignature = signature.sign();
+        }
+    }
+
+    @Benchmark
+    public boolean verify() throws GeneralSecurityException {
+        if ("handler".equals(implementation)) {
+            return verificationHandler.verify(algorithm, DATA, jwsSignature);
+        }
+        if (sharedSecret != null) {
+            Mac mac = Mac.getInstance(algorithm.getAlgorithm());
+            mac.init(new SecretKeySpec(sharedSecret, algorithm.getAlgorithm().toUpperCase()));
+            return MessageDigest.isEqual(mac.doFinal(DATA), jwsSignature);
+        }
+        Signature signature = Signature.getInstance(algorithm.getAlgorithm());
+        signature.initVerify(keyPair.getPublic());
+        signature.update(DATA);
+        return signature.verify(jcaSignature);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SigningHandlerBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
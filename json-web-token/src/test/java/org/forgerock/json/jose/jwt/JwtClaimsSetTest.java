@@ -12,12 +12,15 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2016 ForgeRock AS.
+ * Portions Copyright 2026 Wren Security.
  */
 
 package org.forgerock.json.jose.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 
+import org.forgerock.json.JsonValueException;
 import org.forgerock.json.jose.exceptions.JwtRuntimeException;
 import org.testng.annotations.Test;
 
@@ -722,6 +725,94 @@ public class JwtClaimsSetTest {
         assertThat(claimsSet.getJwtId()).isNull();
     }
 
+    @Test
+    public void shouldReturnRegisteredTimesAsEpochSeconds() {
+
+        //Given
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("exp", 1500000300L);
+        claims.put("nbf", 1500000000);
+        claims.put("iat", 1500000000L);
+
+        //When
+        JwtClaimsSet claimsSet = new JwtClaimsSet(claims);
+
+        //Then
+        assertThat(claimsSet.getExpirationEpochSeconds()).isEqualTo(1500000300L);
+        assertThat(claimsSet.getNotBeforeEpochSeconds()).isEqualTo(1500000000L);
+        assertThat(claimsSet.getIssuedAtEpochSeconds()).isEqualTo(1500000000L);
+        assertThat(claimsSet.getExpirationTime()).isEqualTo(new Date(1500000300000L));
+    }
+
+    @Test
+    public void shouldReturnNoTimeForMissingTimeClaims() {
+
+        //Given
+        JwtClaimsSet claimsSet = new JwtClaimsSet();
+
+        //Then
+        assertThat(claimsSet.getExpirationEpochSeconds()).isEqualTo(JwtClaimsSet.NO_TIME);
+        assertThat(claimsSet.getNotBeforeEpochSeconds()).isEqualTo(JwtClaimsSet.NO_TIME);
+        assertThat(claimsSet.getIssuedAtEpochSeconds()).isEqualTo(JwtClaimsSet.NO_TIME);
+    }
+
+    @Test
+    public void shouldReflectChangesToRegisteredClaimsAfterTheyHaveBeenRead() {
+
+        //Given
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("iss", "ISSUER");
+        claims.put("aud", "AUDIENCE1");
+        claims.put("exp", 1500000300L);
+        JwtClaimsSet claimsSet = new JwtClaimsSet(claims);
+        assertThat(claimsSet.getIssuer()).isEqualTo("ISSUER");
+        assertThat(claimsSet.getAudience()).containsExactly("AUDIENCE1");
+
+        //When
+        claimsSet.setIssuer("OTHER_ISSUER");
+        claimsSet.addAudience("AUDIENCE2");
+        claimsSet.addAudience("AUDIENCE3");
+        claimsSet.setExpirationTime(new Date(1600000000000L));
+
+        //Then
+        assertThat(claimsSet.getIssuer()).isEqualTo("OTHER_ISSUER");
+        assertThat(claimsSet.getAudience()).containsExactly("AUDIENCE1", "AUDIENCE2", "AUDIENCE3");
+        assertThat(claimsSet.getExpirationEpochSeconds()).isEqualTo(1600000000L);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void shouldNotAllowAudienceToBeModifiedThroughGetter() {
+
+        //Given
+        JwtClaimsSet claimsSet = new JwtClaimsSet();
+        claimsSet.addAudience("AUDIENCE1");
+        claimsSet.addAudience("AUDIENCE2");
+
+        //When
+        claimsSet.getAudience().add("AUDIENCE3");
+    }
+
+    @Test
+    public void shouldOnlyFailOnReadingMalformedRegisteredClaim() {
+
+        //Given
+        JwtClaimsSet claimsSet = new JwtClaimsSet();
+        claimsSet.setSubject("SUBJECT");
+        claimsSet.put("exp", "123");
+
+        //When
+        String subject = claimsSet.getSubject();
+
+        //Then
+        assertThat(subject).isEqualTo("SUBJECT");
+        try {
+            claimsSet.getExpirationTime();
+            fail("Expected a JsonValueException");
+        } catch (JsonValueException e) {
+            assertThat(claimsSet.getSubject()).isEqualTo("SUBJECT");
+        }
+    }
+
     private Long timeInSeconds(final Date date) {
         return date.getTime() / 1000L;
     }